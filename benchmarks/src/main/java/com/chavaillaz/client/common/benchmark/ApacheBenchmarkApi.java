@@ -0,0 +1,54 @@
+package com.chavaillaz.client.common.benchmark;
+
+import static com.chavaillaz.client.common.apache.ApacheHttpUtils.defaultHttpClientBuilder;
+import static com.chavaillaz.client.common.benchmark.BenchmarkServer.URL_DOWNLOAD;
+import static com.chavaillaz.client.common.benchmark.BenchmarkServer.URL_UPLOAD;
+import static com.chavaillaz.client.common.benchmark.BenchmarkServer.URL_USER;
+import static com.chavaillaz.client.common.benchmark.BenchmarkServer.URL_USERS;
+import static org.apache.hc.client5.http.async.methods.SimpleRequestBuilder.get;
+import static org.apache.hc.client5.http.async.methods.SimpleRequestBuilder.post;
+
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import com.chavaillaz.client.common.apache.AbstractApacheHttpClient;
+import com.chavaillaz.client.common.security.AnonymousAuthentication;
+import com.chavaillaz.client.common.utility.Multipart;
+import com.chavaillaz.client.common.utility.TransferStatistics;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+
+/**
+ * Benchmark API implementation with Apache HTTP client.
+ */
+public class ApacheBenchmarkApi extends AbstractApacheHttpClient implements BenchmarkApi {
+
+    public ApacheBenchmarkApi(CloseableHttpAsyncClient client, String baseUrl) {
+        super(client, baseUrl, new AnonymousAuthentication());
+    }
+
+    public static ApacheBenchmarkApi create(String baseUrl) {
+        return new ApacheBenchmarkApi(defaultHttpClientBuilder(null).build(), baseUrl);
+    }
+
+    @Override
+    public CompletableFuture<User> getUser() {
+        return sendAsync(requestBuilder(get(), URL_USER), User.class);
+    }
+
+    @Override
+    public CompletableFuture<Stream<User>> getUsers() {
+        return sendAsyncStream(requestBuilder(get(), URL_USERS), User.class);
+    }
+
+    @Override
+    public CompletableFuture<TransferStatistics> download(Path path) {
+        return downloadAsync(requestBuilder(get(), URL_DOWNLOAD), path);
+    }
+
+    @Override
+    public CompletableFuture<User> upload(Multipart multipart) {
+        return sendAsync(requestBuilder(post(), URL_UPLOAD), multipart, User.class);
+    }
+
+}
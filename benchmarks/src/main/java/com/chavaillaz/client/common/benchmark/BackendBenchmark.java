@@ -0,0 +1,97 @@
+package com.chavaillaz.client.common.benchmark;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import com.chavaillaz.client.common.utility.Multipart;
+import com.chavaillaz.client.common.utility.TransferStatistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the HTTP clients by sending the same requests to an in-process server.
+ * The throughput and the latency distribution (p50, p99, ...) are measured,
+ * run with {@code -prof gc} to also get the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BackendBenchmark {
+
+    private static final int USERS_COUNT = 10_000;
+    private static final int BINARY_SIZE = 1024 * 1024;
+
+    @Param({"java", "apache", "okhttp", "vertx"})
+    private String backend;
+
+    private BenchmarkServer server;
+    private BenchmarkApi api;
+    private Path directory;
+    private Path download;
+    private Multipart upload;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        server = new BenchmarkServer(USERS_COUNT, BINARY_SIZE);
+        api = BenchmarkApi.create(backend, server.getBaseUrl());
+        directory = Files.createTempDirectory("benchmark");
+        download = directory.resolve("download.bin");
+        byte[] content = new byte[BINARY_SIZE];
+        new Random(0).nextBytes(content);
+        upload = new Multipart()
+                .addText("description", "Benchmark")
+                .addFile("file", Files.write(directory.resolve("upload.bin"), content));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        api.close();
+        server.close();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public User smallJson() {
+        return api.getUser().join();
+    }
+
+    @Benchmark
+    public long largeJsonArray() {
+        try (Stream<User> users = api.getUsers().join()) {
+            return users.mapToLong(User::getId).sum();
+        }
+    }
+
+    @Benchmark
+    public TransferStatistics binaryDownload() {
+        return api.download(download).join();
+    }
+
+    @Benchmark
+    public User multipartUpload() {
+        return api.upload(upload).join();
+    }
+
+}
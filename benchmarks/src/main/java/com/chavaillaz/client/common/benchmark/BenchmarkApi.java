@@ -0,0 +1,62 @@
+package com.chavaillaz.client.common.benchmark;
+
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import com.chavaillaz.client.common.utility.Multipart;
+import com.chavaillaz.client.common.utility.TransferStatistics;
+
+/**
+ * API of the benchmark server, implemented with each HTTP client.
+ */
+public interface BenchmarkApi extends AutoCloseable {
+
+    /**
+     * Creates the API implementation using the given HTTP client.
+     *
+     * @param backend The HTTP client to use ({@code java}, {@code apache}, {@code okhttp} or {@code vertx})
+     * @param baseUrl The base URL of the benchmark server
+     * @return The API implementation
+     */
+    static BenchmarkApi create(String backend, String baseUrl) {
+        return switch (backend) {
+            case "java" -> JavaBenchmarkApi.create(baseUrl);
+            case "apache" -> ApacheBenchmarkApi.create(baseUrl);
+            case "okhttp" -> OkHttpBenchmarkApi.create(baseUrl);
+            case "vertx" -> VertxBenchmarkApi.create(baseUrl);
+            default -> throw new IllegalArgumentException("Unknown backend " + backend);
+        };
+    }
+
+    /**
+     * Gets a single user (small JSON object).
+     *
+     * @return A {@link CompletableFuture} with the user
+     */
+    CompletableFuture<User> getUser();
+
+    /**
+     * Gets all the users (large JSON array).
+     *
+     * @return A {@link CompletableFuture} with the stream of users
+     */
+    CompletableFuture<Stream<User>> getUsers();
+
+    /**
+     * Downloads binary content into a file.
+     *
+     * @param path The path of the file to write
+     * @return A {@link CompletableFuture} with the transfer statistics
+     */
+    CompletableFuture<TransferStatistics> download(Path path);
+
+    /**
+     * Uploads a multipart content.
+     *
+     * @param multipart The multipart content
+     * @return A {@link CompletableFuture} with the user returned
+     */
+    CompletableFuture<User> upload(Multipart multipart);
+
+}
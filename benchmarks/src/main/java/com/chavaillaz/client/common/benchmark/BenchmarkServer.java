@@ -0,0 +1,89 @@
+package com.chavaillaz.client.common.benchmark;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * In-process HTTP server returning pre-computed responses, in order to measure the clients and not the server.
+ */
+public class BenchmarkServer implements AutoCloseable {
+
+    public static final String URL_USER = "/user";
+    public static final String URL_USERS = "/users";
+    public static final String URL_DOWNLOAD = "/download";
+    public static final String URL_UPLOAD = "/upload";
+
+    private static final String CONTENT_JSON = "application/json";
+    private static final String CONTENT_BINARY = "application/octet-stream";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Creates and starts a new server listening on a random port of the loopback interface.
+     *
+     * @param usersCount   The number of users in the JSON array returned by {@link #URL_USERS}
+     * @param downloadSize The number of bytes returned by {@link #URL_DOWNLOAD}
+     * @throws IOException if the server cannot be started
+     */
+    public BenchmarkServer(int usersCount, int downloadSize) throws IOException {
+        byte[] user = user(0).getBytes(UTF_8);
+        byte[] users = IntStream.range(0, usersCount)
+                .mapToObj(BenchmarkServer::user)
+                .collect(Collectors.joining(",", "[", "]"))
+                .getBytes(UTF_8);
+        byte[] binary = new byte[downloadSize];
+        new Random(0).nextBytes(binary);
+
+        executor = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext(URL_USER, exchange -> respond(exchange, CONTENT_JSON, user));
+        server.createContext(URL_USERS, exchange -> respond(exchange, CONTENT_JSON, users));
+        server.createContext(URL_DOWNLOAD, exchange -> respond(exchange, CONTENT_BINARY, binary));
+        server.createContext(URL_UPLOAD, exchange -> respond(exchange, CONTENT_JSON, user));
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    private static String user(int id) {
+        return "{\"id\":" + id + ",\"username\":\"user" + id + "\",\"email\":\"user" + id + "@example.com\"}";
+    }
+
+    private static void respond(HttpExchange exchange, String contentType, byte[] body) throws IOException {
+        try (exchange; InputStream input = exchange.getRequestBody()) {
+            input.transferTo(OutputStream.nullOutputStream());
+            exchange.getResponseHeaders().set("Content-Type", contentType);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+        }
+    }
+
+    /**
+     * Gets the base URL to use to contact this server.
+     *
+     * @return The base URL
+     */
+    public String getBaseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+}
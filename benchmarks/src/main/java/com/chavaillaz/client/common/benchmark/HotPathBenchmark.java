@@ -0,0 +1,105 @@
+package com.chavaillaz.client.common.benchmark;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.net.URI;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import com.chavaillaz.client.common.security.AnonymousAuthentication;
+import com.chavaillaz.client.common.security.Authentication;
+import com.chavaillaz.client.common.security.PasswordAuthentication;
+import com.chavaillaz.client.common.security.TokenAuthentication;
+import com.chavaillaz.client.common.utility.Utils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Isolates each step done for every request before it reaches the HTTP client
+ * (URL building, authentication headers and cookies, serialization and deserialization).
+ * Run with {@code -prof gc} to get the allocations per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HotPathBenchmark {
+
+    private static final String USER_JSON = "{\"id\":1,\"username\":\"user1\",\"email\":\"user1@example.com\"}";
+
+    private final HotPathClient client = new HotPathClient("https://example.com/api", new AnonymousAuthentication());
+    private final Authentication password = new PasswordAuthentication("username", "password");
+    private final Authentication token = new TokenAuthentication("0123456789abcdef0123456789abcdef");
+    private final Authentication anonymous = new AnonymousAuthentication();
+    private final Authentication cookies = new AnonymousAuthentication() {
+        @Override
+        public void fillCookies(BiConsumer<String, String> addCookie) {
+            addCookie.accept("session", "0123456789abcdef");
+            addCookie.accept("locale", "en");
+        }
+    };
+    private final User user = new User(1, "user1", "user1@example.com");
+    private final byte[] userBytes = USER_JSON.getBytes(UTF_8);
+
+    @Benchmark
+    public URI urlWithoutParameters() {
+        return client.buildUrl("/users");
+    }
+
+    @Benchmark
+    public URI urlWithParameters() {
+        return client.buildUrl("/users/{0}/groups/{1}", "user1", 42);
+    }
+
+    @Benchmark
+    public Optional<String> cookieHeaderEmpty() {
+        return Utils.getCookieHeader(anonymous);
+    }
+
+    @Benchmark
+    public Optional<String> cookieHeader() {
+        return Utils.getCookieHeader(cookies);
+    }
+
+    @Benchmark
+    public void passwordHeaders(Blackhole blackhole) {
+        password.fillHeaders((key, value) -> blackhole.consume(value));
+    }
+
+    @Benchmark
+    public void tokenHeaders(Blackhole blackhole) {
+        token.fillHeaders((key, value) -> blackhole.consume(value));
+    }
+
+    @Benchmark
+    public String serialize() {
+        return client.serialize(user);
+    }
+
+    @Benchmark
+    public byte[] serializeBytes() {
+        return client.serializeBytes(user);
+    }
+
+    @Benchmark
+    public User deserializeString() {
+        return client.deserialize(USER_JSON, User.class);
+    }
+
+    @Benchmark
+    public User deserializeBytes() {
+        return client.deserialize(userBytes, User.class);
+    }
+
+}
@@ -0,0 +1,28 @@
+package com.chavaillaz.client.common.benchmark;
+
+import java.net.URI;
+
+import com.chavaillaz.client.common.AbstractHttpClient;
+import com.chavaillaz.client.common.security.Authentication;
+
+/**
+ * Client without HTTP backend exposing the request construction steps common to all clients.
+ */
+public class HotPathClient extends AbstractHttpClient {
+
+    public HotPathClient(String baseUrl, Authentication authentication) {
+        super(baseUrl, authentication);
+    }
+
+    /**
+     * Builds the URL of a request, as done by every client.
+     *
+     * @param url        The URL with possible parameters in it
+     * @param parameters The parameters value to replace in the URL
+     * @return The complete URL
+     */
+    public URI buildUrl(String url, Object... parameters) {
+        return url(url, parameters);
+    }
+
+}
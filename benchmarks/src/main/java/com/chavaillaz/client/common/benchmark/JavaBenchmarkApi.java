@@ -0,0 +1,55 @@
+package com.chavaillaz.client.common.benchmark;
+
+import static com.chavaillaz.client.common.benchmark.BenchmarkServer.URL_DOWNLOAD;
+import static com.chavaillaz.client.common.benchmark.BenchmarkServer.URL_UPLOAD;
+import static com.chavaillaz.client.common.benchmark.BenchmarkServer.URL_USER;
+import static com.chavaillaz.client.common.benchmark.BenchmarkServer.URL_USERS;
+import static com.chavaillaz.client.common.java.JavaHttpUtils.defaultHttpClientBuilder;
+import static com.chavaillaz.client.common.java.JavaHttpUtils.multipart;
+
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import com.chavaillaz.client.common.java.AbstractJavaHttpClient;
+import com.chavaillaz.client.common.security.AnonymousAuthentication;
+import com.chavaillaz.client.common.utility.Multipart;
+import com.chavaillaz.client.common.utility.TransferStatistics;
+
+/**
+ * Benchmark API implementation with Java HTTP client.
+ */
+public class JavaBenchmarkApi extends AbstractJavaHttpClient implements BenchmarkApi {
+
+    public JavaBenchmarkApi(HttpClient client, String baseUrl) {
+        super(client, baseUrl, new AnonymousAuthentication());
+    }
+
+    public static JavaBenchmarkApi create(String baseUrl) {
+        return new JavaBenchmarkApi(defaultHttpClientBuilder(null).build(), baseUrl);
+    }
+
+    @Override
+    public CompletableFuture<User> getUser() {
+        return sendAsync(requestBuilder(URL_USER).GET(), User.class);
+    }
+
+    @Override
+    public CompletableFuture<Stream<User>> getUsers() {
+        return sendAsyncStream(requestBuilder(URL_USERS).GET(), User.class);
+    }
+
+    @Override
+    public CompletableFuture<TransferStatistics> download(Path path) {
+        return downloadAsync(requestBuilder(URL_DOWNLOAD).GET(), path);
+    }
+
+    @Override
+    public CompletableFuture<User> upload(Multipart multipart) {
+        return sendAsync(requestBuilder(URL_UPLOAD)
+                .setHeader(HEADER_CONTENT_TYPE, multipart.getContentType())
+                .POST(multipart(multipart)), User.class);
+    }
+
+}
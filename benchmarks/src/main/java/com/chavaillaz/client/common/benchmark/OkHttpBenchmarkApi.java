@@ -0,0 +1,53 @@
+package com.chavaillaz.client.common.benchmark;
+
+import static com.chavaillaz.client.common.benchmark.BenchmarkServer.URL_DOWNLOAD;
+import static com.chavaillaz.client.common.benchmark.BenchmarkServer.URL_UPLOAD;
+import static com.chavaillaz.client.common.benchmark.BenchmarkServer.URL_USER;
+import static com.chavaillaz.client.common.benchmark.BenchmarkServer.URL_USERS;
+import static com.chavaillaz.client.common.okhttp.OkHttpUtils.defaultHttpClientBuilder;
+import static com.chavaillaz.client.common.okhttp.OkHttpUtils.multipart;
+
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import com.chavaillaz.client.common.okhttp.AbstractOkHttpClient;
+import com.chavaillaz.client.common.security.AnonymousAuthentication;
+import com.chavaillaz.client.common.utility.Multipart;
+import com.chavaillaz.client.common.utility.TransferStatistics;
+import okhttp3.OkHttpClient;
+
+/**
+ * Benchmark API implementation with OkHttp client.
+ */
+public class OkHttpBenchmarkApi extends AbstractOkHttpClient implements BenchmarkApi {
+
+    public OkHttpBenchmarkApi(OkHttpClient client, String baseUrl) {
+        super(client, baseUrl, new AnonymousAuthentication());
+    }
+
+    public static OkHttpBenchmarkApi create(String baseUrl) {
+        return new OkHttpBenchmarkApi(defaultHttpClientBuilder(null).build(), baseUrl);
+    }
+
+    @Override
+    public CompletableFuture<User> getUser() {
+        return sendAsync(requestBuilder(URL_USER).get(), User.class);
+    }
+
+    @Override
+    public CompletableFuture<Stream<User>> getUsers() {
+        return sendAsyncStream(requestBuilder(URL_USERS).get(), User.class);
+    }
+
+    @Override
+    public CompletableFuture<TransferStatistics> download(Path path) {
+        return downloadAsync(requestBuilder(URL_DOWNLOAD).get(), path);
+    }
+
+    @Override
+    public CompletableFuture<User> upload(Multipart multipart) {
+        return sendAsync(requestBuilder(URL_UPLOAD).post(multipart(multipart)), User.class);
+    }
+
+}
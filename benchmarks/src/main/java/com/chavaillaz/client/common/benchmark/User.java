@@ -0,0 +1,19 @@
+package com.chavaillaz.client.common.benchmark;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Domain object exchanged with the benchmark server.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class User {
+
+    private long id;
+    private String username;
+    private String email;
+
+}
@@ -0,0 +1,70 @@
+package com.chavaillaz.client.common.benchmark;
+
+import static com.chavaillaz.client.common.benchmark.BenchmarkServer.URL_DOWNLOAD;
+import static com.chavaillaz.client.common.benchmark.BenchmarkServer.URL_UPLOAD;
+import static com.chavaillaz.client.common.benchmark.BenchmarkServer.URL_USER;
+import static com.chavaillaz.client.common.benchmark.BenchmarkServer.URL_USERS;
+import static com.chavaillaz.client.common.vertx.VertxUtils.defaultWebClientOptions;
+import static io.vertx.core.http.HttpMethod.GET;
+import static io.vertx.core.http.HttpMethod.POST;
+
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import com.chavaillaz.client.common.security.AnonymousAuthentication;
+import com.chavaillaz.client.common.utility.Multipart;
+import com.chavaillaz.client.common.utility.TransferStatistics;
+import com.chavaillaz.client.common.vertx.AbstractVertxHttpClient;
+import io.vertx.core.Vertx;
+import io.vertx.core.file.OpenOptions;
+import io.vertx.ext.web.client.WebClient;
+
+/**
+ * Benchmark API implementation with Vert.x client.
+ */
+public class VertxBenchmarkApi extends AbstractVertxHttpClient implements BenchmarkApi {
+
+    private final Vertx vertx;
+
+    public VertxBenchmarkApi(Vertx vertx, WebClient client, String baseUrl) {
+        super(client, baseUrl, new AnonymousAuthentication());
+        this.vertx = vertx;
+    }
+
+    public static VertxBenchmarkApi create(String baseUrl) {
+        Vertx vertx = Vertx.vertx();
+        return new VertxBenchmarkApi(vertx, WebClient.create(vertx, defaultWebClientOptions(null)), baseUrl);
+    }
+
+    @Override
+    public CompletableFuture<User> getUser() {
+        return handleAsync(requestBuilder(GET, URL_USER).send(), User.class);
+    }
+
+    @Override
+    public CompletableFuture<Stream<User>> getUsers() {
+        return handleAsyncStream(requestBuilder(GET, URL_USERS).send(), User.class);
+    }
+
+    @Override
+    public CompletableFuture<TransferStatistics> download(Path path) {
+        OpenOptions options = new OpenOptions().setWrite(true).setCreate(true).setTruncateExisting(true);
+        return vertx.fileSystem().open(path.toString(), options)
+                .toCompletionStage()
+                .toCompletableFuture()
+                .thenCompose(file -> downloadAsync(requestBuilder(GET, URL_DOWNLOAD), file));
+    }
+
+    @Override
+    public CompletableFuture<User> upload(Multipart multipart) {
+        return handleAsync(sendMultipart(requestBuilder(POST, URL_UPLOAD), multipart), User.class);
+    }
+
+    @Override
+    public void close() throws Exception {
+        super.close();
+        vertx.close();
+    }
+
+}
@@ -1,25 +1,71 @@
 package com.chavaillaz.client.common;
 
-import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_NULL;
-import static com.fasterxml.jackson.databind.MapperFeature.ACCEPT_CASE_INSENSITIVE_PROPERTIES;
-import static com.fasterxml.jackson.databind.SerializationFeature.WRITE_DATES_AS_TIMESTAMPS;
-import static org.apache.commons.lang3.StringUtils.EMPTY;
+import static com.chavaillaz.client.common.utility.Utils.getCookieHeader;
+import static com.chavaillaz.client.common.utility.Utils.onCancellation;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Spliterator.NONNULL;
+import static java.util.Spliterator.ORDERED;
+import static java.util.Spliterators.spliteratorUnknownSize;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static org.apache.commons.lang3.StringUtils.isBlank;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
-import java.text.MessageFormat;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+import com.chavaillaz.client.common.cache.ResponseCache;
+import com.chavaillaz.client.common.codec.Codec;
+import com.chavaillaz.client.common.codec.JacksonCodec;
+import com.chavaillaz.client.common.compression.Compression;
+import com.chavaillaz.client.common.compression.ContentEncoding;
+import com.chavaillaz.client.common.concurrency.ConcurrencyLimiter;
+import com.chavaillaz.client.common.concurrency.RateLimiter;
+import com.chavaillaz.client.common.concurrency.SingleFlight;
+import com.chavaillaz.client.common.exception.ContentEncodingException;
+import com.chavaillaz.client.common.exception.DeadlineExceededException;
 import com.chavaillaz.client.common.exception.DeserializationException;
 import com.chavaillaz.client.common.exception.ResponseException;
 import com.chavaillaz.client.common.exception.SerializationException;
+import com.chavaillaz.client.common.exchange.ExchangeHandler;
+import com.chavaillaz.client.common.exchange.ExchangeInterceptor;
+import com.chavaillaz.client.common.exchange.ExchangeRequest;
+import com.chavaillaz.client.common.exchange.ExchangeResponse;
+import com.chavaillaz.client.common.exchange.ExchangeStatistics;
+import com.chavaillaz.client.common.metrics.ClientMetrics;
+import com.chavaillaz.client.common.metrics.ExchangeSample;
+import com.chavaillaz.client.common.resilience.CircuitBreaker;
+import com.chavaillaz.client.common.resilience.Deadline;
+import com.chavaillaz.client.common.resilience.HedgingPolicy;
+import com.chavaillaz.client.common.resilience.RetryPolicy;
 import com.chavaillaz.client.common.security.Authentication;
+import com.chavaillaz.client.common.tracing.ClientTracing;
+import com.chavaillaz.client.common.utility.UrlTemplate;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.json.JsonMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import lombok.AccessLevel;
 import lombok.Getter;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -33,6 +79,9 @@ public abstract class AbstractHttpClient {
     public static final String HEADER_SET_COOKIE = "Set-Cookie";
     public static final String HEADER_AUTHORIZATION = "Authorization";
     public static final String HEADER_CONTENT_TYPE = "Content-Type";
+    public static final String HEADER_ACCEPT = "Accept";
+    public static final String HEADER_ACCEPT_ENCODING = "Accept-Encoding";
+    public static final String HEADER_CONTENT_ENCODING = "Content-Encoding";
     public static final String HEADER_CONTENT_JSON = "application/json";
     public static final String HEADER_CONTENT_XML = "application/xml";
     public static final String HEADER_CONTENT_FORM = "application/x-www-form-urlencoded";
@@ -40,12 +89,96 @@ public abstract class AbstractHttpClient {
     protected final Authentication authentication;
     protected final String baseUrl;
 
-    protected ObjectMapper objectMapper = JsonMapper.builder()
-            .addModule(new JavaTimeModule())
-            .serializationInclusion(NON_NULL)
-            .enable(ACCEPT_CASE_INSENSITIVE_PROPERTIES)
-            .disable(WRITE_DATES_AS_TIMESTAMPS)
-            .build();
+    protected ObjectMapper objectMapper = JacksonCodec.configure(JsonMapper.builder()).build();
+
+    /**
+     * The codec used to serialize the request bodies and to deserialize the response bodies,
+     * JSON with the {@link #objectMapper} of the client if not defined.
+     */
+    @Setter
+    protected Codec codec;
+
+    /**
+     * The cache of the responses, disabled if not defined.
+     */
+    @Setter
+    protected ResponseCache responseCache;
+
+    /**
+     * The coalescing of identical requests in flight, disabled if not defined.
+     */
+    @Setter
+    protected SingleFlight singleFlight;
+
+    /**
+     * The limitation of concurrent requests sent to each host, disabled if not defined.
+     */
+    @Setter
+    protected ConcurrencyLimiter concurrencyLimiter;
+
+    /**
+     * The limitation of the rate of requests sent to each endpoint, disabled if not defined.
+     */
+    @Setter
+    protected RateLimiter rateLimiter;
+
+    /**
+     * The policy sending again the requests failing because of a transient error, disabled if not defined.
+     */
+    @Setter
+    protected RetryPolicy retryPolicy;
+
+    /**
+     * The policy sending a second request when the response of the first one is slow, disabled if not defined.
+     */
+    @Setter
+    protected HedgingPolicy hedgingPolicy;
+
+    /**
+     * The circuit breaker failing fast the requests sent to unavailable hosts, disabled if not defined.
+     */
+    @Setter
+    protected CircuitBreaker circuitBreaker;
+
+    /**
+     * The maximum duration of the requests including all their attempts, unlimited if not defined.
+     * A shorter deadline can be given to the requests sent during a call with {@link #withDeadline(Duration, Supplier)}.
+     */
+    @Setter
+    protected Duration timeout;
+
+    /**
+     * The header in which the remaining time before the deadline of the requests is sent in milliseconds
+     * (e.g. {@code X-Request-Timeout}), so that the server can stop working on responses arriving too late,
+     * not sent if not defined.
+     */
+    @Setter
+    protected String deadlineHeader;
+
+    /**
+     * The listener of the metrics of each request sent, disabled if not defined.
+     */
+    @Setter
+    protected ClientMetrics metrics;
+
+    /**
+     * The tracing of the requests, disabled if not defined.
+     */
+    @Setter
+    protected ClientTracing tracing;
+
+    /**
+     * The compression of the request and response bodies, disabled if not defined.
+     */
+    @Setter
+    protected Compression compression;
+
+    @Getter(AccessLevel.NONE)
+    private final List<ExchangeInterceptor> interceptors = new CopyOnWriteArrayList<>();
+    @Getter(AccessLevel.NONE)
+    private final List<ExchangeInterceptor> attemptInterceptors = new CopyOnWriteArrayList<>();
+    @Getter(AccessLevel.NONE)
+    private final Map<Object, String> routes = Collections.synchronizedMap(new WeakHashMap<>());
 
     /**
      * Creates a new abstract client.
@@ -62,12 +195,372 @@ public abstract class AbstractHttpClient {
      * Creates a URL and replaces the parameters in it with the given method parameters.
      * Note that by giving a full URL (with scheme) it will not add the base URL to it.
      *
-     * @param url        The URL with possible parameters in it (using braces like {0}, {1}, ...)
+     * @param url        The URL with possible parameters in it (using braces like {0}, {1}, ... see {@link UrlTemplate})
      * @param parameters The parameters value to replace in the URL (in the right order)
      * @return The final URL incorporating parameters values
      */
     protected URI url(String url, Object... parameters) {
-        return URI.create((url.startsWith("http") ? EMPTY : this.baseUrl) + MessageFormat.format(url, parameters));
+        return URI.create(UrlTemplate.of(url).resolve(this.baseUrl, parameters));
+    }
+
+    /**
+     * Creates a URL and replaces the parameters in it with the given method parameters.
+     * Note that by giving a full URL (with scheme) it will not add the base URL to it.
+     * This is to be used by HTTP clients taking the URL as text, in order to avoid parsing it twice.
+     *
+     * @param url        The URL with possible parameters in it (using braces like {0}, {1}, ... see {@link UrlTemplate})
+     * @param parameters The parameters value to replace in the URL (in the right order)
+     * @return The final URL incorporating parameters values
+     */
+    protected String urlString(String url, Object... parameters) {
+        return UrlTemplate.of(url).resolve(this.baseUrl, parameters);
+    }
+
+    /**
+     * Creates a URL and replaces the parameters in it with the given values by name.
+     * Note that by giving a full URL (with scheme) it will not add the base URL to it.
+     *
+     * @param url        The URL with possible parameters in it (using braces like {id}, {name}, ... see {@link UrlTemplate})
+     * @param parameters The parameters value to replace in the URL by name
+     * @return The final URL incorporating parameters values
+     */
+    protected URI url(String url, Map<String, ?> parameters) {
+        return URI.create(UrlTemplate.of(url).resolve(this.baseUrl, parameters));
+    }
+
+    /**
+     * Associates the URL template used to create the given request builder with it, in order to give it as route
+     * of the requests built (see {@link ExchangeRequest#getRoute()}). The association is kept as long as the request
+     * builder is used.
+     *
+     * @param builder  The request builder
+     * @param template The URL template used (e.g. {@code /users/{0}})
+     * @param <B>      The request builder type
+     * @return The request builder
+     */
+    protected <B> B withRoute(B builder, String template) {
+        routes.put(builder, template);
+        return builder;
+    }
+
+    /**
+     * Gets the URL template used to create the given request builder (see {@link #withRoute(Object, String)}).
+     *
+     * @param builder The request builder
+     * @return The URL template or {@code null} if not known
+     */
+    protected String getRoute(Object builder) {
+        return routes.get(builder);
+    }
+
+    /**
+     * Gets the codec used to serialize the request bodies and to deserialize the response bodies.
+     *
+     * @return The codec defined or JSON with the object mapper of the client by default
+     */
+    public Codec getCodec() {
+        if (codec == null) {
+            codec = JacksonCodec.json(objectMapper);
+        }
+        return codec;
+    }
+
+    /**
+     * Gets the codec to use to deserialize a response body with the given content type.
+     * The JSON format is always understood, for example for error responses of servers
+     * not supporting the format of the codec.
+     *
+     * @param contentType The content type of the response or {@code null} if unknown
+     * @return The codec corresponding to the content type, the one of the client by default
+     */
+    public Codec getCodec(String contentType) {
+        Codec clientCodec = getCodec();
+        if (contentType == null || clientCodec.accepts(contentType)) {
+            return clientCodec;
+        }
+        Codec json = JacksonCodec.json(objectMapper);
+        return json.accepts(contentType) ? json : clientCodec;
+    }
+
+    /**
+     * Gets the value of the {@code Accept} header of the requests, asking for the format of the codec
+     * and for JSON with a lower preference when the codec uses another format.
+     *
+     * @return The accepted media types
+     */
+    protected String getAcceptHeader() {
+        String mediaType = getCodec().getMediaType();
+        return HEADER_CONTENT_JSON.equals(mediaType) ? mediaType : mediaType + ", " + HEADER_CONTENT_JSON + ";q=0.9";
+    }
+
+    /**
+     * Fills the headers common to all the requests sent by the client, whatever the HTTP client used:
+     * the content type and the accepted media types of the codec, the authentication headers
+     * and the cookies of the authentication.
+     *
+     * @param setHeader The method setting a header of the request being built
+     */
+    protected void fillHeaders(BiConsumer<String, String> setHeader) {
+        setHeader.accept(HEADER_CONTENT_TYPE, getCodec().getMediaType());
+        setHeader.accept(HEADER_ACCEPT, getAcceptHeader());
+        getAuthentication().fillHeaders(setHeader);
+        getCookieHeader(getAuthentication()).ifPresent(value -> setHeader.accept(HEADER_COOKIE, value));
+    }
+
+    /**
+     * Gets the encodings with which a response body has to be decoded, in their decoding order.
+     *
+     * @param contentEncoding The value of the {@code Content-Encoding} header of the response or {@code null}
+     * @return The encodings, empty if the compression is not defined or if the body is not compressed
+     * @throws ContentEncodingException if the compression is defined and one of the encodings is not available
+     * @see Compression#getResponseEncodings(String)
+     */
+    public List<ContentEncoding> getResponseEncodings(String contentEncoding) {
+        Compression responseCompression = compression;
+        return responseCompression != null ? responseCompression.getResponseEncodings(contentEncoding) : List.of();
+    }
+
+    /**
+     * Sends the given request with the given handler and returns the domain object of its response.
+     * All the requests returning a domain object are sent through this method by the implementations,
+     * in order to apply the features common to all HTTP clients (e.g. the response cache).
+     *
+     * @param request The request to send
+     * @param handler The handler sending the request with the HTTP client
+     * @param <T>     The domain object type
+     * @return A {@link CompletableFuture} with the deserialized domain object
+     */
+    protected <T> CompletableFuture<T> execute(ExchangeRequest request, ExchangeHandler<T> handler) {
+        CompletableFuture<ExchangeResponse<T>> future = exchange(request, handler);
+        return onCancellation(future.thenApply(ExchangeResponse::getBody), () -> future.cancel(true));
+    }
+
+    /**
+     * Runs the given call with a deadline applied to all the requests it sends, including their retries.
+     * When the deadline expires, the request in progress is cancelled and fails with a {@link DeadlineExceededException}.
+     * For example: {@code client.withDeadline(Duration.ofSeconds(2), () -> client.getUser("john"))}.
+     *
+     * @param timeout The duration before the expiration of the deadline
+     * @param call    The call sending the requests
+     * @param <T>     The type of the result of the call
+     * @return The result of the call
+     * @see Deadline#call(Supplier)
+     */
+    public <T> T withDeadline(Duration timeout, Supplier<T> call) {
+        return Deadline.after(timeout).call(call);
+    }
+
+    /**
+     * Sends the given request with the given handler, applying the features common to all HTTP clients
+     * with the chain of interceptors returned by {@link #interceptors(ExchangeRequest)}.
+     * The responses are asked compressed with the encodings of the {@link #compression} when it is defined,
+     * the implementations decoding the response bodies as they are received, except the streamed ones
+     * (see {@link ExchangeRequest#isStreamed()}) which are given as received.
+     *
+     * @param request The request to send
+     * @param handler The handler sending the request with the HTTP client
+     * @param <T>     The domain object type
+     * @return A {@link CompletableFuture} with the response
+     */
+    protected <T> CompletableFuture<ExchangeResponse<T>> exchange(ExchangeRequest request, ExchangeHandler<T> handler) {
+        if (request.getDeadline() == null) {
+            Deadline deadline = timeout != null ? Deadline.after(timeout).earliest(Deadline.current()) : Deadline.current();
+            request.setDeadline(deadline);
+        }
+        if (request.getRoute() == null) {
+            request.setRoute(ExchangeRequest.UNKNOWN_ROUTE);
+        }
+        if (compression != null && !request.isStreamed() && request.getHeader(HEADER_ACCEPT_ENCODING) == null) {
+            request.setHeader(HEADER_ACCEPT_ENCODING, compression.getAcceptEncoding());
+        }
+        return ExchangeInterceptor.chain(interceptors(request), handler).exchange(request);
+    }
+
+    /**
+     * Gets the interceptors applied to the given request, in this order: the tracing, the deadline, the interceptors
+     * added with {@link #addInterceptor}, the coalescing of identical requests, the response cache, the retries,
+     * the hedging, the circuit breaker, the metrics, the limitation of the rate and the limitation of concurrent
+     * requests, the tracing and the deadline of each attempt and the interceptors added with
+     * {@link #addAttemptInterceptor} (the ones following the hedging being applied to each request really sent).
+     * Only the features which are defined are part of the chain.
+     *
+     * @param request The request to send
+     * @return The interceptors in their calling order
+     */
+    protected List<ExchangeInterceptor> interceptors(ExchangeRequest request) {
+        List<ExchangeInterceptor> chain = new ArrayList<>();
+        ClientTracing tracer = tracing;
+        if (tracer != null) {
+            chain.add(tracer::trace);
+        }
+        if (request.getDeadline() != null) {
+            chain.add(this::expireAtDeadline);
+        }
+        chain.addAll(interceptors);
+        addDefined(chain, singleFlight, responseCache, retryPolicy, hedgingPolicy, circuitBreaker);
+        if (metrics != null) {
+            chain.add(this::measure);
+        } else {
+            addDefined(chain, rateLimiter, concurrencyLimiter);
+        }
+        if (tracer != null) {
+            chain.add(tracer::traceAttempt);
+        }
+        if (request.getDeadline() != null) {
+            chain.add(this::attemptBeforeDeadline);
+        }
+        chain.addAll(attemptInterceptors);
+        return chain;
+    }
+
+    private static void addDefined(List<ExchangeInterceptor> chain, ExchangeInterceptor... interceptors) {
+        for (ExchangeInterceptor interceptor : interceptors) {
+            if (interceptor != null) {
+                chain.add(interceptor);
+            }
+        }
+    }
+
+    /**
+     * Adds an interceptor applied once to each request sent, after the tracing and the deadline
+     * but before the other features common to all HTTP clients (e.g. to complete the response without sending
+     * the request or to transform the response before it is cached).
+     *
+     * @param interceptor The interceptor to add at the end of the ones already added
+     */
+    public void addInterceptor(ExchangeInterceptor interceptor) {
+        interceptors.add(interceptor);
+    }
+
+    /**
+     * Adds an interceptor applied to each request really sent with the HTTP client (e.g. to each retry),
+     * after all the features common to all HTTP clients (e.g. to modify the headers of each attempt).
+     *
+     * @param interceptor The interceptor to add at the end of the ones already added
+     */
+    public void addAttemptInterceptor(ExchangeInterceptor interceptor) {
+        attemptInterceptors.add(interceptor);
+    }
+
+    /**
+     * Sends the given request through the limiters and records its metrics once completed.
+     *
+     * @param request The request to send
+     * @param handler The handler sending the request with the HTTP client
+     * @param <T>     The domain object type
+     * @return A {@link CompletableFuture} with the response
+     */
+    private <T> CompletableFuture<ExchangeResponse<T>> measure(ExchangeRequest request, ExchangeHandler<T> handler) {
+        ClientMetrics listener = metrics;
+        long queued = System.nanoTime();
+        List<ExchangeInterceptor> limiters = new ArrayList<>(2);
+        addDefined(limiters, rateLimiter, concurrencyLimiter);
+        return ExchangeInterceptor.chain(limiters, next -> {
+            long sent = System.nanoTime();
+            CompletableFuture<ExchangeResponse<T>> future = handler.exchange(next);
+            if (listener == null) {
+                return future;
+            }
+            // Recording the metrics before completing the response, even if it is cancelled
+            CompletableFuture<ExchangeResponse<T>> result = onCancellation(new CompletableFuture<>(), () -> future.cancel(true));
+            future.whenComplete((response, exception) -> {
+                try {
+                    listener.record(sample(next, response, exception, sent - queued, sent));
+                } catch (RuntimeException e) {
+                    log.warn("Metrics of request {} not recorded", next, e);
+                }
+                if (exception == null) {
+                    result.complete(response);
+                } else {
+                    result.completeExceptionally(exception);
+                }
+            });
+            return result;
+        }).exchange(request);
+    }
+
+    private static ExchangeSample sample(ExchangeRequest request, ExchangeResponse<?> response, Throwable exception, long queueNanos, long sent) {
+        long totalNanos = System.nanoTime() - sent;
+        Throwable failure = exception instanceof CompletionException && exception.getCause() != null ? exception.getCause() : exception;
+        int statusCode = 0;
+        if (response != null) {
+            statusCode = response.getStatusCode();
+        } else if (failure instanceof ResponseException responseException && responseException.getStatusCode() != null) {
+            statusCode = responseException.getStatusCode();
+        }
+        ExchangeStatistics statistics = response != null ? response.getStatistics() : null;
+        return ExchangeSample.builder()
+                .method(request.getMethod())
+                .route(request.getRoute())
+                .host(request.getUri().getHost())
+                .statusCode(statusCode)
+                .exception(failure)
+                .queueNanos(queueNanos)
+                .connectNanos(statistics != null ? statistics.getConnectNanos() : -1)
+                .firstByteNanos(statistics != null ? statistics.getFirstByteNanos() : -1)
+                .deserializationNanos(statistics != null ? statistics.getDeserializationNanos() : -1)
+                .totalNanos(totalNanos)
+                .requestBytes(statistics != null ? statistics.getRequestLength() : -1)
+                .responseBytes(response != null ? response.getBodyLength() : -1)
+                .build();
+    }
+
+    /**
+     * Sends the given request if its deadline is not expired, with the remaining time in the deadline header if defined.
+     *
+     * @param request The request to send
+     * @param handler The handler sending the request with the HTTP client
+     * @param <T>     The domain object type
+     * @return A {@link CompletableFuture} with the response
+     */
+    private <T> CompletableFuture<ExchangeResponse<T>> attemptBeforeDeadline(ExchangeRequest request, ExchangeHandler<T> handler) {
+        Deadline deadline = request.getDeadline();
+        if (deadline.isExpired()) {
+            return CompletableFuture.failedFuture(deadlineExceeded(request, null));
+        }
+        if (deadlineHeader != null) {
+            request.setHeader(deadlineHeader, String.valueOf(deadline.remainingMillis()));
+        }
+        return handler.exchange(request);
+    }
+
+    /**
+     * Sends the given request and completes its response with a {@link DeadlineExceededException} when its deadline
+     * expires, cancelling the exchange in progress, the HTTP client then aborting the request sent.
+     *
+     * @param request The request to send
+     * @param handler The handler sending the request
+     * @param <T>     The domain object type
+     * @return A {@link CompletableFuture} with the response
+     */
+    private <T> CompletableFuture<ExchangeResponse<T>> expireAtDeadline(ExchangeRequest request, ExchangeHandler<T> handler) {
+        Deadline deadline = request.getDeadline();
+        CompletableFuture<ExchangeResponse<T>> future = handler.exchange(request);
+        CompletableFuture<ExchangeResponse<T>> result = onCancellation(new CompletableFuture<>(), () -> future.cancel(true));
+        // Timer removed as soon as the response is received, contrary to a delayed executor
+        CompletableFuture<Void> timer = new CompletableFuture<Void>().orTimeout(deadline.remainingNanos(), NANOSECONDS);
+        timer.whenComplete((ignored, exception) -> {
+            if (exception != null && result.completeExceptionally(deadlineExceeded(request, null))) {
+                future.cancel(true);
+            }
+        });
+        future.whenComplete((response, exception) -> {
+            timer.complete(null);
+            if (exception == null) {
+                result.complete(response);
+            } else if (deadline.isExpired()) {
+                // The timeout of the HTTP client may expire just before the deadline
+                result.completeExceptionally(deadlineExceeded(request, exception));
+            } else {
+                result.completeExceptionally(exception);
+            }
+        });
+        return result;
+    }
+
+    private static DeadlineExceededException deadlineExceeded(ExchangeRequest request, Throwable cause) {
+        Throwable exception = cause instanceof CompletionException && cause.getCause() != null ? cause.getCause() : cause;
+        return new DeadlineExceededException(request.getMethod(), request.getUri().toString(), request.getDeadline().getTimeout(), exception);
     }
 
     /**
@@ -143,6 +636,242 @@ public abstract class AbstractHttpClient {
         }
     }
 
+    /**
+     * Deserializes a JSON content to the given type, parsing it directly from its bytes.
+     *
+     * @param content The bytes of the object to deserialize
+     * @param type    The object class type
+     * @param <T>     The object type
+     * @return The object instance of the given type
+     */
+    public <T> T deserialize(byte[] content, Class<T> type) {
+        return deserialize(content, objectMapper.constructType(type));
+    }
+
+    /**
+     * Deserializes a JSON content to the given type, parsing it directly from its bytes.
+     *
+     * @param content The bytes of the object to deserialize
+     * @param type    The object class type
+     * @param <T>     The object type
+     * @return The object instance of the given type
+     */
+    public <T> T deserialize(byte[] content, JavaType type) {
+        return deserialize(content, null, type);
+    }
+
+    /**
+     * Deserializes a content to the given type, parsing it directly from its bytes
+     * with the codec corresponding to its content type (see {@link #getCodec(String)}).
+     *
+     * @param content     The bytes of the object to deserialize
+     * @param contentType The content type of the bytes or {@code null} to use the codec of the client
+     * @param type        The object class type
+     * @param <T>         The object type
+     * @return The object instance of the given type
+     */
+    public <T> T deserialize(byte[] content, String contentType, JavaType type) {
+        if (type.getRawClass() == Void.class || content == null) {
+            return null;
+        }
+
+        Codec contentCodec = getCodec(contentType);
+        try {
+            if (log.isTraceEnabled()) {
+                log.trace("Response to deserialize: {}", new String(content, UTF_8));
+            }
+            try (JsonParser parser = contentCodec.createParser(content, 0, content.length)) {
+                return readValue(contentCodec, parser, type);
+            }
+        } catch (Exception e) {
+            throw new DeserializationException(new String(content, UTF_8), type, e);
+        }
+    }
+
+    /**
+     * Deserializes a JSON content to the given type, parsing it directly from the remaining bytes of the buffer.
+     * Note that the position of the given buffer is not modified.
+     *
+     * @param content The buffer containing the object to deserialize
+     * @param type    The object class type
+     * @param <T>     The object type
+     * @return The object instance of the given type
+     */
+    public <T> T deserialize(ByteBuffer content, JavaType type) {
+        return deserialize(content, null, type);
+    }
+
+    /**
+     * Deserializes a content to the given type, parsing it directly from the remaining bytes of the buffer
+     * with the codec corresponding to its content type (see {@link #getCodec(String)}).
+     * Note that the position of the given buffer is not modified.
+     *
+     * @param content     The buffer containing the object to deserialize
+     * @param contentType The content type of the buffer or {@code null} to use the codec of the client
+     * @param type        The object class type
+     * @param <T>         The object type
+     * @return The object instance of the given type
+     */
+    public <T> T deserialize(ByteBuffer content, String contentType, JavaType type) {
+        if (content != null && content.hasArray()) {
+            if (type.getRawClass() == Void.class) {
+                return null;
+            }
+
+            Codec contentCodec = getCodec(contentType);
+            byte[] array = content.array();
+            int offset = content.arrayOffset() + content.position();
+            try (JsonParser parser = contentCodec.createParser(array, offset, content.remaining())) {
+                return readValue(contentCodec, parser, type);
+            } catch (Exception e) {
+                throw new DeserializationException(new String(array, offset, content.remaining(), UTF_8), type, e);
+            }
+        }
+        return deserialize(content != null ? new ByteBufferBackedInputStream(content.duplicate()) : null, contentType, type);
+    }
+
+    /**
+     * Deserializes a JSON content to the given type, parsing it while reading the given stream.
+     * Note that the stream is closed once the content has been parsed.
+     *
+     * @param content The stream of the object to deserialize
+     * @param type    The object class type
+     * @param <T>     The object type
+     * @return The object instance of the given type
+     */
+    public <T> T deserialize(InputStream content, Class<T> type) {
+        return deserialize(content, objectMapper.constructType(type));
+    }
+
+    /**
+     * Deserializes a JSON content to the given type, parsing it while reading the given stream.
+     * Note that the stream is closed once the content has been parsed.
+     *
+     * @param content The stream of the object to deserialize
+     * @param type    The object class type
+     * @param <T>     The object type
+     * @return The object instance of the given type
+     */
+    public <T> T deserialize(InputStream content, JavaType type) {
+        return deserialize(content, null, type);
+    }
+
+    /**
+     * Deserializes a content to the given type, parsing it while reading the given stream
+     * with the codec corresponding to its content type (see {@link #getCodec(String)}).
+     * Note that the stream is closed once the content has been parsed.
+     *
+     * @param content     The stream of the object to deserialize
+     * @param contentType The content type of the stream or {@code null} to use the codec of the client
+     * @param type        The object class type
+     * @param <T>         The object type
+     * @return The object instance of the given type
+     */
+    public <T> T deserialize(InputStream content, String contentType, JavaType type) {
+        if (type.getRawClass() == Void.class || content == null) {
+            return null;
+        }
+
+        Codec contentCodec = getCodec(contentType);
+        try (JsonParser parser = contentCodec.createParser(content)) {
+            return readValue(contentCodec, parser, type);
+        } catch (Exception e) {
+            throw new DeserializationException(type, e);
+        }
+    }
+
+    /**
+     * Deserializes lazily a JSON array, element by element, while reading the given stream.
+     * Only the element being parsed is kept in memory and the first elements are available
+     * before the end of the content is received.
+     * Note that the returned stream must be closed in order to release the given content
+     * if it is not entirely consumed.
+     *
+     * @param content     The stream of the array to deserialize
+     * @param elementType The array element class type
+     * @param <T>         The array element type
+     * @return The stream of array elements
+     */
+    public <T> Stream<T> deserializeStream(InputStream content, Class<T> elementType) {
+        return deserializeStream(content, objectMapper.constructType(elementType));
+    }
+
+    /**
+     * Deserializes lazily a JSON array, element by element, while reading the given stream.
+     * Only the element being parsed is kept in memory and the first elements are available
+     * before the end of the content is received.
+     * Note that the returned stream must be closed in order to release the given content
+     * if it is not entirely consumed.
+     *
+     * @param content     The stream of the array to deserialize
+     * @param elementType The array element class type
+     * @param <T>         The array element type
+     * @return The stream of array elements
+     */
+    public <T> Stream<T> deserializeStream(InputStream content, JavaType elementType) {
+        if (content == null) {
+            return Stream.empty();
+        }
+
+        try {
+            MappingIterator<T> iterator = getCodec().getObjectMapper().readerFor(elementType).readValues(content);
+            return StreamSupport.stream(spliteratorUnknownSize(new Iterator<T>() {
+
+                @Override
+                public boolean hasNext() {
+                    try {
+                        return iterator.hasNextValue();
+                    } catch (Exception e) {
+                        throw new DeserializationException(elementType, e);
+                    }
+                }
+
+                @Override
+                public T next() {
+                    try {
+                        return iterator.nextValue();
+                    } catch (IOException e) {
+                        throw new DeserializationException(elementType, e);
+                    }
+                }
+
+            }, ORDERED | NONNULL), false).onClose(() -> closeQuietly(iterator));
+        } catch (Exception e) {
+            closeQuietly(content);
+            throw new DeserializationException(elementType, e);
+        }
+    }
+
+    /**
+     * Closes the given resource and ignores the possible exception thrown.
+     *
+     * @param closeable The resource to close
+     */
+    protected void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            log.debug("Unable to close resource: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the value from the given parser, returning {@code null} when there is no content at all.
+     *
+     * @param codec  The codec of the content
+     * @param parser The parser of the content
+     * @param type   The object class type
+     * @param <T>    The object type
+     * @return The object instance of the given type or {@code null} if there is no content
+     * @throws IOException If the content cannot be read or parsed
+     */
+    protected <T> T readValue(Codec codec, JsonParser parser, JavaType type) throws IOException {
+        if (parser.nextToken() == null) {
+            return null;
+        }
+        return codec.readValue(parser, type);
+    }
+
     /**
      * Serializes an object to JSON.
      *
@@ -159,6 +888,49 @@ public abstract class AbstractHttpClient {
         }
     }
 
+    /**
+     * Serializes an object with the codec of the client (see {@link #getCodec()}).
+     *
+     * @param content The object to serialize
+     * @return The corresponding bytes
+     */
+    public byte[] serializeBytes(Object content) {
+        try {
+            byte[] bytes = getCodec().serialize(content);
+            log.trace("Request serialized: {} bytes", bytes.length);
+            return bytes;
+        } catch (Exception e) {
+            throw new SerializationException(content, e);
+        }
+    }
+
+    /**
+     * Serializes an object with the codec of the client (see {@link #getCodec()}),
+     * writing it directly into the given stream which is not closed.
+     *
+     * @param content The object to serialize
+     * @param output  The stream to write
+     */
+    public void serialize(Object content, OutputStream output) {
+        try {
+            getCodec().serialize(content, output);
+        } catch (Exception e) {
+            throw new SerializationException(content, e);
+        }
+    }
+
+    /**
+     * Indicates if the given status code is successful, the responses with another status code failing
+     * with the exception returned by {@link #responseException(String, String, int, String)}.
+     * This check is shared by all HTTP clients and by all the ways of sending a request.
+     *
+     * @param statusCode The status code returned
+     * @return {@code true} for the 1xx, 2xx and 3xx status codes, {@code false} otherwise
+     */
+    public boolean isSuccessful(int statusCode) {
+        return statusCode < 400;
+    }
+
     /**
      * Creates a new response exception, called in case the request didn't return a success code.
      * Override this method to parse the body returned in order to obtain an understandable error message.
@@ -1,36 +1,81 @@
 package com.chavaillaz.client.common.apache;
 
+import static com.chavaillaz.client.common.utility.Utils.onCancellation;
+import static java.lang.String.CASE_INSENSITIVE_ORDER;
 import static org.apache.commons.lang3.RandomStringUtils.randomAlphanumeric;
 import static org.apache.hc.client5.http.protocol.HttpClientContext.COOKIE_STORE;
 import static org.apache.hc.core5.http.ContentType.MULTIPART_FORM_DATA;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import com.chavaillaz.client.common.AbstractHttpClient;
+import com.chavaillaz.client.common.compression.Compression;
+import com.chavaillaz.client.common.exchange.ExchangeHandler;
+import com.chavaillaz.client.common.exchange.ExchangeRequest;
+import com.chavaillaz.client.common.exchange.ExchangeResponse;
+import com.chavaillaz.client.common.exchange.ExchangeStatistics;
+import com.chavaillaz.client.common.resilience.Deadline;
 import com.chavaillaz.client.common.security.Authentication;
+import com.chavaillaz.client.common.utility.Multipart;
+import com.chavaillaz.client.common.utility.TransferStatistics;
 import com.fasterxml.jackson.databind.JavaType;
 import lombok.SneakyThrows;
+import org.apache.hc.client5.http.async.methods.SimpleBody;
 import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
 import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
 import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.async.methods.SimpleRequestProducer;
+import org.apache.hc.client5.http.config.RequestConfig;
 import org.apache.hc.client5.http.cookie.BasicCookieStore;
 import org.apache.hc.client5.http.cookie.CookieStore;
 import org.apache.hc.client5.http.entity.mime.MultipartEntityBuilder;
 import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
 import org.apache.hc.client5.http.impl.cookie.BasicClientCookie;
 import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
 import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.HttpMessage;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
+import org.apache.hc.core5.http.nio.AsyncResponseConsumer;
+import org.apache.hc.core5.http.nio.support.BasicRequestProducer;
+import org.apache.hc.core5.http.nio.support.classic.AbstractClassicEntityProducer;
 import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.util.Timeout;
 
 /**
  * Abstract class implementing common parts for Apache HTTP.
  */
 public abstract class AbstractApacheHttpClient extends AbstractHttpClient implements AutoCloseable {
 
+    /**
+     * Executor writing the multipart entities of {@link MultipartEntityBuilder}, blocking while they are sent,
+     * in order not to block the threads of the common pool.
+     */
+    private static final Executor MULTIPART_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "multipart-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     protected final CloseableHttpAsyncClient client;
+    private final AtomicBoolean released = new AtomicBoolean();
 
     /**
      * Creates a new abstract client based on Apache HTTP client.
@@ -54,10 +99,21 @@ public abstract class AbstractApacheHttpClient extends AbstractHttpClient implem
      * @return The request builder having the URL and authentication set
      */
     protected SimpleRequestBuilder requestBuilder(SimpleRequestBuilder builder, String url, Object... parameters) {
-        builder.setUri(url(url, parameters))
-                .setHeader(HEADER_CONTENT_TYPE, HEADER_CONTENT_JSON);
-        getAuthentication().fillHeaders(builder::setHeader);
-        return builder;
+        builder.setUri(url(url, parameters));
+        fillHeaders(builder::setHeader);
+        return withRoute(builder, url);
+    }
+
+    /**
+     * Sets the body of the request with the given object serialized with the codec of the client.
+     * The object is serialized directly into bytes, given as is to the request body.
+     *
+     * @param builder The request builder to use
+     * @param object  The object to serialize
+     * @return The request builder having the body set
+     */
+    protected SimpleRequestBuilder body(SimpleRequestBuilder builder, Object object) {
+        return builder.setBody(serializeBytes(object), ContentType.create(getCodec().getMediaType()));
     }
 
     /**
@@ -74,6 +130,7 @@ public abstract class AbstractApacheHttpClient extends AbstractHttpClient implem
 
     /**
      * Sends a request and returns a domain object.
+     * The response body is given to a non-blocking parser as it is received (see {@link DeserializingResponseConsumer}).
      *
      * @param requestBuilder The request builder
      * @param returnType     The domain object type class
@@ -81,21 +138,189 @@ public abstract class AbstractApacheHttpClient extends AbstractHttpClient implem
      * @return A {@link CompletableFuture} with the deserialized domain object
      */
     protected <T> CompletableFuture<T> sendAsync(SimpleRequestBuilder requestBuilder, JavaType returnType) {
-        return sendAsyncBase(requestBuilder)
-                .thenApply(SimpleHttpResponse::getBodyText)
-                .thenApply(body -> deserialize(body, returnType));
+        return sendAsync(requestBuilder, null, returnType);
+    }
+
+    /**
+     * Sends a request and returns a domain object.
+     * The response body is given to a non-blocking parser as it is received (see {@link DeserializingResponseConsumer}).
+     *
+     * @param requestBuilder The request builder
+     * @param entityProducer The factory of the producer of the request body, called for every sending,
+     *                       or {@code null} to send the body of the request
+     * @param returnType     The domain object type
+     * @param <T>            The domain object type
+     * @return A {@link CompletableFuture} with the deserialized domain object
+     */
+    protected <T> CompletableFuture<T> sendAsync(SimpleRequestBuilder requestBuilder, Supplier<AsyncEntityProducer> entityProducer, JavaType returnType) {
+        return sendAsync(requestBuilder, entityProducer, true, returnType);
+    }
+
+    private <T> CompletableFuture<T> sendAsync(SimpleRequestBuilder requestBuilder, Supplier<AsyncEntityProducer> entityProducer,
+                                               boolean repeatable, JavaType returnType) {
+        SimpleHttpRequest request = requestBuilder.build();
+        Map<String, List<String>> headers = headers(request);
+        ExchangeRequest exchangeRequest = new ExchangeRequest(request.getMethod(), getUri(request), returnType, headers);
+        exchangeRequest.setRoute(getRoute(requestBuilder));
+        exchangeRequest.setRepeatable(repeatable);
+        return execute(exchangeRequest, exchange -> {
+            SimpleHttpRequest sent = exchange.getHeaders().equals(headers) ? request : withHeaders(request, exchange);
+            if (exchange.getDeadline() != null) {
+                sent = withTimeout(sent, exchange.getDeadline());
+            }
+            AsyncEntityProducer producer = entityProducer != null ? entityProducer.get() : null;
+            if (producer == null) {
+                sent = withEncodedBody(sent);
+            }
+            ExchangeStatistics statistics = new ExchangeStatistics(producer != null ? producer.getContentLength() : bodyLength(sent));
+            DeserializingResponseConsumer<T> consumer = new DeserializingResponseConsumer<>(this, sent, returnType, statistics);
+            CompletableFuture<T> future = producer != null
+                    ? sendAsyncBase(sent, producer, consumer)
+                    : sendAsyncBase(sent, consumer);
+            return onCancellation(future.thenApply(body -> new ExchangeResponse<T>(
+                    consumer.getResponse().getCode(),
+                    headers(consumer.getResponse()),
+                    body,
+                    consumer.getLength()).withStatistics(statistics)), () -> future.cancel(true));
+        });
+    }
+
+    /**
+     * Gets the length of the body of the given request.
+     *
+     * @param request The request to send
+     * @return The number of bytes
+     */
+    private static long bodyLength(SimpleHttpRequest request) {
+        byte[] body = request.getBody() != null ? request.getBody().getBodyBytes() : null;
+        return body != null ? body.length : 0;
+    }
+
+    /**
+     * Gets the given request with the headers of the exchange request, which may have been modified.
+     *
+     * @param request  The request to send
+     * @param exchange The exchange request of the request
+     * @return A copy of the request with the headers of the exchange request
+     */
+    protected SimpleHttpRequest withHeaders(SimpleHttpRequest request, ExchangeRequest exchange) {
+        SimpleRequestBuilder builder = SimpleRequestBuilder.copy(request)
+                .setRequestConfig(request.getConfig())
+                .setHeaders();
+        exchange.getHeaders().forEach((name, values) -> values.forEach(value -> builder.addHeader(name, value)));
+        return builder.build();
+    }
+
+    /**
+     * Gets the given request with its body compressed with the request encoding of the {@link #compression}
+     * when the length of the body reaches its threshold.
+     *
+     * @param request The request to send
+     * @return A copy of the request with the compressed body or the same request if its body does not have to be compressed
+     */
+    protected SimpleHttpRequest withEncodedBody(SimpleHttpRequest request) {
+        Compression bodyCompression = compression;
+        SimpleBody body = request.getBody();
+        byte[] bytes = body != null ? body.getBodyBytes() : null;
+        if (bodyCompression == null
+                || bytes == null
+                || !bodyCompression.isRequestEncoded(bytes.length)
+                || request.getFirstHeader(HEADER_CONTENT_ENCODING) != null) {
+            return request;
+        }
+        return SimpleRequestBuilder.copy(request)
+                .setRequestConfig(request.getConfig())
+                .setHeader(HEADER_CONTENT_ENCODING, bodyCompression.getRequestEncoding().getName())
+                .setBody(bodyCompression.encode(bytes), body.getContentType())
+                .build();
+    }
+
+    /**
+     * Gets the given request with the remaining time before the given deadline as response timeout.
+     * Note that the request configuration replaces the default one of the client,
+     * which is therefore not applied to requests without configuration when a deadline is given.
+     *
+     * @param request  The request to send
+     * @param deadline The deadline of the request
+     * @return A copy of the request with the timeout of the deadline
+     */
+    protected SimpleHttpRequest withTimeout(SimpleHttpRequest request, Deadline deadline) {
+        RequestConfig.Builder config = request.getConfig() != null ? RequestConfig.copy(request.getConfig()) : RequestConfig.custom();
+        Timeout timeout = Timeout.ofMilliseconds(deadline.remainingMillis());
+        return SimpleRequestBuilder.copy(request)
+                .setRequestConfig(config.setConnectionRequestTimeout(timeout).setResponseTimeout(timeout).build())
+                .build();
+    }
+
+    /**
+     * Gets the headers of the given message by name.
+     *
+     * @param message The request or response
+     * @return The headers values by name
+     */
+    protected static Map<String, List<String>> headers(HttpMessage message) {
+        Map<String, List<String>> headers = new TreeMap<>(CASE_INSENSITIVE_ORDER);
+        for (Header header : message.getHeaders()) {
+            headers.computeIfAbsent(header.getName(), name -> new ArrayList<>(1)).add(header.getValue());
+        }
+        return headers;
+    }
+
+    @SneakyThrows
+    private static URI getUri(SimpleHttpRequest request) {
+        return request.getUri();
+    }
+
+    /**
+     * Sends a request and returns a stream of the JSON array elements received, deserialized lazily.
+     * Note that the returned stream must be closed if it is not entirely consumed.
+     *
+     * @param requestBuilder The request builder
+     * @param elementType    The array element type class
+     * @param <T>            The array element type
+     * @return A {@link CompletableFuture} with the stream of elements, completed when receiving the response headers
+     */
+    protected <T> CompletableFuture<Stream<T>> sendAsyncStream(SimpleRequestBuilder requestBuilder, Class<T> elementType) {
+        return sendAsyncStream(requestBuilder, objectMapper.constructType(elementType));
+    }
+
+    /**
+     * Sends a request and returns a stream of the JSON array elements received, deserialized lazily.
+     * Note that the returned stream must be closed if it is not entirely consumed.
+     *
+     * @param requestBuilder The request builder
+     * @param elementType    The array element type
+     * @param <T>            The array element type
+     * @return A {@link CompletableFuture} with the stream of elements, completed when receiving the response headers
+     */
+    protected <T> CompletableFuture<Stream<T>> sendAsyncStream(SimpleRequestBuilder requestBuilder, JavaType elementType) {
+        return sendAsync(requestBuilder)
+                .thenApply(stream -> deserializeStream(stream, elementType));
     }
 
     /**
      * Sends a request and returns an input stream.
+     * The response body is read from the connection as the stream is consumed (see {@link InputStreamResponseConsumer}).
      *
      * @param requestBuilder The request builder
-     * @return A {@link CompletableFuture} with the input stream
+     * @return A {@link CompletableFuture} with the input stream, completed when receiving the response headers
      */
     protected CompletableFuture<InputStream> sendAsync(SimpleRequestBuilder requestBuilder) {
-        return sendAsyncBase(requestBuilder)
-                .thenApply(SimpleHttpResponse::getBodyBytes)
-                .thenApply(ByteArrayInputStream::new);
+        return sendAsyncStreamed(requestBuilder, InputStream.class, request -> {
+            ExchangeStatistics statistics = new ExchangeStatistics(bodyLength(request));
+            InputStreamResponseConsumer responseConsumer = new InputStreamResponseConsumer(this, request);
+            CompletableFuture<InputStream> future = sendAsyncBase(request, responseConsumer);
+            future.exceptionally(exception -> {
+                responseConsumer.getInputStream().completeExceptionally(exception);
+                return null;
+            });
+            // Completed asynchronously as reading the stream in the I/O reactor thread would block it
+            return onCancellation(responseConsumer.getInputStream().thenApplyAsync(stream -> new ExchangeResponse<>(
+                    responseConsumer.getResponse().getCode(),
+                    headers(responseConsumer.getResponse()),
+                    stream,
+                    -1).withStatistics(statistics)), () -> future.cancel(true));
+        });
     }
 
     /**
@@ -105,14 +330,103 @@ public abstract class AbstractApacheHttpClient extends AbstractHttpClient implem
      * @return A {@link CompletableFuture} with the response
      */
     protected CompletableFuture<SimpleHttpResponse> sendAsyncBase(SimpleRequestBuilder requestBuilder) {
+        return sendAsyncStreamed(requestBuilder, SimpleHttpResponse.class, request -> {
+            ExchangeStatistics statistics = new ExchangeStatistics(bodyLength(request));
+            CompletableFuture<SimpleHttpResponse> future = new CompletableFuture<>();
+            Future<SimpleHttpResponse> call = client.execute(request, createContext(), new CompletableFutureCallback(this, request, future));
+            return onCancellation(future.thenApply(response -> new ExchangeResponse<>(
+                    response.getCode(),
+                    headers(response),
+                    response,
+                    response.getBodyBytes() != null ? response.getBodyBytes().length : 0).withStatistics(statistics)), () -> call.cancel(true));
+        });
+    }
+
+    /**
+     * Sends a request with the features common to all HTTP clients (see {@link #execute(ExchangeRequest, ExchangeHandler)}),
+     * its response not being deserialized but given as it is received (see {@link ExchangeRequest#isStreamed()}).
+     *
+     * @param requestBuilder The request builder
+     * @param resultType     The type of the result of the request
+     * @param attempt        The function sending the given request for each attempt
+     * @param <T>            The result type
+     * @return A {@link CompletableFuture} with the result of the request
+     */
+    protected <T> CompletableFuture<T> sendAsyncStreamed(SimpleRequestBuilder requestBuilder, Class<T> resultType,
+                                                         Function<SimpleHttpRequest, CompletableFuture<ExchangeResponse<T>>> attempt) {
         SimpleHttpRequest request = requestBuilder.build();
-        CompletableFuture<SimpleHttpResponse> completableFuture = new CompletableFuture<>();
-        client.execute(request, createContext(), new CompletableFutureCallback(this, request, completableFuture));
-        return completableFuture;
+        Map<String, List<String>> headers = headers(request);
+        ExchangeRequest exchangeRequest = new ExchangeRequest(request.getMethod(), getUri(request), objectMapper.constructType(resultType), headers);
+        exchangeRequest.setRoute(getRoute(requestBuilder));
+        exchangeRequest.setStreamed(true);
+        return execute(exchangeRequest, exchange -> {
+            SimpleHttpRequest sent = exchange.getHeaders().equals(headers) ? request : withHeaders(request, exchange);
+            if (exchange.getDeadline() != null) {
+                sent = withTimeout(sent, exchange.getDeadline());
+            }
+            return attempt.apply(withEncodedBody(sent));
+        });
+    }
+
+    /**
+     * Sends a request and returns the result of the given response consumer, processing the body as it is received,
+     * without the features common to all HTTP clients.
+     *
+     * @param request          The request to send
+     * @param responseConsumer The consumer of the response
+     * @param <T>              The result type
+     * @return A {@link CompletableFuture} with the result
+     */
+    protected <T> CompletableFuture<T> sendAsyncBase(SimpleHttpRequest request, AsyncResponseConsumer<T> responseConsumer) {
+        CompletableFuture<T> completableFuture = new CompletableFuture<>();
+        Future<T> call = client.execute(SimpleRequestProducer.create(request), responseConsumer, null, createContext(),
+                new StreamingFutureCallback<>(request, completableFuture));
+        return onCancellation(completableFuture, () -> call.cancel(true));
+    }
+
+    /**
+     * Sends a request and writes the response body into the given file as it is received,
+     * without keeping it in memory.
+     *
+     * @param requestBuilder The request builder
+     * @param path           The path of the file to write (created or truncated if it already exists)
+     * @return A {@link CompletableFuture} with the transfer statistics
+     */
+    protected CompletableFuture<TransferStatistics> downloadAsync(SimpleRequestBuilder requestBuilder, Path path) {
+        return sendAsyncStreamed(requestBuilder, TransferStatistics.class, request -> {
+            ExchangeStatistics statistics = new ExchangeStatistics(bodyLength(request));
+            FileResponseConsumer responseConsumer = new FileResponseConsumer(this, request, path);
+            CompletableFuture<TransferStatistics> future = sendAsyncBase(request, responseConsumer);
+            return onCancellation(future.thenApply(transfer -> new ExchangeResponse<>(
+                    responseConsumer.getResponse().getCode(),
+                    headers(responseConsumer.getResponse()),
+                    transfer,
+                    responseConsumer.getLength()).withStatistics(statistics)), () -> future.cancel(true));
+        });
+    }
+
+    /**
+     * Sends a request with the given entity producer and returns the result of the given response consumer,
+     * without the features common to all HTTP clients.
+     *
+     * @param request          The request to send, whose body is ignored
+     * @param entityProducer   The producer of the request body
+     * @param responseConsumer The consumer of the response
+     * @param <T>              The result type
+     * @return A {@link CompletableFuture} with the result
+     */
+    protected <T> CompletableFuture<T> sendAsyncBase(SimpleHttpRequest request, AsyncEntityProducer entityProducer, AsyncResponseConsumer<T> responseConsumer) {
+        CompletableFuture<T> completableFuture = new CompletableFuture<>();
+        Future<T> call = client.execute(new BasicRequestProducer(request, entityProducer), responseConsumer, null, createContext(),
+                new StreamingFutureCallback<>(request, completableFuture));
+        return onCancellation(completableFuture, () -> call.cancel(true));
     }
 
     /**
      * Sends a multipart request and returns a domain object.
+     * The multipart entity is built for each sending and written by a dedicated thread as it is sent, without being
+     * kept in memory. The request is neither retried nor hedged when one of its parts is not repeatable (e.g. a stream).
+     * Prefer {@link #sendAsync(SimpleRequestBuilder, Multipart, Class)} which does not need any additional thread.
      *
      * @param requestBuilder   The request builder
      * @param multipartBuilder The multipart builder
@@ -120,29 +434,48 @@ public abstract class AbstractApacheHttpClient extends AbstractHttpClient implem
      * @param <T>              The domain object type
      * @return A {@link CompletableFuture} with the deserialized domain object
      */
-    @SneakyThrows
     protected <T> CompletableFuture<T> sendAsync(SimpleRequestBuilder requestBuilder, MultipartEntityBuilder multipartBuilder, Class<T> returnType) {
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
         String boundary = randomAlphanumeric(16);
         multipartBuilder.setBoundary(boundary);
-        try (HttpEntity entity = multipartBuilder.build()) {
-            entity.writeTo(outputStream);
-        }
-        requestBuilder.setHeader(HEADER_CONTENT_TYPE, MULTIPART_FORM_DATA.getMimeType() + "; boundary=" + boundary)
-                .setBody(outputStream.toByteArray(), MULTIPART_FORM_DATA);
-        return sendAsync(requestBuilder, returnType);
+        ContentType contentType = ContentType.parse(MULTIPART_FORM_DATA.getMimeType() + "; boundary=" + boundary);
+        requestBuilder.setHeader(HEADER_CONTENT_TYPE, contentType.toString());
+        Supplier<AsyncEntityProducer> entityProducer = () -> {
+            HttpEntity entity = multipartBuilder.build();
+            return new AbstractClassicEntityProducer(MultipartEntityProducer.DEFAULT_BUFFER_SIZE, contentType, MULTIPART_EXECUTOR) {
+                @Override
+                protected void produceData(ContentType type, OutputStream outputStream) throws IOException {
+                    entity.writeTo(outputStream);
+                }
+            };
+        };
+        boolean repeatable = multipartBuilder.build().isRepeatable();
+        return sendAsync(requestBuilder, entityProducer, repeatable, objectMapper.constructType(returnType));
+    }
+
+    /**
+     * Sends a multipart request and returns a domain object.
+     * The files are read by chunks as the request is sent (see {@link MultipartEntityProducer}).
+     *
+     * @param requestBuilder The request builder
+     * @param multipart      The multipart content
+     * @param returnType     The domain object type class
+     * @param <T>            The domain object type
+     * @return A {@link CompletableFuture} with the deserialized domain object
+     */
+    protected <T> CompletableFuture<T> sendAsync(SimpleRequestBuilder requestBuilder, Multipart multipart, Class<T> returnType) {
+        requestBuilder.setHeader(HEADER_CONTENT_TYPE, multipart.getContentType());
+        return sendAsync(requestBuilder, () -> new MultipartEntityProducer(multipart), objectMapper.constructType(returnType));
     }
 
     /**
-     * Creates a local context for the query to be launched.
+     * Creates a local context for the query to be launched, with its own cookie store
+     * (the cookies of the authentication being sent in the {@code Cookie} header as by the other clients).
      *
      * @return The corresponding context
      */
     protected HttpContext createContext() {
         HttpContext localContext = HttpClientContext.create();
-        BasicCookieStore cookieStore = new BasicCookieStore();
-        getAuthentication().fillCookies((key, value) -> addCookie(cookieStore, key, value));
-        localContext.setAttribute(COOKIE_STORE, cookieStore);
+        localContext.setAttribute(COOKIE_STORE, new BasicCookieStore());
         return localContext;
     }
 
@@ -152,7 +485,12 @@ public abstract class AbstractApacheHttpClient extends AbstractHttpClient implem
      * @param store The cookie store
      * @param key   The cookie key
      * @param value The cookie value
+     * @deprecated The cookies of the authentication are no longer added to the cookie store of the context but
+     * sent in the {@code Cookie} header (see {@link #fillHeaders}), prefer setting this header on the request builder
+     * (see {@link com.chavaillaz.client.common.utility.Utils#getCookieHeader(List)}), the cookie stores being
+     * ignored by the shared HTTP clients
      */
+    @Deprecated(since = "2.1")
     protected void addCookie(CookieStore store, String key, String value) {
         BasicClientCookie cookie = new BasicClientCookie(key, value);
         cookie.setDomain(getBaseUrl());
@@ -162,7 +500,9 @@ public abstract class AbstractApacheHttpClient extends AbstractHttpClient implem
 
     @Override
     public void close() throws Exception {
-        client.close();
+        if (released.compareAndSet(false, true) && !ApacheHttpUtils.SHARED_CLIENTS.release(client)) {
+            client.close();
+        }
     }
 
 }
@@ -4,24 +4,33 @@ import static org.apache.hc.core5.http.ContentType.DEFAULT_BINARY;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Stream;
 
+import com.chavaillaz.client.common.utility.ConnectionConfiguration;
+import com.chavaillaz.client.common.utility.ConnectionRegistry;
 import com.chavaillaz.client.common.utility.ProxyConfiguration;
 import lombok.SneakyThrows;
 import lombok.experimental.UtilityClass;
 import org.apache.hc.client5.http.config.ConnectionConfig;
 import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.config.TlsConfig;
 import org.apache.hc.client5.http.cookie.BasicCookieStore;
 import org.apache.hc.client5.http.entity.mime.FileBody;
 import org.apache.hc.client5.http.entity.mime.MultipartEntityBuilder;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
 import org.apache.hc.client5.http.impl.async.HttpAsyncClientBuilder;
 import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
 import org.apache.hc.core5.http.HttpHost;
 import org.apache.hc.core5.http.NameValuePair;
 import org.apache.hc.core5.http.message.BasicNameValuePair;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.http2.config.H2Config;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.util.TimeValue;
 import org.apache.hc.core5.util.Timeout;
 
 /**
@@ -31,13 +40,36 @@ import org.apache.hc.core5.util.Timeout;
 public class ApacheHttpUtils {
 
     /**
-     * Creates a new asynchronous Apache HTTP client builder with default configuration (30 seconds timeout).
+     * HTTP clients shared by the clients created with the same configuration (see {@link #sharedHttpClient}).
+     */
+    static final ConnectionRegistry<CloseableHttpAsyncClient> SHARED_CLIENTS = new ConnectionRegistry<>(client -> client.close(CloseMode.GRACEFUL));
+
+    /**
+     * Creates a new asynchronous Apache HTTP client builder with default configuration (30 seconds timeout),
+     * using HTTP/2 when supported by the server (see {@link ConnectionConfiguration#http2()}).
      *
      * @param proxy The proxy configuration
      * @return The corresponding client
      */
     public static HttpAsyncClientBuilder defaultHttpClientBuilder(ProxyConfiguration proxy) {
-        return HttpAsyncClientBuilder.create()
+        return defaultHttpClientBuilder(proxy, ConnectionConfiguration.http2());
+    }
+
+    /**
+     * Creates a new asynchronous Apache HTTP client builder with default configuration (30 seconds timeout)
+     * and the given connection configuration. With HTTP/2, the requests sent to the same host are multiplexed
+     * on the same connection instead of leasing a connection for each of them.
+     *
+     * @param proxy      The proxy configuration
+     * @param connection The connection configuration
+     * @return The corresponding client
+     */
+    public static HttpAsyncClientBuilder defaultHttpClientBuilder(ProxyConfiguration proxy, ConnectionConfiguration connection) {
+        H2Config.Builder http2 = H2Config.custom()
+                .setPushEnabled(false)
+                .setMaxConcurrentStreams(connection.getMaxConcurrentStreams());
+        Optional.ofNullable(connection.getInitialWindowSize()).ifPresent(http2::setInitialWindowSize);
+        HttpAsyncClientBuilder builder = HttpAsyncClientBuilder.create()
                 .useSystemProperties()
                 .setDefaultCookieStore(new BasicCookieStore())
                 .setProxy(Optional.ofNullable(proxy)
@@ -48,10 +80,48 @@ public class ApacheHttpUtils {
                                 .setConnectTimeout(Timeout.ofSeconds(30))
                                 .setSocketTimeout(null)
                                 .build())
+                        .setDefaultTlsConfig(TlsConfig.custom()
+                                .setVersionPolicy(versionPolicy(connection.getVersion()))
+                                .build())
+                        .setMaxConnPerRoute(connection.getMaxConnectionsPerHost())
+                        .setMaxConnTotal(connection.getMaxConnections())
+                        .setMessageMultiplexing(connection.isHttp2())
                         .build())
+                .setH2Config(http2.build())
                 .setDefaultRequestConfig(RequestConfig.custom()
                         .setResponseTimeout(null)
                         .build());
+        Optional.ofNullable(connection.getKeepAliveTimeout())
+                .ifPresent(timeout -> builder.evictIdleConnections(TimeValue.ofMilliseconds(timeout.toMillis())));
+        return builder;
+    }
+
+    private static HttpVersionPolicy versionPolicy(ConnectionConfiguration.Version version) {
+        return switch (version) {
+            case HTTP_1_1 -> HttpVersionPolicy.FORCE_HTTP_1;
+            case HTTP_2 -> HttpVersionPolicy.NEGOTIATE;
+            case HTTP_2_PRIOR_KNOWLEDGE -> HttpVersionPolicy.FORCE_HTTP_2;
+        };
+    }
+
+    /**
+     * Gets the Apache HTTP client shared by all the clients created with the same configurations, creating it
+     * with {@link #defaultHttpClientBuilder(ProxyConfiguration, ConnectionConfiguration)} if not present,
+     * in order to reuse the same connections for the requests sent to the same host.
+     * It is closed when all the clients using it are closed.
+     * <p>
+     * The shared client has no cookie management, so that the cookies received by a client are not sent
+     * by the other ones: the cookies of the authentication are still sent in the {@code Cookie} header
+     * but the cookies set by the server are not kept.
+     *
+     * @param proxy      The proxy configuration
+     * @param connection The connection configuration
+     * @return The shared client
+     */
+    public static CloseableHttpAsyncClient sharedHttpClient(ProxyConfiguration proxy, ConnectionConfiguration connection) {
+        return SHARED_CLIENTS.acquire(Arrays.asList(proxy, connection), () -> defaultHttpClientBuilder(proxy, connection)
+                .disableCookieManagement()
+                .build());
     }
 
     /**
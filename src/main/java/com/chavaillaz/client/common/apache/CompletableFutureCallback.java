@@ -27,13 +27,14 @@ public class CompletableFutureCallback implements FutureCallback<SimpleHttpRespo
     @Override
     public void completed(SimpleHttpResponse response) {
         log.debug("Request {} completed: {}", request, response);
-        if (response.getCode() >= 400) {
+        if (!client.isSuccessful(response.getCode())) {
             future.completeExceptionally(
                     client.responseException(
                             request.getMethod(),
                             request.getRequestUri(),
                             response.getCode(),
-                            response.getBodyText()));
+                            response.getBodyText())
+                            .withHeaders(AbstractApacheHttpClient.headers(response)));
         } else {
             future.complete(response);
         }
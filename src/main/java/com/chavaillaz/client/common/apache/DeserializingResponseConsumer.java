@@ -0,0 +1,213 @@
+package com.chavaillaz.client.common.apache;
+
+import static com.fasterxml.jackson.core.JsonToken.NOT_AVAILABLE;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import com.chavaillaz.client.common.AbstractHttpClient;
+import com.chavaillaz.client.common.codec.Codec;
+import com.chavaillaz.client.common.compression.ContentEncoding;
+import com.chavaillaz.client.common.exception.DeserializationException;
+import com.chavaillaz.client.common.exchange.ExchangeStatistics;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import lombok.Getter;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.nio.CapacityChannel;
+
+/**
+ * Response consumer for Apache HTTP Client parsing the response body as it is received,
+ * using a non-blocking Jackson parser of the codec corresponding to the response content type,
+ * fed with every data packet. The parsed tokens are buffered until the end of the body,
+ * at which point the domain object is built. For the formats without non-blocking parser,
+ * the body bytes are buffered instead and parsed at the end.
+ * A body compressed with an encoding accepted by the compression of the client is decoded as it is received,
+ * before being given to the parser.
+ *
+ * @param <T> The domain object type
+ */
+public class DeserializingResponseConsumer<T> extends StreamingResponseConsumer<T> {
+
+    private final JavaType type;
+    @Getter
+    private final ExchangeStatistics statistics;
+    private Codec codec;
+    private JsonParser parser;
+    private TokenBuffer tokens;
+    private ByteArrayOutputStream content;
+    private String contentType;
+    private OutputStream decoder;
+    private Exception failure;
+
+    /**
+     * Creates a new deserializing response consumer.
+     *
+     * @param client  The client sending the request
+     * @param request The request sent
+     * @param type    The domain object type
+     */
+    public DeserializingResponseConsumer(AbstractHttpClient client, SimpleHttpRequest request, JavaType type) {
+        this(client, request, type, new ExchangeStatistics(-1));
+    }
+
+    /**
+     * Creates a new deserializing response consumer filling the given statistics.
+     *
+     * @param client     The client sending the request
+     * @param request    The request sent
+     * @param type       The domain object type
+     * @param statistics The statistics of the request sent
+     */
+    public DeserializingResponseConsumer(AbstractHttpClient client, SimpleHttpRequest request, JavaType type, ExchangeStatistics statistics) {
+        super(client, request);
+        this.type = type;
+        this.statistics = statistics;
+    }
+
+    @Override
+    protected void start(HttpResponse response, ContentType contentType) throws IOException {
+        statistics.onFirstByte();
+        if (type.getRawClass() != Void.class && contentType != null) {
+            this.contentType = contentType.toString();
+            this.codec = client.getCodec(this.contentType);
+            try {
+                parser = codec.getObjectMapper().getFactory().createNonBlockingByteBufferParser();
+                tokens = new TokenBuffer(parser);
+            } catch (UnsupportedOperationException e) {
+                content = new ByteArrayOutputStream();
+            }
+            Header contentEncoding = response.getFirstHeader(AbstractHttpClient.HEADER_CONTENT_ENCODING);
+            List<ContentEncoding> encodings = client.getResponseEncodings(contentEncoding != null ? contentEncoding.getValue() : null);
+            if (!encodings.isEmpty()) {
+                decoder = client.getCompression().decoder(encodings, new OutputStream() {
+
+                    @Override
+                    public void write(int b) {
+                        write(new byte[]{(byte) b}, 0, 1);
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) {
+                        process(ByteBuffer.wrap(b, off, len));
+                    }
+
+                });
+            }
+        }
+    }
+
+    @Override
+    protected void updateDataCapacity(CapacityChannel capacityChannel) throws IOException {
+        capacityChannel.update(Integer.MAX_VALUE);
+    }
+
+    @Override
+    protected void data(ByteBuffer src) throws IOException {
+        if (decoder == null) {
+            process(src);
+        } else if (src.hasArray()) {
+            decoder.write(src.array(), src.arrayOffset() + src.position(), src.remaining());
+            src.position(src.limit());
+        } else {
+            byte[] bytes = new byte[src.remaining()];
+            src.get(bytes);
+            decoder.write(bytes);
+        }
+    }
+
+    /**
+     * Processes a data packet of the decoded response body.
+     *
+     * @param src The data packet
+     */
+    private void process(ByteBuffer src) {
+        if (content != null) {
+            byte[] bytes = new byte[src.remaining()];
+            src.get(bytes);
+            content.writeBytes(bytes);
+            return;
+        }
+        if (parser != null && failure == null) {
+            long start = System.nanoTime();
+            try {
+                ((ByteBufferFeeder) parser.getNonBlockingInputFeeder()).feedInput(src);
+                readAvailableTokens();
+            } catch (Exception e) {
+                failure = e;
+            }
+            statistics.onDeserialization(System.nanoTime() - start);
+        }
+        // The parser keeps what it needs from partial tokens
+        src.position(src.limit());
+    }
+
+    @Override
+    protected T buildResult() {
+        return statistics.deserialize(this::deserialize);
+    }
+
+    private T deserialize() {
+        if (decoder != null) {
+            try {
+                decoder.close();
+            } catch (IOException e) {
+                throw new DeserializationException(type, e);
+            }
+        }
+        if (content != null) {
+            return client.deserialize(content.toByteArray(), contentType, type);
+        } else if (parser == null) {
+            return null;
+        }
+
+        try {
+            if (failure == null) {
+                parser.getNonBlockingInputFeeder().endOfInput();
+                readAvailableTokens();
+            }
+        } catch (Exception e) {
+            failure = e;
+        }
+
+        if (failure != null) {
+            throw new DeserializationException(type, failure);
+        } else if (tokens.firstToken() == null) {
+            return null;
+        }
+
+        try (JsonParser tokensParser = tokens.asParser(codec.getObjectMapper())) {
+            return codec.readValue(tokensParser, type);
+        } catch (Exception e) {
+            throw new DeserializationException(type, e);
+        }
+    }
+
+    private void readAvailableTokens() throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != NOT_AVAILABLE) {
+            tokens.copyCurrentEvent(parser);
+        }
+    }
+
+    @Override
+    public void releaseResources() {
+        if (parser != null) {
+            try {
+                parser.close();
+            } catch (IOException e) {
+                // Nothing more can be done
+            }
+        }
+    }
+
+}
@@ -0,0 +1,75 @@
+package com.chavaillaz.client.common.apache;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+import com.chavaillaz.client.common.AbstractHttpClient;
+import com.chavaillaz.client.common.utility.TransferStatistics;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.nio.CapacityChannel;
+
+/**
+ * Response consumer for Apache HTTP Client writing the response body into a file as it is received.
+ */
+public class FileResponseConsumer extends StreamingResponseConsumer<TransferStatistics> {
+
+    private final Path path;
+    private final long start = System.nanoTime();
+    private FileChannel channel;
+    private long bytes;
+
+    /**
+     * Creates a new file response consumer.
+     *
+     * @param client  The client sending the request
+     * @param request The request sent
+     * @param path    The path of the file to write (created or truncated if it already exists)
+     */
+    public FileResponseConsumer(AbstractHttpClient client, SimpleHttpRequest request, Path path) {
+        super(client, request);
+        this.path = path;
+    }
+
+    @Override
+    protected void start(HttpResponse response, ContentType contentType) throws IOException {
+        channel = FileChannel.open(path, CREATE, WRITE, TRUNCATE_EXISTING);
+    }
+
+    @Override
+    protected void updateDataCapacity(CapacityChannel capacityChannel) throws IOException {
+        capacityChannel.update(Integer.MAX_VALUE);
+    }
+
+    @Override
+    protected void data(ByteBuffer src) throws IOException {
+        while (src.hasRemaining()) {
+            bytes += channel.write(src);
+        }
+    }
+
+    @Override
+    protected TransferStatistics buildResult() throws IOException {
+        channel.close();
+        return TransferStatistics.since(start, bytes);
+    }
+
+    @Override
+    public void releaseResources() {
+        if (channel != null && channel.isOpen()) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Nothing more can be done
+            }
+        }
+    }
+
+}
@@ -0,0 +1,95 @@
+package com.chavaillaz.client.common.apache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+
+import com.chavaillaz.client.common.AbstractHttpClient;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.nio.CapacityChannel;
+import org.apache.hc.core5.http.nio.support.classic.ContentInputStream;
+import org.apache.hc.core5.http.nio.support.classic.SharedInputBuffer;
+
+/**
+ * Response consumer for Apache HTTP Client giving an input stream of the response body as soon as
+ * the response headers are received (see {@link #getInputStream()}). The data packets are buffered up to
+ * the given size and the connection is only read further when the content is consumed from the input stream.
+ * The result of the consumer itself is only given at the end of the response.
+ */
+public class InputStreamResponseConsumer extends StreamingResponseConsumer<InputStream> {
+
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private final SharedInputBuffer buffer;
+    private final InputStream stream;
+    private final CompletableFuture<InputStream> inputStream = new CompletableFuture<>();
+
+    /**
+     * Creates a new input stream response consumer with the default buffer size.
+     *
+     * @param client  The client sending the request
+     * @param request The request sent
+     */
+    public InputStreamResponseConsumer(AbstractHttpClient client, SimpleHttpRequest request) {
+        this(client, request, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a new input stream response consumer.
+     *
+     * @param client     The client sending the request
+     * @param request    The request sent
+     * @param bufferSize The maximum number of bytes received but not yet read from the stream
+     */
+    public InputStreamResponseConsumer(AbstractHttpClient client, SimpleHttpRequest request, int bufferSize) {
+        super(client, request);
+        this.buffer = new SharedInputBuffer(bufferSize);
+        this.stream = new ContentInputStream(buffer);
+    }
+
+    /**
+     * Gets the input stream of the response body, given as soon as the headers of a successful response are received.
+     * Note that this future is not completed in case of failure before, which is given by the result of the consumer.
+     *
+     * @return A {@link CompletableFuture} with the input stream
+     */
+    public CompletableFuture<InputStream> getInputStream() {
+        return inputStream;
+    }
+
+    @Override
+    protected void start(HttpResponse response, ContentType contentType) {
+        inputStream.complete(stream);
+    }
+
+    @Override
+    protected void updateDataCapacity(CapacityChannel capacityChannel) throws IOException {
+        buffer.updateCapacity(capacityChannel);
+    }
+
+    @Override
+    protected void data(ByteBuffer src) {
+        buffer.fill(src);
+    }
+
+    @Override
+    protected InputStream buildResult() {
+        buffer.markEndStream();
+        return stream;
+    }
+
+    @Override
+    public void failed(Exception cause) {
+        buffer.abort();
+        super.failed(cause);
+    }
+
+    @Override
+    public void releaseResources() {
+        // The buffer is still read after the end of the response
+    }
+
+}
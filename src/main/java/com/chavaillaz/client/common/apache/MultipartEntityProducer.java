@@ -0,0 +1,157 @@
+package com.chavaillaz.client.common.apache;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+
+import com.chavaillaz.client.common.utility.Multipart;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
+import org.apache.hc.core5.http.nio.DataStreamChannel;
+
+/**
+ * Entity producer for Apache HTTP Client writing a multipart content without blocking the I/O reactor.
+ * The files are read by chunks when the connection is ready to send more data,
+ * and the content length is given in order to avoid a chunked transfer.
+ */
+public class MultipartEntityProducer implements AsyncEntityProducer {
+
+    public static final int DEFAULT_BUFFER_SIZE = 8 * 1024;
+
+    private final Multipart multipart;
+    private final ByteBuffer fileBuffer;
+    private final Deque<Object> segments = new ArrayDeque<>();
+    private ByteBuffer current;
+    private FileChannel file;
+
+    /**
+     * Creates a new multipart entity producer with the default buffer size.
+     *
+     * @param multipart The multipart content to send
+     */
+    public MultipartEntityProducer(Multipart multipart) {
+        this(multipart, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a new multipart entity producer.
+     *
+     * @param multipart  The multipart content to send
+     * @param bufferSize The size of the buffer used to read the files
+     */
+    public MultipartEntityProducer(Multipart multipart, int bufferSize) {
+        this.multipart = multipart;
+        this.fileBuffer = ByteBuffer.allocate(bufferSize);
+        reset();
+    }
+
+    /**
+     * Prepares the segments to send, each of them being either bytes or a file part.
+     */
+    private void reset() {
+        segments.clear();
+        for (Multipart.Part part : multipart.getParts()) {
+            segments.add(multipart.getHeader(part));
+            segments.add(part.getFile() != null ? part : part.getContent());
+            segments.add(multipart.getFooter());
+        }
+        segments.add(multipart.getEnd());
+        current = null;
+    }
+
+    @Override
+    public void produce(DataStreamChannel channel) throws IOException {
+        while (current != null || nextChunk()) {
+            channel.write(current);
+            if (current.hasRemaining()) {
+                // The channel is full, resumed when it is ready again
+                return;
+            }
+            current = null;
+        }
+        channel.endStream();
+    }
+
+    /**
+     * Prepares the next chunk of data to send.
+     *
+     * @return {@code true} if there is data to send, {@code false} at the end of the content
+     * @throws IOException if an error occurs when reading a file
+     */
+    private boolean nextChunk() throws IOException {
+        if (file != null) {
+            fileBuffer.clear();
+            if (file.read(fileBuffer) >= 0) {
+                current = fileBuffer.flip();
+                return true;
+            }
+            file.close();
+            file = null;
+        }
+        Object segment = segments.poll();
+        if (segment instanceof byte[] bytes) {
+            current = ByteBuffer.wrap(bytes);
+            return true;
+        } else if (segment instanceof Multipart.Part part) {
+            file = FileChannel.open(part.getFile());
+            return nextChunk();
+        }
+        return false;
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    @Override
+    public int available() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public long getContentLength() {
+        return multipart.getContentLength();
+    }
+
+    @Override
+    public String getContentType() {
+        return multipart.getContentType();
+    }
+
+    @Override
+    public String getContentEncoding() {
+        return null;
+    }
+
+    @Override
+    public boolean isChunked() {
+        return false;
+    }
+
+    @Override
+    public Set<String> getTrailerNames() {
+        return null;
+    }
+
+    @Override
+    public void failed(Exception cause) {
+        releaseResources();
+    }
+
+    @Override
+    public void releaseResources() {
+        if (file != null) {
+            try {
+                file.close();
+            } catch (IOException e) {
+                // Nothing more to do with the file
+            }
+            file = null;
+        }
+        reset();
+    }
+
+}
@@ -0,0 +1,54 @@
+package com.chavaillaz.client.common.apache;
+
+import java.util.concurrent.CompletableFuture;
+
+import com.chavaillaz.client.common.exception.ClientException;
+import com.chavaillaz.client.common.exception.RequestException;
+import com.chavaillaz.client.common.exception.ResponseException;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.core5.concurrent.FutureCallback;
+
+/**
+ * Future callback for Apache HTTP Client in order to transfer the result of a {@link StreamingResponseConsumer}
+ * to a {@link CompletableFuture}. The response code is checked by the consumer, which fails with a
+ * {@link ResponseException} if it is not in the 2xx or 3xx range. Client failures (e.g. deserialization) are
+ * transmitted as is and other failures (e.g. timeout) are wrapped into a {@link RequestException}.
+ *
+ * @param <T> The result type
+ */
+@Slf4j
+@AllArgsConstructor
+public class StreamingFutureCallback<T> implements FutureCallback<T> {
+
+    private final SimpleHttpRequest request;
+    private final CompletableFuture<T> future;
+
+    @Override
+    public void completed(T result) {
+        log.debug("Request {} completed: {}", request, result);
+        future.complete(result);
+    }
+
+    @Override
+    public void failed(Exception exception) {
+        log.debug("Request {} failed: {}", request, exception.getMessage());
+        if (exception instanceof ClientException) {
+            future.completeExceptionally(exception);
+        } else {
+            future.completeExceptionally(
+                    new RequestException(
+                            request.getMethod(),
+                            request.getRequestUri(),
+                            exception));
+        }
+    }
+
+    @Override
+    public void cancelled() {
+        log.debug("Request {} cancelled", request);
+        future.cancel(false);
+    }
+
+}
@@ -0,0 +1,206 @@
+package com.chavaillaz.client.common.apache;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.chavaillaz.client.common.AbstractHttpClient;
+import com.chavaillaz.client.common.compression.ContentEncoding;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.nio.AsyncResponseConsumer;
+import org.apache.hc.core5.http.nio.CapacityChannel;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.util.ByteArrayBuffer;
+
+/**
+ * Response consumer for Apache HTTP Client processing the response body as it is received.
+ * In case of unsuccessful call (not 2xx or 3xx status code), the body is not given to the implementation
+ * but collected in order to fail with the exception returned by {@link AbstractHttpClient#responseException},
+ * after being decoded if it is compressed with an encoding accepted by the compression of the client.
+ * Note that the result must only be given at the end of the exchange, as Apache HTTP Client cancels
+ * an exchange whose result is already known when it is not yet fully started.
+ *
+ * @param <T> The result type
+ */
+public abstract class StreamingResponseConsumer<T> implements AsyncResponseConsumer<T> {
+
+    protected final AbstractHttpClient client;
+    protected final SimpleHttpRequest request;
+    private final AtomicBoolean done = new AtomicBoolean();
+    private volatile FutureCallback<T> resultCallback;
+    private volatile HttpResponse response;
+    private volatile ByteArrayBuffer errorBody;
+    private volatile long length;
+
+    /**
+     * Creates a new streaming response consumer.
+     *
+     * @param client  The client sending the request
+     * @param request The request sent
+     */
+    protected StreamingResponseConsumer(AbstractHttpClient client, SimpleHttpRequest request) {
+        this.client = client;
+        this.request = request;
+    }
+
+    /**
+     * Triggered when a successful response is received, before its body.
+     *
+     * @param response    The response received
+     * @param contentType The content type of the body or {@code null} if there is no body
+     * @throws IOException in case of an I/O error
+     */
+    protected abstract void start(HttpResponse response, ContentType contentType) throws IOException;
+
+    /**
+     * Triggered to update the capacity of data this consumer is prepared to process for a successful response.
+     *
+     * @param capacityChannel The channel to update with the capacity increment
+     * @throws IOException in case of an I/O error
+     */
+    protected abstract void updateDataCapacity(CapacityChannel capacityChannel) throws IOException;
+
+    /**
+     * Triggered to pass an incoming data packet of a successful response.
+     *
+     * @param src The data packet
+     * @throws IOException in case of an I/O error
+     */
+    protected abstract void data(ByteBuffer src) throws IOException;
+
+    /**
+     * Triggered to build the result when the whole body of a successful response has been processed.
+     *
+     * @return The result
+     * @throws IOException in case of an I/O error
+     */
+    protected abstract T buildResult() throws IOException;
+
+    /**
+     * Gives the result of the response.
+     * Does nothing if a result or a failure has already been given.
+     *
+     * @param result The result
+     */
+    protected void completed(T result) {
+        if (done.compareAndSet(false, true)) {
+            resultCallback.completed(result);
+        }
+    }
+
+    /**
+     * Gives the failure of the response.
+     * Does nothing if a result or a failure has already been given.
+     *
+     * @param exception The failure
+     */
+    protected void completedExceptionally(Exception exception) {
+        if (done.compareAndSet(false, true)) {
+            resultCallback.failed(exception);
+        }
+    }
+
+    /**
+     * Gets the response received.
+     *
+     * @return The response or {@code null} if not received yet
+     */
+    public HttpResponse getResponse() {
+        return response;
+    }
+
+    /**
+     * Gets the number of bytes of the successful response body received so far.
+     *
+     * @return The number of bytes
+     */
+    public long getLength() {
+        return length;
+    }
+
+    @Override
+    public void consumeResponse(HttpResponse response, EntityDetails entityDetails, HttpContext context, FutureCallback<T> resultCallback) throws HttpException, IOException {
+        this.resultCallback = resultCallback;
+        this.response = response;
+        if (!client.isSuccessful(response.getCode())) {
+            errorBody = new ByteArrayBuffer(1024);
+        } else {
+            start(response, entityDetails != null ? ContentType.parseLenient(entityDetails.getContentType()) : null);
+        }
+        if (entityDetails == null) {
+            streamEnd(null);
+        }
+    }
+
+    @Override
+    public void informationResponse(HttpResponse response, HttpContext context) {
+        // Nothing to do
+    }
+
+    @Override
+    public void updateCapacity(CapacityChannel capacityChannel) throws IOException {
+        if (errorBody != null) {
+            capacityChannel.update(Integer.MAX_VALUE);
+        } else {
+            updateDataCapacity(capacityChannel);
+        }
+    }
+
+    @Override
+    public void consume(ByteBuffer src) throws IOException {
+        if (errorBody != null) {
+            errorBody.append(src);
+        } else {
+            length += src.remaining();
+            data(src);
+        }
+    }
+
+    @Override
+    public void streamEnd(List<? extends Header> trailers) throws IOException {
+        if (errorBody != null) {
+            completedExceptionally(client.responseException(
+                    request.getMethod(),
+                    request.getRequestUri(),
+                    response.getCode(),
+                    new String(decodedErrorBody(), UTF_8))
+                    .withHeaders(AbstractApacheHttpClient.headers(response)));
+        } else {
+            try {
+                completed(buildResult());
+            } catch (RuntimeException e) {
+                completedExceptionally(e);
+            }
+        }
+    }
+
+    private byte[] decodedErrorBody() {
+        byte[] body = Arrays.copyOf(errorBody.array(), errorBody.length());
+        Header contentEncoding = response.getFirstHeader(AbstractHttpClient.HEADER_CONTENT_ENCODING);
+        try {
+            List<ContentEncoding> encodings = client.getResponseEncodings(contentEncoding != null ? contentEncoding.getValue() : null);
+            if (!encodings.isEmpty()) {
+                return client.getCompression().decode(encodings, body);
+            }
+        } catch (Exception e) {
+            // Giving the body as received
+        }
+        return body;
+    }
+
+    @Override
+    public void failed(Exception cause) {
+        releaseResources();
+    }
+
+}
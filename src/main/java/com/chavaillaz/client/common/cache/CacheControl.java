@@ -0,0 +1,46 @@
+package com.chavaillaz.client.common.cache;
+
+import static org.apache.commons.lang3.math.NumberUtils.toLong;
+
+import java.util.List;
+import java.util.Locale;
+
+import lombok.Value;
+
+/**
+ * Directives of {@code Cache-Control} headers (see RFC 9111) used by the response cache.
+ */
+@Value
+class CacheControl {
+
+    boolean noStore;
+    boolean noCache;
+    long maxAge;
+
+    /**
+     * Parses the given {@code Cache-Control} header values.
+     *
+     * @param values The header values
+     * @return The directives, with a maximum age of {@code -1} if not present
+     */
+    static CacheControl parse(List<String> values) {
+        boolean noStore = false;
+        boolean noCache = false;
+        long maxAge = -1;
+        for (String value : values) {
+            for (String directive : value.split(",")) {
+                String[] parts = directive.trim().toLowerCase(Locale.ROOT).split("=", 2);
+                switch (parts[0]) {
+                    case "no-store" -> noStore = true;
+                    case "no-cache" -> noCache = true;
+                    case "max-age" -> maxAge = parts.length > 1 ? toLong(parts[1].replace("\"", ""), -1) : -1;
+                    default -> {
+                        // Other directives not needed by a private cache
+                    }
+                }
+            }
+        }
+        return new CacheControl(noStore, noCache, maxAge);
+    }
+
+}
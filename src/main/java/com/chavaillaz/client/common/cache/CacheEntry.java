@@ -0,0 +1,69 @@
+package com.chavaillaz.client.common.cache;
+
+import java.util.Map;
+import java.util.Objects;
+
+import com.chavaillaz.client.common.exchange.ExchangeRequest;
+import lombok.Value;
+import lombok.With;
+
+/**
+ * Cached response, with its deserialized body and the information needed to know
+ * until when it can be used and how to revalidate it.
+ */
+@Value
+public class CacheEntry {
+
+    Object value;
+    String etag;
+    String lastModified;
+    @With
+    long expiresAt;
+    @With
+    boolean revalidate;
+    long length;
+    Map<String, String> vary;
+
+    /**
+     * Indicates if the entry can be used without revalidation.
+     *
+     * @param now The current time in milliseconds since the epoch
+     * @return {@code true} if the entry is fresh, {@code false} otherwise
+     */
+    public boolean isFresh(long now) {
+        return !revalidate && now < expiresAt;
+    }
+
+    /**
+     * Indicates if the entry can no longer be used, being expired without being revalidable,
+     * so that it can be evicted from the store.
+     *
+     * @param now The current time in milliseconds since the epoch
+     * @return {@code true} if the entry is obsolete, {@code false} otherwise
+     */
+    public boolean isObsolete(long now) {
+        return now >= expiresAt && !isRevalidable();
+    }
+
+    /**
+     * Indicates if the entry can be revalidated with a conditional request.
+     *
+     * @return {@code true} if the entry has an entity tag or a last modification date, {@code false} otherwise
+     */
+    public boolean isRevalidable() {
+        return etag != null || lastModified != null;
+    }
+
+    /**
+     * Indicates if the entry can be used for the given request,
+     * having the same values for the headers listed by the {@code Vary} header of the response.
+     *
+     * @param request The request
+     * @return {@code true} if the entry corresponds to the request, {@code false} otherwise
+     */
+    public boolean matches(ExchangeRequest request) {
+        return vary.entrySet().stream()
+                .allMatch(header -> Objects.equals(header.getValue(), request.getHeader(header.getKey())));
+    }
+
+}
@@ -0,0 +1,17 @@
+package com.chavaillaz.client.common.cache;
+
+import java.net.URI;
+
+import com.fasterxml.jackson.databind.JavaType;
+import lombok.Value;
+
+/**
+ * Key of a cached response, the same URI being possibly deserialized in different types.
+ */
+@Value
+public class CacheKey {
+
+    URI uri;
+    JavaType type;
+
+}
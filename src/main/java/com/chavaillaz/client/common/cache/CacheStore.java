@@ -0,0 +1,41 @@
+package com.chavaillaz.client.common.cache;
+
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Storage of the cached responses.
+ * The implementations must be thread-safe.
+ */
+public interface CacheStore {
+
+    /**
+     * Gets the entry stored with the given key, asynchronously if the store needs to read it
+     * (in order to never block the I/O threads of the HTTP clients).
+     *
+     * @param key The cache key
+     * @return A {@link CompletableFuture} with the entry or {@code null} if not present
+     */
+    CompletableFuture<CacheEntry> get(CacheKey key);
+
+    /**
+     * Stores the given entry, replacing the one having the same key.
+     *
+     * @param key   The cache key
+     * @param entry The entry to store
+     */
+    void put(CacheKey key, CacheEntry entry);
+
+    /**
+     * Removes all the entries of the given URI, whatever their type.
+     *
+     * @param uri The URI of the entries to remove
+     */
+    void remove(URI uri);
+
+    /**
+     * Removes all the entries.
+     */
+    void clear();
+
+}
@@ -0,0 +1,276 @@
+package com.chavaillaz.client.common.cache;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.Comparator.comparingLong;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * On-disk storage of the cached responses, surviving the restarts of the application.
+ * Each entry is written as JSON in a file of the given directory, the deserialized body being serialized again
+ * with the given object mapper. The entries are read, written and removed asynchronously with the given executor,
+ * in order to never block the I/O threads of the HTTP clients, one operation at a time in the order they are asked
+ * (e.g. an entry being written is not written after the removal of its URI asked afterwards).
+ * The store is bounded by the total size of its files, the least recently used entries being deleted when the
+ * maximum size is exceeded, and the entries which can no longer be used (expired without being revalidable)
+ * are deleted when read.
+ * Note that the entries which cannot be read or written are considered as absent.
+ */
+@Slf4j
+public class DiskCacheStore implements CacheStore {
+
+    /**
+     * The maximum total size of the files of the entries by default (100 MB).
+     */
+    public static final long DEFAULT_MAXIMUM_BYTES = 100L * 1024 * 1024;
+
+    private static final TypeReference<Map<String, String>> VARY_TYPE = new TypeReference<>() {
+    };
+
+    private final Path directory;
+    private final ObjectMapper objectMapper;
+    private final Executor executor;
+    private final long maximumBytes;
+    private CompletableFuture<?> last = CompletableFuture.completedFuture(null);
+    // Only used by the operations, done one at a time
+    private long size = -1;
+
+    /**
+     * Creates a new on-disk storage reading and writing its entries with the common pool,
+     * bounded by {@link #DEFAULT_MAXIMUM_BYTES}.
+     *
+     * @param directory    The directory in which storing the entries
+     * @param objectMapper The object mapper to serialize the entries
+     */
+    public DiskCacheStore(Path directory, ObjectMapper objectMapper) {
+        this(directory, objectMapper, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a new on-disk storage bounded by {@link #DEFAULT_MAXIMUM_BYTES}.
+     *
+     * @param directory    The directory in which storing the entries
+     * @param objectMapper The object mapper to serialize the entries
+     * @param executor     The executor reading and writing the entries
+     */
+    public DiskCacheStore(Path directory, ObjectMapper objectMapper, Executor executor) {
+        this(directory, objectMapper, executor, DEFAULT_MAXIMUM_BYTES);
+    }
+
+    /**
+     * Creates a new on-disk storage.
+     *
+     * @param directory    The directory in which storing the entries
+     * @param objectMapper The object mapper to serialize the entries
+     * @param executor     The executor reading and writing the entries
+     * @param maximumBytes The maximum total size of the files of the entries
+     */
+    public DiskCacheStore(Path directory, ObjectMapper objectMapper, Executor executor, long maximumBytes) {
+        this.directory = directory;
+        this.objectMapper = objectMapper;
+        this.executor = executor;
+        this.maximumBytes = maximumBytes;
+    }
+
+    @Override
+    public CompletableFuture<CacheEntry> get(CacheKey key) {
+        return submit(() -> read(key));
+    }
+
+    private CacheEntry read(CacheKey key) {
+        Path file = file(key);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            JsonNode node = objectMapper.readTree(file.toFile());
+            CacheEntry entry = new CacheEntry(
+                    objectMapper.readerFor(key.getType()).readValue(node.get("value")),
+                    node.path("etag").textValue(),
+                    node.path("lastModified").textValue(),
+                    node.path("expiresAt").longValue(),
+                    node.path("revalidate").booleanValue(),
+                    node.path("length").asLong(-1),
+                    objectMapper.convertValue(node.get("vary"), VARY_TYPE));
+            if (entry.isObsolete(System.currentTimeMillis())) {
+                delete(file);
+                return null;
+            }
+            // Keeping the entries recently used when evicting the oldest ones
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return entry;
+        } catch (Exception e) {
+            log.debug("Unable to read cache entry {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public void put(CacheKey key, CacheEntry entry) {
+        submit(() -> write(file(key), entry));
+    }
+
+    private Void write(Path file, CacheEntry entry) {
+        try {
+            ObjectNode node = objectMapper.createObjectNode()
+                    .put("etag", entry.getEtag())
+                    .put("lastModified", entry.getLastModified())
+                    .put("expiresAt", entry.getExpiresAt())
+                    .put("revalidate", entry.isRevalidate())
+                    .put("length", entry.getLength());
+            node.set("vary", objectMapper.valueToTree(entry.getVary()));
+            node.set("value", objectMapper.valueToTree(entry.getValue()));
+            Files.createDirectories(file.getParent());
+            // Written completely before being visible to avoid reading partial entries
+            Path temporary = Files.createTempFile(file.getParent(), "entry", ".tmp");
+            objectMapper.writeValue(temporary.toFile(), node);
+            long written = Files.size(temporary);
+            usage();
+            delete(file);
+            if (written > maximumBytes) {
+                Files.delete(temporary);
+                return null;
+            }
+            Files.move(temporary, file, ATOMIC_MOVE, REPLACE_EXISTING);
+            size += written;
+            evict();
+        } catch (Exception e) {
+            log.debug("Unable to write cache entry {}: {}", file, e.getMessage());
+        }
+        return null;
+    }
+
+    @Override
+    public void remove(URI uri) {
+        submit(() -> delete(directory.resolve(hash(uri.toString()))));
+    }
+
+    @Override
+    public void clear() {
+        submit(() -> delete(directory));
+    }
+
+    /**
+     * Runs the given operation with the executor once the previous operations asked are done.
+     *
+     * @param operation The operation on the files of the entries
+     * @param <V>       The result type
+     * @return A {@link CompletableFuture} with the result of the operation
+     */
+    private synchronized <V> CompletableFuture<V> submit(Supplier<V> operation) {
+        CompletableFuture<V> future = last.handle((result, exception) -> null).thenApplyAsync(ignored -> operation.get(), executor);
+        last = future;
+        // Cancelling the result given to the caller must not start the next operation before this one is done
+        return future.copy();
+    }
+
+    private Void delete(Path path) {
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try (Stream<Path> files = Files.walk(path)) {
+            files.sorted((first, second) -> second.getNameCount() - first.getNameCount())
+                    .filter(file -> !file.equals(directory))
+                    .forEach(this::deleteFile);
+        } catch (IOException e) {
+            log.debug("Unable to delete cache entries {}: {}", path, e.getMessage());
+        }
+        return null;
+    }
+
+    private void deleteFile(Path file) {
+        long length = file.toFile().length();
+        if (file.toFile().delete() && size >= 0 && isEntry(file)) {
+            size -= length;
+        }
+    }
+
+    /**
+     * Gets the total size of the files of the entries, computed from the directory the first time
+     * as it may contain the entries written before a restart.
+     *
+     * @return The number of bytes
+     * @throws IOException if the directory cannot be read
+     */
+    private long usage() throws IOException {
+        if (size < 0) {
+            try (Stream<Path> files = entries()) {
+                size = files.mapToLong(file -> file.toFile().length()).sum();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Deletes the least recently used entries until the total size of the files no longer exceeds the maximum.
+     *
+     * @throws IOException if the directory cannot be read
+     */
+    private void evict() throws IOException {
+        if (size <= maximumBytes) {
+            return;
+        }
+        List<Path> files;
+        try (Stream<Path> entries = entries()) {
+            files = entries.sorted(comparingLong(file -> file.toFile().lastModified())).toList();
+        }
+        for (Path file : files) {
+            if (size <= maximumBytes) {
+                break;
+            }
+            deleteFile(file);
+            deleteFile(file.getParent());
+        }
+    }
+
+    private Stream<Path> entries() throws IOException {
+        if (!Files.exists(directory)) {
+            return Stream.empty();
+        }
+        return Files.walk(directory).filter(this::isEntry);
+    }
+
+    private boolean isEntry(Path file) {
+        return file.getFileName().toString().endsWith(".json");
+    }
+
+    /**
+     * Gets the file of the given key, in a directory grouping all the entries of its URI.
+     *
+     * @param key The cache key
+     * @return The path of the file
+     */
+    private Path file(CacheKey key) {
+        return directory.resolve(hash(key.getUri().toString()))
+                .resolve(hash(key.getType().toCanonical()) + ".json");
+    }
+
+    @SneakyThrows
+    private static String hash(String value) {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        return HexFormat.of().formatHex(digest.digest(value.getBytes(UTF_8)));
+    }
+
+}
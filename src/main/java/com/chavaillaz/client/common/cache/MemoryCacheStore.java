@@ -0,0 +1,142 @@
+package com.chavaillaz.client.common.cache;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+
+import java.net.URI;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.ToLongFunction;
+
+/**
+ * In-memory storage of the cached responses, bounded by the total weight of its entries.
+ * The least recently used entries are evicted when the maximum weight is exceeded, and the entries which can no
+ * longer be used (expired without being revalidable) are evicted when read and at most every second when storing
+ * other entries.
+ */
+public class MemoryCacheStore implements CacheStore {
+
+    private static final long SWEEP_INTERVAL = 1000;
+
+    private final Map<CacheKey, CacheEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final long maximumWeight;
+    private final ToLongFunction<CacheEntry> weigher;
+    private long weight;
+    private long nextSweep;
+
+    /**
+     * Creates a new in-memory storage.
+     *
+     * @param maximumWeight The maximum total weight of the entries
+     * @param weigher       The function computing the weight of an entry
+     */
+    public MemoryCacheStore(long maximumWeight, ToLongFunction<CacheEntry> weigher) {
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+    }
+
+    /**
+     * Creates a new in-memory storage bounded by its number of entries.
+     *
+     * @param maximumEntries The maximum number of entries
+     * @return The in-memory storage
+     */
+    public static MemoryCacheStore maximumEntries(long maximumEntries) {
+        return new MemoryCacheStore(maximumEntries, entry -> 1);
+    }
+
+    /**
+     * Creates a new in-memory storage bounded by the length of the response bodies of its entries,
+     * a body of unknown length being counted as one kilobyte.
+     *
+     * @param maximumBytes The maximum number of bytes of the bodies
+     * @return The in-memory storage
+     */
+    public static MemoryCacheStore maximumBytes(long maximumBytes) {
+        return new MemoryCacheStore(maximumBytes, entry -> entry.getLength() >= 0 ? entry.getLength() : 1024);
+    }
+
+    @Override
+    public synchronized CompletableFuture<CacheEntry> get(CacheKey key) {
+        CacheEntry entry = entries.get(key);
+        if (entry != null && entry.isObsolete(System.currentTimeMillis())) {
+            remove(key);
+            return completedFuture(null);
+        }
+        return completedFuture(entry);
+    }
+
+    @Override
+    public synchronized void put(CacheKey key, CacheEntry entry) {
+        long now = System.currentTimeMillis();
+        if (now >= nextSweep) {
+            evictObsolete(now);
+        }
+        long entryWeight = weigher.applyAsLong(entry);
+        if (entryWeight > maximumWeight || entry.isObsolete(now)) {
+            remove(key);
+            return;
+        }
+        CacheEntry previous = entries.put(key, entry);
+        if (previous != null) {
+            weight -= weigher.applyAsLong(previous);
+        }
+        weight += entryWeight;
+        Iterator<CacheEntry> iterator = entries.values().iterator();
+        while (weight > maximumWeight && iterator.hasNext()) {
+            weight -= weigher.applyAsLong(iterator.next());
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Evicts the entries which can no longer be used, being expired without being revalidable.
+     */
+    public synchronized void evictObsolete() {
+        evictObsolete(System.currentTimeMillis());
+    }
+
+    private void evictObsolete(long now) {
+        nextSweep = now + SWEEP_INTERVAL;
+        Iterator<CacheEntry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            CacheEntry entry = iterator.next();
+            if (entry.isObsolete(now)) {
+                weight -= weigher.applyAsLong(entry);
+                iterator.remove();
+            }
+        }
+    }
+
+    private void remove(CacheKey key) {
+        CacheEntry previous = entries.remove(key);
+        if (previous != null) {
+            weight -= weigher.applyAsLong(previous);
+        }
+    }
+
+    @Override
+    public synchronized void remove(URI uri) {
+        entries.keySet().stream()
+                .filter(key -> key.getUri().equals(uri))
+                .toList()
+                .forEach(this::remove);
+    }
+
+    @Override
+    public synchronized void clear() {
+        entries.clear();
+        weight = 0;
+    }
+
+    /**
+     * Gets the number of entries stored.
+     *
+     * @return The number of entries
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+}
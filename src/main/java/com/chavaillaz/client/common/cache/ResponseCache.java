@@ -0,0 +1,233 @@
+package com.chavaillaz.client.common.cache;
+
+import static com.chavaillaz.client.common.utility.Utils.onCancellation;
+import static java.time.format.DateTimeFormatter.RFC_1123_DATE_TIME;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static org.apache.commons.lang3.math.NumberUtils.toLong;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.chavaillaz.client.common.exchange.ExchangeHandler;
+import com.chavaillaz.client.common.exchange.ExchangeInterceptor;
+import com.chavaillaz.client.common.exchange.ExchangeRequest;
+import com.chavaillaz.client.common.exchange.ExchangeResponse;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Private cache of the responses (see RFC 9111), keeping the deserialized domain objects
+ * in order to skip both the network and the deserialization when a fresh response is cached.
+ * <ul>
+ *     <li>Only the successful responses of {@code GET} requests are stored, unless their {@code Cache-Control}
+ *     header contains {@code no-store} or their {@code Vary} header is {@code *}, and the streamed responses
+ *     (e.g. input streams and downloads) are never stored</li>
+ *     <li>The freshness of a response is given by the {@code max-age} directive of its {@code Cache-Control} header,
+ *     or by its {@code Expires} header, or by the default time to live of the cache</li>
+ *     <li>Stale responses having an {@code ETag} or {@code Last-Modified} header are revalidated with a conditional
+ *     request, the cached object being returned if the server answers {@code 304 Not Modified}</li>
+ *     <li>Successful unsafe requests (e.g. {@code POST}) invalidate the cached responses of their URI</li>
+ * </ul>
+ * Note that the entries are only identified by their URI and the type of their domain object,
+ * hence a store must not be shared between clients with different authentications.
+ * Note also that the same domain object instance is given to all the callers getting a cached response
+ * and must therefore not be modified.
+ */
+public class ResponseCache implements ExchangeInterceptor {
+
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
+
+    @Getter
+    private final CacheStore store;
+
+    /**
+     * The time to live of the responses without freshness information, zero by default (always revalidated).
+     */
+    @Getter
+    @Setter
+    private Duration defaultTimeToLive = Duration.ZERO;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder revalidations = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Creates a new response cache.
+     *
+     * @param store The storage of the cached responses
+     */
+    public ResponseCache(CacheStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Sends the request, unless its response is cached and fresh.
+     *
+     * @param request The request to send
+     * @param handler The handler sending the request
+     * @param <T>     The domain object type
+     * @return A {@link CompletableFuture} with the response, cached or received
+     */
+    @Override
+    public <T> CompletableFuture<ExchangeResponse<T>> exchange(ExchangeRequest request, ExchangeHandler<T> handler) {
+        if (!"GET".equals(request.getMethod())) {
+            CompletableFuture<ExchangeResponse<T>> future = handler.exchange(request);
+            return onCancellation(future.thenApply(response -> invalidate(request, response)), () -> future.cancel(true));
+        }
+
+        CacheControl requestControl = CacheControl.parse(request.getHeaders().getOrDefault("Cache-Control", List.of()));
+        if (requestControl.isNoStore() || request.isStreamed()) {
+            return handler.exchange(request);
+        }
+
+        // Sending the request once the entry is read, the store possibly reading it asynchronously
+        CacheKey key = new CacheKey(request.getUri(), request.getReturnType());
+        CompletableFuture<CacheEntry> lookup = store.get(key);
+        AtomicReference<CompletableFuture<ExchangeResponse<T>>> sent = new AtomicReference<>();
+        return onCancellation(lookup.thenCompose(entry -> {
+            sent.set(exchange(request, handler, requestControl, key, entry));
+            return sent.get();
+        }), () -> {
+            lookup.cancel(true);
+            Optional.ofNullable(sent.get()).ifPresent(future -> future.cancel(true));
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<ExchangeResponse<T>> exchange(ExchangeRequest request, ExchangeHandler<T> handler,
+                                                                CacheControl requestControl, CacheKey key, CacheEntry entry) {
+        if (entry != null && !entry.matches(request)) {
+            entry = null;
+        }
+
+        if (entry != null && !requestControl.isNoCache() && entry.isFresh(System.currentTimeMillis())) {
+            hits.increment();
+            return completedFuture(new ExchangeResponse<>(200, Map.of(), (T) entry.getValue(), entry.getLength()));
+        } else if (entry != null && entry.isRevalidable()) {
+            revalidations.increment();
+            if (entry.getEtag() != null) {
+                request.setHeader("If-None-Match", entry.getEtag());
+            }
+            if (entry.getLastModified() != null) {
+                request.setHeader("If-Modified-Since", entry.getLastModified());
+            }
+        } else {
+            misses.increment();
+        }
+
+        CacheEntry cached = entry;
+        CompletableFuture<ExchangeResponse<T>> future = handler.exchange(request);
+        return onCancellation(future.thenApply(response -> {
+            if (response.getStatusCode() == 304 && cached != null) {
+                CacheEntry refreshed = refresh(cached, response);
+                store.put(key, refreshed);
+                return new ExchangeResponse<>(304, response.getHeaders(), (T) cached.getValue(), cached.getLength());
+            }
+            store(key, request, response);
+            return response;
+        }), () -> future.cancel(true));
+    }
+
+    private CacheEntry refresh(CacheEntry entry, ExchangeResponse<?> response) {
+        CacheControl control = CacheControl.parse(response.getHeaders("Cache-Control"));
+        return entry.withExpiresAt(expiresAt(control, response))
+                .withRevalidate(control.isNoCache());
+    }
+
+    private void store(CacheKey key, ExchangeRequest request, ExchangeResponse<?> response) {
+        CacheControl control = CacheControl.parse(response.getHeaders("Cache-Control"));
+        String vary = response.getHeader("Vary");
+        if (response.getStatusCode() != 200 || control.isNoStore() || "*".equals(vary)) {
+            return;
+        }
+
+        CacheEntry entry = new CacheEntry(
+                response.getBody(),
+                response.getHeader("ETag"),
+                response.getHeader("Last-Modified"),
+                expiresAt(control, response),
+                control.isNoCache(),
+                response.getBodyLength(),
+                vary(vary, request));
+        if (entry.isFresh(System.currentTimeMillis()) || entry.isRevalidable()) {
+            store.put(key, entry);
+        }
+    }
+
+    private <T> ExchangeResponse<T> invalidate(ExchangeRequest request, ExchangeResponse<T> response) {
+        if (!SAFE_METHODS.contains(request.getMethod()) && response.getStatusCode() < 400) {
+            store.remove(request.getUri());
+        }
+        return response;
+    }
+
+    private long expiresAt(CacheControl control, ExchangeResponse<?> response) {
+        long now = System.currentTimeMillis();
+        if (control.getMaxAge() >= 0) {
+            long age = toLong(response.getHeader("Age"), 0);
+            return now + Duration.ofSeconds(control.getMaxAge() - age).toMillis();
+        }
+        String expires = response.getHeader("Expires");
+        if (expires != null) {
+            try {
+                long date = parseDate(response.getHeader("Date"), now);
+                // Relative to the date of the server to not depend on the clocks difference
+                return now + parseDate(expires, 0) - date;
+            } catch (RuntimeException e) {
+                // Invalid dates must be considered as in the past
+                return 0;
+            }
+        }
+        return now + defaultTimeToLive.toMillis();
+    }
+
+    private static long parseDate(String date, long defaultValue) {
+        return date != null ? ZonedDateTime.parse(date, RFC_1123_DATE_TIME).toInstant().toEpochMilli() : defaultValue;
+    }
+
+    private static Map<String, String> vary(String vary, ExchangeRequest request) {
+        Map<String, String> values = new HashMap<>();
+        if (vary != null) {
+            for (String name : vary.split(",")) {
+                values.put(name.trim(), request.getHeader(name.trim()));
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Gets the number of responses returned from the cache without sending any request.
+     *
+     * @return The number of hits
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Gets the number of cached responses revalidated with a conditional request.
+     *
+     * @return The number of revalidations
+     */
+    public long getRevalidations() {
+        return revalidations.sum();
+    }
+
+    /**
+     * Gets the number of requests sent without any corresponding cached response.
+     *
+     * @return The number of misses
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+}
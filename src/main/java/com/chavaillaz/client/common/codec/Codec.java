@@ -0,0 +1,111 @@
+package com.chavaillaz.client.common.codec;
+
+import static com.fasterxml.jackson.core.JsonGenerator.Feature.AUTO_CLOSE_TARGET;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Serialization format used to write request bodies and to read response bodies.
+ * The domain types being described by Jackson types, the implementations are based on an {@link ObjectMapper}
+ * for the corresponding data format, whose default methods can be overridden when needed.
+ */
+public interface Codec {
+
+    /**
+     * Gets the media type of the format, used as {@code Content-Type} and {@code Accept} header value.
+     *
+     * @return The media type
+     */
+    String getMediaType();
+
+    /**
+     * Gets the object mapper reading and writing the format.
+     *
+     * @return The object mapper
+     */
+    ObjectMapper getObjectMapper();
+
+    /**
+     * Indicates if the given content type corresponds to the format, ignoring its parameters.
+     *
+     * @param contentType The content type (e.g. {@code application/json; charset=UTF-8})
+     * @return {@code true} if the content type corresponds to the format, {@code false} otherwise
+     */
+    default boolean accepts(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        int end = contentType.indexOf(';');
+        String mediaType = (end < 0 ? contentType : contentType.substring(0, end)).trim();
+        return mediaType.toLowerCase(Locale.ROOT).equals(getMediaType());
+    }
+
+    /**
+     * Serializes an object.
+     *
+     * @param content The object to serialize
+     * @return The serialized bytes
+     * @throws IOException If the object cannot be serialized
+     */
+    default byte[] serialize(Object content) throws IOException {
+        return getObjectMapper().writeValueAsBytes(content);
+    }
+
+    /**
+     * Serializes an object into the given stream, which is not closed.
+     *
+     * @param content The object to serialize
+     * @param output  The stream to write
+     * @throws IOException If the object cannot be serialized or written
+     */
+    default void serialize(Object content, OutputStream output) throws IOException {
+        getObjectMapper().writer()
+                .without(AUTO_CLOSE_TARGET)
+                .writeValue(output, content);
+    }
+
+    /**
+     * Creates a parser for the given bytes.
+     *
+     * @param content The bytes to parse
+     * @param offset  The offset of the content in the array
+     * @param length  The length of the content
+     * @return The parser
+     * @throws IOException If the parser cannot be created
+     */
+    default JsonParser createParser(byte[] content, int offset, int length) throws IOException {
+        return getObjectMapper().createParser(content, offset, length);
+    }
+
+    /**
+     * Creates a parser reading the given stream.
+     *
+     * @param content The stream to parse
+     * @return The parser
+     * @throws IOException If the parser cannot be created
+     */
+    default JsonParser createParser(InputStream content) throws IOException {
+        return getObjectMapper().createParser(content);
+    }
+
+    /**
+     * Reads a value from the given parser, positioned on its first token.
+     *
+     * @param parser The parser of the content
+     * @param type   The object class type
+     * @param <T>    The object type
+     * @return The object instance of the given type
+     * @throws IOException If the content cannot be read or parsed
+     */
+    default <T> T readValue(JsonParser parser, JavaType type) throws IOException {
+        return getObjectMapper().readValue(parser, type);
+    }
+
+}
@@ -0,0 +1,25 @@
+package com.chavaillaz.client.common.codec;
+
+import static com.chavaillaz.client.common.codec.JacksonCodec.configure;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Creation of the object mappers for optional data formats.
+ * Kept apart from {@link JacksonCodec} so that their classes are only loaded when they are used.
+ */
+@UtilityClass
+class DataFormats {
+
+    static ObjectMapper smile() {
+        return configure(SmileMapper.builder()).build();
+    }
+
+    static ObjectMapper cbor() {
+        return configure(CBORMapper.builder()).build();
+    }
+
+}
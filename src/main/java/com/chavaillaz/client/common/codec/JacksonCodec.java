@@ -0,0 +1,88 @@
+package com.chavaillaz.client.common.codec;
+
+import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_NULL;
+import static com.fasterxml.jackson.databind.MapperFeature.ACCEPT_CASE_INSENSITIVE_PROPERTIES;
+import static com.fasterxml.jackson.databind.SerializationFeature.WRITE_DATES_AS_TIMESTAMPS;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.cfg.MapperBuilder;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import lombok.Value;
+
+/**
+ * Codec based on a Jackson object mapper.
+ * The binary formats need their Jackson data format dependency to be added:
+ * <ul>
+ *     <li>Smile: {@code com.fasterxml.jackson.dataformat:jackson-dataformat-smile}</li>
+ *     <li>CBOR: {@code com.fasterxml.jackson.dataformat:jackson-dataformat-cbor}</li>
+ * </ul>
+ * Other formats having a Jackson implementation can be used with their object mapper,
+ * for example MessagePack with {@code new JacksonCodec(MEDIA_TYPE_MSGPACK, new ObjectMapper(new MessagePackFactory()))}.
+ */
+@Value
+public class JacksonCodec implements Codec {
+
+    public static final String MEDIA_TYPE_JSON = "application/json";
+    public static final String MEDIA_TYPE_SMILE = "application/x-jackson-smile";
+    public static final String MEDIA_TYPE_CBOR = "application/cbor";
+    public static final String MEDIA_TYPE_MSGPACK = "application/msgpack";
+
+    String mediaType;
+    ObjectMapper objectMapper;
+
+    /**
+     * Configures the given object mapper builder with the default settings of the clients:
+     * support of Java time types (written as text), null values not written and case-insensitive properties.
+     *
+     * @param builder The object mapper builder
+     * @param <M>     The object mapper type
+     * @param <B>     The builder type
+     * @return The given builder
+     */
+    public static <M extends ObjectMapper, B extends MapperBuilder<M, B>> B configure(B builder) {
+        return builder
+                .addModule(new JavaTimeModule())
+                .serializationInclusion(NON_NULL)
+                .enable(ACCEPT_CASE_INSENSITIVE_PROPERTIES)
+                .disable(WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    /**
+     * Creates a JSON codec with the default settings.
+     *
+     * @return The JSON codec
+     */
+    public static JacksonCodec json() {
+        return json(configure(JsonMapper.builder()).build());
+    }
+
+    /**
+     * Creates a JSON codec with the given object mapper.
+     *
+     * @param objectMapper The JSON object mapper
+     * @return The JSON codec
+     */
+    public static JacksonCodec json(ObjectMapper objectMapper) {
+        return new JacksonCodec(MEDIA_TYPE_JSON, objectMapper);
+    }
+
+    /**
+     * Creates a Smile (binary JSON) codec with the default settings.
+     *
+     * @return The Smile codec
+     */
+    public static JacksonCodec smile() {
+        return new JacksonCodec(MEDIA_TYPE_SMILE, DataFormats.smile());
+    }
+
+    /**
+     * Creates a CBOR (RFC 8949) codec with the default settings.
+     *
+     * @return The CBOR codec
+     */
+    public static JacksonCodec cbor() {
+        return new JacksonCodec(MEDIA_TYPE_CBOR, DataFormats.cbor());
+    }
+
+}
@@ -0,0 +1,139 @@
+package com.chavaillaz.client.common.compression;
+
+import static com.chavaillaz.client.common.compression.ContentEncoding.BUFFER_SIZE;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import com.aayushatharva.brotli4j.Brotli4jLoader;
+import com.aayushatharva.brotli4j.decoder.BrotliInputStream;
+import com.aayushatharva.brotli4j.decoder.DecoderJNI;
+import com.aayushatharva.brotli4j.encoder.BrotliOutputStream;
+import com.aayushatharva.brotli4j.encoder.Encoder;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Codec of the brotli encoding, requiring the optional {@code com.aayushatharva.brotli4j:brotli4j} dependency.
+ * It is only loaded when the brotli encoding is used, so that the dependency is not needed otherwise.
+ */
+@UtilityClass
+class BrotliCodec {
+
+    /**
+     * The quality used to encode the request bodies, favoring the speed as for the on-the-fly compression of servers.
+     */
+    private static final int QUALITY = 4;
+
+    static boolean isAvailable() {
+        return Brotli4jLoader.isAvailable();
+    }
+
+    static OutputStream decoder(OutputStream target) throws IOException {
+        Brotli4jLoader.ensureAvailability();
+        return new DecodingOutputStream(target);
+    }
+
+    static InputStream decode(InputStream content) throws IOException {
+        Brotli4jLoader.ensureAvailability();
+        return new BrotliInputStream(content, BUFFER_SIZE);
+    }
+
+    static OutputStream encoder(OutputStream target) throws IOException {
+        Brotli4jLoader.ensureAvailability();
+        return new BrotliOutputStream(target, new Encoder.Parameters().setQuality(QUALITY), BUFFER_SIZE);
+    }
+
+    /**
+     * Brotli decoder to which the encoded content is written in packets as it is received.
+     */
+    private static class DecodingOutputStream extends OutputStream {
+
+        private final OutputStream target;
+        private final DecoderJNI.Wrapper decoder;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private boolean closed;
+
+        DecodingOutputStream(OutputStream target) throws IOException {
+            this.target = target;
+            this.decoder = new DecoderJNI.Wrapper(BUFFER_SIZE);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (closed) {
+                throw new IOException("Stream closed");
+            }
+            int position = off;
+            int end = off + len;
+            while (true) {
+                switch (decoder.getStatus()) {
+                    case DONE:
+                        // The content following the end of the brotli stream is ignored
+                        return;
+                    case OK:
+                        decoder.push(0);
+                        break;
+                    case NEEDS_MORE_OUTPUT:
+                        pull();
+                        break;
+                    case NEEDS_MORE_INPUT:
+                        if (decoder.hasOutput()) {
+                            pull();
+                        }
+                        if (position == end) {
+                            return;
+                        }
+                        ByteBuffer input = decoder.getInputBuffer();
+                        input.clear();
+                        int count = Math.min(end - position, input.remaining());
+                        input.put(b, position, count);
+                        position += count;
+                        decoder.push(count);
+                        break;
+                    default:
+                        throw new IOException("Corrupted brotli content");
+                }
+            }
+        }
+
+        private void pull() throws IOException {
+            ByteBuffer output = decoder.pull();
+            while (output.hasRemaining()) {
+                int count = Math.min(output.remaining(), buffer.length);
+                output.get(buffer, 0, count);
+                target.write(buffer, 0, count);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            target.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                if (decoder.getStatus() != DecoderJNI.Status.DONE) {
+                    throw new EOFException("Unexpected end of brotli content");
+                }
+            } finally {
+                decoder.destroy();
+                target.close();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,325 @@
+package com.chavaillaz.client.common.compression;
+
+import static java.util.stream.Collectors.joining;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.chavaillaz.client.common.exception.ContentEncodingException;
+import lombok.Getter;
+import lombok.SneakyThrows;
+
+/**
+ * Compression of the request and response bodies, whatever the HTTP client used.
+ * The responses are asked with the given encodings (see {@link #getAcceptEncoding()}) and decoded as they are
+ * received, before being deserialized, the responses encoded with an encoding which is not available failing
+ * with a {@link ContentEncodingException}. The request bodies are compressed with the encoding given to
+ * {@link #withRequestEncoding(ContentEncoding, long)} when their length reaches the given threshold,
+ * which must only be done when the server supports it.
+ * The numbers of compressed and uncompressed bytes are counted for the requests and for the responses.
+ */
+public class Compression {
+
+    private static final String IDENTITY = "identity";
+    private final List<ContentEncoding> encodings;
+    @Getter
+    private final String acceptEncoding;
+    private final LongAdder requestUncompressedBytes = new LongAdder();
+    private final LongAdder requestCompressedBytes = new LongAdder();
+    private final LongAdder responseCompressedBytes = new LongAdder();
+    private final LongAdder responseUncompressedBytes = new LongAdder();
+    @Getter
+    private ContentEncoding requestEncoding;
+    @Getter
+    private long requestThreshold;
+
+    /**
+     * Creates a new compression accepting all the available encodings for the responses
+     * (gzip and deflate, as well as brotli and zstd when their optional dependency is present).
+     */
+    public Compression() {
+        this(ContentEncoding.values());
+    }
+
+    /**
+     * Creates a new compression accepting the given encodings for the responses, in their order of preference.
+     * The encodings which are not available are ignored.
+     *
+     * @param encodings The accepted encodings
+     */
+    public Compression(ContentEncoding... encodings) {
+        this.encodings = Arrays.stream(encodings)
+                .filter(ContentEncoding::isAvailable)
+                .toList();
+        this.acceptEncoding = this.encodings.stream()
+                .map(ContentEncoding::getName)
+                .collect(joining(", "));
+    }
+
+    /**
+     * Defines the encoding of the request bodies, not compressed by default.
+     *
+     * @param encoding  The encoding of the request bodies or {@code null} to send them uncompressed
+     * @param threshold The minimum length of the request bodies to compress in bytes
+     * @return The current compression
+     */
+    public Compression withRequestEncoding(ContentEncoding encoding, long threshold) {
+        this.requestEncoding = encoding;
+        this.requestThreshold = threshold;
+        return this;
+    }
+
+    /**
+     * Gets the encodings of a response body with the given {@code Content-Encoding} header, listing the encodings
+     * in the order in which they have been applied (e.g. {@code gzip, br}), case-insensitive.
+     *
+     * @param contentEncoding The value of the header or {@code null} if not present
+     * @return The encodings in the order in which they have to be decoded (the reverse order of the header),
+     * empty if the body is not encoded
+     * @throws ContentEncodingException if one of the encodings is unknown or not available
+     */
+    public List<ContentEncoding> getResponseEncodings(String contentEncoding) {
+        if (contentEncoding == null || contentEncoding.isBlank()) {
+            return List.of();
+        }
+        List<ContentEncoding> decodings = new ArrayList<>(1);
+        for (String name : contentEncoding.split(",")) {
+            if (name.isBlank() || IDENTITY.equalsIgnoreCase(name.trim())) {
+                continue;
+            }
+            ContentEncoding encoding = ContentEncoding.of(name);
+            if (encoding == null || !encoding.isAvailable()) {
+                throw new ContentEncodingException(contentEncoding);
+            }
+            decodings.add(0, encoding);
+        }
+        return decodings;
+    }
+
+    /**
+     * Indicates if a request body with the given length has to be compressed.
+     *
+     * @param length The length of the request body in bytes, negative if unknown
+     * @return {@code true} if the body has to be compressed, {@code false} otherwise
+     */
+    public boolean isRequestEncoded(long length) {
+        return requestEncoding != null && length >= 0 && length >= requestThreshold;
+    }
+
+    /**
+     * Creates a decoder of a response body to which it is written in packets as it is received
+     * (see {@link ContentEncoding#decoder(OutputStream)}).
+     *
+     * @param encoding The encoding of the response body
+     * @param target   The stream receiving the decoded body
+     * @return The stream in which the response body has to be written
+     * @throws IOException if the decoder cannot be created
+     */
+    public OutputStream decoder(ContentEncoding encoding, OutputStream target) throws IOException {
+        return decoder(List.of(encoding), target);
+    }
+
+    /**
+     * Creates a decoder of a response body encoded several times, to which it is written in packets
+     * as it is received (see {@link ContentEncoding#decoder(OutputStream)}).
+     *
+     * @param encodings The encodings of the response body in the order in which they have to be decoded
+     *                  (see {@link #getResponseEncodings(String)})
+     * @param target    The stream receiving the decoded body
+     * @return The stream in which the response body has to be written
+     * @throws IOException if the decoder cannot be created
+     */
+    public OutputStream decoder(List<ContentEncoding> encodings, OutputStream target) throws IOException {
+        OutputStream decoder = new CountingOutputStream(target, responseUncompressedBytes);
+        for (int i = encodings.size() - 1; i >= 0; i--) {
+            decoder = encodings.get(i).decoder(decoder);
+        }
+        return new CountingOutputStream(decoder, responseCompressedBytes);
+    }
+
+    /**
+     * Creates a stream decoding the given response body as it is read.
+     *
+     * @param encoding The encoding of the response body
+     * @param content  The response body
+     * @return The stream of the decoded body
+     * @throws IOException if the response body cannot be read
+     */
+    public InputStream decode(ContentEncoding encoding, InputStream content) throws IOException {
+        return decode(List.of(encoding), content);
+    }
+
+    /**
+     * Creates a stream decoding the given response body encoded several times as it is read.
+     *
+     * @param encodings The encodings of the response body in the order in which they have to be decoded
+     *                  (see {@link #getResponseEncodings(String)})
+     * @param content   The response body
+     * @return The stream of the decoded body
+     * @throws IOException if the response body cannot be read
+     */
+    public InputStream decode(List<ContentEncoding> encodings, InputStream content) throws IOException {
+        InputStream decoded = new CountingInputStream(content, responseCompressedBytes);
+        for (ContentEncoding encoding : encodings) {
+            decoded = encoding.decode(decoded);
+        }
+        return new CountingInputStream(decoded, responseUncompressedBytes);
+    }
+
+    /**
+     * Decodes the given response body.
+     *
+     * @param encoding The encoding of the response body
+     * @param content  The response body
+     * @return The decoded body
+     */
+    public byte[] decode(ContentEncoding encoding, byte[] content) {
+        return decode(List.of(encoding), content);
+    }
+
+    /**
+     * Decodes the given response body encoded several times.
+     *
+     * @param encodings The encodings of the response body in the order in which they have to be decoded
+     *                  (see {@link #getResponseEncodings(String)})
+     * @param content   The response body
+     * @return The decoded body
+     */
+    @SneakyThrows
+    public byte[] decode(List<ContentEncoding> encodings, byte[] content) {
+        try (InputStream input = decode(encodings, new ByteArrayInputStream(content))) {
+            return input.readAllBytes();
+        }
+    }
+
+    /**
+     * Creates an encoder of a request body with the request encoding, to which the body is written.
+     * The encoder must be closed to write the end of the encoded body.
+     *
+     * @param target The stream receiving the encoded body
+     * @return The stream in which the request body has to be written
+     * @throws IOException if the encoder cannot be created
+     */
+    public OutputStream encoder(OutputStream target) throws IOException {
+        return new CountingOutputStream(requestEncoding.encoder(new CountingOutputStream(target, requestCompressedBytes)), requestUncompressedBytes);
+    }
+
+    /**
+     * Encodes the given request body with the request encoding.
+     *
+     * @param content The request body
+     * @return The encoded body
+     */
+    @SneakyThrows
+    public byte[] encode(byte[] content) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(content.length / 4 + 64);
+        try (OutputStream encoder = encoder(output)) {
+            encoder.write(content);
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * Gets the number of bytes of the request bodies before their compression.
+     *
+     * @return The number of bytes
+     */
+    public long getRequestUncompressedBytes() {
+        return requestUncompressedBytes.sum();
+    }
+
+    /**
+     * Gets the number of bytes of the request bodies after their compression.
+     *
+     * @return The number of bytes
+     */
+    public long getRequestCompressedBytes() {
+        return requestCompressedBytes.sum();
+    }
+
+    /**
+     * Gets the number of bytes of the compressed response bodies received.
+     *
+     * @return The number of bytes
+     */
+    public long getResponseCompressedBytes() {
+        return responseCompressedBytes.sum();
+    }
+
+    /**
+     * Gets the number of bytes of the compressed response bodies once decoded.
+     *
+     * @return The number of bytes
+     */
+    public long getResponseUncompressedBytes() {
+        return responseUncompressedBytes.sum();
+    }
+
+    /**
+     * Output stream counting the bytes written into it.
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+
+        private final LongAdder counter;
+
+        CountingOutputStream(OutputStream target, LongAdder counter) {
+            super(target);
+            this.counter = counter;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            counter.increment();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            counter.add(len);
+        }
+
+    }
+
+    /**
+     * Input stream counting the bytes read from it.
+     */
+    private static class CountingInputStream extends FilterInputStream {
+
+        private final LongAdder counter;
+
+        CountingInputStream(InputStream content, LongAdder counter) {
+            super(content);
+            this.counter = counter;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = in.read();
+            if (value >= 0) {
+                counter.increment();
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int count = in.read(b, off, len);
+            if (count > 0) {
+                counter.add(count);
+            }
+            return count;
+        }
+
+    }
+
+}
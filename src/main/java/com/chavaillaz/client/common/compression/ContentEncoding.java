@@ -0,0 +1,199 @@
+package com.chavaillaz.client.common.compression;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Content encodings of the request and response bodies (see the {@code Content-Encoding} header).
+ * The gzip and deflate encodings are always available, while brotli and zstd require the optional
+ * {@code com.aayushatharva.brotli4j:brotli4j} and {@code com.github.luben:zstd-jni} dependencies.
+ * Each encoding can decode a body pushed in packets as they are received ({@link #decoder(OutputStream)})
+ * or pulled from a stream ({@link #decode(InputStream)}).
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ContentEncoding {
+
+    GZIP("gzip") {
+        @Override
+        public OutputStream decoder(OutputStream target) {
+            return new InflatingOutputStream(target, true);
+        }
+
+        @Override
+        public InputStream decode(InputStream content) throws IOException {
+            return new GZIPInputStream(content, BUFFER_SIZE);
+        }
+
+        @Override
+        public OutputStream encoder(OutputStream target) throws IOException {
+            return new GZIPOutputStream(target, BUFFER_SIZE);
+        }
+    },
+
+    DEFLATE("deflate") {
+        @Override
+        public OutputStream decoder(OutputStream target) {
+            return new InflatingOutputStream(target, false);
+        }
+
+        @Override
+        public InputStream decode(InputStream content) throws IOException {
+            // Some servers send raw deflate data instead of the zlib format
+            PushbackInputStream input = new PushbackInputStream(content, 2);
+            byte[] header = input.readNBytes(2);
+            input.unread(header);
+            boolean zlib = header.length == 2 && InflatingOutputStream.isZlibHeader(header[0], header[1]);
+            return new InflaterInputStream(input, new Inflater(!zlib), BUFFER_SIZE) {
+
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        inf.end();
+                    }
+                }
+
+            };
+        }
+
+        @Override
+        public OutputStream encoder(OutputStream target) {
+            return new DeflaterOutputStream(target);
+        }
+    },
+
+    BROTLI("br") {
+        @Override
+        public OutputStream decoder(OutputStream target) throws IOException {
+            return BrotliCodec.decoder(target);
+        }
+
+        @Override
+        public InputStream decode(InputStream content) throws IOException {
+            return BrotliCodec.decode(content);
+        }
+
+        @Override
+        public OutputStream encoder(OutputStream target) throws IOException {
+            return BrotliCodec.encoder(target);
+        }
+
+        @Override
+        protected boolean loadCodec() {
+            return BrotliCodec.isAvailable();
+        }
+    },
+
+    ZSTD("zstd") {
+        @Override
+        public OutputStream decoder(OutputStream target) {
+            return ZstdCodec.decoder(target);
+        }
+
+        @Override
+        public InputStream decode(InputStream content) throws IOException {
+            return ZstdCodec.decode(content);
+        }
+
+        @Override
+        public OutputStream encoder(OutputStream target) throws IOException {
+            return ZstdCodec.encoder(target);
+        }
+
+        @Override
+        protected boolean loadCodec() {
+            return ZstdCodec.isAvailable();
+        }
+    };
+
+    static final int BUFFER_SIZE = 8192;
+
+    /**
+     * The name of the encoding in the {@code Content-Encoding} and {@code Accept-Encoding} headers.
+     */
+    private final String name;
+
+    /**
+     * Gets the encoding with the given name.
+     *
+     * @param name The name of the encoding (e.g. {@code gzip}), case-insensitive
+     * @return The encoding or {@code null} if it is unknown
+     */
+    public static ContentEncoding of(String name) {
+        if (name != null) {
+            String trimmed = name.trim();
+            for (ContentEncoding encoding : values()) {
+                if (encoding.name.equalsIgnoreCase(trimmed)) {
+                    return encoding;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Indicates if the encoding can be used, its optional dependency being present for brotli and zstd.
+     *
+     * @return {@code true} if the encoding is available, {@code false} otherwise
+     */
+    public boolean isAvailable() {
+        try {
+            return loadCodec();
+        } catch (LinkageError e) {
+            // The optional dependency or its native library is missing
+            return false;
+        }
+    }
+
+    /**
+     * Loads the codec of the encoding.
+     *
+     * @return {@code true} if the codec is loaded, {@code false} otherwise
+     */
+    protected boolean loadCodec() {
+        return true;
+    }
+
+    /**
+     * Creates a decoder to which the encoded content is written in packets as it is received,
+     * the decoded content being written to the given stream as soon as it is available.
+     * Closing the decoder fails if the encoded content is incomplete and closes the given stream.
+     *
+     * @param target The stream receiving the decoded content
+     * @return The stream in which the encoded content has to be written
+     * @throws IOException if the decoder cannot be created
+     */
+    public abstract OutputStream decoder(OutputStream target) throws IOException;
+
+    /**
+     * Creates a stream decoding the given encoded content as it is read.
+     *
+     * @param content The encoded content
+     * @return The stream of the decoded content
+     * @throws IOException if the encoded content cannot be read
+     */
+    public abstract InputStream decode(InputStream content) throws IOException;
+
+    /**
+     * Creates an encoder to which the content is written, the encoded content being written to the given stream.
+     * The encoder must be closed to write the end of the encoded content.
+     *
+     * @param target The stream receiving the encoded content
+     * @return The stream in which the content has to be written
+     * @throws IOException if the encoder cannot be created
+     */
+    public abstract OutputStream encoder(OutputStream target) throws IOException;
+
+}
@@ -0,0 +1,223 @@
+package com.chavaillaz.client.common.compression;
+
+import static com.chavaillaz.client.common.compression.ContentEncoding.BUFFER_SIZE;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Decoder of the gzip and deflate encodings to which the encoded content is written in packets as it is received,
+ * the decoded content being written to the target stream as soon as it is inflated.
+ * The gzip header is parsed whatever its optional fields and the trailer of each member is verified.
+ * The deflate content can be in the zlib format, as specified, or in the raw format sent by some servers.
+ */
+class InflatingOutputStream extends OutputStream {
+
+    private static final int GZIP_MAGIC = 0x8b1f;
+    private static final int GZIP_TRAILER_SIZE = 8;
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+
+    private final OutputStream target;
+    private final boolean gzip;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream(16);
+    private final CRC32 crc = new CRC32();
+    private Inflater inflater;
+    private State state = State.HEADER;
+    private boolean closed;
+
+    /**
+     * Creates a new inflating decoder.
+     *
+     * @param target The stream receiving the decoded content
+     * @param gzip   {@code true} for the gzip encoding, {@code false} for the deflate encoding
+     */
+    InflatingOutputStream(OutputStream target, boolean gzip) {
+        this.target = target;
+        this.gzip = gzip;
+    }
+
+    /**
+     * Indicates if the given first bytes of a deflate content are the header of the zlib format.
+     *
+     * @param first  The first byte
+     * @param second The second byte
+     * @return {@code true} for the zlib format, {@code false} for the raw format
+     */
+    static boolean isZlibHeader(byte first, byte second) {
+        return (first & 0x0F) == 8 && (((first & 0xFF) << 8) | (second & 0xFF)) % 31 == 0;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        if (len <= 0) {
+            return;
+        }
+        switch (state) {
+            case HEADER -> readHeader(b, off, len);
+            case BODY -> inflate(b, off, len);
+            case TRAILER -> readTrailer(b, off, len);
+            default -> {
+                // The content following the end of the deflate stream is ignored
+            }
+        }
+    }
+
+    private void readHeader(byte[] b, int off, int len) throws IOException {
+        pending.write(b, off, len);
+        byte[] bytes = pending.toByteArray();
+        int length = gzip ? gzipHeaderLength(bytes) : deflateHeaderLength(bytes);
+        if (length < 0) {
+            return;
+        }
+        pending.reset();
+        if (inflater == null) {
+            inflater = new Inflater(gzip || !isZlibHeader(bytes[0], bytes[1]));
+        } else {
+            inflater.reset();
+        }
+        crc.reset();
+        state = State.BODY;
+        // The zlib header is given to the inflater with the content
+        int start = gzip ? length : 0;
+        write(bytes, start, bytes.length - start);
+    }
+
+    private static int deflateHeaderLength(byte[] bytes) {
+        return bytes.length >= 2 ? 2 : -1;
+    }
+
+    private static int gzipHeaderLength(byte[] bytes) throws ZipException {
+        if (bytes.length < 10) {
+            return -1;
+        }
+        if ((((bytes[1] & 0xFF) << 8) | (bytes[0] & 0xFF)) != GZIP_MAGIC || bytes[2] != 8) {
+            throw new ZipException("Not in GZIP format");
+        }
+        int flags = bytes[3] & 0xFF;
+        int position = 10;
+        if ((flags & FEXTRA) != 0) {
+            if (bytes.length < position + 2) {
+                return -1;
+            }
+            position += 2 + (((bytes[position + 1] & 0xFF) << 8) | (bytes[position] & 0xFF));
+        }
+        if ((flags & FNAME) != 0) {
+            position = skipZeroTerminated(bytes, position);
+        }
+        if ((flags & FCOMMENT) != 0) {
+            position = skipZeroTerminated(bytes, position);
+        }
+        if ((flags & FHCRC) != 0 && position >= 0) {
+            position += 2;
+        }
+        return position >= 0 && position <= bytes.length ? position : -1;
+    }
+
+    private static int skipZeroTerminated(byte[] bytes, int position) {
+        if (position < 0) {
+            return -1;
+        }
+        for (int i = position; i < bytes.length; i++) {
+            if (bytes[i] == 0) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    private void inflate(byte[] b, int off, int len) throws IOException {
+        inflater.setInput(b, off, len);
+        try {
+            int count;
+            do {
+                count = inflater.inflate(buffer);
+                if (count > 0) {
+                    crc.update(buffer, 0, count);
+                    target.write(buffer, 0, count);
+                } else if (inflater.needsDictionary()) {
+                    throw new ZipException("Deflate dictionary missing");
+                }
+            } while (count > 0 || (!inflater.finished() && !inflater.needsInput()));
+        } catch (DataFormatException e) {
+            throw new ZipException(e.getMessage());
+        }
+        if (inflater.finished()) {
+            state = gzip ? State.TRAILER : State.DONE;
+            int remaining = inflater.getRemaining();
+            write(b, off + len - remaining, remaining);
+        }
+    }
+
+    private void readTrailer(byte[] b, int off, int len) throws IOException {
+        int count = Math.min(len, GZIP_TRAILER_SIZE - pending.size());
+        pending.write(b, off, count);
+        if (pending.size() < GZIP_TRAILER_SIZE) {
+            return;
+        }
+        byte[] trailer = pending.toByteArray();
+        if (readInt(trailer, 0) != (int) crc.getValue()) {
+            throw new ZipException("Corrupt GZIP trailer");
+        }
+        if (readInt(trailer, 4) != (int) inflater.getBytesWritten()) {
+            throw new ZipException("Corrupt GZIP trailer");
+        }
+        pending.reset();
+        // Another member can follow the current one
+        state = State.HEADER;
+        write(b, off + count, len - count);
+    }
+
+    private static int readInt(byte[] bytes, int position) {
+        return (bytes[position] & 0xFF)
+                | (bytes[position + 1] & 0xFF) << 8
+                | (bytes[position + 2] & 0xFF) << 16
+                | (bytes[position + 3] & 0xFF) << 24;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        target.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            // The content can be empty and a gzip content can end after any complete member
+            if (state != State.DONE && (state != State.HEADER || pending.size() > 0)) {
+                throw new EOFException("Unexpected end of " + (gzip ? "gzip" : "deflate") + " content");
+            }
+        } finally {
+            if (inflater != null) {
+                inflater.end();
+            }
+            target.close();
+        }
+    }
+
+    private enum State {
+        HEADER, BODY, TRAILER, DONE
+    }
+
+}
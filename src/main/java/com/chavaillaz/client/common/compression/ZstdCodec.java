@@ -0,0 +1,128 @@
+package com.chavaillaz.client.common.compression;
+
+import static com.chavaillaz.client.common.compression.ContentEncoding.BUFFER_SIZE;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import com.github.luben.zstd.ZstdDecompressCtx;
+import com.github.luben.zstd.ZstdException;
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+import com.github.luben.zstd.util.Native;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Codec of the zstd encoding, requiring the optional {@code com.github.luben:zstd-jni} dependency.
+ * It is only loaded when the zstd encoding is used, so that the dependency is not needed otherwise.
+ */
+@UtilityClass
+class ZstdCodec {
+
+    /**
+     * The level used to encode the request bodies, the default one of the zstd library.
+     */
+    private static final int LEVEL = 3;
+
+    static boolean isAvailable() {
+        Native.load();
+        return Native.isLoaded();
+    }
+
+    static OutputStream decoder(OutputStream target) {
+        return new DecodingOutputStream(target);
+    }
+
+    static InputStream decode(InputStream content) throws IOException {
+        return new ZstdInputStream(content);
+    }
+
+    static OutputStream encoder(OutputStream target) throws IOException {
+        return new ZstdOutputStream(target, LEVEL);
+    }
+
+    /**
+     * Zstd decoder to which the encoded content is written in packets as it is received.
+     */
+    private static class DecodingOutputStream extends OutputStream {
+
+        private final OutputStream target;
+        private final ZstdDecompressCtx context = new ZstdDecompressCtx();
+        private final ByteBuffer input = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final ByteBuffer output = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private boolean frameEnded = true;
+        private boolean closed;
+
+        DecodingOutputStream(OutputStream target) {
+            this.target = target;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (closed) {
+                throw new IOException("Stream closed");
+            }
+            int position = off;
+            int end = off + len;
+            while (position < end) {
+                input.clear();
+                int count = Math.min(end - position, input.capacity());
+                input.put(b, position, count).flip();
+                position += count;
+                decompress();
+            }
+        }
+
+        private void decompress() throws IOException {
+            boolean outputFull;
+            do {
+                output.clear();
+                try {
+                    frameEnded = context.decompressDirectByteBufferStream(output, input);
+                } catch (ZstdException e) {
+                    throw new IOException("Corrupted zstd content", e);
+                }
+                output.flip();
+                outputFull = output.limit() == output.capacity();
+                while (output.hasRemaining()) {
+                    int count = Math.min(output.remaining(), buffer.length);
+                    output.get(buffer, 0, count);
+                    target.write(buffer, 0, count);
+                }
+                // The decoder can keep decoded content when the output is full, even without remaining input
+            } while (input.hasRemaining() || (outputFull && !frameEnded));
+        }
+
+        @Override
+        public void flush() throws IOException {
+            target.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                if (!frameEnded) {
+                    throw new EOFException("Unexpected end of zstd content");
+                }
+            } finally {
+                context.close();
+                target.close();
+            }
+        }
+
+    }
+
+}
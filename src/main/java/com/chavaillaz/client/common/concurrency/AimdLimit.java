@@ -0,0 +1,54 @@
+package com.chavaillaz.client.common.concurrency;
+
+import lombok.Getter;
+
+/**
+ * Additive increase and multiplicative decrease (AIMD) of the maximum number of concurrent requests,
+ * as done by TCP congestion control: the limit is increased by one for each successful request
+ * sent while the limit was almost reached and is multiplied by the backoff ratio for each dropped request.
+ */
+public class AimdLimit implements LimitAlgorithm {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+
+    @Getter
+    private volatile int limit;
+
+    /**
+     * Creates a new AIMD limit, halving the limit for each dropped request.
+     *
+     * @param initialLimit The initial limit
+     * @param maxLimit     The maximum limit
+     */
+    public AimdLimit(int initialLimit, int maxLimit) {
+        this(initialLimit, 1, maxLimit, 0.5);
+    }
+
+    /**
+     * Creates a new AIMD limit.
+     *
+     * @param initialLimit The initial limit
+     * @param minLimit     The minimum limit
+     * @param maxLimit     The maximum limit
+     * @param backoffRatio The ratio between {@code 0} and {@code 1} applied to the limit for each dropped request
+     */
+    public AimdLimit(int initialLimit, int minLimit, int maxLimit, double backoffRatio) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+    }
+
+    @Override
+    public synchronized void onSample(long rtt, int inFlight, boolean dropped) {
+        if (dropped) {
+            limit = Math.max(minLimit, (int) (limit * backoffRatio));
+        } else if (inFlight * 2 >= limit) {
+            // Only increased when the limit is used, otherwise it would grow indefinitely
+            limit = Math.min(maxLimit, limit + 1);
+        }
+    }
+
+}
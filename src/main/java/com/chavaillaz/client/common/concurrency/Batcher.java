@@ -0,0 +1,168 @@
+package com.chavaillaz.client.common.concurrency;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Micro-batching of individual asynchronous lookups into bulk requests.
+ * The keys submitted are collected until the maximum batch size is reached or until the maximum linger time
+ * elapsed since the first key of the batch, then all of them are given at once to the bulk loader
+ * (typically sending a request to a bulk endpoint with {@code sendAsync}), whose results are given back
+ * to the future of each key. The same key submitted several times in a batch is only loaded once.
+ * The keys without result in the map returned by the loader are completed with {@code null}
+ * and a failure of the loader is given to all the keys of the batch.
+ *
+ * @param <K> The key type
+ * @param <V> The value type
+ */
+public class Batcher<K, V> implements AutoCloseable {
+
+    private final Function<List<K>, CompletableFuture<Map<K, V>>> bulkLoader;
+    private final int maxBatchSize;
+    private final Duration maxLinger;
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder keys = new LongAdder();
+    private Map<K, CompletableFuture<V>> batch;
+
+    /**
+     * Creates a new batcher.
+     *
+     * @param bulkLoader   The loader of the values of several keys at once
+     * @param maxBatchSize The maximum number of distinct keys in a batch
+     * @param maxLinger    The maximum time to wait for other keys after the first one of a batch
+     */
+    public Batcher(Function<List<K>, CompletableFuture<Map<K, V>>> bulkLoader, int maxBatchSize, Duration maxLinger) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("The maximum batch size must be positive");
+        }
+        this.bulkLoader = bulkLoader;
+        this.maxBatchSize = maxBatchSize;
+        this.maxLinger = maxLinger;
+    }
+
+    /**
+     * Creates a new batcher for a bulk loader returning the values without their keys,
+     * the key of each value being computed with the given function.
+     *
+     * @param bulkLoader   The loader of the values of several keys at once
+     * @param keyFunction  The function giving the key of a value
+     * @param maxBatchSize The maximum number of distinct keys in a batch
+     * @param maxLinger    The maximum time to wait for other keys after the first one of a batch
+     * @param <K>          The key type
+     * @param <V>          The value type
+     * @return The batcher
+     */
+    public static <K, V> Batcher<K, V> keyedBy(Function<List<K>, CompletableFuture<? extends Collection<V>>> bulkLoader, Function<V, K> keyFunction, int maxBatchSize, Duration maxLinger) {
+        return new Batcher<>(ids -> bulkLoader.apply(ids)
+                .thenApply(values -> values.stream()
+                        .collect(Collectors.toMap(keyFunction, Function.identity(), (first, second) -> first))),
+                maxBatchSize, maxLinger);
+    }
+
+    /**
+     * Submits a key to load with the next batch.
+     *
+     * @param key The key to load
+     * @return A {@link CompletableFuture} with the value of the key
+     */
+    public CompletableFuture<V> submit(K key) {
+        Map<K, CompletableFuture<V>> full = null;
+        CompletableFuture<V> future;
+        synchronized (this) {
+            if (batch == null) {
+                Map<K, CompletableFuture<V>> created = new LinkedHashMap<>();
+                batch = created;
+                CompletableFuture.delayedExecutor(maxLinger.toNanos(), NANOSECONDS).execute(() -> flush(created));
+            }
+            future = batch.computeIfAbsent(key, k -> new CompletableFuture<>());
+            if (batch.size() >= maxBatchSize) {
+                full = batch;
+                batch = null;
+            }
+        }
+        if (full != null) {
+            dispatch(full);
+        }
+        return future.copy();
+    }
+
+    /**
+     * Dispatches immediately the keys collected so far.
+     */
+    public void flush() {
+        Map<K, CompletableFuture<V>> current;
+        synchronized (this) {
+            current = batch;
+            batch = null;
+        }
+        if (current != null) {
+            dispatch(current);
+        }
+    }
+
+    private void flush(Map<K, CompletableFuture<V>> lingering) {
+        synchronized (this) {
+            if (batch != lingering) {
+                // Already dispatched when reaching the maximum size
+                return;
+            }
+            batch = null;
+        }
+        dispatch(lingering);
+    }
+
+    private void dispatch(Map<K, CompletableFuture<V>> futures) {
+        batches.increment();
+        keys.add(futures.size());
+        CompletableFuture<Map<K, V>> results;
+        try {
+            results = bulkLoader.apply(new ArrayList<>(futures.keySet()));
+        } catch (RuntimeException e) {
+            results = CompletableFuture.failedFuture(e);
+        }
+        results.whenComplete((values, exception) -> futures.forEach((key, future) -> {
+            if (exception != null) {
+                future.completeExceptionally(exception);
+            } else {
+                future.complete(values != null ? values.get(key) : null);
+            }
+        }));
+    }
+
+    /**
+     * Gets the number of bulk requests dispatched.
+     *
+     * @return The number of batches
+     */
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    /**
+     * Gets the number of distinct keys dispatched in all the batches.
+     *
+     * @return The number of keys
+     */
+    public long getKeys() {
+        return keys.sum();
+    }
+
+    /**
+     * Dispatches the keys collected so far.
+     */
+    @Override
+    public void close() {
+        flush();
+    }
+
+}
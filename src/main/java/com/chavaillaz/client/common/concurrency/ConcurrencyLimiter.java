@@ -0,0 +1,225 @@
+package com.chavaillaz.client.common.concurrency;
+
+import static com.chavaillaz.client.common.utility.Utils.isTransportFailure;
+import static com.chavaillaz.client.common.utility.Utils.onCancellation;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import com.chavaillaz.client.common.exception.LimitExceededException;
+import com.chavaillaz.client.common.exception.RequestException;
+import com.chavaillaz.client.common.exception.ResponseException;
+import com.chavaillaz.client.common.exchange.ExchangeHandler;
+import com.chavaillaz.client.common.exchange.ExchangeInterceptor;
+import com.chavaillaz.client.common.exchange.ExchangeRequest;
+import com.chavaillaz.client.common.exchange.ExchangeResponse;
+
+/**
+ * Limitation of the number of concurrent requests sent to each host (bulkhead),
+ * the limit being either static ({@link FixedLimit}) or adapted to the server capacity
+ * ({@link AimdLimit} or {@link GradientLimit}).
+ * The requests exceeding the limit are queued (without blocking any thread) until other requests complete,
+ * and are rejected with a {@link LimitExceededException} when the queue is full.
+ * The requests failing with a {@link RequestException} or a connection error of the HTTP client
+ * (e.g. connection timeout) or with a {@code 429} or {@code 503} status code are considered as dropped
+ * because of an overload by the adaptive algorithms.
+ */
+public class ConcurrencyLimiter implements ExchangeInterceptor {
+
+    private final Supplier<LimitAlgorithm> algorithm;
+    private final int maxQueueSize;
+    private final Map<String, HostLimiter> hosts = new ConcurrentHashMap<>();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Creates a new concurrency limiter.
+     *
+     * @param algorithm    The supplier of the limit algorithm, called for each host
+     * @param maxQueueSize The maximum number of requests waiting for each host, {@code 0} to reject them immediately
+     */
+    public ConcurrencyLimiter(Supplier<LimitAlgorithm> algorithm, int maxQueueSize) {
+        this.algorithm = algorithm;
+        this.maxQueueSize = maxQueueSize;
+    }
+
+    /**
+     * Creates a new concurrency limiter with the same static limit for each host.
+     *
+     * @param limit        The maximum number of concurrent requests for each host
+     * @param maxQueueSize The maximum number of requests waiting for each host, {@code 0} to reject them immediately
+     * @return The concurrency limiter
+     */
+    public static ConcurrencyLimiter fixed(int limit, int maxQueueSize) {
+        return new ConcurrencyLimiter(() -> new FixedLimit(limit), maxQueueSize);
+    }
+
+    /**
+     * Defines the limit algorithm of the given host, instead of the default one.
+     *
+     * @param host      The host, with its port if not the default one of the scheme (e.g. {@code localhost:8080})
+     * @param algorithm The limit algorithm
+     * @return The current concurrency limiter
+     */
+    public ConcurrencyLimiter withHost(String host, LimitAlgorithm algorithm) {
+        hosts.put(host, new HostLimiter(algorithm));
+        return this;
+    }
+
+    /**
+     * Sends the request once there are less concurrent requests than the limit of its host.
+     *
+     * @param request The request to send
+     * @param handler The handler sending the request
+     * @param <T>     The domain object type
+     * @return A {@link CompletableFuture} with the response
+     */
+    @Override
+    public <T> CompletableFuture<ExchangeResponse<T>> exchange(ExchangeRequest request, ExchangeHandler<T> handler) {
+        HostLimiter limiter = hosts.computeIfAbsent(request.getUri().getAuthority(), host -> new HostLimiter(algorithm.get()));
+        CompletableFuture<Integer> permit = limiter.acquire(request);
+        AtomicReference<CompletableFuture<ExchangeResponse<T>>> sent = new AtomicReference<>();
+        return onCancellation(permit.thenCompose(inFlight -> {
+            long start = System.nanoTime();
+            CompletableFuture<ExchangeResponse<T>> future;
+            try {
+                future = handler.exchange(request);
+            } catch (RuntimeException e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+            sent.set(future);
+            // Not returning a dependent future, in order to also release the permit when the request is cancelled
+            future.whenComplete((response, exception) -> limiter.release(System.nanoTime() - start, inFlight, isDropped(exception)));
+            return future;
+        }), () -> {
+            // Either still waiting for a permit or already sent
+            if (permit.cancel(true)) {
+                limiter.remove(permit);
+            } else if (sent.get() != null) {
+                sent.get().cancel(true);
+            }
+        });
+    }
+
+    private static boolean isDropped(Throwable exception) {
+        Throwable cause = exception instanceof CompletionException ? exception.getCause() : exception;
+        if (cause instanceof ResponseException responseException) {
+            Integer code = responseException.getStatusCode();
+            return code != null && (code == 429 || code == 503);
+        }
+        return isTransportFailure(cause);
+    }
+
+    /**
+     * Gets the current limit of the given host.
+     *
+     * @param host The host, with its port if not the default one of the scheme
+     * @return The limit or {@code 0} if no request has been sent to the host
+     */
+    public int getLimit(String host) {
+        HostLimiter limiter = hosts.get(host);
+        return limiter != null ? limiter.algorithm.getLimit() : 0;
+    }
+
+    /**
+     * Gets the number of requests in flight for the given host.
+     *
+     * @param host The host, with its port if not the default one of the scheme
+     * @return The number of requests in flight
+     */
+    public int getInFlight(String host) {
+        HostLimiter limiter = hosts.get(host);
+        return limiter != null ? limiter.getInFlight() : 0;
+    }
+
+    /**
+     * Gets the number of requests rejected because the queue of their host was full.
+     *
+     * @return The number of requests rejected
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * Permits of the requests sent to a host.
+     */
+    private class HostLimiter {
+
+        private final LimitAlgorithm algorithm;
+        private final Deque<CompletableFuture<Integer>> waiting = new ArrayDeque<>();
+        private int inFlight;
+
+        HostLimiter(LimitAlgorithm algorithm) {
+            this.algorithm = algorithm;
+        }
+
+        synchronized int getInFlight() {
+            return inFlight;
+        }
+
+        /**
+         * Acquires a permit, completed with the number of requests in flight once acquired.
+         */
+        CompletableFuture<Integer> acquire(ExchangeRequest request) {
+            synchronized (this) {
+                if (inFlight < algorithm.getLimit()) {
+                    return CompletableFuture.completedFuture(++inFlight);
+                } else if (waiting.size() < maxQueueSize) {
+                    CompletableFuture<Integer> permit = new CompletableFuture<>();
+                    waiting.add(permit);
+                    return permit;
+                }
+            }
+            rejected.increment();
+            return CompletableFuture.failedFuture(new LimitExceededException(request.getMethod(), request.getUri().toString(),
+                    "concurrency limit of " + algorithm.getLimit() + " requests reached"));
+        }
+
+        /**
+         * Removes a permit not needed anymore from the queue.
+         */
+        synchronized void remove(CompletableFuture<Integer> permit) {
+            waiting.remove(permit);
+        }
+
+        /**
+         * Updates the limit with the request completed and releases its permit.
+         */
+        void release(long rtt, int sentInFlight, boolean dropped) {
+            algorithm.onSample(rtt, sentInFlight, dropped);
+            release();
+        }
+
+        /**
+         * Releases a permit and gives it to the requests waiting if the limit allows it.
+         */
+        void release() {
+            Deque<CompletableFuture<Integer>> granted = new ArrayDeque<>();
+            int count;
+            synchronized (this) {
+                inFlight--;
+                while (inFlight < algorithm.getLimit() && !waiting.isEmpty()) {
+                    granted.add(waiting.poll());
+                    inFlight++;
+                }
+                count = inFlight;
+            }
+            // Completed outside the lock as the requests are sent by the dependent stages
+            granted.forEach(permit -> {
+                if (!permit.complete(count)) {
+                    // Cancelled in the meantime
+                    release();
+                }
+            });
+        }
+
+    }
+
+}
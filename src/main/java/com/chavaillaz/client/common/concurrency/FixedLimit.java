@@ -0,0 +1,20 @@
+package com.chavaillaz.client.common.concurrency;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Static maximum number of concurrent requests (bulkhead).
+ */
+@Getter
+@AllArgsConstructor
+public class FixedLimit implements LimitAlgorithm {
+
+    private final int limit;
+
+    @Override
+    public void onSample(long rtt, int inFlight, boolean dropped) {
+        // The limit never changes
+    }
+
+}
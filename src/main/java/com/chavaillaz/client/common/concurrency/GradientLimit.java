@@ -0,0 +1,60 @@
+package com.chavaillaz.client.common.concurrency;
+
+import lombok.Getter;
+
+/**
+ * Maximum number of concurrent requests adapted from the round-trip times measured (as done by TCP Vegas).
+ * The ratio between the minimum round-trip time (without queueing) and the one measured gives the gradient
+ * by which the limit is multiplied: the limit decreases as soon as the server starts queueing requests,
+ * before failures occur, and increases by a small queue size while the round-trip time stays minimal.
+ * The minimum round-trip time is measured again periodically to adapt to the changes of the server.
+ */
+public class GradientLimit implements LimitAlgorithm {
+
+    private static final double SMOOTHING = 0.2;
+    private static final int PROBE_INTERVAL = 1000;
+
+    private final int minLimit;
+    private final int maxLimit;
+
+    @Getter
+    private volatile int limit;
+    private double estimatedLimit;
+    private long minRtt;
+    private int samples;
+
+    /**
+     * Creates a new gradient limit.
+     *
+     * @param initialLimit The initial limit
+     * @param minLimit     The minimum limit
+     * @param maxLimit     The maximum limit
+     */
+    public GradientLimit(int initialLimit, int minLimit, int maxLimit) {
+        this.limit = initialLimit;
+        this.estimatedLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    @Override
+    public synchronized void onSample(long rtt, int inFlight, boolean dropped) {
+        if (++samples >= PROBE_INTERVAL) {
+            samples = 0;
+            minRtt = 0;
+        }
+        if (!dropped && (minRtt == 0 || rtt < minRtt)) {
+            minRtt = rtt;
+        }
+        if (!dropped && inFlight * 2 < estimatedLimit) {
+            // Not enough requests to know if the limit could be higher
+            return;
+        }
+
+        double gradient = dropped ? 0.5 : Math.max(0.5, Math.min(1.0, (double) minRtt / rtt));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING));
+        limit = (int) estimatedLimit;
+    }
+
+}
@@ -0,0 +1,26 @@
+package com.chavaillaz.client.common.concurrency;
+
+/**
+ * Algorithm computing the maximum number of concurrent requests, possibly adapted from the samples
+ * of the requests completed (see {@link ConcurrencyLimiter}).
+ * The implementations must be thread-safe.
+ */
+public interface LimitAlgorithm {
+
+    /**
+     * Gets the current maximum number of concurrent requests.
+     *
+     * @return The limit
+     */
+    int getLimit();
+
+    /**
+     * Updates the limit with a request completed.
+     *
+     * @param rtt      The round-trip time of the request in nanoseconds
+     * @param inFlight The number of requests in flight when the request was sent
+     * @param dropped  {@code true} if the request failed because of an overload (e.g. timeout or {@code 503} status)
+     */
+    void onSample(long rtt, int inFlight, boolean dropped);
+
+}
@@ -0,0 +1,178 @@
+package com.chavaillaz.client.common.concurrency;
+
+import static com.chavaillaz.client.common.utility.Utils.getRetryAfter;
+import static com.chavaillaz.client.common.utility.Utils.onCancellation;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import com.chavaillaz.client.common.exception.LimitExceededException;
+import com.chavaillaz.client.common.exception.ResponseException;
+import com.chavaillaz.client.common.exchange.ExchangeHandler;
+import com.chavaillaz.client.common.exchange.ExchangeInterceptor;
+import com.chavaillaz.client.common.exchange.ExchangeRequest;
+import com.chavaillaz.client.common.exchange.ExchangeResponse;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Limitation of the rate of requests sent to each endpoint with {@link TokenBucket}s, in order to respect
+ * the quotas of the servers instead of receiving {@code 429} status codes.
+ * The requests exceeding the rate are delayed without blocking any thread until a permit is available,
+ * and are rejected with a {@link LimitExceededException} if they would have to wait longer than the maximum waiting time.
+ * The buckets are paused when the server indicates that the quota is exceeded, either with
+ * the {@code Retry-After} header of a {@code 429} or {@code 503} response, or with the {@code RateLimit-Remaining}
+ * and {@code RateLimit-Reset} headers.
+ */
+@Slf4j
+public class RateLimiter implements ExchangeInterceptor {
+
+    /**
+     * Endpoints identified by their host (with its port if not the default one of the scheme).
+     */
+    public static final Function<ExchangeRequest, String> BY_HOST = request -> request.getUri().getAuthority();
+
+    /**
+     * Endpoints identified by their host and path, without their query.
+     */
+    public static final Function<ExchangeRequest, String> BY_PATH = request -> request.getUri().getAuthority() + request.getUri().getPath();
+
+    private final Supplier<TokenBucket> bucket;
+    private final Function<ExchangeRequest, String> endpoint;
+    private final long maxWait;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final LongAdder delayed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Creates a new rate limiter with the same rate for each host.
+     *
+     * @param permitsPerSecond The number of requests allowed each second
+     * @param burst            The maximum number of requests sent at once
+     * @param maxWait          The maximum time a request can wait for a permit
+     */
+    public RateLimiter(double permitsPerSecond, int burst, Duration maxWait) {
+        this(() -> new TokenBucket(permitsPerSecond, burst), BY_HOST, maxWait);
+    }
+
+    /**
+     * Creates a new rate limiter.
+     *
+     * @param bucket   The supplier of the token bucket, called for each endpoint
+     * @param endpoint The function identifying the endpoint of a request, each endpoint having its own bucket
+     * @param maxWait  The maximum time a request can wait for a permit
+     */
+    public RateLimiter(Supplier<TokenBucket> bucket, Function<ExchangeRequest, String> endpoint, Duration maxWait) {
+        this.bucket = bucket;
+        this.endpoint = endpoint;
+        this.maxWait = maxWait.toNanos();
+    }
+
+    /**
+     * Defines the token bucket of the given endpoint, instead of the default one.
+     *
+     * @param key    The endpoint, as identified by the endpoint function
+     * @param bucket The token bucket
+     * @return The current rate limiter
+     */
+    public RateLimiter withEndpoint(String key, TokenBucket bucket) {
+        buckets.put(key, bucket);
+        return this;
+    }
+
+    /**
+     * Sends the request once a permit of its endpoint is available.
+     *
+     * @param request The request to send
+     * @param handler The handler sending the request
+     * @param <T>     The domain object type
+     * @return A {@link CompletableFuture} with the response
+     */
+    @Override
+    public <T> CompletableFuture<ExchangeResponse<T>> exchange(ExchangeRequest request, ExchangeHandler<T> handler) {
+        TokenBucket tokenBucket = buckets.computeIfAbsent(endpoint.apply(request), key -> bucket.get());
+        long delay = tokenBucket.reserve(maxWait);
+        if (delay < 0) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(new LimitExceededException(request.getMethod(), request.getUri().toString(),
+                    "rate limit of " + tokenBucket.getPermitsPerSecond() + " requests per second reached"));
+        }
+
+        if (delay == 0) {
+            CompletableFuture<ExchangeResponse<T>> future = handler.exchange(request);
+            future.whenComplete((response, exception) -> adjust(tokenBucket, response, exception));
+            return future;
+        }
+
+        delayed.increment();
+        CompletableFuture<Void> wait = CompletableFuture.runAsync(() -> {}, CompletableFuture.delayedExecutor(delay, NANOSECONDS));
+        AtomicReference<CompletableFuture<ExchangeResponse<T>>> sent = new AtomicReference<>();
+        return onCancellation(wait.thenCompose(ignored -> {
+            sent.set(handler.exchange(request));
+            sent.get().whenComplete((response, exception) -> adjust(tokenBucket, response, exception));
+            return sent.get();
+        }), () -> {
+            wait.cancel(true);
+            Optional.ofNullable(sent.get()).ifPresent(future -> future.cancel(true));
+        });
+    }
+
+    /**
+     * Pauses the given bucket when the response indicates that the quota of the server is exceeded.
+     */
+    private static void adjust(TokenBucket tokenBucket, ExchangeResponse<?> response, Throwable exception) {
+        Function<String, String> headers;
+        Throwable cause = exception instanceof CompletionException ? exception.getCause() : exception;
+        if (response != null) {
+            headers = response::getHeader;
+        } else if (cause instanceof ResponseException responseException) {
+            headers = responseException::getHeader;
+            Integer code = responseException.getStatusCode();
+            if (code != null && (code == 429 || code == 503)) {
+                Optional<Duration> retryAfter = getRetryAfter(headers.apply("Retry-After"), Instant.now());
+                if (retryAfter.isPresent()) {
+                    log.debug("Rate limit paused for {} after {} status", retryAfter.get(), code);
+                    tokenBucket.pause(retryAfter.get());
+                    return;
+                }
+            }
+        } else {
+            return;
+        }
+
+        if ("0".equals(headers.apply("RateLimit-Remaining"))) {
+            getRetryAfter(headers.apply("RateLimit-Reset"), Instant.now()).ifPresent(reset -> {
+                log.debug("Rate limit paused for {} until quota reset", reset);
+                tokenBucket.pause(reset);
+            });
+        }
+    }
+
+    /**
+     * Gets the number of requests delayed to respect the rate.
+     *
+     * @return The number of requests delayed
+     */
+    public long getDelayed() {
+        return delayed.sum();
+    }
+
+    /**
+     * Gets the number of requests rejected because they would have waited too long.
+     *
+     * @return The number of requests rejected
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+}
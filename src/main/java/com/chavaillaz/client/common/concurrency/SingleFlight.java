@@ -0,0 +1,116 @@
+package com.chavaillaz.client.common.concurrency;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.chavaillaz.client.common.exchange.ExchangeHandler;
+import com.chavaillaz.client.common.exchange.ExchangeInterceptor;
+import com.chavaillaz.client.common.exchange.ExchangeRequest;
+import com.chavaillaz.client.common.exchange.ExchangeResponse;
+import com.fasterxml.jackson.databind.JavaType;
+import lombok.Value;
+
+/**
+ * Coalescing of identical requests sent while one of them is still in flight (single-flight).
+ * Only the first request is sent and its response is given to all the callers, each of them receiving
+ * its own future (hence cancelling one of them does not affect the others).
+ * The requests are identical when they have the same method, URI, headers (including the authentication)
+ * and domain object type, and only the safe methods ({@code GET} and {@code HEAD}) are coalesced,
+ * the streamed responses (e.g. input streams) being never shared.
+ * Note that the same domain object instance is given to all the callers and must therefore not be modified.
+ */
+public class SingleFlight implements ExchangeInterceptor {
+
+    private static final Set<String> COALESCED_METHODS = Set.of("GET", "HEAD");
+
+    private final Map<Key, CompletableFuture<? extends ExchangeResponse<?>>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder collapsed = new LongAdder();
+
+    /**
+     * Sends the request, unless an identical one is already in flight.
+     *
+     * @param request The request to send
+     * @param handler The handler sending the request
+     * @param <T>     The domain object type
+     * @return A {@link CompletableFuture} with the response, shared with the identical requests
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<ExchangeResponse<T>> exchange(ExchangeRequest request, ExchangeHandler<T> handler) {
+        if (!COALESCED_METHODS.contains(request.getMethod()) || request.isStreamed()) {
+            return handler.exchange(request);
+        }
+
+        Key key = new Key(request.getMethod(), request.getUri(), request.getReturnType(), Map.copyOf(request.getHeaders()));
+        CompletableFuture<ExchangeResponse<T>> flight = new CompletableFuture<>();
+        CompletableFuture<ExchangeResponse<T>> existing = (CompletableFuture<ExchangeResponse<T>>) inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            collapsed.increment();
+            return existing.copy();
+        }
+
+        executed.increment();
+        try {
+            handler.exchange(request).whenComplete((response, exception) -> {
+                // Removed before completion so that the callers of the dependent stages start new requests
+                inFlight.remove(key, flight);
+                if (exception != null) {
+                    flight.completeExceptionally(exception);
+                } else {
+                    flight.complete(response);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(e);
+        }
+        return flight.copy();
+    }
+
+    /**
+     * Gets the number of requests actually sent.
+     *
+     * @return The number of requests sent
+     */
+    public long getExecuted() {
+        return executed.sum();
+    }
+
+    /**
+     * Gets the number of requests not sent because an identical one was in flight.
+     *
+     * @return The number of requests collapsed
+     */
+    public long getCollapsed() {
+        return collapsed.sum();
+    }
+
+    /**
+     * Gets the number of distinct requests currently in flight.
+     *
+     * @return The number of requests in flight
+     */
+    public int getInFlight() {
+        return inFlight.size();
+    }
+
+    /**
+     * Identity of a request.
+     */
+    @Value
+    private static class Key {
+
+        String method;
+        URI uri;
+        JavaType type;
+        Map<String, List<String>> headers;
+
+    }
+
+}
@@ -0,0 +1,78 @@
+package com.chavaillaz.client.common.concurrency;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.Getter;
+
+/**
+ * Lock-free token bucket allowing a given rate of permits with bursts, implemented
+ * as a generic cell rate algorithm: instead of counting the tokens, the bucket only keeps the theoretical
+ * time at which it will be full again, updated atomically for each permit reserved.
+ */
+public class TokenBucket {
+
+    @Getter
+    private final double permitsPerSecond;
+    @Getter
+    private final int burst;
+    private final long interval;
+    private final long burstWindow;
+    private final AtomicLong fullAt;
+
+    /**
+     * Creates a new full token bucket.
+     *
+     * @param permitsPerSecond The number of permits added each second
+     * @param burst            The maximum number of permits available at once
+     */
+    public TokenBucket(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("The rate and the burst of a token bucket must be positive");
+        }
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        this.interval = (long) (1_000_000_000 / permitsPerSecond);
+        this.burstWindow = interval * burst;
+        this.fullAt = new AtomicLong(System.nanoTime() - burstWindow);
+    }
+
+    /**
+     * Reserves a permit if it is available within the given maximum waiting time.
+     *
+     * @param maxWait The maximum waiting time in nanoseconds
+     * @return The time to wait in nanoseconds before using the permit or {@code -1} if not reserved
+     */
+    public long reserve(long maxWait) {
+        return reserve(System.nanoTime(), maxWait);
+    }
+
+    long reserve(long now, long maxWait) {
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + interval;
+            long delay = Math.max(0, next - now - burstWindow);
+            if (delay > maxWait) {
+                return -1;
+            } else if (fullAt.compareAndSet(current, next)) {
+                return delay;
+            }
+        }
+    }
+
+    /**
+     * Empties the bucket and prevents any permit to be available during the given time,
+     * for example when the server indicates that the quota has been exceeded.
+     *
+     * @param duration The time without permits
+     */
+    public void pause(Duration duration) {
+        pause(System.nanoTime(), duration.toNanos());
+    }
+
+    void pause(long now, long duration) {
+        long pausedUntil = now + duration + burstWindow - interval;
+        fullAt.accumulateAndGet(pausedUntil, Math::max);
+    }
+
+}
@@ -0,0 +1,22 @@
+package com.chavaillaz.client.common.exception;
+
+import static org.apache.commons.lang3.StringUtils.SPACE;
+
+/**
+ * Exception in case the request is not sent because the server is considered as unavailable
+ * after too many failures (see {@link com.chavaillaz.client.common.resilience.CircuitBreaker}).
+ */
+public class CircuitOpenException extends ClientException {
+
+    /**
+     * Creates a new circuit open exception.
+     *
+     * @param method The request HTTP method
+     * @param url    The request URL
+     * @param host   The host considered as unavailable
+     */
+    public CircuitOpenException(String method, String url, String host) {
+        super("Request " + method + SPACE + url + " rejected: circuit open for " + host);
+    }
+
+}
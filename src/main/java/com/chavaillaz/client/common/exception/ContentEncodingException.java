@@ -0,0 +1,18 @@
+package com.chavaillaz.client.common.exception;
+
+/**
+ * Exception in case the body received by the client is encoded with an encoding it cannot decode
+ * (see the {@code Content-Encoding} header).
+ */
+public class ContentEncodingException extends ClientException {
+
+    /**
+     * Creates a new content encoding exception.
+     *
+     * @param contentEncoding The value of the {@code Content-Encoding} header received
+     */
+    public ContentEncodingException(String contentEncoding) {
+        super("Unsupported content encoding " + contentEncoding + " of the response body");
+    }
+
+}
@@ -0,0 +1,25 @@
+package com.chavaillaz.client.common.exception;
+
+import static org.apache.commons.lang3.StringUtils.SPACE;
+
+import java.time.Duration;
+
+/**
+ * Exception in case the response is not received before the deadline of the request
+ * (see {@link com.chavaillaz.client.common.resilience.Deadline}).
+ */
+public class DeadlineExceededException extends ClientException {
+
+    /**
+     * Creates a new deadline exceeded exception.
+     *
+     * @param method  The request HTTP method
+     * @param url     The request URL
+     * @param timeout The duration given to the request
+     * @param cause   The failure of the last attempt or {@code null} if it was still in progress
+     */
+    public DeadlineExceededException(String method, String url, Duration timeout, Throwable cause) {
+        super("Request " + method + SPACE + url + " exceeded its deadline of " + timeout.toMillis() + " ms", cause);
+    }
+
+}
@@ -31,6 +31,16 @@ public class DeserializationException extends ClientException {
         super(errorMessage(content, type.getTypeName()), exception);
     }
 
+    /**
+     * Creates a new deserialization exception when the content is not available (e.g. consumed from a stream).
+     *
+     * @param type      The type of the content to deserialize
+     * @param exception The exception thrown by Jackson
+     */
+    public DeserializationException(JavaType type, Throwable exception) {
+        super(MessageFormat.format("Unable to deserialize type {0}", type.getTypeName()), exception);
+    }
+
     private static String errorMessage(String content, String type) {
         return MessageFormat.format("Unable to deserialize type {0} from {1}", type, content);
     }
@@ -0,0 +1,21 @@
+package com.chavaillaz.client.common.exception;
+
+import static org.apache.commons.lang3.StringUtils.SPACE;
+
+/**
+ * Exception in case the request is rejected by the client itself to protect the server, without being sent.
+ */
+public class LimitExceededException extends ClientException {
+
+    /**
+     * Creates a new limit exceeded exception.
+     *
+     * @param method The request HTTP method
+     * @param url    The request URL
+     * @param reason The limit exceeded
+     */
+    public LimitExceededException(String method, String url, String reason) {
+        super("Request " + method + SPACE + url + " rejected: " + reason);
+    }
+
+}
@@ -1,7 +1,13 @@
 package com.chavaillaz.client.common.exception;
 
+import static java.lang.String.CASE_INSENSITIVE_ORDER;
 import static org.apache.commons.lang3.StringUtils.SPACE;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
 import lombok.Getter;
 
 /**
@@ -12,6 +18,7 @@ public class ResponseException extends ClientException {
 
     private final Integer statusCode;
     private final String body;
+    private Map<String, List<String>> headers = Map.of();
 
     /**
      * Creates a new response exception.
@@ -48,6 +55,30 @@ public class ResponseException extends ClientException {
         this.body = body;
     }
 
+    /**
+     * Defines the headers of the response, for example to know when the request can be sent again.
+     *
+     * @param headers The response headers
+     * @return The current response exception
+     */
+    public ResponseException withHeaders(Map<String, ? extends List<String>> headers) {
+        TreeMap<String, List<String>> headersMap = new TreeMap<>(CASE_INSENSITIVE_ORDER);
+        headersMap.putAll(headers);
+        this.headers = Collections.unmodifiableMap(headersMap);
+        return this;
+    }
+
+    /**
+     * Gets the first value of the given response header.
+     *
+     * @param name The header name (case-insensitive)
+     * @return The header value or {@code null} if not present or unknown
+     */
+    public String getHeader(String name) {
+        List<String> values = headers.get(name);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+
     private static String errorMessage(Integer statusCode, String content) {
         return "Service responded with " + statusCode + ": " + content;
     }
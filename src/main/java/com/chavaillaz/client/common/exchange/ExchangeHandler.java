@@ -0,0 +1,22 @@
+package com.chavaillaz.client.common.exchange;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sender of a request with the HTTP client used, able to send it again (e.g. with other headers).
+ *
+ * @param <T> The domain object type
+ */
+@FunctionalInterface
+public interface ExchangeHandler<T> {
+
+    /**
+     * Sends the given request and deserializes its response body.
+     * The future completes exceptionally in case of unsuccessful call (not 2xx or 3xx status code).
+     *
+     * @param request The request to send
+     * @return A {@link CompletableFuture} with the response
+     */
+    CompletableFuture<ExchangeResponse<T>> exchange(ExchangeRequest request);
+
+}
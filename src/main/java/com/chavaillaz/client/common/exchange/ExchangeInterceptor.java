@@ -0,0 +1,45 @@
+package com.chavaillaz.client.common.exchange;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Interceptor of the requests sent by a client, whatever the HTTP client used.
+ * It can modify the request (e.g. its headers) before giving it to the next handler, inspect or transform
+ * the response once completed, send the request again, or complete the response without calling the next handler
+ * (e.g. from a cache). The features common to all HTTP clients (e.g. the cache, the retries or the limiters)
+ * are interceptors composed in a chain (see {@link #chain(List, ExchangeHandler)}).
+ * As its method is generic, it can be implemented by a class or a method reference but not by a lambda.
+ */
+@FunctionalInterface
+public interface ExchangeInterceptor {
+
+    /**
+     * Composes the given interceptors, each one calling the next one and the last one calling the given handler.
+     *
+     * @param interceptors The interceptors in their calling order
+     * @param handler      The handler sending the request with the HTTP client
+     * @param <T>          The domain object type
+     * @return The handler calling the first interceptor
+     */
+    static <T> ExchangeHandler<T> chain(List<? extends ExchangeInterceptor> interceptors, ExchangeHandler<T> handler) {
+        ExchangeHandler<T> chained = handler;
+        for (int i = interceptors.size() - 1; i >= 0; i--) {
+            ExchangeInterceptor interceptor = interceptors.get(i);
+            ExchangeHandler<T> next = chained;
+            chained = request -> interceptor.exchange(request, next);
+        }
+        return chained;
+    }
+
+    /**
+     * Intercepts the given request.
+     *
+     * @param request The request to send
+     * @param handler The next handler of the chain, sending the request when called
+     * @param <T>     The domain object type
+     * @return A {@link CompletableFuture} with the response
+     */
+    <T> CompletableFuture<ExchangeResponse<T>> exchange(ExchangeRequest request, ExchangeHandler<T> handler);
+
+}
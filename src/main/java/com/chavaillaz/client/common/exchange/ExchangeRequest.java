@@ -0,0 +1,168 @@
+package com.chavaillaz.client.common.exchange;
+
+import static java.lang.String.CASE_INSENSITIVE_ORDER;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.chavaillaz.client.common.resilience.Deadline;
+import com.fasterxml.jackson.databind.JavaType;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Request sent by a client, described independently of the HTTP client used.
+ * Its headers can be modified before it is sent, its body being kept by the HTTP client.
+ * Its deadline, if any, is given to the HTTP client as timeout of each attempt.
+ * Its tags allow the features of the client to keep a state for the request across all its attempts.
+ */
+@Getter
+public class ExchangeRequest {
+
+    /**
+     * The route of the requests whose URL template is not known, in order to keep a low cardinality.
+     */
+    public static final String UNKNOWN_ROUTE = "UNKNOWN";
+
+    private final String method;
+    private final URI uri;
+    private final JavaType returnType;
+    private final Map<String, List<String>> headers = new TreeMap<>(CASE_INSENSITIVE_ORDER);
+    @Getter(AccessLevel.NONE)
+    private final Map<Class<?>, Object> tags;
+
+    /**
+     * The deadline of the request covering all its attempts, unlimited if not defined.
+     */
+    @Setter
+    private Deadline deadline;
+
+    /**
+     * The URL template of the request (e.g. {@code /users/{id}}), used as low-cardinality key by the metrics,
+     * {@link #UNKNOWN_ROUTE} if not known.
+     */
+    @Setter
+    private String route;
+
+    /**
+     * Indicates if the request can be sent several times, which is not the case when its body is a stream
+     * consumed by the first attempt. The requests which are not repeatable are neither retried nor hedged.
+     */
+    @Setter
+    private boolean repeatable = true;
+
+    /**
+     * Indicates if the response body is given as it is received (e.g. input stream or download) instead of being
+     * deserialized. The streamed responses are neither cached, nor shared with identical requests, nor hedged
+     * and they are not asked compressed.
+     */
+    @Setter
+    private boolean streamed;
+
+    /**
+     * Creates a new exchange request.
+     *
+     * @param method     The request method
+     * @param uri        The request URI
+     * @param returnType The type of the domain object expected in the response
+     * @param headers    The request headers
+     */
+    public ExchangeRequest(String method, URI uri, JavaType returnType, Map<String, ? extends List<String>> headers) {
+        this(method, uri, returnType, headers, new ConcurrentHashMap<>(2));
+    }
+
+    private ExchangeRequest(String method, URI uri, JavaType returnType, Map<String, ? extends List<String>> headers,
+                            Map<Class<?>, Object> tags) {
+        this.method = method;
+        this.uri = uri;
+        this.returnType = returnType;
+        this.tags = tags;
+        headers.forEach((name, values) -> this.headers.put(name, new ArrayList<>(values)));
+    }
+
+    /**
+     * Creates a copy of the request, with its own headers but sharing its tags, in order to send it
+     * several times concurrently (e.g. hedged requests) without one attempt modifying the headers of the other.
+     *
+     * @return The copy of the request
+     */
+    public ExchangeRequest copy() {
+        ExchangeRequest copy = new ExchangeRequest(method, uri, returnType, headers, tags);
+        copy.setDeadline(deadline);
+        copy.setRoute(route);
+        copy.setRepeatable(repeatable);
+        copy.setStreamed(streamed);
+        return copy;
+    }
+
+    /**
+     * Gets the first value of the given header.
+     *
+     * @param name The header name (case-insensitive)
+     * @return The header value or {@code null} if not present
+     */
+    public String getHeader(String name) {
+        List<String> values = headers.get(name);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+
+    /**
+     * Sets the value of the given header, replacing its existing values.
+     *
+     * @param name  The header name
+     * @param value The header value
+     * @return The current request
+     */
+    public ExchangeRequest setHeader(String name, String value) {
+        List<String> values = new ArrayList<>(1);
+        values.add(value);
+        headers.put(name, values);
+        return this;
+    }
+
+    /**
+     * Removes all the values of the given header.
+     *
+     * @param name The header name (case-insensitive)
+     * @return The current request
+     */
+    public ExchangeRequest removeHeader(String name) {
+        headers.remove(name);
+        return this;
+    }
+
+    /**
+     * Gets the tag of the given type.
+     *
+     * @param type The type of the tag
+     * @param <V>  The tag type
+     * @return The tag or {@code null} if not present
+     */
+    public <V> V getTag(Class<V> type) {
+        return type.cast(tags.get(type));
+    }
+
+    /**
+     * Sets the tag of the given type, replacing the existing one.
+     *
+     * @param type  The type of the tag
+     * @param value The tag value
+     * @param <V>   The tag type
+     * @return The current request
+     */
+    public <V> ExchangeRequest setTag(Class<V> type, V value) {
+        tags.put(type, value);
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return method + " " + uri;
+    }
+
+}
@@ -0,0 +1,76 @@
+package com.chavaillaz.client.common.exchange;
+
+import static java.lang.String.CASE_INSENSITIVE_ORDER;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import lombok.Getter;
+
+/**
+ * Response received by a client, described independently of the HTTP client used,
+ * with its body already deserialized.
+ *
+ * @param <T> The domain object type
+ */
+@Getter
+public class ExchangeResponse<T> {
+
+    private final int statusCode;
+    private final Map<String, List<String>> headers;
+    private final T body;
+    private final long bodyLength;
+    private ExchangeStatistics statistics;
+
+    /**
+     * Creates a new exchange response.
+     *
+     * @param statusCode The status code
+     * @param headers    The response headers
+     * @param body       The deserialized body
+     * @param bodyLength The length of the body received or {@code -1} if unknown
+     */
+    public ExchangeResponse(int statusCode, Map<String, ? extends List<String>> headers, T body, long bodyLength) {
+        TreeMap<String, List<String>> headersMap = new TreeMap<>(CASE_INSENSITIVE_ORDER);
+        headersMap.putAll(headers);
+        this.statusCode = statusCode;
+        this.headers = Collections.unmodifiableMap(headersMap);
+        this.body = body;
+        this.bodyLength = bodyLength;
+    }
+
+    /**
+     * Attaches the statistics of the request sent to this response.
+     *
+     * @param statistics The statistics filled by the HTTP client
+     * @return The current response
+     */
+    public ExchangeResponse<T> withStatistics(ExchangeStatistics statistics) {
+        this.statistics = statistics;
+        return this;
+    }
+
+    /**
+     * Gets the first value of the given header.
+     *
+     * @param name The header name (case-insensitive)
+     * @return The header value or {@code null} if not present
+     */
+    public String getHeader(String name) {
+        List<String> values = headers.get(name);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+
+    /**
+     * Gets all the values of the given header.
+     *
+     * @param name The header name (case-insensitive)
+     * @return The header values, empty if not present
+     */
+    public List<String> getHeaders(String name) {
+        return headers.getOrDefault(name, List.of());
+    }
+
+}
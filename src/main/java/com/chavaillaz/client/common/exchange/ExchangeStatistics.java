@@ -0,0 +1,101 @@
+package com.chavaillaz.client.common.exchange;
+
+import java.util.function.Supplier;
+
+import lombok.Getter;
+
+/**
+ * Statistics of a request sent, filled by the HTTP client while the exchange progresses
+ * and attached to its response (see {@link ExchangeResponse#getStatistics()}).
+ * The durations are in nanoseconds and are {@code -1} when they cannot be measured with the HTTP client used.
+ */
+public class ExchangeStatistics {
+
+    @Getter
+    private final long requestLength;
+    private final long start = System.nanoTime();
+    private volatile long connectNanos = -1;
+    private volatile long firstByteNanos = -1;
+    private volatile long deserializationNanos = -1;
+
+    /**
+     * Creates the statistics of a request being sent now.
+     *
+     * @param requestLength The length of the request body or {@code -1} if unknown
+     */
+    public ExchangeStatistics(long requestLength) {
+        this.requestLength = requestLength;
+    }
+
+    /**
+     * Records the time spent to open the connection, {@code 0} meaning that an existing connection was reused.
+     *
+     * @param nanos The connection duration in nanoseconds
+     */
+    public void onConnect(long nanos) {
+        connectNanos = nanos;
+    }
+
+    /**
+     * Records the reception of the response headers, only the first call being considered.
+     */
+    public void onFirstByte() {
+        if (firstByteNanos < 0) {
+            firstByteNanos = System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Runs the given deserialization of the response body and adds its duration to the deserialization time.
+     *
+     * @param deserialization The deserialization
+     * @param <T>             The domain object type
+     * @return The deserialized domain object
+     */
+    public <T> T deserialize(Supplier<T> deserialization) {
+        long deserializationStart = System.nanoTime();
+        try {
+            return deserialization.get();
+        } finally {
+            onDeserialization(System.nanoTime() - deserializationStart);
+        }
+    }
+
+    /**
+     * Adds the given duration to the deserialization time, for parsers fed with every data packet received.
+     * The calls for the same exchange must not be concurrent.
+     *
+     * @param nanos The deserialization duration in nanoseconds
+     */
+    public void onDeserialization(long nanos) {
+        deserializationNanos = Math.max(0, deserializationNanos) + nanos;
+    }
+
+    /**
+     * Gets the time spent to open the connection.
+     *
+     * @return The duration in nanoseconds, {@code 0} if an existing connection was reused or {@code -1} if unknown
+     */
+    public long getConnectNanos() {
+        return connectNanos;
+    }
+
+    /**
+     * Gets the time elapsed between the sending of the request and the reception of the response headers.
+     *
+     * @return The duration in nanoseconds or {@code -1} if unknown
+     */
+    public long getFirstByteNanos() {
+        return firstByteNanos;
+    }
+
+    /**
+     * Gets the time spent to deserialize the response body.
+     *
+     * @return The duration in nanoseconds or {@code -1} if unknown
+     */
+    public long getDeserializationNanos() {
+        return deserializationNanos;
+    }
+
+}
@@ -1,20 +1,48 @@
 package com.chavaillaz.client.common.java;
 
-import static com.chavaillaz.client.common.utility.Utils.getCookieHeader;
+import static com.chavaillaz.client.common.java.JavaHttpUtils.getBodyOrError;
+import static com.chavaillaz.client.common.utility.Utils.onCancellation;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.CompletableFuture.failedFuture;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpRequest.BodyPublisher;
 import java.net.http.HttpRequest.BodyPublishers;
 import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandler;
 import java.net.http.HttpResponse.BodyHandlers;
-import java.util.Objects;
+import java.net.http.HttpResponse.BodySubscriber;
+import java.net.http.HttpResponse.BodySubscribers;
+import java.net.http.HttpResponse.ResponseInfo;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 import com.chavaillaz.client.common.AbstractHttpClient;
+import com.chavaillaz.client.common.compression.Compression;
+import com.chavaillaz.client.common.compression.ContentEncoding;
+import com.chavaillaz.client.common.exception.ClientException;
+import com.chavaillaz.client.common.exception.RequestException;
+import com.chavaillaz.client.common.exchange.ExchangeHandler;
+import com.chavaillaz.client.common.exchange.ExchangeRequest;
+import com.chavaillaz.client.common.exchange.ExchangeResponse;
+import com.chavaillaz.client.common.exchange.ExchangeStatistics;
 import com.chavaillaz.client.common.security.Authentication;
+import com.chavaillaz.client.common.utility.TransferStatistics;
 import com.fasterxml.jackson.databind.JavaType;
+import lombok.SneakyThrows;
+import org.apache.commons.lang3.exception.ExceptionUtils;
 
 /**
  * Abstract class implementing common parts for Java HTTP.
@@ -22,6 +50,7 @@ import com.fasterxml.jackson.databind.JavaType;
 public abstract class AbstractJavaHttpClient extends AbstractHttpClient implements AutoCloseable {
 
     protected final HttpClient client;
+    private final AtomicBoolean released = new AtomicBoolean();
 
     /**
      * Creates a new abstract client based on Java HTTP client.
@@ -43,22 +72,19 @@ public abstract class AbstractJavaHttpClient extends AbstractHttpClient implemen
      * @return The request builder having the URL and authentication set
      */
     protected HttpRequest.Builder requestBuilder(String url, Object... parameters) {
-        var builder = HttpRequest.newBuilder()
-                .uri(url(url, parameters))
-                .header(HEADER_CONTENT_TYPE, HEADER_CONTENT_JSON);
-        getAuthentication().fillHeaders(builder::setHeader);
-        getCookieHeader(getAuthentication()).ifPresent(value -> builder.setHeader(HEADER_COOKIE, value));
-        return builder;
+        var builder = HttpRequest.newBuilder().uri(url(url, parameters));
+        fillHeaders(builder::setHeader);
+        return withRoute(builder, url);
     }
 
     /**
-     * Creates the body publisher that is serializing the given object.
+     * Creates the body publisher that is serializing the given object with the codec of the client.
      *
      * @param object The object to serialize
      * @return The corresponding body publisher
      */
     protected BodyPublisher body(Object object) {
-        return BodyPublishers.ofString(serialize(object));
+        return BodyPublishers.ofByteArray(serializeBytes(object));
     }
 
     /**
@@ -69,17 +95,75 @@ public abstract class AbstractJavaHttpClient extends AbstractHttpClient implemen
      * @return The same HTTP response as in parameter
      */
     protected <T> HttpResponse<T> checkResponse(HttpResponse<T> response) {
-        if (response.statusCode() >= 400) {
+        if (!isSuccessful(response.statusCode())) {
             throw responseException(
                     response.request().method(),
                     response.request().uri().toString(),
                     response.statusCode(),
-                    Objects.toString(response.body(), null)
-            );
+                    getBodyOrError(response.body())
+            ).withHeaders(response.headers().map());
         }
         return response;
     }
 
+    /**
+     * Wraps the given body handler in order to fail with a response exception
+     * in case of unsuccessful call (not 2xx or 3xx status code), before the body is given to the handler.
+     *
+     * @param request The HTTP request sent
+     * @param handler The body handler to use for successful responses
+     * @param <T>     The response body type
+     * @return The body handler checking the response status
+     */
+    protected <T> BodyHandler<T> checkedBodyHandler(HttpRequest request, BodyHandler<T> handler) {
+        return responseInfo -> {
+            if (!isSuccessful(responseInfo.statusCode())) {
+                return BodySubscribers.mapping(BodySubscribers.ofString(UTF_8), body -> {
+                    throw responseException(
+                            request.method(),
+                            request.uri().toString(),
+                            responseInfo.statusCode(),
+                            body).withHeaders(responseInfo.headers().map());
+                });
+            }
+            return handler.apply(responseInfo);
+        };
+    }
+
+    /**
+     * Sends the given request, the failures before getting a response (e.g. connection refused or timeout)
+     * being wrapped in a {@link RequestException} as done with the other HTTP clients.
+     * Cancelling the returned future cancels the request sent.
+     *
+     * @param request The request to send
+     * @param handler The handler of the response body
+     * @param <T>     The response body type
+     * @return A {@link CompletableFuture} with the response
+     */
+    protected <T> CompletableFuture<HttpResponse<T>> send(HttpRequest request, BodyHandler<T> handler) {
+        CompletableFuture<HttpResponse<T>> future = client.sendAsync(request, handler);
+        return onCancellation(future.exceptionallyCompose(exception -> failedFuture(requestException(request, exception))),
+                () -> future.cancel(true));
+    }
+
+    private static Throwable requestException(HttpRequest request, Throwable exception) {
+        Throwable cause = exception instanceof CompletionException && exception.getCause() != null ? exception.getCause() : exception;
+        if (cause instanceof IOException && ExceptionUtils.indexOfType(cause, ClientException.class) < 0) {
+            return new RequestException(request.method(), request.uri().toString(), cause);
+        }
+        return cause;
+    }
+
+    /**
+     * Gets the content type of the given response.
+     *
+     * @param response The HTTP response received
+     * @return The content type or {@code null} if not present
+     */
+    protected String contentType(HttpResponse<?> response) {
+        return response.headers().firstValue(HEADER_CONTENT_TYPE).orElse(null);
+    }
+
     /**
      * Sends a request and returns a domain object.
      *
@@ -94,6 +178,7 @@ public abstract class AbstractJavaHttpClient extends AbstractHttpClient implemen
 
     /**
      * Sends a request and returns a domain object.
+     * The response body is received as bytes and directly given to the parser without intermediate decoding.
      *
      * @param requestBuilder The request builder
      * @param returnType     The content type of the content received
@@ -101,9 +186,130 @@ public abstract class AbstractJavaHttpClient extends AbstractHttpClient implemen
      * @return A {@link CompletableFuture} with the deserialized response body
      */
     protected <T> CompletableFuture<T> sendAsync(HttpRequest.Builder requestBuilder, JavaType returnType) {
-        return client.sendAsync(requestBuilder.build(), BodyHandlers.ofString())
-                .thenApply(this::checkResponse)
-                .thenApply(response -> deserialize(response.body(), returnType));
+        HttpRequest request = requestBuilder.build();
+        ExchangeRequest exchangeRequest = exchangeRequest(request, returnType);
+        exchangeRequest.setRoute(getRoute(requestBuilder));
+        return execute(exchangeRequest, exchange -> {
+            HttpRequest sent = withEncodedBody(withTimeout(withHeaders(request, exchange), exchange));
+            ExchangeStatistics statistics = new ExchangeStatistics(sent.bodyPublisher().map(BodyPublisher::contentLength).orElse(0L));
+            BodyHandler<byte[]> bodyHandler = responseInfo -> {
+                statistics.onFirstByte();
+                return bodySubscriber(responseInfo);
+            };
+            CompletableFuture<HttpResponse<byte[]>> future = send(sent, bodyHandler);
+            return onCancellation(future
+                    .thenApply(this::checkResponse)
+                    .thenApply(response -> new ExchangeResponse<T>(
+                            response.statusCode(),
+                            response.headers().map(),
+                            statistics.deserialize(() -> deserialize(response.body(), contentType(response), returnType)),
+                            response.body().length).withStatistics(statistics)), () -> future.cancel(true));
+        });
+    }
+
+    /**
+     * Gets the subscriber of the body of the given response, decoding it as it is received
+     * when it is compressed with an encoding accepted by the {@link #compression}.
+     *
+     * @param responseInfo The response received
+     * @return The body subscriber giving the bytes of the decoded body
+     */
+    protected BodySubscriber<byte[]> bodySubscriber(ResponseInfo responseInfo) {
+        List<ContentEncoding> encodings = getResponseEncodings(responseInfo.headers().firstValue(HEADER_CONTENT_ENCODING).orElse(null));
+        return encodings.isEmpty() ? BodySubscribers.ofByteArray() : new DecodingSubscriber(compression, encodings);
+    }
+
+    /**
+     * Gets the given request with its body compressed with the request encoding of the {@link #compression}
+     * when the length of the body reaches its threshold.
+     * The body is compressed as it is sent (see {@link EncodingBodyPublisher}), without being kept in memory.
+     *
+     * @param request The request to send
+     * @return The request with the compressed body or the same request if its body does not have to be compressed
+     */
+    protected HttpRequest withEncodedBody(HttpRequest request) {
+        Compression bodyCompression = compression;
+        BodyPublisher publisher = request.bodyPublisher().orElse(null);
+        if (bodyCompression == null
+                || publisher == null
+                || !bodyCompression.isRequestEncoded(publisher.contentLength())
+                || request.headers().firstValue(HEADER_CONTENT_ENCODING).isPresent()) {
+            return request;
+        }
+        return HttpRequest.newBuilder(request, (name, value) -> true)
+                .header(HEADER_CONTENT_ENCODING, bodyCompression.getRequestEncoding().getName())
+                .method(request.method(), new EncodingBodyPublisher(publisher, bodyCompression))
+                .build();
+    }
+
+    /**
+     * Describes the given request independently of the HTTP client.
+     *
+     * @param request    The request to send
+     * @param returnType The domain object type
+     * @return The corresponding exchange request
+     */
+    protected ExchangeRequest exchangeRequest(HttpRequest request, JavaType returnType) {
+        return new ExchangeRequest(request.method(), request.uri(), returnType, request.headers().map());
+    }
+
+    /**
+     * Gets the given request with the headers of the exchange request, which may have been modified.
+     *
+     * @param request  The request to send
+     * @param exchange The exchange request of the request
+     * @return The request with the headers of the exchange request
+     */
+    protected HttpRequest withHeaders(HttpRequest request, ExchangeRequest exchange) {
+        if (exchange.getHeaders().equals(request.headers().map())) {
+            return request;
+        }
+        HttpRequest.Builder builder = HttpRequest.newBuilder(request, (name, value) -> false);
+        exchange.getHeaders().forEach((name, values) -> values.forEach(value -> builder.header(name, value)));
+        return builder.build();
+    }
+
+    /**
+     * Gets the given request with the remaining time before the deadline of the exchange request as timeout.
+     *
+     * @param request  The request to send
+     * @param exchange The exchange request of the request
+     * @return The request with the timeout of the exchange request or the same request if it has no deadline
+     */
+    protected HttpRequest withTimeout(HttpRequest request, ExchangeRequest exchange) {
+        if (exchange.getDeadline() == null) {
+            return request;
+        }
+        return HttpRequest.newBuilder(request, (name, value) -> true)
+                .timeout(Duration.ofMillis(exchange.getDeadline().remainingMillis()))
+                .build();
+    }
+
+    /**
+     * Sends a request and returns a stream of the JSON array elements received, deserialized lazily.
+     * Note that the returned stream must be closed if it is not entirely consumed.
+     *
+     * @param requestBuilder The request builder
+     * @param elementType    The array element type class
+     * @param <T>            The array element type
+     * @return A {@link CompletableFuture} with the stream of elements, completed when receiving the response headers
+     */
+    protected <T> CompletableFuture<Stream<T>> sendAsyncStream(HttpRequest.Builder requestBuilder, Class<T> elementType) {
+        return sendAsyncStream(requestBuilder, objectMapper.constructType(elementType));
+    }
+
+    /**
+     * Sends a request and returns a stream of the JSON array elements received, deserialized lazily.
+     * Note that the returned stream must be closed if it is not entirely consumed.
+     *
+     * @param requestBuilder The request builder
+     * @param elementType    The array element type
+     * @param <T>            The array element type
+     * @return A {@link CompletableFuture} with the stream of elements, completed when receiving the response headers
+     */
+    protected <T> CompletableFuture<Stream<T>> sendAsyncStream(HttpRequest.Builder requestBuilder, JavaType elementType) {
+        return sendAsync(requestBuilder)
+                .thenApply(stream -> deserializeStream(stream, elementType));
     }
 
     /**
@@ -113,14 +319,142 @@ public abstract class AbstractJavaHttpClient extends AbstractHttpClient implemen
      * @return A {@link CompletableFuture} with the input stream
      */
     protected CompletableFuture<InputStream> sendAsync(HttpRequest.Builder requestBuilder) {
-        return client.sendAsync(requestBuilder.build(), BodyHandlers.ofInputStream())
-                .thenApply(this::checkResponse)
-                .thenApply(HttpResponse::body);
+        return sendAsyncStreamed(requestBuilder, InputStream.class, BodyHandlers.ofInputStream(), HttpResponse::body);
+    }
+
+    /**
+     * Sends a request and writes the response body into the given file as it is received,
+     * without keeping it in memory.
+     *
+     * @param requestBuilder The request builder
+     * @param path           The path of the file to write (created or truncated if it already exists)
+     * @return A {@link CompletableFuture} with the transfer statistics
+     */
+    protected CompletableFuture<TransferStatistics> downloadAsync(HttpRequest.Builder requestBuilder, Path path) {
+        long start = System.nanoTime();
+        return sendAsyncStreamed(requestBuilder, TransferStatistics.class, BodyHandlers.ofFile(path),
+                response -> TransferStatistics.since(start, size(response.body())));
+    }
+
+    @SneakyThrows
+    private static long size(Path path) {
+        return Files.size(path);
+    }
+
+    /**
+     * Sends a request with the features common to all HTTP clients (see {@link #execute(ExchangeRequest, ExchangeHandler)})
+     * and gives its response to the given function as soon as it is received, without deserializing its body
+     * (see {@link ExchangeRequest#isStreamed()}). The unsuccessful responses (not 2xx or 3xx status code) fail
+     * before their body is given to the handler (see {@link #checkedBodyHandler(HttpRequest, BodyHandler)}).
+     *
+     * @param requestBuilder The request builder
+     * @param resultType     The type of the result given by the function
+     * @param bodyHandler    The handler of the response body
+     * @param result         The function giving the result of the response
+     * @param <B>            The response body type
+     * @param <T>            The result type
+     * @return A {@link CompletableFuture} with the result of the function
+     */
+    protected <B, T> CompletableFuture<T> sendAsyncStreamed(HttpRequest.Builder requestBuilder, Class<T> resultType,
+                                                             BodyHandler<B> bodyHandler, Function<HttpResponse<B>, T> result) {
+        return sendAsyncStreamed(requestBuilder, resultType, bodyHandler, result, true);
+    }
+
+    private <B, T> CompletableFuture<T> sendAsyncStreamed(HttpRequest.Builder requestBuilder, Class<T> resultType,
+                                                          BodyHandler<B> bodyHandler, Function<HttpResponse<B>, T> result,
+                                                          boolean repeatable) {
+        HttpRequest request = requestBuilder.build();
+        ExchangeRequest exchangeRequest = exchangeRequest(request, objectMapper.constructType(resultType));
+        exchangeRequest.setRoute(getRoute(requestBuilder));
+        exchangeRequest.setStreamed(true);
+        exchangeRequest.setRepeatable(repeatable);
+        BodyHandler<B> checkedHandler = checkedBodyHandler(request, bodyHandler);
+        return execute(exchangeRequest, exchange -> {
+            HttpRequest sent = withEncodedBody(withTimeout(withHeaders(request, exchange), exchange));
+            ExchangeStatistics statistics = new ExchangeStatistics(sent.bodyPublisher().map(BodyPublisher::contentLength).orElse(0L));
+            BodyHandler<B> handler = responseInfo -> {
+                statistics.onFirstByte();
+                return checkedHandler.apply(responseInfo);
+            };
+            CompletableFuture<HttpResponse<B>> future = send(sent, handler);
+            return onCancellation(future
+                    .thenApply(response -> new ExchangeResponse<T>(
+                            response.statusCode(),
+                            response.headers().map(),
+                            result.apply(response),
+                            -1).withStatistics(statistics)), () -> future.cancel(true));
+        });
+    }
+
+    /**
+     * Creates a publisher of the response body chunks, as received by the client.
+     * The request is sent for each subscription and the subscriber demand is directly given to the client,
+     * meaning that the content is only read from the connection when requested.
+     *
+     * @param requestBuilder The request builder
+     * @return The publisher of the response body chunks
+     */
+    protected Flow.Publisher<List<ByteBuffer>> sendAsyncPublisher(HttpRequest.Builder requestBuilder) {
+        return subscriber -> sendAsyncPublisher(requestBuilder,
+                new MappingSubscriber<List<ByteBuffer>, List<ByteBuffer>>(subscriber, Function.identity()),
+                BodyHandlers::fromSubscriber);
+    }
+
+    /**
+     * Creates a publisher of the domain objects received as newline-delimited JSON, deserialized one line at a time.
+     * The request is sent for each subscription and the subscriber demand is directly given to the client,
+     * meaning that the content is only read from the connection when requested. Blank lines are ignored.
+     *
+     * @param requestBuilder The request builder
+     * @param elementType    The domain object type class
+     * @param <T>            The domain object type
+     * @return The publisher of the domain objects
+     */
+    protected <T> Flow.Publisher<T> sendAsyncPublisher(HttpRequest.Builder requestBuilder, Class<T> elementType) {
+        return sendAsyncPublisher(requestBuilder, objectMapper.constructType(elementType));
+    }
+
+    /**
+     * Creates a publisher of the domain objects received as newline-delimited JSON, deserialized one line at a time.
+     * The request is sent for each subscription and the subscriber demand is directly given to the client,
+     * meaning that the content is only read from the connection when requested. Blank lines are ignored.
+     *
+     * @param requestBuilder The request builder
+     * @param elementType    The domain object type
+     * @param <T>            The domain object type
+     * @return The publisher of the domain objects
+     */
+    protected <T> Flow.Publisher<T> sendAsyncPublisher(HttpRequest.Builder requestBuilder, JavaType elementType) {
+        return subscriber -> sendAsyncPublisher(requestBuilder,
+                new MappingSubscriber<String, T>(subscriber, line -> deserialize(line, elementType)),
+                BodyHandlers::fromLineSubscriber);
+    }
+
+    /**
+     * Sends a request whose response body is given to the mapping subscriber.
+     * Failures happening before the subscriber receives the body are transferred to it.
+     * The request is not sent again (e.g. retried) as the subscriber can only receive the body once.
+     *
+     * @param requestBuilder The request builder
+     * @param subscriber     The subscriber receiving the response body
+     * @param handler        The function creating the body handler for the subscriber
+     * @param <S>            The type of the items received by the subscriber
+     */
+    protected <S> void sendAsyncPublisher(HttpRequest.Builder requestBuilder, MappingSubscriber<S, ?> subscriber, Function<MappingSubscriber<S, ?>, BodyHandler<Void>> handler) {
+        sendAsyncStreamed(requestBuilder, Void.class, handler.apply(subscriber), HttpResponse::body, false)
+                .whenComplete((response, exception) -> {
+                    if (exception != null) {
+                        subscriber.onFailure(exception instanceof CompletionException ? exception.getCause() : exception);
+                    }
+                });
     }
 
     @Override
     public void close() {
-        // Java client does not need to be closed
+        // Java client does not need to be closed, only released when shared
+        if (released.compareAndSet(false, true)) {
+            JavaHttpUtils.SHARED_CLIENTS.release(client);
+        }
     }
 
 }
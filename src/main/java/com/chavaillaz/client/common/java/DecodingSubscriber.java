@@ -0,0 +1,86 @@
+package com.chavaillaz.client.common.java;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.http.HttpResponse.BodySubscriber;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+
+import com.chavaillaz.client.common.compression.Compression;
+import com.chavaillaz.client.common.compression.ContentEncoding;
+import lombok.SneakyThrows;
+
+/**
+ * Body subscriber decoding a compressed response body as it is received, packet by packet,
+ * the decoded bytes being given once the whole body has been received.
+ */
+public class DecodingSubscriber implements BodySubscriber<byte[]> {
+
+    private final CompletableFuture<byte[]> body = new CompletableFuture<>();
+    private final ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+    private final OutputStream decoder;
+    private Flow.Subscription subscription;
+
+    /**
+     * Creates a new decoding subscriber.
+     *
+     * @param compression The compression counting the bytes decoded
+     * @param encodings   The encodings of the response body in their decoding order
+     */
+    @SneakyThrows
+    public DecodingSubscriber(Compression compression, List<ContentEncoding> encodings) {
+        this.decoder = compression.decoder(encodings, decoded);
+    }
+
+    @Override
+    public CompletionStage<byte[]> getBody() {
+        return body;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(Long.MAX_VALUE);
+    }
+
+    @Override
+    public void onNext(List<ByteBuffer> items) {
+        if (body.isDone()) {
+            return;
+        }
+        try {
+            for (ByteBuffer item : items) {
+                if (item.hasArray()) {
+                    decoder.write(item.array(), item.arrayOffset() + item.position(), item.remaining());
+                } else {
+                    byte[] bytes = new byte[item.remaining()];
+                    item.get(bytes);
+                    decoder.write(bytes);
+                }
+            }
+        } catch (IOException e) {
+            subscription.cancel();
+            body.completeExceptionally(e);
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        body.completeExceptionally(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        try {
+            decoder.close();
+            body.complete(decoded.toByteArray());
+        } catch (IOException e) {
+            body.completeExceptionally(e);
+        }
+    }
+
+}
@@ -0,0 +1,191 @@
+package com.chavaillaz.client.common.java;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.http.HttpRequest.BodyPublisher;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.chavaillaz.client.common.compression.Compression;
+
+/**
+ * Body publisher compressing the request body of another publisher as it is sent, packet by packet,
+ * without keeping the whole body in memory (e.g. files). The length of the compressed body is not known
+ * in advance, the body being sent in chunks with HTTP/1.1.
+ */
+public class EncodingBodyPublisher implements BodyPublisher {
+
+    private final BodyPublisher publisher;
+    private final Compression compression;
+
+    /**
+     * Creates a new encoding body publisher.
+     *
+     * @param publisher   The publisher of the body to compress
+     * @param compression The compression encoding the body and counting the bytes encoded
+     */
+    public EncodingBodyPublisher(BodyPublisher publisher, Compression compression) {
+        this.publisher = publisher;
+        this.compression = compression;
+    }
+
+    @Override
+    public long contentLength() {
+        return -1;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+        publisher.subscribe(new EncodingSubscriber(subscriber));
+    }
+
+    /**
+     * Subscriber encoding the packets received before transferring them to the downstream subscriber.
+     * The packets encoded into nothing (kept by the encoder until it has enough data) are replaced by a new
+     * request of one packet, and the end of the encoded body is only transferred once requested.
+     */
+    private class EncodingSubscriber implements Flow.Subscriber<ByteBuffer>, Flow.Subscription {
+
+        private final Flow.Subscriber<? super ByteBuffer> downstream;
+        private final ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicReference<ByteBuffer> end = new AtomicReference<>();
+        private final AtomicBoolean terminated = new AtomicBoolean();
+        private volatile boolean completed;
+        private OutputStream encoder;
+        private Flow.Subscription subscription;
+
+        EncodingSubscriber(Flow.Subscriber<? super ByteBuffer> downstream) {
+            this.downstream = downstream;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            try {
+                encoder = compression.encoder(encoded);
+            } catch (IOException e) {
+                subscription.cancel();
+                downstream.onSubscribe(this);
+                fail(e);
+                return;
+            }
+            downstream.onSubscribe(this);
+        }
+
+        @Override
+        public void onNext(ByteBuffer item) {
+            ByteBuffer buffer;
+            try {
+                buffer = encode(item);
+            } catch (IOException | RuntimeException e) {
+                subscription.cancel();
+                fail(e);
+                return;
+            }
+            if (buffer == null) {
+                subscription.request(1);
+            } else if (buffer.hasRemaining()) {
+                demand.decrementAndGet();
+                downstream.onNext(buffer);
+            }
+        }
+
+        private synchronized ByteBuffer encode(ByteBuffer item) throws IOException {
+            if (terminated.get()) {
+                // Cancelled in the meantime, nothing to send anymore
+                return ByteBuffer.allocate(0);
+            }
+            byte[] bytes = new byte[item.remaining()];
+            item.get(bytes);
+            encoder.write(bytes);
+            return encoded.size() == 0 ? null : flush();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            fail(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            try {
+                synchronized (this) {
+                    if (terminated.get()) {
+                        return;
+                    }
+                    encoder.close();
+                    end.set(flush());
+                }
+            } catch (IOException | RuntimeException e) {
+                fail(e);
+                return;
+            }
+            completed = true;
+            sendEnd();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                subscription.cancel();
+                fail(new IllegalArgumentException("Non-positive request " + n));
+                return;
+            }
+            demand.accumulateAndGet(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            if (completed) {
+                sendEnd();
+            } else {
+                subscription.request(n);
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (terminated.compareAndSet(false, true)) {
+                subscription.cancel();
+                closeQuietly();
+            }
+        }
+
+        private ByteBuffer flush() {
+            ByteBuffer buffer = ByteBuffer.wrap(encoded.toByteArray());
+            encoded.reset();
+            return buffer;
+        }
+
+        private void sendEnd() {
+            ByteBuffer last = end.get();
+            if (last != null && demand.get() > 0 && end.compareAndSet(last, null) && terminated.compareAndSet(false, true)) {
+                if (last.hasRemaining()) {
+                    downstream.onNext(last);
+                }
+                downstream.onComplete();
+            }
+        }
+
+        private void fail(Throwable throwable) {
+            if (terminated.compareAndSet(false, true)) {
+                closeQuietly();
+                downstream.onError(throwable);
+            }
+        }
+
+        private synchronized void closeQuietly() {
+            try {
+                if (encoder != null) {
+                    // Releasing the native memory of the encoder
+                    encoder.close();
+                }
+            } catch (IOException | RuntimeException e) {
+                // Body not sent anyway
+            }
+        }
+
+    }
+
+}
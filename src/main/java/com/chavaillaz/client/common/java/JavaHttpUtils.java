@@ -1,7 +1,10 @@
 package com.chavaillaz.client.common.java;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.CookieManager;
 import java.net.InetSocketAddress;
 import java.net.ProxySelector;
@@ -13,12 +16,18 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
+import com.chavaillaz.client.common.utility.ConnectionConfiguration;
+import com.chavaillaz.client.common.utility.ConnectionRegistry;
+import com.chavaillaz.client.common.utility.Multipart;
 import com.chavaillaz.client.common.utility.ProxyConfiguration;
 import com.chavaillaz.client.common.utility.Utils;
+import lombok.SneakyThrows;
 import lombok.experimental.UtilityClass;
 import org.apache.commons.lang3.tuple.Pair;
 
@@ -29,18 +38,63 @@ import org.apache.commons.lang3.tuple.Pair;
 public class JavaHttpUtils {
 
     /**
-     * Creates a new asynchronous Java HTTP client builder with default configuration (30 seconds timeout).
+     * HTTP clients shared by the clients created with the same configuration (see {@link #sharedHttpClient}).
+     */
+    static final ConnectionRegistry<HttpClient> SHARED_CLIENTS = new ConnectionRegistry<>(client -> {
+        // Java client does not need to be closed
+    });
+
+    /**
+     * Creates a new asynchronous Java HTTP client builder with default configuration (30 seconds timeout),
+     * using HTTP/2 when supported by the server (see {@link ConnectionConfiguration#http2()}).
      *
      * @param proxy The proxy configuration
      * @return The corresponding client
      */
     public static HttpClient.Builder defaultHttpClientBuilder(ProxyConfiguration proxy) {
+        return defaultHttpClientBuilder(proxy, ConnectionConfiguration.http2());
+    }
+
+    /**
+     * Creates a new asynchronous Java HTTP client builder with default configuration (30 seconds timeout)
+     * and the given protocol version. Note that Java HTTP client does not support HTTP/2 with prior knowledge,
+     * upgrading the cleartext connections instead, and that its HTTP/2 settings and connection pool are
+     * configured with system properties (see {@link ConnectionConfiguration}).
+     *
+     * @param proxy      The proxy configuration
+     * @param connection The connection configuration
+     * @return The corresponding client
+     */
+    public static HttpClient.Builder defaultHttpClientBuilder(ProxyConfiguration proxy, ConnectionConfiguration connection) {
+        return cookielessHttpClientBuilder(proxy, connection)
+                .cookieHandler(new CookieManager());
+    }
+
+    private static HttpClient.Builder cookielessHttpClientBuilder(ProxyConfiguration proxy, ConnectionConfiguration connection) {
         return HttpClient.newBuilder()
-                .cookieHandler(new CookieManager())
                 .proxy(Optional.ofNullable(proxy)
                         .map(config -> ProxySelector.of(new InetSocketAddress(config.getHost(), config.getPort())))
                         .orElse(ProxySelector.getDefault()))
-                .connectTimeout(Duration.ofSeconds(30));
+                .connectTimeout(Duration.ofSeconds(30))
+                .version(connection.isHttp2() ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1);
+    }
+
+    /**
+     * Gets the Java HTTP client shared by all the clients created with the same configurations, creating it
+     * with {@link #defaultHttpClientBuilder(ProxyConfiguration, ConnectionConfiguration)} if not present,
+     * in order to reuse the same connections for the requests sent to the same host.
+     * It is released when closing the client using it.
+     * <p>
+     * The shared client has no cookie handler, so that the cookies received by a client are not sent
+     * by the other ones: the cookies of the authentication are still sent in the {@code Cookie} header
+     * but the cookies set by the server are not kept.
+     *
+     * @param proxy      The proxy configuration
+     * @param connection The connection configuration
+     * @return The shared client
+     */
+    public static HttpClient sharedHttpClient(ProxyConfiguration proxy, ConnectionConfiguration connection) {
+        return SHARED_CLIENTS.acquire(Arrays.asList(proxy, connection), () -> cookielessHttpClientBuilder(proxy, connection).build());
     }
 
     /**
@@ -55,6 +109,7 @@ public class JavaHttpUtils {
 
     /**
      * Creates a body publisher for a multipart content.
+     * The files are streamed from the disk when the body is sent.
      *
      * @param data     The data to store in the request
      * @param boundary The boundary to separate them
@@ -63,26 +118,66 @@ public class JavaHttpUtils {
      * @throws IOException if an error occurs when reading files if given in the data parameter
      */
     public static BodyPublisher mimeMultipartData(List<Pair<Object, Object>> data, String boundary, Charset charset) throws IOException {
-        List<byte[]> byteArrays = new ArrayList<>();
-        byte[] separator = ("--" + boundary + "\r\nContent-Disposition: form-data; name=").getBytes(charset);
+        List<BodyPublisher> publishers = new ArrayList<>();
+        String separator = "--" + boundary + "\r\nContent-Disposition: form-data; name=";
         for (Pair<Object, Object> entry : data) {
-            byteArrays.add(separator);
-
             // If value is type of Path (file) append content type with file name and file binaries, otherwise simply append key=value
             if (entry.getValue() instanceof Path path) {
                 String mimeType = Files.probeContentType(path);
-                byteArrays.add(("\"" + entry.getKey()
+                publishers.add(BodyPublishers.ofString(separator + "\"" + entry.getKey()
                         + "\"; filename=\"" + path.getFileName()
-                        + "\"\r\nContent-Type: " + mimeType + "\r\n\r\n").getBytes(charset));
-                byteArrays.add(Files.readAllBytes(path));
-                byteArrays.add("\r\n".getBytes(charset));
+                        + "\"\r\nContent-Type: " + mimeType + "\r\n\r\n", charset));
+                publishers.add(BodyPublishers.ofFile(path));
+                publishers.add(BodyPublishers.ofString("\r\n", charset));
             } else {
-                byteArrays.add(("\"" + entry.getKey() + "\"\r\n\r\n" + entry.getValue() + "\r\n").getBytes(charset));
+                publishers.add(BodyPublishers.ofString(separator + "\"" + entry.getKey() + "\"\r\n\r\n" + entry.getValue() + "\r\n", charset));
             }
         }
 
-        byteArrays.add(("--" + boundary + "--").getBytes(charset));
-        return BodyPublishers.ofByteArrays(byteArrays);
+        publishers.add(BodyPublishers.ofString("--" + boundary + "--", charset));
+        return BodyPublishers.concat(publishers.toArray(new BodyPublisher[0]));
+    }
+
+    /**
+     * Creates a body publisher for the given multipart content, to be sent with its content type
+     * (see {@link Multipart#getContentType()}). The files are streamed from the disk when the body
+     * is sent and the content length is given.
+     *
+     * @param multipart The multipart content
+     * @return The corresponding body publisher
+     */
+    @SneakyThrows
+    public static BodyPublisher multipart(Multipart multipart) {
+        List<BodyPublisher> publishers = new ArrayList<>();
+        for (Multipart.Part part : multipart.getParts()) {
+            publishers.add(BodyPublishers.ofByteArray(multipart.getHeader(part)));
+            publishers.add(part.getFile() != null
+                    ? BodyPublishers.ofFile(part.getFile())
+                    : BodyPublishers.ofByteArray(part.getContent()));
+            publishers.add(BodyPublishers.ofByteArray(multipart.getFooter()));
+        }
+        publishers.add(BodyPublishers.ofByteArray(multipart.getEnd()));
+        return BodyPublishers.concat(publishers.toArray(new BodyPublisher[0]));
+    }
+
+    /**
+     * Gets the given response body as text or the exception message in case of error.
+     * Note that a body given as {@link InputStream} can only be read once.
+     *
+     * @param body The HTTP response body
+     * @return The body content or the exception message when reading it
+     */
+    public static String getBodyOrError(Object body) {
+        if (body instanceof byte[] bytes) {
+            return new String(bytes, UTF_8);
+        } else if (body instanceof InputStream stream) {
+            try (stream) {
+                return Utils.readInputStream(stream);
+            } catch (Exception e) {
+                return e.getMessage();
+            }
+        }
+        return Objects.toString(body, null);
     }
 
     /**
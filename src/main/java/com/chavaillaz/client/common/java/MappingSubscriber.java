@@ -0,0 +1,97 @@
+package com.chavaillaz.client.common.java;
+
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Subscriber mapping the items received before transferring them to a downstream subscriber.
+ * The subscription is directly given to the downstream subscriber so that its demand is honored end-to-end.
+ * Items mapped to {@code null} (e.g. blank lines) are skipped and replaced by a new request of one item.
+ *
+ * @param <S> The type of the items received
+ * @param <T> The type of the items transferred
+ */
+@RequiredArgsConstructor
+public class MappingSubscriber<S, T> implements Flow.Subscriber<S> {
+
+    private final Flow.Subscriber<? super T> downstream;
+    private final Function<S, T> mapper;
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+    private final AtomicBoolean terminated = new AtomicBoolean();
+    private volatile Flow.Subscription subscription;
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        if (subscribed.compareAndSet(false, true)) {
+            this.subscription = subscription;
+            downstream.onSubscribe(subscription);
+        } else {
+            subscription.cancel();
+        }
+    }
+
+    @Override
+    public void onNext(S item) {
+        if (terminated.get()) {
+            return;
+        }
+
+        T mapped;
+        try {
+            mapped = mapper.apply(item);
+        } catch (Exception e) {
+            subscription.cancel();
+            onError(e);
+            return;
+        }
+
+        if (mapped == null) {
+            subscription.request(1);
+        } else {
+            downstream.onNext(mapped);
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        if (terminated.compareAndSet(false, true)) {
+            downstream.onError(throwable);
+        }
+    }
+
+    @Override
+    public void onComplete() {
+        if (terminated.compareAndSet(false, true)) {
+            downstream.onComplete();
+        }
+    }
+
+    /**
+     * Transfers a failure happening before the subscription (e.g. connection failure or unsuccessful response)
+     * to the downstream subscriber. Does nothing if the subscription has already been given to it.
+     *
+     * @param throwable The failure
+     */
+    public void onFailure(Throwable throwable) {
+        if (subscribed.compareAndSet(false, true)) {
+            downstream.onSubscribe(new Flow.Subscription() {
+
+                @Override
+                public void request(long n) {
+                    // Nothing to deliver
+                }
+
+                @Override
+                public void cancel() {
+                    // Nothing to cancel
+                }
+
+            });
+            onError(throwable);
+        }
+    }
+
+}
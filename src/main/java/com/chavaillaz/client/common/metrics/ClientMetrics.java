@@ -0,0 +1,20 @@
+package com.chavaillaz.client.common.metrics;
+
+/**
+ * Listener of the metrics of the requests sent by a client, whatever the HTTP client used
+ * (see {@link MetricsRecorder} for the built-in implementation and {@link MicrometerMetrics} for Micrometer).
+ * It is called once for each request really sent (e.g. for each retry but not for the cached responses),
+ * when its response is received or when it fails, from the thread completing the exchange.
+ * The implementations must therefore be thread-safe and must not block.
+ */
+@FunctionalInterface
+public interface ClientMetrics {
+
+    /**
+     * Records the metrics of a request sent.
+     *
+     * @param sample The metrics of the request
+     */
+    void record(ExchangeSample sample);
+
+}
@@ -0,0 +1,84 @@
+package com.chavaillaz.client.common.metrics;
+
+import com.chavaillaz.client.common.exchange.ExchangeRequest;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Metrics of a request sent, given to the {@link ClientMetrics} when its response is received or when it fails.
+ * The durations are in nanoseconds and are {@code -1} when they cannot be measured with the HTTP client used.
+ */
+@Value
+@Builder
+public class ExchangeSample {
+
+    /**
+     * The HTTP method of the request.
+     */
+    String method;
+
+    /**
+     * The URL template of the request (e.g. {@code /users/{id}}), or {@link ExchangeRequest#UNKNOWN_ROUTE} if not known.
+     */
+    String route;
+
+    /**
+     * The host to which the request is sent.
+     */
+    String host;
+
+    /**
+     * The status code of the response, {@code 0} if no response was received.
+     */
+    int statusCode;
+
+    /**
+     * The failure of the request (including an unsuccessful status code), {@code null} if successful.
+     */
+    Throwable exception;
+
+    /**
+     * The time spent waiting for the limiters before sending the request.
+     */
+    long queueNanos;
+
+    /**
+     * The time spent to open the connection, {@code 0} when an existing connection was reused.
+     */
+    long connectNanos;
+
+    /**
+     * The time elapsed between the sending of the request and the reception of the response headers.
+     */
+    long firstByteNanos;
+
+    /**
+     * The time spent to deserialize the response body.
+     */
+    long deserializationNanos;
+
+    /**
+     * The time elapsed between the sending of the request and the end of the exchange.
+     */
+    long totalNanos;
+
+    /**
+     * The length of the request body, {@code -1} if unknown.
+     */
+    long requestBytes;
+
+    /**
+     * The length of the response body, {@code -1} if unknown.
+     */
+    long responseBytes;
+
+    /**
+     * Indicates if the request succeeded.
+     *
+     * @return {@code true} if a successful response was received, {@code false} otherwise
+     */
+    public boolean isSuccessful() {
+        return exception == null;
+    }
+
+}
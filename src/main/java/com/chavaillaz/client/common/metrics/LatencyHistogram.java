@@ -0,0 +1,119 @@
+package com.chavaillaz.client.common.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of durations recorded without lock and with a fixed memory footprint, in the manner of HdrHistogram.
+ * The values are counted in buckets whose width grows with the power of two of their values (64 buckets
+ * for each power of two), giving percentiles with a relative error below 2% from 1 nanosecond to about 73 minutes,
+ * the longer durations being counted as the maximum one. As the counters are read one by one,
+ * the values read while recording are not necessarily consistent between each other.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final long MAX_VALUE = (1L << 42) - 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(index(MAX_VALUE) + 1);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Gets the index of the bucket of the given value.
+     * The values below 64 have their own bucket and the other ones are grouped by their 7 most significant bits.
+     *
+     * @param value The positive value
+     * @return The bucket index
+     */
+    static int index(long value) {
+        int shift = Math.max(0, 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+        return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+    }
+
+    /**
+     * Gets the highest value counted in the bucket with the given index.
+     *
+     * @param index The bucket index
+     * @return The highest value of the bucket
+     */
+    static long highestValue(int index) {
+        int shift = Math.max(0, (index >> SUB_BUCKET_BITS) - 1);
+        long subBucket = index - ((long) shift << SUB_BUCKET_BITS);
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    /**
+     * Records a duration.
+     *
+     * @param nanos The duration in nanoseconds (negative values being ignored)
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            return;
+        }
+        long value = Math.min(nanos, MAX_VALUE);
+        counts.incrementAndGet(index(value));
+        count.increment();
+        sum.add(value);
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    /**
+     * Gets the number of durations recorded.
+     *
+     * @return The number of durations
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Gets the longest duration recorded.
+     *
+     * @return The duration in nanoseconds or {@code 0} if none has been recorded
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Gets the average of the durations recorded.
+     *
+     * @return The duration in nanoseconds or {@code 0} if none has been recorded
+     */
+    public double getMean() {
+        long total = count.sum();
+        return total > 0 ? (double) sum.sum() / total : 0;
+    }
+
+    /**
+     * Gets the given percentile of the durations recorded, for example {@code 99} for the duration
+     * under which 99% of the durations are (given with the precision of the buckets).
+     *
+     * @param percentile The percentile between {@code 0} and {@code 100}
+     * @return The duration in nanoseconds or {@code 0} if none has been recorded
+     */
+    public long getPercentile(double percentile) {
+        long total = count.sum();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long cumulated = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            cumulated += counts.get(i);
+            if (cumulated >= rank) {
+                return Math.min(highestValue(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+}
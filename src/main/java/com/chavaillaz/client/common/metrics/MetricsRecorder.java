@@ -0,0 +1,158 @@
+package com.chavaillaz.client.common.metrics;
+
+import static org.apache.commons.lang3.StringUtils.SPACE;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.Getter;
+
+/**
+ * Built-in recorder of the metrics of the requests sent, keeping a {@link LatencyHistogram} of each duration
+ * and counters for each route (HTTP method and URL template, e.g. {@code GET /users/{id}}).
+ * The number of routes is limited to avoid an unbounded memory usage when the URL templates are not known,
+ * the requests of the additional routes being recorded together under {@link #OTHER_ROUTE}.
+ */
+public class MetricsRecorder implements ClientMetrics {
+
+    /**
+     * The route under which the requests are recorded once the maximum number of routes is reached.
+     */
+    public static final String OTHER_ROUTE = "OTHER";
+
+    private final Map<String, RouteMetrics> routes = new ConcurrentHashMap<>();
+    private final int maxRoutes;
+
+    /**
+     * Creates a new recorder keeping at most 1000 routes.
+     */
+    public MetricsRecorder() {
+        this(1000);
+    }
+
+    /**
+     * Creates a new recorder.
+     *
+     * @param maxRoutes The maximum number of routes recorded separately
+     */
+    public MetricsRecorder(int maxRoutes) {
+        this.maxRoutes = maxRoutes;
+    }
+
+    @Override
+    public void record(ExchangeSample sample) {
+        String route = sample.getMethod() + SPACE + sample.getRoute();
+        RouteMetrics metrics = routes.get(route);
+        if (metrics == null) {
+            metrics = routes.computeIfAbsent(routes.size() < maxRoutes ? route : OTHER_ROUTE, key -> new RouteMetrics());
+        }
+        metrics.record(sample);
+    }
+
+    /**
+     * Gets the metrics of the given route.
+     *
+     * @param method The HTTP method
+     * @param route  The URL template (e.g. {@code /users/{id}})
+     * @return The metrics or {@code null} if no request has been recorded for this route
+     */
+    public RouteMetrics getRoute(String method, String route) {
+        return routes.get(method + SPACE + route);
+    }
+
+    /**
+     * Gets the metrics of all the routes.
+     *
+     * @return The unmodifiable metrics by route (HTTP method and URL template separated by a space)
+     */
+    public Map<String, RouteMetrics> getRoutes() {
+        return Collections.unmodifiableMap(routes);
+    }
+
+    /**
+     * Metrics of the requests sent for a route.
+     */
+    public static class RouteMetrics {
+
+        @Getter
+        private final LatencyHistogram latency = new LatencyHistogram();
+        @Getter
+        private final LatencyHistogram queue = new LatencyHistogram();
+        @Getter
+        private final LatencyHistogram connect = new LatencyHistogram();
+        @Getter
+        private final LatencyHistogram firstByte = new LatencyHistogram();
+        @Getter
+        private final LatencyHistogram deserialization = new LatencyHistogram();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder requestBytes = new LongAdder();
+        private final LongAdder responseBytes = new LongAdder();
+        private final AtomicLongArray statusClasses = new AtomicLongArray(6);
+
+        private void record(ExchangeSample sample) {
+            latency.record(sample.getTotalNanos());
+            queue.record(sample.getQueueNanos());
+            connect.record(sample.getConnectNanos());
+            firstByte.record(sample.getFirstByteNanos());
+            deserialization.record(sample.getDeserializationNanos());
+            if (!sample.isSuccessful()) {
+                failures.increment();
+            }
+            requestBytes.add(Math.max(0, sample.getRequestBytes()));
+            responseBytes.add(Math.max(0, sample.getResponseBytes()));
+            statusClasses.incrementAndGet(sample.getStatusCode() / 100 % statusClasses.length());
+        }
+
+        /**
+         * Gets the number of requests sent.
+         *
+         * @return The number of requests
+         */
+        public long getRequests() {
+            return latency.getCount();
+        }
+
+        /**
+         * Gets the number of requests failed, including the ones with an unsuccessful status code.
+         *
+         * @return The number of failures
+         */
+        public long getFailures() {
+            return failures.sum();
+        }
+
+        /**
+         * Gets the total length of the request bodies sent.
+         *
+         * @return The number of bytes (the unknown lengths being ignored)
+         */
+        public long getRequestBytes() {
+            return requestBytes.sum();
+        }
+
+        /**
+         * Gets the total length of the response bodies received.
+         *
+         * @return The number of bytes (the unknown lengths being ignored)
+         */
+        public long getResponseBytes() {
+            return responseBytes.sum();
+        }
+
+        /**
+         * Gets the number of responses received with a status code of the given class.
+         *
+         * @param statusClass The class of status code between {@code 1} and {@code 5} (e.g. {@code 2} for 2xx),
+         *                    or {@code 0} for the requests failing without response
+         * @return The number of responses
+         */
+        public long getStatusCount(int statusClass) {
+            return statusClasses.get(statusClass);
+        }
+
+    }
+
+}
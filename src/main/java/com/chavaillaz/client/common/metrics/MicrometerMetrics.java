@@ -0,0 +1,83 @@
+package com.chavaillaz.client.common.metrics;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.http.Outcome;
+
+/**
+ * Binding of the metrics of the requests sent to a Micrometer registry (requiring the optional Micrometer dependency).
+ * The requests are recorded in the timer {@code http.client.requests} with the tags {@code method}, {@code uri}
+ * (the URL template), {@code status}, {@code outcome}, {@code exception} and {@code client.name} (the host),
+ * the other durations and the body lengths being recorded in meters with the same name followed by their kind
+ * (e.g. {@code http.client.requests.first.byte}) and the tags {@code method} and {@code uri} only.
+ * The percentiles and histograms to publish can be configured for these names in the registry.
+ */
+public class MicrometerMetrics implements ClientMetrics {
+
+    private final MeterRegistry registry;
+    private final String name;
+
+    /**
+     * Creates a new Micrometer binding with meters named {@code http.client.requests}.
+     *
+     * @param registry The registry of the meters
+     */
+    public MicrometerMetrics(MeterRegistry registry) {
+        this(registry, "http.client.requests");
+    }
+
+    /**
+     * Creates a new Micrometer binding.
+     *
+     * @param registry The registry of the meters
+     * @param name     The name of the timer of the requests, used as prefix of the other meters
+     */
+    public MicrometerMetrics(MeterRegistry registry, String name) {
+        this.registry = registry;
+        this.name = name;
+    }
+
+    @Override
+    public void record(ExchangeSample sample) {
+        Tags route = Tags.of("method", sample.getMethod(), "uri", sample.getRoute());
+        Timer.builder(name)
+                .description("Duration of the HTTP requests sent")
+                .tags(route)
+                .tag("status", sample.getStatusCode() > 0 ? String.valueOf(sample.getStatusCode()) : "CLIENT_ERROR")
+                .tag("outcome", sample.getStatusCode() > 0 ? Outcome.forStatus(sample.getStatusCode()).name() : Outcome.UNKNOWN.name())
+                .tag("exception", sample.getException() != null ? sample.getException().getClass().getSimpleName() : "none")
+                .tag("client.name", sample.getHost() != null ? sample.getHost() : "none")
+                .register(registry)
+                .record(sample.getTotalNanos(), NANOSECONDS);
+        recordDuration("queue", route, sample.getQueueNanos());
+        recordDuration("connect", route, sample.getConnectNanos());
+        recordDuration("first.byte", route, sample.getFirstByteNanos());
+        recordDuration("deserialization", route, sample.getDeserializationNanos());
+        recordLength("request.size", route, sample.getRequestBytes());
+        recordLength("response.size", route, sample.getResponseBytes());
+    }
+
+    private void recordDuration(String kind, Tags tags, long nanos) {
+        if (nanos >= 0) {
+            Timer.builder(name + "." + kind)
+                    .tags(tags)
+                    .register(registry)
+                    .record(nanos, NANOSECONDS);
+        }
+    }
+
+    private void recordLength(String kind, Tags tags, long bytes) {
+        if (bytes >= 0) {
+            DistributionSummary.builder(name + "." + kind)
+                    .baseUnit("bytes")
+                    .tags(tags)
+                    .register(registry)
+                    .record(bytes);
+        }
+    }
+
+}
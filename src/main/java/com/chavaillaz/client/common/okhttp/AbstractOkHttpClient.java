@@ -1,21 +1,39 @@
 package com.chavaillaz.client.common.okhttp;
 
-import static com.chavaillaz.client.common.utility.Utils.getCookieHeader;
+import static com.chavaillaz.client.common.utility.Utils.onCancellation;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.apache.commons.lang3.StringUtils.EMPTY;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 import com.chavaillaz.client.common.AbstractHttpClient;
+import com.chavaillaz.client.common.codec.Codec;
+import com.chavaillaz.client.common.compression.Compression;
+import com.chavaillaz.client.common.exchange.ExchangeHandler;
+import com.chavaillaz.client.common.exchange.ExchangeRequest;
+import com.chavaillaz.client.common.exchange.ExchangeResponse;
+import com.chavaillaz.client.common.exchange.ExchangeStatistics;
+import com.chavaillaz.client.common.resilience.Deadline;
 import com.chavaillaz.client.common.security.Authentication;
+import com.chavaillaz.client.common.utility.TransferStatistics;
 import com.fasterxml.jackson.databind.JavaType;
 import lombok.SneakyThrows;
+import okhttp3.Call;
+import okhttp3.Headers;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.Response;
 import okhttp3.ResponseBody;
+import okio.BufferedSink;
+import okio.Okio;
 
 /**
  * Abstract class implementing common parts for OkHttp.
@@ -27,6 +45,7 @@ public abstract class AbstractOkHttpClient extends AbstractHttpClient implements
     public static final MediaType MEDIA_TYPE_XML = MediaType.parse(HEADER_CONTENT_XML);
 
     protected final OkHttpClient client;
+    private final AtomicBoolean released = new AtomicBoolean();
 
     /**
      * Creates a new abstract client based on OkHttp client.
@@ -48,22 +67,47 @@ public abstract class AbstractOkHttpClient extends AbstractHttpClient implements
      * @return The request builder having the URL and authentication set
      */
     protected Request.Builder requestBuilder(String url, Object... parameters) {
-        var requestBuilder = new Request.Builder()
-                .url(url(url, parameters).toString())
-                .header(HEADER_CONTENT_TYPE, HEADER_CONTENT_JSON);
-        getAuthentication().fillHeaders(requestBuilder::header);
-        getCookieHeader(getAuthentication()).ifPresent(value -> requestBuilder.header(HEADER_COOKIE, value));
-        return requestBuilder;
+        var requestBuilder = new Request.Builder().url(urlString(url, parameters));
+        fillHeaders(requestBuilder::header);
+        return withRoute(requestBuilder, url);
     }
 
     /**
-     * Creates a request body with the given object serialized as JSON.
+     * Creates a request body with the given object serialized with the codec of the client.
+     * The object is serialized directly into bytes, given as is to the request body.
      *
      * @param object The object to serialize
      * @return The corresponding request body
      */
     protected RequestBody body(Object object) {
-        return RequestBody.create(serialize(object), MEDIA_TYPE_JSON);
+        return RequestBody.create(serializeBytes(object), MediaType.parse(getCodec().getMediaType()));
+    }
+
+    /**
+     * Creates a request body serializing the given object with the codec of the client
+     * while it is written to the connection, without holding the serialized content in memory.
+     * As its length is unknown, the body is sent with chunked transfer encoding.
+     * Prefer it to {@link #body(Object)} for large objects (e.g. bulk requests).
+     *
+     * @param object The object to serialize
+     * @return The corresponding request body
+     */
+    protected RequestBody streamingBody(Object object) {
+        Codec codec = getCodec();
+        MediaType mediaType = MediaType.parse(codec.getMediaType());
+        return new RequestBody() {
+
+            @Override
+            public MediaType contentType() {
+                return mediaType;
+            }
+
+            @Override
+            public void writeTo(BufferedSink sink) throws IOException {
+                codec.serialize(object, sink.outputStream());
+            }
+
+        };
     }
 
     /**
@@ -96,8 +140,118 @@ public abstract class AbstractOkHttpClient extends AbstractHttpClient implements
      * @return A {@link CompletableFuture} with the deserialized domain object
      */
     protected <T> CompletableFuture<T> sendAsync(Request.Builder requestBuilder, JavaType returnType) {
-        return sendAsyncBase(requestBuilder)
-                .thenApply(response -> handleResponse(response, returnType));
+        Request request = requestBuilder.build();
+        ExchangeRequest exchangeRequest = exchangeRequest(request, returnType);
+        exchangeRequest.setRoute(getRoute(requestBuilder));
+        return execute(exchangeRequest, exchange -> {
+            Request sent = withEncodedBody(withHeaders(request, exchange));
+            ExchangeStatistics statistics = new ExchangeStatistics(contentLength(sent));
+            if (metrics != null) {
+                // Allowing the event listener to measure the connection and response times
+                sent = sent.newBuilder().tag(ExchangeStatistics.class, statistics).build();
+            }
+            CompletableFuture<Response> future = sendAsyncBase(sent, exchange.getDeadline());
+            return onCancellation(future.thenApply(response -> {
+                statistics.onFirstByte();
+                long length = response.body() != null ? response.body().contentLength() : -1;
+                T body = statistics.deserialize(() -> handleResponse(response, returnType));
+                return new ExchangeResponse<T>(response.code(), response.headers().toMultimap(), body, length).withStatistics(statistics);
+            }), () -> {
+                future.cancel(true);
+                // Releasing the connection if the response was received just before the cancellation
+                future.thenAccept(Response::close);
+            });
+        });
+    }
+
+    /**
+     * Describes the given request independently of the HTTP client.
+     *
+     * @param request    The request to send
+     * @param returnType The domain object type
+     * @return The corresponding exchange request
+     */
+    protected ExchangeRequest exchangeRequest(Request request, JavaType returnType) {
+        return new ExchangeRequest(request.method(), request.url().uri(), returnType, request.headers().toMultimap());
+    }
+
+    /**
+     * Gets the length of the body of the given request.
+     *
+     * @param request The request to send
+     * @return The number of bytes or {@code -1} if unknown
+     */
+    private static long contentLength(Request request) {
+        try {
+            return request.body() != null ? request.body().contentLength() : 0;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Gets the given request with its body compressed with the request encoding of the {@link #compression}
+     * when the length of the body reaches its threshold. The body is compressed as it is written to the connection.
+     *
+     * @param request The request to send
+     * @return The request with the compressed body or the same request if its body does not have to be compressed
+     */
+    protected Request withEncodedBody(Request request) {
+        Compression bodyCompression = compression;
+        RequestBody body = request.body();
+        if (bodyCompression == null
+                || body == null
+                || !bodyCompression.isRequestEncoded(contentLength(request))
+                || request.header(HEADER_CONTENT_ENCODING) != null) {
+            return request;
+        }
+        return request.newBuilder()
+                .header(HEADER_CONTENT_ENCODING, bodyCompression.getRequestEncoding().getName())
+                .method(request.method(), new EncodingRequestBody(body, bodyCompression))
+                .build();
+    }
+
+    /**
+     * Gets the given request with the headers of the exchange request, which may have been modified.
+     *
+     * @param request  The request to send
+     * @param exchange The exchange request of the request
+     * @return The request with the headers of the exchange request
+     */
+    protected Request withHeaders(Request request, ExchangeRequest exchange) {
+        if (exchange.getHeaders().equals(request.headers().toMultimap())) {
+            return request;
+        }
+        Headers.Builder headers = new Headers.Builder();
+        exchange.getHeaders().forEach((name, values) -> values.forEach(value -> headers.add(name, value)));
+        return request.newBuilder().headers(headers.build()).build();
+    }
+
+    /**
+     * Sends a request and returns a stream of the JSON array elements received, deserialized lazily.
+     * Note that the returned stream must be closed if it is not entirely consumed.
+     *
+     * @param requestBuilder The request builder
+     * @param elementType    The array element type class
+     * @param <T>            The array element type
+     * @return A {@link CompletableFuture} with the stream of elements, completed when receiving the response headers
+     */
+    protected <T> CompletableFuture<Stream<T>> sendAsyncStream(Request.Builder requestBuilder, Class<T> elementType) {
+        return sendAsyncStream(requestBuilder, objectMapper.constructType(elementType));
+    }
+
+    /**
+     * Sends a request and returns a stream of the JSON array elements received, deserialized lazily.
+     * Note that the returned stream must be closed if it is not entirely consumed.
+     *
+     * @param requestBuilder The request builder
+     * @param elementType    The array element type
+     * @param <T>            The array element type
+     * @return A {@link CompletableFuture} with the stream of elements, completed when receiving the response headers
+     */
+    protected <T> CompletableFuture<Stream<T>> sendAsyncStream(Request.Builder requestBuilder, JavaType elementType) {
+        return sendAsync(requestBuilder)
+                .thenApply(stream -> deserializeStream(stream, elementType));
     }
 
     /**
@@ -107,9 +261,20 @@ public abstract class AbstractOkHttpClient extends AbstractHttpClient implements
      * @return A {@link CompletableFuture} with the input stream
      */
     protected CompletableFuture<InputStream> sendAsync(Request.Builder requestBuilder) {
-        return sendAsyncBase(requestBuilder)
-                .thenApply(Response::body)
-                .thenApply(ResponseBody::byteStream);
+        return sendAsyncStreamed(requestBuilder, InputStream.class, response -> response.body().byteStream());
+    }
+
+    /**
+     * Sends a request and writes the response body into the given file as it is received,
+     * without keeping it in memory.
+     *
+     * @param requestBuilder The request builder
+     * @param path           The path of the file to write (created or truncated if it already exists)
+     * @return A {@link CompletableFuture} with the transfer statistics
+     */
+    protected CompletableFuture<TransferStatistics> downloadAsync(Request.Builder requestBuilder, Path path) {
+        long start = System.nanoTime();
+        return sendAsyncStreamed(requestBuilder, TransferStatistics.class, response -> handleDownload(response, path, start));
     }
 
     /**
@@ -119,29 +284,109 @@ public abstract class AbstractOkHttpClient extends AbstractHttpClient implements
      * @return A {@link CompletableFuture} with the response
      */
     protected CompletableFuture<Response> sendAsyncBase(Request.Builder requestBuilder) {
+        return sendAsyncStreamed(requestBuilder, Response.class, Function.identity());
+    }
+
+    /**
+     * Sends a request with the features common to all HTTP clients (see {@link #execute(ExchangeRequest, ExchangeHandler)})
+     * and gives its response to the given handler as soon as it is received, without deserializing its body
+     * (see {@link ExchangeRequest#isStreamed()}).
+     *
+     * @param requestBuilder The request builder
+     * @param resultType     The type of the result given by the handler
+     * @param handler        The handler of the response
+     * @param <T>            The result type
+     * @return A {@link CompletableFuture} with the result of the handler
+     */
+    protected <T> CompletableFuture<T> sendAsyncStreamed(Request.Builder requestBuilder, Class<T> resultType, Function<Response, T> handler) {
+        Request request = requestBuilder.build();
+        ExchangeRequest exchangeRequest = exchangeRequest(request, objectMapper.constructType(resultType));
+        exchangeRequest.setRoute(getRoute(requestBuilder));
+        exchangeRequest.setStreamed(true);
+        return execute(exchangeRequest, exchange -> {
+            Request sent = withEncodedBody(withHeaders(request, exchange));
+            ExchangeStatistics statistics = new ExchangeStatistics(contentLength(sent));
+            if (metrics != null) {
+                // Allowing the event listener to measure the connection and response times
+                sent = sent.newBuilder().tag(ExchangeStatistics.class, statistics).build();
+            }
+            CompletableFuture<Response> future = sendAsyncBase(sent, exchange.getDeadline());
+            return onCancellation(future.thenApply(response -> {
+                statistics.onFirstByte();
+                long length = response.body() != null ? response.body().contentLength() : -1;
+                return new ExchangeResponse<T>(response.code(), response.headers().toMultimap(), handler.apply(response), length).withStatistics(statistics);
+            }), () -> {
+                future.cancel(true);
+                future.thenAccept(Response::close);
+            });
+        });
+    }
+
+    /**
+     * Sends a request and returns the corresponding response, without the features common to all HTTP clients.
+     *
+     * @param request The request to send
+     * @return A {@link CompletableFuture} with the response
+     */
+    protected CompletableFuture<Response> sendAsyncBase(Request request) {
+        return sendAsyncBase(request, null);
+    }
+
+    /**
+     * Sends a request with the remaining time before the given deadline as timeout of the whole call
+     * and returns the corresponding response, without the features common to all HTTP clients.
+     *
+     * @param request  The request to send
+     * @param deadline The deadline of the request or {@code null} to use the timeouts of the client
+     * @return A {@link CompletableFuture} with the response
+     */
+    protected CompletableFuture<Response> sendAsyncBase(Request request, Deadline deadline) {
         CompletableFuture<Response> completableFuture = new CompletableFuture<>();
-        client.newCall(requestBuilder.build()).enqueue(new CompletableFutureCallback(this, completableFuture));
-        return completableFuture;
+        Call call = client.newCall(request);
+        if (deadline != null) {
+            call.timeout().timeout(deadline.remainingMillis(), MILLISECONDS);
+        }
+        call.enqueue(new CompletableFutureCallback(this, completableFuture));
+        return onCancellation(completableFuture, call::cancel);
     }
 
     /**
      * Handles the response by converting it to the given type.
+     * The body is parsed while being read from the response stream, without intermediate decoding.
      *
      * @param response The HTTP response
      * @param type     The type in which convert the response body
      * @param <T>      The desired domain object type
      * @return The instance of the given type
      */
-    @SneakyThrows
     protected <T> T handleResponse(Response response, JavaType type) {
         try (ResponseBody body = response.body()) {
-            return body != null ? deserialize(body.string(), type) : null;
+            return body != null ? deserialize(body.byteStream(), response.header(HEADER_CONTENT_TYPE), type) : null;
+        }
+    }
+
+    /**
+     * Handles the response by writing its body into the given file.
+     *
+     * @param response The HTTP response
+     * @param path     The path of the file to write
+     * @param start    The start of the transfer, as given by {@link System#nanoTime()}
+     * @return The transfer statistics
+     */
+    @SneakyThrows
+    protected TransferStatistics handleDownload(Response response, Path path, long start) {
+        try (ResponseBody body = response.body(); BufferedSink sink = Okio.buffer(Okio.sink(path))) {
+            long bytes = body != null ? sink.writeAll(body.source()) : 0;
+            return TransferStatistics.since(start, bytes);
         }
     }
 
     @Override
     public void close() throws Exception {
-        // OkHttp client does not need to be closed
+        // OkHttp client does not need to be closed, only released when shared
+        if (released.compareAndSet(false, true)) {
+            OkHttpUtils.SHARED_CLIENTS.release(client);
+        }
     }
 
 }
@@ -1,5 +1,6 @@
 package com.chavaillaz.client.common.okhttp;
 
+import static com.chavaillaz.client.common.okhttp.OkHttpUtils.decodedResponse;
 import static com.chavaillaz.client.common.okhttp.OkHttpUtils.getBodyOrError;
 
 import java.io.IOException;
@@ -18,6 +19,8 @@ import okhttp3.Response;
  * Callback for OkHttp Client in order to transfer state to a {@link CompletableFuture}.
  * It completes exceptionally if the response code is not in the 2xx or 3xx range (see {@link ResponseException})
  * or if a connection failure happens (e.g. timeout).
+ * The response body is decoded as it is read when it is compressed with an encoding accepted by the compression
+ * of the client (see {@link OkHttpUtils#decodedResponse}).
  */
 @Slf4j
 @AllArgsConstructor
@@ -30,10 +33,19 @@ public class CompletableFutureCallback implements Callback {
     public void onResponse(Call call, Response response) {
         log.debug("{} completed: {}", call.request(), response);
 
-        if (response.code() >= 400) {
-            future.completeExceptionally(getResponseException(call, response));
+        Response decoded;
+        try {
+            decoded = decodedResponse(client, response);
+        } catch (IOException e) {
+            response.close();
+            onFailure(call, e);
+            return;
+        }
+
+        if (!client.isSuccessful(decoded.code())) {
+            future.completeExceptionally(getResponseException(call, decoded));
         } else {
-            future.complete(response);
+            future.complete(decoded);
         }
     }
 
@@ -41,7 +53,8 @@ public class CompletableFutureCallback implements Callback {
         String content = getBodyOrError(response);
         String method = call.request().method();
         String url = call.request().url().uri().toString();
-        return client.responseException(method, url, response.code(), content);
+        return client.responseException(method, url, response.code(), content)
+                .withHeaders(response.headers().toMultimap());
     }
 
     @Override
@@ -0,0 +1,70 @@
+package com.chavaillaz.client.common.okhttp;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.chavaillaz.client.common.compression.Compression;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+import okio.Okio;
+
+/**
+ * Request body compressing the content of another request body as it is written to the connection,
+ * without keeping the whole body in memory (e.g. files). The length of the compressed body is not known
+ * in advance, the body being sent with chunked transfer encoding.
+ */
+public class EncodingRequestBody extends RequestBody {
+
+    private final RequestBody body;
+    private final Compression compression;
+
+    /**
+     * Creates a new encoding request body.
+     *
+     * @param body        The request body to compress
+     * @param compression The compression encoding the body and counting the bytes encoded
+     */
+    public EncodingRequestBody(RequestBody body, Compression compression) {
+        this.body = body;
+        this.compression = compression;
+    }
+
+    @Override
+    public MediaType contentType() {
+        return body.contentType();
+    }
+
+    @Override
+    public long contentLength() {
+        return -1;
+    }
+
+    @Override
+    public boolean isOneShot() {
+        return body.isOneShot();
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        // The sink of the connection is closed by OkHttp itself once the body is written
+        OutputStream target = new FilterOutputStream(sink.outputStream()) {
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+
+        };
+        try (BufferedSink encoder = Okio.buffer(Okio.sink(compression.encoder(target)))) {
+            body.writeTo(encoder);
+        }
+    }
+
+}
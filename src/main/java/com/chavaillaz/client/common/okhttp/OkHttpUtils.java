@@ -1,7 +1,11 @@
 package com.chavaillaz.client.common.okhttp;
 
+import static com.chavaillaz.client.common.AbstractHttpClient.HEADER_CONTENT_ENCODING;
+import static com.chavaillaz.client.common.utility.ConnectionConfiguration.Version.HTTP_2_PRIOR_KNOWLEDGE;
 import static java.net.Proxy.Type.HTTP;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.nio.file.Files.probeContentType;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static okhttp3.MultipartBody.FORM;
 
 import java.io.File;
@@ -9,18 +13,30 @@ import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.Proxy;
 import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
+import com.chavaillaz.client.common.AbstractHttpClient;
+import com.chavaillaz.client.common.compression.ContentEncoding;
+import com.chavaillaz.client.common.utility.ConnectionConfiguration;
+import com.chavaillaz.client.common.utility.ConnectionRegistry;
+import com.chavaillaz.client.common.utility.Multipart;
 import com.chavaillaz.client.common.utility.ProxyConfiguration;
 import lombok.SneakyThrows;
 import lombok.experimental.UtilityClass;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.MediaType;
 import okhttp3.MultipartBody;
 import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
 import okhttp3.RequestBody;
 import okhttp3.Response;
 import okhttp3.ResponseBody;
+import okio.BufferedSource;
+import okio.Okio;
 
 /**
  * Utilities for OkHttp Client.
@@ -29,19 +45,77 @@ import okhttp3.ResponseBody;
 public class OkHttpUtils {
 
     /**
-     * Creates a new asynchronous OkHttp HTTP client builder with default configuration (30 seconds timeout).
+     * HTTP clients shared by the clients created with the same configuration (see {@link #sharedHttpClient}).
+     */
+    static final ConnectionRegistry<OkHttpClient> SHARED_CLIENTS = new ConnectionRegistry<>(client -> {
+        client.dispatcher().executorService().shutdown();
+        client.connectionPool().evictAll();
+    });
+
+    /**
+     * Creates a new asynchronous OkHttp HTTP client builder with default configuration (30 seconds timeout),
+     * using HTTP/2 when supported by the server (see {@link ConnectionConfiguration#http2()}) and
+     * measuring the connection and response times of the requests (see {@link StatisticsEventListener}).
      *
      * @param proxy The proxy configuration
      * @return The corresponding client
      */
     public static OkHttpClient.Builder defaultHttpClientBuilder(ProxyConfiguration proxy) {
+        return defaultHttpClientBuilder(proxy, ConnectionConfiguration.http2());
+    }
+
+    /**
+     * Creates a new asynchronous OkHttp HTTP client builder with default configuration (30 seconds timeout)
+     * and the given connection configuration, measuring the connection and response times of the requests
+     * (see {@link StatisticsEventListener}). Note that OkHttp limits the number of concurrent requests sent to
+     * each host instead of the number of connections, allowing the maximum number of concurrent streams with
+     * HTTP/2 prior knowledge, which is only supported on cleartext connections.
+     *
+     * @param proxy      The proxy configuration
+     * @param connection The connection configuration
+     * @return The corresponding client
+     */
+    public static OkHttpClient.Builder defaultHttpClientBuilder(ProxyConfiguration proxy, ConnectionConfiguration connection) {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequestsPerHost(connection.getVersion() == HTTP_2_PRIOR_KNOWLEDGE
+                ? connection.getMaxConcurrentStreams()
+                : connection.getMaxConnectionsPerHost());
+        dispatcher.setMaxRequests(Math.max(dispatcher.getMaxRequests(), dispatcher.getMaxRequestsPerHost()));
+        // Same keep alive as the default connection pool of OkHttp if not defined
+        Duration keepAliveTimeout = Optional.ofNullable(connection.getKeepAliveTimeout()).orElse(Duration.ofMinutes(5));
         return new OkHttpClient.Builder()
                 .proxy(Optional.ofNullable(proxy)
                         .map(config -> new Proxy(HTTP, new InetSocketAddress(config.getHost(), config.getPort())))
                         .orElse(null))
                 .connectTimeout(Duration.ofSeconds(30))
                 .readTimeout(Duration.ofSeconds(30))
-                .callTimeout(Duration.ofSeconds(0));
+                .callTimeout(Duration.ofSeconds(0))
+                .protocols(protocols(connection.getVersion()))
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(connection.getMaxConnections(), keepAliveTimeout.toMillis(), MILLISECONDS))
+                .eventListenerFactory(StatisticsEventListener.FACTORY);
+    }
+
+    private static List<Protocol> protocols(ConnectionConfiguration.Version version) {
+        return switch (version) {
+            case HTTP_1_1 -> List.of(Protocol.HTTP_1_1);
+            case HTTP_2 -> List.of(Protocol.HTTP_2, Protocol.HTTP_1_1);
+            case HTTP_2_PRIOR_KNOWLEDGE -> List.of(Protocol.H2_PRIOR_KNOWLEDGE);
+        };
+    }
+
+    /**
+     * Gets the OkHttp client shared by all the clients created with the same configurations, creating it
+     * with {@link #defaultHttpClientBuilder(ProxyConfiguration, ConnectionConfiguration)} if not present,
+     * in order to reuse the same connections for the requests sent to the same host.
+     * Its connections are closed when all the clients using it are closed.
+     *
+     * @param proxy      The proxy configuration
+     * @param connection The connection configuration
+     * @return The shared client
+     */
+    public static OkHttpClient sharedHttpClient(ProxyConfiguration proxy, ConnectionConfiguration connection) {
+        return SHARED_CLIENTS.acquire(Arrays.asList(proxy, connection), () -> defaultHttpClientBuilder(proxy, connection).build());
     }
 
     /**
@@ -63,6 +137,32 @@ public class OkHttpUtils {
         return multipartBuilder.build();
     }
 
+    /**
+     * Creates a new multipart body with the given multipart content.
+     * The files are streamed from the disk when the body is sent.
+     *
+     * @param multipart The multipart content
+     * @return The multipart body
+     */
+    public static MultipartBody multipart(Multipart multipart) {
+        MultipartBody.Builder multipartBuilder = new MultipartBody.Builder(multipart.getBoundary())
+                .setType(FORM);
+
+        for (Multipart.Part part : multipart.getParts()) {
+            if (part.isText()) {
+                multipartBuilder.addFormDataPart(part.getName(), new String(part.getContent(), UTF_8));
+            } else {
+                MediaType type = MediaType.parse(part.getContentType());
+                RequestBody body = part.getFile() != null
+                        ? RequestBody.create(part.getFile().toFile(), type)
+                        : RequestBody.create(part.getContent(), type);
+                multipartBuilder.addFormDataPart(part.getName(), part.getFileName(), body);
+            }
+        }
+
+        return multipartBuilder.build();
+    }
+
     /**
      * Creates the request body for form data using a map of key value representing the data to send.
      *
@@ -104,4 +204,28 @@ public class OkHttpUtils {
         }
     }
 
+    /**
+     * Gets the given response with its body decoded as it is read, when it is compressed with an encoding
+     * accepted by the compression of the given client. The {@code Content-Encoding} and {@code Content-Length}
+     * headers of the decoded response are removed, as done by OkHttp for the responses it decodes itself.
+     *
+     * @param client   The client having sent the request
+     * @param response The response received
+     * @return The response with the decoded body or the same response if its body is not compressed
+     * @throws IOException if the body cannot be read
+     */
+    public static Response decodedResponse(AbstractHttpClient client, Response response) throws IOException {
+        ResponseBody body = response.body();
+        List<ContentEncoding> encodings = client.getResponseEncodings(response.header(HEADER_CONTENT_ENCODING));
+        if (body == null || encodings.isEmpty()) {
+            return response;
+        }
+        BufferedSource decoded = Okio.buffer(Okio.source(client.getCompression().decode(encodings, body.byteStream())));
+        return response.newBuilder()
+                .removeHeader(HEADER_CONTENT_ENCODING)
+                .removeHeader("Content-Length")
+                .body(ResponseBody.create(decoded, body.contentType(), -1))
+                .build();
+    }
+
 }
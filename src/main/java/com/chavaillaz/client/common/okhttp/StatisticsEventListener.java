@@ -0,0 +1,48 @@
+package com.chavaillaz.client.common.okhttp;
+
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+
+import com.chavaillaz.client.common.exchange.ExchangeStatistics;
+import lombok.RequiredArgsConstructor;
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+
+/**
+ * Event listener for OkHttp Client filling the statistics of the requests tagged with {@link ExchangeStatistics},
+ * with the time spent to open the connection and the reception of the response headers.
+ * It is configured by {@link OkHttpUtils#defaultHttpClientBuilder} and can be added to other clients
+ * with {@code builder.eventListenerFactory(StatisticsEventListener.FACTORY)}.
+ */
+@RequiredArgsConstructor
+public class StatisticsEventListener extends EventListener {
+
+    /**
+     * The factory creating a listener for the calls whose request is tagged with {@link ExchangeStatistics}.
+     */
+    public static final EventListener.Factory FACTORY = call -> {
+        ExchangeStatistics statistics = call.request().tag(ExchangeStatistics.class);
+        return statistics != null ? new StatisticsEventListener(statistics) : EventListener.NONE;
+    };
+
+    private final ExchangeStatistics statistics;
+    private long connectStart = -1;
+
+    @Override
+    public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+        connectStart = System.nanoTime();
+    }
+
+    @Override
+    public void connectionAcquired(Call call, Connection connection) {
+        // No connection opened when an existing one is reused
+        statistics.onConnect(connectStart >= 0 ? System.nanoTime() - connectStart : 0);
+    }
+
+    @Override
+    public void responseHeadersStart(Call call) {
+        statistics.onFirstByte();
+    }
+
+}
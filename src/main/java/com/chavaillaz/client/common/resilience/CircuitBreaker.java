@@ -0,0 +1,286 @@
+package com.chavaillaz.client.common.resilience;
+
+import static com.chavaillaz.client.common.utility.Utils.isTransportFailure;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.chavaillaz.client.common.exception.CircuitOpenException;
+import com.chavaillaz.client.common.exception.RequestException;
+import com.chavaillaz.client.common.exception.ResponseException;
+import com.chavaillaz.client.common.exchange.ExchangeHandler;
+import com.chavaillaz.client.common.exchange.ExchangeInterceptor;
+import com.chavaillaz.client.common.exchange.ExchangeRequest;
+import com.chavaillaz.client.common.exchange.ExchangeResponse;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Circuit breaker failing fast the requests sent to a host considered as unavailable, instead of waiting
+ * for the connection timeout, in order to let it recover. Each host has its own circuit, which is:
+ * <ul>
+ *     <li>closed (requests sent) as long as the failure rate and the slow call rate of the latest requests
+ *     are below their thresholds</li>
+ *     <li>open (requests rejected with a {@link CircuitOpenException}) during the given duration
+ *     once a threshold is reached</li>
+ *     <li>half-open afterwards, sending a few trial requests and closing the circuit if all of them succeed
+ *     quickly or opening it again otherwise</li>
+ * </ul>
+ * The requests failing before getting a response (a {@link RequestException} or a connection error of the HTTP client)
+ * and the ones returning a {@code 500}, {@code 502}, {@code 503} or {@code 504} status code (by default)
+ * are counted as failures.
+ * The circuits are updated without lock.
+ */
+@Slf4j
+public class CircuitBreaker implements ExchangeInterceptor {
+
+    private static final int SUCCESS = 1;
+    private static final int FAILURE = 2;
+    private static final int SLOW = 4;
+
+    private final double failureRateThreshold;
+    private final long openDuration;
+    private final Map<String, Circuit> circuits = new ConcurrentHashMap<>();
+    private final LongAdder rejected = new LongAdder();
+    private double slowCallRateThreshold = 100;
+    private long slowCallDuration = Long.MAX_VALUE;
+    private int windowSize = 100;
+    private int minimumCalls = 20;
+    private int trialCalls = 3;
+    private Set<Integer> failureStatusCodes = Set.of(500, 502, 503, 504);
+
+    /**
+     * Creates a new circuit breaker.
+     *
+     * @param failureRateThreshold The percentage of failures opening the circuit (e.g. {@code 50})
+     * @param openDuration         The duration during which the circuit stays open before sending trial requests
+     */
+    public CircuitBreaker(double failureRateThreshold, Duration openDuration) {
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDuration = openDuration.toNanos();
+    }
+
+    /**
+     * Defines the requests considered as slow, which can also open the circuit.
+     *
+     * @param rateThreshold The percentage of slow requests opening the circuit (e.g. {@code 80})
+     * @param duration      The duration from which a request is considered as slow
+     * @return The current circuit breaker
+     */
+    public CircuitBreaker withSlowCalls(double rateThreshold, Duration duration) {
+        this.slowCallRateThreshold = rateThreshold;
+        this.slowCallDuration = duration.toNanos();
+        return this;
+    }
+
+    /**
+     * Defines the sliding window of the latest requests from which the rates are computed,
+     * by default the 100 latest requests and at least 20 of them.
+     *
+     * @param size         The number of latest requests kept
+     * @param minimumCalls The minimum number of requests before computing the rates
+     * @return The current circuit breaker
+     */
+    public CircuitBreaker withWindow(int size, int minimumCalls) {
+        this.windowSize = size;
+        this.minimumCalls = minimumCalls;
+        return this;
+    }
+
+    /**
+     * Defines the number of trial requests sent when the circuit is half-open, 3 by default.
+     *
+     * @param trialCalls The number of trial requests
+     * @return The current circuit breaker
+     */
+    public CircuitBreaker withTrialCalls(int trialCalls) {
+        this.trialCalls = trialCalls;
+        return this;
+    }
+
+    /**
+     * Defines the status codes counted as failures, {@code 500}, {@code 502}, {@code 503} and {@code 504} by default.
+     *
+     * @param statusCodes The status codes
+     * @return The current circuit breaker
+     */
+    public CircuitBreaker withFailureStatusCodes(Integer... statusCodes) {
+        this.failureStatusCodes = Set.of(statusCodes);
+        return this;
+    }
+
+    /**
+     * Sends the request if the circuit of its host is not open.
+     *
+     * @param request The request to send
+     * @param handler The handler sending the request
+     * @param <T>     The domain object type
+     * @return A {@link CompletableFuture} with the response
+     */
+    @Override
+    public <T> CompletableFuture<ExchangeResponse<T>> exchange(ExchangeRequest request, ExchangeHandler<T> handler) {
+        String host = request.getUri().getAuthority();
+        Circuit circuit = circuits.computeIfAbsent(host, key -> new Circuit());
+        Phase phase = circuit.acquire();
+        if (phase == null) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(new CircuitOpenException(request.getMethod(), request.getUri().toString(), host));
+        }
+
+        long start = System.nanoTime();
+        CompletableFuture<ExchangeResponse<T>> future;
+        try {
+            future = handler.exchange(request);
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        // Not returning a dependent future, in order to also be notified when the caller cancels it
+        future.whenComplete((response, exception) -> circuit.complete(phase, host, System.nanoTime() - start, exception));
+        return future;
+    }
+
+    private boolean isFailure(Throwable exception) {
+        if (exception instanceof ResponseException responseException) {
+            Integer code = responseException.getStatusCode();
+            return code != null && failureStatusCodes.contains(code);
+        }
+        return isTransportFailure(exception);
+    }
+
+    /**
+     * Gets the state of the circuit of the given host.
+     *
+     * @param host The host, with its port if not the default one of the scheme
+     * @return The state of the circuit, closed if no request has been sent to the host
+     */
+    public State getState(String host) {
+        Circuit circuit = circuits.get(host);
+        return circuit != null ? circuit.phase.get().state : State.CLOSED;
+    }
+
+    /**
+     * Gets the number of requests rejected because their circuit was open.
+     *
+     * @return The number of requests rejected
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * State of a circuit.
+     */
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    /**
+     * Phase of a circuit, replaced as a whole for each state change so that the requests completing
+     * after the change do not update the new phase.
+     */
+    private final class Phase {
+
+        private final State state;
+        private final long openedAt;
+        private final AtomicInteger permits = new AtomicInteger(trialCalls);
+        private final AtomicInteger successes = new AtomicInteger();
+        private final AtomicIntegerArray outcomes;
+        private final AtomicLong calls = new AtomicLong();
+        private final AtomicInteger failures = new AtomicInteger();
+        private final AtomicInteger slowCalls = new AtomicInteger();
+
+        Phase(State state, long openedAt) {
+            this.state = state;
+            this.openedAt = openedAt;
+            this.outcomes = new AtomicIntegerArray(state == State.CLOSED ? windowSize : 0);
+        }
+
+        /**
+         * Records the outcome of a request in the sliding window, replacing the oldest one.
+         *
+         * @return {@code true} if a threshold is reached, {@code false} otherwise
+         */
+        boolean record(int outcome) {
+            long index = calls.getAndIncrement();
+            int previous = outcomes.getAndSet((int) (index % windowSize), outcome);
+            failures.addAndGet(((outcome & FAILURE) - (previous & FAILURE)) / FAILURE);
+            slowCalls.addAndGet(((outcome & SLOW) - (previous & SLOW)) / SLOW);
+            long total = Math.min(index + 1, windowSize);
+            return total >= minimumCalls
+                    && (failures.get() * 100.0 >= failureRateThreshold * total
+                    || slowCalls.get() * 100.0 >= slowCallRateThreshold * total);
+        }
+
+    }
+
+    /**
+     * Circuit of a host.
+     */
+    private final class Circuit {
+
+        private final AtomicReference<Phase> phase = new AtomicReference<>(new Phase(State.CLOSED, 0));
+
+        /**
+         * Acquires the permission to send a request.
+         *
+         * @return The phase in which the request is sent or {@code null} if it must be rejected
+         */
+        Phase acquire() {
+            while (true) {
+                Phase current = phase.get();
+                if (current.state == State.CLOSED) {
+                    return current;
+                } else if (current.state == State.HALF_OPEN) {
+                    return current.permits.getAndUpdate(permits -> Math.max(0, permits - 1)) > 0 ? current : null;
+                } else if (System.nanoTime() - current.openedAt < openDuration) {
+                    return null;
+                }
+                phase.compareAndSet(current, new Phase(State.HALF_OPEN, 0));
+            }
+        }
+
+        /**
+         * Updates the circuit with a request completed.
+         */
+        void complete(Phase sent, String host, long duration, Throwable exception) {
+            Throwable cause = exception instanceof CompletionException && exception.getCause() != null ? exception.getCause() : exception;
+            if (cause instanceof CancellationException) {
+                // Not telling anything about the host, the trial request can be sent again
+                if (sent.state == State.HALF_OPEN) {
+                    sent.permits.incrementAndGet();
+                }
+                return;
+            }
+
+            int outcome = (isFailure(cause) ? FAILURE : SUCCESS) | (duration >= slowCallDuration ? SLOW : 0);
+            if (phase.get() != sent) {
+                return;
+            } else if (sent.state == State.CLOSED && sent.record(outcome)) {
+                transition(sent, State.OPEN, host);
+            } else if (sent.state == State.HALF_OPEN && outcome != SUCCESS) {
+                transition(sent, State.OPEN, host);
+            } else if (sent.state == State.HALF_OPEN && sent.successes.incrementAndGet() >= trialCalls) {
+                transition(sent, State.CLOSED, host);
+            }
+        }
+
+        private void transition(Phase current, State state, String host) {
+            if (phase.compareAndSet(current, new Phase(state, System.nanoTime()))) {
+                log.debug("Circuit of {} changed from {} to {}", host, current.state, state);
+            }
+        }
+
+    }
+
+}
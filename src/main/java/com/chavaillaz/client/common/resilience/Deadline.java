@@ -0,0 +1,114 @@
+package com.chavaillaz.client.common.resilience;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+import lombok.Getter;
+
+/**
+ * Point in time after which the response of a request is not useful anymore, covering all its attempts.
+ * A deadline can be applied to all the requests sent during a call with {@link #call(Supplier)},
+ * for example to give the remaining time of a request received by a server to the requests it sends itself.
+ * The time is measured with {@link System#nanoTime()} and is therefore not affected by clock changes.
+ */
+public final class Deadline {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    @Getter
+    private final Duration timeout;
+    private final long expiration;
+
+    private Deadline(Duration timeout, long expiration) {
+        this.timeout = timeout;
+        this.expiration = expiration;
+    }
+
+    /**
+     * Creates a new deadline expiring after the given duration from now.
+     *
+     * @param timeout The duration before the expiration
+     * @return The deadline
+     */
+    public static Deadline after(Duration timeout) {
+        return new Deadline(timeout, System.nanoTime() + timeout.toNanos());
+    }
+
+    /**
+     * Gets the deadline applied to the requests sent by the current thread.
+     *
+     * @return The deadline or {@code null} if there is none
+     * @see #call(Supplier)
+     */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Runs the given call with this deadline applied to all the requests it sends.
+     * Note that only the requests sent synchronously by the call (i.e. before returning) are concerned,
+     * which is the case of the requests sent by the clients methods (even if the response is received later).
+     * When a deadline is already applied to the current thread, the earliest one is kept.
+     *
+     * @param call The call sending the requests
+     * @param <T>  The type of the result of the call
+     * @return The result of the call
+     */
+    public <T> T call(Supplier<T> call) {
+        Deadline previous = CURRENT.get();
+        CURRENT.set(earliest(previous));
+        try {
+            return call.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    /**
+     * Gets the earliest deadline between this one and the given one.
+     *
+     * @param other The other deadline or {@code null}
+     * @return The deadline expiring first
+     */
+    public Deadline earliest(Deadline other) {
+        return other != null && other.expiration - expiration < 0 ? other : this;
+    }
+
+    /**
+     * Gets the remaining time before the expiration.
+     *
+     * @return The remaining time in nanoseconds, {@code 0} if the deadline is expired
+     */
+    public long remainingNanos() {
+        return Math.max(0, expiration - System.nanoTime());
+    }
+
+    /**
+     * Gets the remaining time before the expiration, to be given as timeout to the HTTP clients.
+     * It is rounded up and always positive, as a timeout of {@code 0} often means no timeout at all.
+     *
+     * @return The remaining time in milliseconds, at least {@code 1}
+     */
+    public long remainingMillis() {
+        return Math.max(1, (remainingNanos() + 999_999) / 1_000_000);
+    }
+
+    /**
+     * Indicates if the deadline is expired.
+     *
+     * @return {@code true} if there is no remaining time, {@code false} otherwise
+     */
+    public boolean isExpired() {
+        return remainingNanos() == 0;
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline of " + timeout.toMillis() + " ms (" + remainingNanos() / 1_000_000 + " ms remaining)";
+    }
+
+}
@@ -0,0 +1,189 @@
+package com.chavaillaz.client.common.resilience;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.chavaillaz.client.common.exchange.ExchangeHandler;
+import com.chavaillaz.client.common.exchange.ExchangeInterceptor;
+import com.chavaillaz.client.common.exchange.ExchangeRequest;
+import com.chavaillaz.client.common.exchange.ExchangeResponse;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Policy sending a second identical request when the response of the first one takes longer than usual,
+ * in order to reduce the tail latency caused by slow servers. The first response received is used
+ * and the other request is cancelled, aborting its HTTP call.
+ * The delay before sending the second request is the given percentile of the latest latencies measured
+ * (e.g. the 95th percentile, sending a second request for 5% of the requests), bounded by a minimum and a maximum.
+ * Only the repeatable requests with an idempotent method and whose response is not streamed are hedged and the number of second requests
+ * is limited by a {@link RetryBudget}, so that they cannot overload a slow server.
+ */
+@Slf4j
+public class HedgingPolicy implements ExchangeInterceptor {
+
+    private static final int WINDOW_SIZE = 512;
+    private static final int MIN_SAMPLES = 20;
+    private static final int REFRESH_INTERVAL = 32;
+
+    private final double percentile;
+    private final long minDelay;
+    private final long maxDelay;
+    private final LatencyWindow latencies = new LatencyWindow(WINDOW_SIZE);
+    private final LongAdder hedged = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+    private volatile long delay;
+    private Set<String> methods = RetryPolicy.IDEMPOTENT_METHODS;
+    @Getter
+    private RetryBudget budget = new RetryBudget(0.1, 10);
+
+    /**
+     * Creates a new hedging policy.
+     *
+     * @param percentile The percentile of the latencies after which the second request is sent (e.g. {@code 95})
+     * @param minDelay   The minimum delay before sending the second request
+     * @param maxDelay   The maximum delay before sending the second request, used until enough latencies are measured
+     */
+    public HedgingPolicy(double percentile, Duration minDelay, Duration maxDelay) {
+        this.percentile = percentile;
+        this.minDelay = minDelay.toNanos();
+        this.maxDelay = maxDelay.toNanos();
+        this.delay = this.maxDelay;
+    }
+
+    /**
+     * Defines the HTTP methods of the requests which can be hedged, {@link RetryPolicy#IDEMPOTENT_METHODS} by default.
+     *
+     * @param methods The HTTP methods
+     * @return The current hedging policy
+     */
+    public HedgingPolicy withMethods(String... methods) {
+        this.methods = Set.of(methods);
+        return this;
+    }
+
+    /**
+     * Defines the budget of second requests, by default allowing 10% of them with a maximum of 10 accumulated.
+     *
+     * @param budget The budget, possibly shared with other policies, or {@code null} to have no budget
+     * @return The current hedging policy
+     */
+    public HedgingPolicy withBudget(RetryBudget budget) {
+        this.budget = budget;
+        return this;
+    }
+
+    /**
+     * Sends the request and sends it a second time if no response is received within the hedging delay.
+     * Cancelling the returned future cancels the requests in progress.
+     *
+     * @param request The request to send
+     * @param handler The handler sending the request
+     * @param <T>     The domain object type
+     * @return A {@link CompletableFuture} with the first response received
+     */
+    @Override
+    public <T> CompletableFuture<ExchangeResponse<T>> exchange(ExchangeRequest request, ExchangeHandler<T> handler) {
+        if (!methods.contains(request.getMethod()) || !request.isRepeatable() || request.isStreamed()) {
+            return handler.exchange(request);
+        }
+        if (budget != null) {
+            budget.deposit();
+        }
+
+        long start = System.nanoTime();
+        CompletableFuture<ExchangeResponse<T>> result = new CompletableFuture<>();
+        List<CompletableFuture<ExchangeResponse<T>>> attempts = new CopyOnWriteArrayList<>();
+        AtomicInteger running = new AtomicInteger(1);
+        CompletableFuture<Void> timer = CompletableFuture.runAsync(() -> {}, CompletableFuture.delayedExecutor(delay, NANOSECONDS));
+        result.whenComplete((response, exception) -> attempts.forEach(attempt -> attempt.cancel(true)));
+
+        // Each attempt has its own copy of the request, as the next interceptors can modify its headers
+        CompletableFuture<ExchangeResponse<T>> first = attempt(request.copy(), handler, false, start, result, attempts, running);
+        first.whenComplete((response, exception) -> timer.cancel(true));
+        timer.thenRun(() -> {
+            if (result.isDone() || (budget != null && !budget.tryWithdraw())) {
+                return;
+            }
+            running.incrementAndGet();
+            hedged.increment();
+            log.debug("Request {} hedged after {} ms", request, (System.nanoTime() - start) / 1_000_000);
+            attempt(request.copy(), handler, true, start, result, attempts, running);
+        });
+        return result;
+    }
+
+    private <T> CompletableFuture<ExchangeResponse<T>> attempt(ExchangeRequest request, ExchangeHandler<T> handler, boolean hedge, long start,
+                                                               CompletableFuture<ExchangeResponse<T>> result,
+                                                               List<CompletableFuture<ExchangeResponse<T>>> attempts,
+                                                               AtomicInteger running) {
+        CompletableFuture<ExchangeResponse<T>> future;
+        try {
+            future = handler.exchange(request);
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        attempts.add(future);
+        if (result.isDone()) {
+            // Completed while sending this attempt, which is not needed anymore
+            future.cancel(true);
+        }
+        future.whenComplete((response, exception) -> {
+            if (exception == null) {
+                if (result.complete(response)) {
+                    // Latency since the first attempt, being a lower bound of the first attempt cancelled when the hedge wins,
+                    // so that the delay does not decrease only because the hedged requests are fast
+                    record(System.nanoTime() - start);
+                    if (hedge) {
+                        hedgeWins.increment();
+                    }
+                }
+            } else if (running.decrementAndGet() == 0) {
+                result.completeExceptionally(exception);
+            }
+        });
+        return future;
+    }
+
+    private void record(long latency) {
+        long count = latencies.record(latency);
+        if (count == MIN_SAMPLES || (count > MIN_SAMPLES && count % REFRESH_INTERVAL == 0)) {
+            delay = Math.max(minDelay, Math.min(maxDelay, latencies.percentile(percentile)));
+        }
+    }
+
+    /**
+     * Gets the current delay before sending a second request.
+     *
+     * @return The hedging delay
+     */
+    public Duration getDelay() {
+        return Duration.ofNanos(delay);
+    }
+
+    /**
+     * Gets the number of second requests sent.
+     *
+     * @return The number of hedged requests
+     */
+    public long getHedged() {
+        return hedged.sum();
+    }
+
+    /**
+     * Gets the number of second requests whose response has been received first.
+     *
+     * @return The number of hedged requests won
+     */
+    public long getHedgeWins() {
+        return hedgeWins.sum();
+    }
+
+}
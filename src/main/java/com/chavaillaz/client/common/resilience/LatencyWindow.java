@@ -0,0 +1,66 @@
+package com.chavaillaz.client.common.resilience;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Window of the latest latencies measured, giving their percentiles.
+ * The latencies are recorded without lock in a ring buffer, the oldest ones being replaced by the new ones.
+ */
+class LatencyWindow {
+
+    private final AtomicLongArray latencies;
+    private final AtomicLong count = new AtomicLong();
+
+    /**
+     * Creates a new empty window.
+     *
+     * @param size The number of latencies kept
+     */
+    LatencyWindow(int size) {
+        this.latencies = new AtomicLongArray(size);
+    }
+
+    /**
+     * Records a latency.
+     *
+     * @param latency The latency in nanoseconds
+     * @return The number of latencies recorded since the creation of the window
+     */
+    long record(long latency) {
+        long index = count.getAndIncrement();
+        latencies.set((int) (index % latencies.length()), latency);
+        return index + 1;
+    }
+
+    /**
+     * Gets the number of latencies recorded since the creation of the window.
+     *
+     * @return The number of latencies
+     */
+    long getCount() {
+        return count.get();
+    }
+
+    /**
+     * Computes the given percentile of the latencies in the window.
+     *
+     * @param percentile The percentile between {@code 0} and {@code 100}
+     * @return The latency in nanoseconds or {@code 0} if none has been recorded
+     */
+    long percentile(double percentile) {
+        int size = (int) Math.min(count.get(), latencies.length());
+        if (size == 0) {
+            return 0;
+        }
+        long[] values = new long[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = latencies.get(i);
+        }
+        Arrays.sort(values);
+        int rank = (int) Math.ceil(percentile / 100 * size) - 1;
+        return values[Math.max(0, Math.min(size - 1, rank))];
+    }
+
+}
@@ -0,0 +1,75 @@
+package com.chavaillaz.client.common.resilience;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Budget limiting the number of retries to a ratio of the requests sent, in order to never amplify an outage:
+ * each request deposits the ratio in the budget and each retry withdraws one from it.
+ * The same budget can be shared by several retry policies (see {@link RetryPolicy#withBudget(RetryBudget)})
+ * to limit the retries of several clients together.
+ */
+public class RetryBudget {
+
+    private static final long UNIT = 1000;
+
+    private final long deposit;
+    private final long maxBalance;
+    private final AtomicLong balance;
+    private final LongAdder exhausted = new LongAdder();
+
+    /**
+     * Creates a new full retry budget.
+     *
+     * @param ratio      The maximum ratio of retries compared to the requests sent (e.g. {@code 0.1} for 10%)
+     * @param maxRetries The maximum number of retries which can be accumulated, allowed at startup
+     */
+    public RetryBudget(double ratio, int maxRetries) {
+        this.deposit = (long) (ratio * UNIT);
+        this.maxBalance = maxRetries * UNIT;
+        this.balance = new AtomicLong(maxBalance);
+    }
+
+    /**
+     * Deposits the ratio in the budget for a request sent.
+     */
+    public void deposit() {
+        balance.accumulateAndGet(deposit, (current, added) -> Math.min(maxBalance, current + added));
+    }
+
+    /**
+     * Withdraws a retry from the budget if available.
+     *
+     * @return {@code true} if the retry is allowed, {@code false} if the budget is exhausted
+     */
+    public boolean tryWithdraw() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < UNIT) {
+                exhausted.increment();
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - UNIT));
+        return true;
+    }
+
+    /**
+     * Gets the number of retries currently available.
+     *
+     * @return The number of retries
+     */
+    public int getAvailable() {
+        return (int) (balance.get() / UNIT);
+    }
+
+    /**
+     * Gets the number of retries refused because the budget was exhausted.
+     *
+     * @return The number of retries refused
+     */
+    public long getExhausted() {
+        return exhausted.sum();
+    }
+
+}
@@ -0,0 +1,237 @@
+package com.chavaillaz.client.common.resilience;
+
+import static com.chavaillaz.client.common.utility.Utils.getRetryAfter;
+import static com.chavaillaz.client.common.utility.Utils.isTransportFailure;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+import com.chavaillaz.client.common.exception.RequestException;
+import com.chavaillaz.client.common.exception.ResponseException;
+import com.chavaillaz.client.common.exchange.ExchangeHandler;
+import com.chavaillaz.client.common.exchange.ExchangeInterceptor;
+import com.chavaillaz.client.common.exchange.ExchangeRequest;
+import com.chavaillaz.client.common.exchange.ExchangeResponse;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Policy sending again the requests failing because of a transient error, without blocking any thread while waiting.
+ * By default, only the requests with an idempotent method (or with an {@code Idempotency-Key} header) are sent again
+ * when failing before getting a response (e.g. connection refused) or with a {@code 429} or {@code 5xx} status code,
+ * the requests which are not repeatable (see {@link ExchangeRequest#isRepeatable()}) being never sent again.
+ * The delay between the attempts grows exponentially with a decorrelated jitter, in order to spread the retries
+ * of the clients instead of synchronizing them, and is at least the one given by the {@code Retry-After} header.
+ * The number of retries is also limited by a {@link RetryBudget}, so that they cannot amplify an outage,
+ * and by the {@link Deadline} of the request, which is never sent again if it would expire before the next attempt.
+ */
+@Slf4j
+public class RetryPolicy implements ExchangeInterceptor {
+
+    /**
+     * The HTTP methods which can be sent several times with the same effect.
+     */
+    public static final Set<String> IDEMPOTENT_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE", "PUT", "DELETE");
+
+    /**
+     * The header making a request idempotent even if its method is not.
+     */
+    public static final String HEADER_IDEMPOTENCY_KEY = "Idempotency-Key";
+
+    @Getter
+    private final int maxAttempts;
+    private final long baseDelay;
+    private final long maxDelay;
+    private final LongAdder retries = new LongAdder();
+    private Set<String> methods = IDEMPOTENT_METHODS;
+    private Predicate<Throwable> retryable = RetryPolicy::isTransient;
+    @Getter
+    private RetryBudget budget = new RetryBudget(0.2, 10);
+
+    /**
+     * Creates a new retry policy.
+     *
+     * @param maxAttempts The maximum number of attempts, including the first one
+     * @param baseDelay   The delay before the first retry, multiplied (with jitter) for each next retry
+     * @param maxDelay    The maximum delay between two attempts, the request not being sent again
+     *                    if the server asks to wait longer with the {@code Retry-After} header
+     */
+    public RetryPolicy(int maxAttempts, Duration baseDelay, Duration maxDelay) {
+        this.maxAttempts = maxAttempts;
+        this.baseDelay = baseDelay.toNanos();
+        this.maxDelay = maxDelay.toNanos();
+    }
+
+    /**
+     * Defines the HTTP methods of the requests which can be sent again, {@link #IDEMPOTENT_METHODS} by default.
+     *
+     * @param methods The HTTP methods
+     * @return The current retry policy
+     */
+    public RetryPolicy withMethods(String... methods) {
+        this.methods = Set.of(methods);
+        return this;
+    }
+
+    /**
+     * Defines the errors after which the requests can be sent again, {@link #isTransient(Throwable)} by default.
+     *
+     * @param retryable The predicate indicating if the error is transient
+     * @return The current retry policy
+     */
+    public RetryPolicy withRetryable(Predicate<Throwable> retryable) {
+        this.retryable = retryable;
+        return this;
+    }
+
+    /**
+     * Defines the budget of retries, by default allowing 20% of retries with a maximum of 10 accumulated.
+     *
+     * @param budget The retry budget, possibly shared with other policies, or {@code null} to have no budget
+     * @return The current retry policy
+     */
+    public RetryPolicy withBudget(RetryBudget budget) {
+        this.budget = budget;
+        return this;
+    }
+
+    /**
+     * Indicates if the given error is transient: either a failure before getting a response
+     * (a {@link RequestException} or a connection error of the HTTP client), or a {@code 429} or {@code 5xx} (except {@code 501} and {@code 505}) status code.
+     *
+     * @param exception The error
+     * @return {@code true} if the request can be sent again, {@code false} otherwise
+     */
+    public static boolean isTransient(Throwable exception) {
+        if (exception instanceof ResponseException responseException) {
+            Integer code = responseException.getStatusCode();
+            return code != null && (code == 429 || (code >= 500 && code != 501 && code != 505));
+        }
+        return isTransportFailure(exception);
+    }
+
+    /**
+     * Sends the request and sends it again in case of transient failure, as long as allowed by the policy.
+     * Cancelling the returned future cancels the attempt in progress and prevents the next ones.
+     *
+     * @param request The request to send
+     * @param handler The handler sending the request
+     * @param <T>     The domain object type
+     * @return A {@link CompletableFuture} with the response of the last attempt
+     */
+    @Override
+    public <T> CompletableFuture<ExchangeResponse<T>> exchange(ExchangeRequest request, ExchangeHandler<T> handler) {
+        if (budget != null) {
+            budget.deposit();
+        }
+        CompletableFuture<ExchangeResponse<T>> result = new CompletableFuture<>();
+        AtomicReference<CompletableFuture<ExchangeResponse<T>>> current = new AtomicReference<>();
+        result.whenComplete((response, exception) -> {
+            CompletableFuture<ExchangeResponse<T>> attempt = current.get();
+            if (result.isCancelled() && attempt != null) {
+                attempt.cancel(true);
+            }
+        });
+        attempt(request, handler, 1, baseDelay, result, current);
+        return result;
+    }
+
+    private <T> void attempt(ExchangeRequest request, ExchangeHandler<T> handler, int attempt, long previousDelay,
+                             CompletableFuture<ExchangeResponse<T>> result,
+                             AtomicReference<CompletableFuture<ExchangeResponse<T>>> current) {
+        if (result.isDone()) {
+            return;
+        }
+        CompletableFuture<ExchangeResponse<T>> future;
+        try {
+            future = handler.exchange(request);
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        current.set(future);
+        future.whenComplete((response, exception) -> {
+            if (exception == null) {
+                result.complete(response);
+                return;
+            }
+            long delay = nextDelay(request, unwrap(exception), attempt, previousDelay);
+            if (delay < 0) {
+                result.completeExceptionally(exception);
+            } else {
+                retries.increment();
+                log.debug("Request {} failed with {}, attempt {} in {} ms", request, exception.getMessage(), attempt + 1, delay / 1_000_000);
+                CompletableFuture.delayedExecutor(delay, NANOSECONDS)
+                        .execute(() -> attempt(request, handler, attempt + 1, delay, result, current));
+            }
+        });
+    }
+
+    /**
+     * Computes the delay before the next attempt.
+     *
+     * @param request       The request sent
+     * @param exception     The error of the last attempt
+     * @param attempt       The number of the last attempt
+     * @param previousDelay The delay before the last attempt
+     * @return The delay in nanoseconds or {@code -1} if the request must not be sent again
+     */
+    long nextDelay(ExchangeRequest request, Throwable exception, int attempt, long previousDelay) {
+        if (attempt >= maxAttempts || !isRetryable(request, exception)) {
+            return -1;
+        }
+
+        // Decorrelated jitter: random delay between the base delay and three times the previous delay
+        long upperBound = Math.max(baseDelay, Math.min(maxDelay, previousDelay * 3));
+        long delay = baseDelay + (upperBound > baseDelay ? ThreadLocalRandom.current().nextLong(upperBound - baseDelay) : 0);
+        if (exception instanceof ResponseException responseException) {
+            long retryAfter = getRetryAfter(responseException.getHeader("Retry-After"), Instant.now())
+                    .map(Duration::toNanos)
+                    .orElse(0L);
+            if (retryAfter > maxDelay) {
+                log.debug("Request {} not sent again as the server asks to wait {} ms", request, retryAfter / 1_000_000);
+                return -1;
+            }
+            delay = Math.max(delay, retryAfter);
+        }
+
+        Deadline deadline = request.getDeadline();
+        if (deadline != null && delay >= deadline.remainingNanos()) {
+            log.debug("Request {} not sent again as its deadline expires before the next attempt", request);
+            return -1;
+        }
+
+        if (budget != null && !budget.tryWithdraw()) {
+            log.debug("Request {} not sent again as the retry budget is exhausted", request);
+            return -1;
+        }
+        return delay;
+    }
+
+    private boolean isRetryable(ExchangeRequest request, Throwable exception) {
+        return request.isRepeatable()
+                && (methods.contains(request.getMethod()) || request.getHeader(HEADER_IDEMPOTENCY_KEY) != null)
+                && retryable.test(exception);
+    }
+
+    private static Throwable unwrap(Throwable exception) {
+        return exception instanceof CompletionException && exception.getCause() != null ? exception.getCause() : exception;
+    }
+
+    /**
+     * Gets the number of requests sent again.
+     *
+     * @return The number of retries
+     */
+    public long getRetries() {
+        return retries.sum();
+    }
+
+}
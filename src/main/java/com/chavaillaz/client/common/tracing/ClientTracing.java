@@ -0,0 +1,38 @@
+package com.chavaillaz.client.common.tracing;
+
+import java.util.concurrent.CompletableFuture;
+
+import com.chavaillaz.client.common.exchange.ExchangeHandler;
+import com.chavaillaz.client.common.exchange.ExchangeRequest;
+import com.chavaillaz.client.common.exchange.ExchangeResponse;
+
+/**
+ * Tracing of the requests sent by a client, whatever the HTTP client used
+ * (see {@link OpenTelemetryTracing} for OpenTelemetry).
+ * Each request is given once to {@link #trace} from the thread calling the client, before applying the other features,
+ * and each request really sent (e.g. each retry but not the cached responses) is then given to {@link #traceAttempt},
+ * possibly from another thread, so that the state of the caller has to be kept in the tags of the request.
+ */
+public interface ClientTracing {
+
+    /**
+     * Traces a request sent by the client, called from the thread calling the client.
+     *
+     * @param request The request to send
+     * @param handler The handler applying the features of the client and sending the request
+     * @param <T>     The domain object type
+     * @return A {@link CompletableFuture} with the response
+     */
+    <T> CompletableFuture<ExchangeResponse<T>> trace(ExchangeRequest request, ExchangeHandler<T> handler);
+
+    /**
+     * Traces an attempt of a request really sent with the HTTP client, whose headers can still be modified.
+     *
+     * @param request The request to send
+     * @param handler The handler sending the request with the HTTP client
+     * @param <T>     The domain object type
+     * @return A {@link CompletableFuture} with the response
+     */
+    <T> CompletableFuture<ExchangeResponse<T>> traceAttempt(ExchangeRequest request, ExchangeHandler<T> handler);
+
+}
@@ -0,0 +1,175 @@
+package com.chavaillaz.client.common.tracing;
+
+import static com.chavaillaz.client.common.utility.Utils.onCancellation;
+
+import java.net.URI;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.chavaillaz.client.common.exception.ResponseException;
+import com.chavaillaz.client.common.exchange.ExchangeHandler;
+import com.chavaillaz.client.common.exchange.ExchangeRequest;
+import com.chavaillaz.client.common.exchange.ExchangeResponse;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanBuilder;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.context.propagation.TextMapPropagator;
+import io.opentelemetry.context.propagation.TextMapSetter;
+import lombok.Value;
+
+/**
+ * Tracing of the requests sent with OpenTelemetry (requiring the optional OpenTelemetry API dependency).
+ * A span of kind client is created for each request really sent (e.g. for each retry), as child of the span
+ * current when calling the client, with the attributes of the HTTP semantic conventions
+ * ({@code http.request.method}, {@code url.full}, {@code url.template}, {@code server.address}, {@code server.port},
+ * {@code http.request.resend_count}, {@code http.response.status_code} and {@code error.type}), the span being only
+ * named after the method and without {@code url.template} when the URL template of the request is not known.
+ * Its context is injected in the headers of the request with the propagators of the given instance
+ * (e.g. W3C {@code traceparent}) and the response is completed with the context of the caller being current,
+ * so that the continuations of the returned {@link CompletableFuture} keep it.
+ */
+public class OpenTelemetryTracing implements ClientTracing {
+
+    private static final String INSTRUMENTATION_NAME = "com.chavaillaz.client.common";
+    private static final TextMapSetter<ExchangeRequest> HEADER_SETTER = (request, name, value) -> {
+        if (request != null) {
+            request.setHeader(name, value);
+        }
+    };
+
+    private final Tracer tracer;
+    private final TextMapPropagator propagator;
+
+    /**
+     * Creates a new OpenTelemetry tracing.
+     *
+     * @param openTelemetry The OpenTelemetry instance providing the tracer and the propagators
+     */
+    public OpenTelemetryTracing(OpenTelemetry openTelemetry) {
+        this.tracer = openTelemetry.getTracer(INSTRUMENTATION_NAME);
+        this.propagator = openTelemetry.getPropagators().getTextMapPropagator();
+    }
+
+    @Override
+    public <T> CompletableFuture<ExchangeResponse<T>> trace(ExchangeRequest request, ExchangeHandler<T> handler) {
+        Context caller = Context.current();
+        request.setTag(Trace.class, new Trace(caller));
+        CompletableFuture<ExchangeResponse<T>> future = handler.exchange(request);
+        if (future.isDone()) {
+            return future;
+        }
+
+        // Completing the response with the context of the caller for the continuations run by the completing thread
+        CompletableFuture<ExchangeResponse<T>> result = onCancellation(new CompletableFuture<>(), () -> future.cancel(true));
+        future.whenComplete((response, exception) -> {
+            try (Scope scope = caller.makeCurrent()) {
+                if (exception == null) {
+                    result.complete(response);
+                } else {
+                    result.completeExceptionally(exception);
+                }
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public <T> CompletableFuture<ExchangeResponse<T>> traceAttempt(ExchangeRequest request, ExchangeHandler<T> handler) {
+        Trace trace = request.getTag(Trace.class);
+        Context parent = trace != null ? trace.getCaller() : Context.current();
+        Span span = startSpan(request, parent, trace != null ? trace.getAttempts().getAndIncrement() : 0);
+        Context context = parent.with(span);
+        propagator.inject(context, request, HEADER_SETTER);
+
+        CompletableFuture<ExchangeResponse<T>> future;
+        try (Scope scope = context.makeCurrent()) {
+            future = handler.exchange(request);
+        } catch (RuntimeException e) {
+            endSpan(span, null, e);
+            throw e;
+        }
+
+        // Ending the span before completing the response, even if it is cancelled
+        CompletableFuture<ExchangeResponse<T>> result = onCancellation(new CompletableFuture<>(), () -> future.cancel(true));
+        future.whenComplete((response, exception) -> {
+            endSpan(span, response, exception);
+            if (exception == null) {
+                result.complete(response);
+            } else {
+                result.completeExceptionally(exception);
+            }
+        });
+        return result;
+    }
+
+    private Span startSpan(ExchangeRequest request, Context parent, int attempt) {
+        URI uri = request.getUri();
+        // The span is only named after the method when the URL template is not known
+        String route = request.getRoute();
+        boolean templated = route != null && !ExchangeRequest.UNKNOWN_ROUTE.equals(route);
+        SpanBuilder builder = tracer.spanBuilder(templated ? request.getMethod() + " " + route : request.getMethod())
+                .setParent(parent)
+                .setSpanKind(SpanKind.CLIENT)
+                .setAttribute("http.request.method", request.getMethod())
+                .setAttribute("url.full", uri.toString())
+                .setAttribute("server.address", uri.getHost())
+                .setAttribute("server.port", port(uri));
+        if (templated) {
+            builder.setAttribute("url.template", route);
+        }
+        Span span = builder.startSpan();
+        if (attempt > 0) {
+            span.setAttribute("http.request.resend_count", attempt);
+        }
+        return span;
+    }
+
+    private static long port(URI uri) {
+        if (uri.getPort() >= 0) {
+            return uri.getPort();
+        }
+        return "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+    }
+
+    private static void endSpan(Span span, ExchangeResponse<?> response, Throwable exception) {
+        Throwable failure = exception instanceof CompletionException && exception.getCause() != null ? exception.getCause() : exception;
+        int statusCode = 0;
+        if (response != null) {
+            statusCode = response.getStatusCode();
+        } else if (failure instanceof ResponseException responseException && responseException.getStatusCode() != null) {
+            statusCode = responseException.getStatusCode();
+        }
+        if (statusCode > 0) {
+            span.setAttribute("http.response.status_code", statusCode);
+        }
+        // The attempts cancelled (e.g. by the hedging once another one succeeded) are not failures
+        if (failure != null && !(failure instanceof CancellationException)) {
+            span.recordException(failure);
+            span.setAttribute("error.type", statusCode >= 400 ? String.valueOf(statusCode) : failure.getClass().getName());
+            span.setStatus(StatusCode.ERROR);
+        } else if (statusCode >= 400) {
+            span.setAttribute("error.type", String.valueOf(statusCode));
+            span.setStatus(StatusCode.ERROR);
+        }
+        span.end();
+    }
+
+    /**
+     * State of the tracing of a request across all its attempts.
+     */
+    @Value
+    private static class Trace {
+
+        Context caller;
+        AtomicInteger attempts = new AtomicInteger();
+
+    }
+
+}
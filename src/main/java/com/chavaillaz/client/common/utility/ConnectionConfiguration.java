@@ -0,0 +1,131 @@
+package com.chavaillaz.client.common.utility;
+
+import static lombok.AccessLevel.PRIVATE;
+
+import java.time.Duration;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+import lombok.With;
+
+/**
+ * Connection configuration of the HTTP clients created by the default builders, defining the protocol version
+ * used, the HTTP/2 flow control and the size of the connection pools. Each HTTP client applies the settings it
+ * supports, the others being left to their default value:
+ * <ul>
+ *     <li>Java HTTP client only supports the protocol version, the other settings being given with the
+ *     {@code jdk.httpclient.maxstreams}, {@code jdk.httpclient.windowsize}, {@code jdk.httpclient.connectionWindowSize}
+ *     and {@code jdk.httpclient.keepalive.timeout} system properties, and does not support HTTP/2 with prior
+ *     knowledge (upgrading the cleartext connections instead)</li>
+ *     <li>Apache HTTP client does not support the connection window size</li>
+ *     <li>OkHttp does not support the window sizes, limits the number of concurrent requests instead of the
+ *     number of connections and only supports HTTP/2 with prior knowledge on cleartext connections</li>
+ *     <li>Vert.x does not limit the number of connections for all the hosts</li>
+ * </ul>
+ * The configuration is immutable and can be used as key to share the HTTP clients (see {@link ConnectionRegistry}).
+ */
+@Value
+@With
+@AllArgsConstructor(access = PRIVATE)
+public class ConnectionConfiguration {
+
+    /**
+     * The protocol version used by the connections.
+     */
+    Version version;
+
+    /**
+     * The maximum number of concurrent streams (requests) on each HTTP/2 connection.
+     */
+    int maxConcurrentStreams;
+
+    /**
+     * The initial flow control window size of each HTTP/2 stream in bytes, default of the client if not defined.
+     */
+    Integer initialWindowSize;
+
+    /**
+     * The flow control window size of each HTTP/2 connection in bytes, default of the client if not defined.
+     */
+    Integer connectionWindowSize;
+
+    /**
+     * The maximum number of HTTP/1.1 connections kept for each host.
+     */
+    int maxConnectionsPerHost;
+
+    /**
+     * The maximum number of connections kept for all the hosts.
+     */
+    int maxConnections;
+
+    /**
+     * The duration after which an idle connection is closed, default of the client if not defined.
+     */
+    Duration keepAliveTimeout;
+
+    /**
+     * Creates a new configuration using HTTP/1.1 only.
+     *
+     * @return The corresponding configuration
+     */
+    public static ConnectionConfiguration http1() {
+        return http2().withVersion(Version.HTTP_1_1);
+    }
+
+    /**
+     * Creates a new configuration using HTTP/2 when supported by the server and HTTP/1.1 otherwise,
+     * with at most 100 concurrent streams per connection and 5 connections per host (25 for all the hosts)
+     * kept alive as long as the client does by default. This is the configuration of the default builders.
+     *
+     * @return The corresponding configuration
+     */
+    public static ConnectionConfiguration http2() {
+        return new ConnectionConfiguration(Version.HTTP_2, 100, null, null, 5, 25, null);
+    }
+
+    /**
+     * Creates a new configuration using HTTP/2 with prior knowledge on cleartext connections (h2c),
+     * without upgrading them from HTTP/1.1. This is only to be used with services known to support it
+     * (e.g. internal services), the others rejecting the requests.
+     *
+     * @return The corresponding configuration
+     */
+    public static ConnectionConfiguration http2PriorKnowledge() {
+        return http2().withVersion(Version.HTTP_2_PRIOR_KNOWLEDGE);
+    }
+
+    /**
+     * Indicates if the configuration uses HTTP/2, with prior knowledge or not.
+     *
+     * @return {@code true} for HTTP/2, {@code false} for HTTP/1.1 only
+     */
+    public boolean isHttp2() {
+        return version != Version.HTTP_1_1;
+    }
+
+    /**
+     * Protocol versions of the connections.
+     */
+    public enum Version {
+
+        /**
+         * HTTP/1.1 only.
+         */
+        HTTP_1_1,
+
+        /**
+         * HTTP/2 negotiated with ALPN on secured connections and HTTP/1.1 on cleartext connections,
+         * except for Java HTTP client upgrading them to HTTP/2.
+         */
+        HTTP_2,
+
+        /**
+         * HTTP/2 negotiated with ALPN on secured connections and HTTP/2 with prior knowledge (h2c) on
+         * cleartext connections.
+         */
+        HTTP_2_PRIOR_KNOWLEDGE
+
+    }
+
+}
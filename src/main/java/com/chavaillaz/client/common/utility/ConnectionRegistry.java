@@ -0,0 +1,83 @@
+package com.chavaillaz.client.common.utility;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Registry of HTTP clients shared by all the clients created with the same configuration, in order to share
+ * their connection pools. The clients sending requests to the same host then reuse the same connections,
+ * multiplexing their requests on a single connection with HTTP/2.
+ * Each shared HTTP client is counted when acquired and closed when released by all the clients using it.
+ *
+ * @param <C> The HTTP client type
+ */
+public class ConnectionRegistry<C> {
+
+    private final Map<Object, C> clients = new HashMap<>();
+    private final Map<C, Object> keys = new IdentityHashMap<>();
+    private final Map<C, Integer> references = new IdentityHashMap<>();
+    private final Consumer<C> closer;
+
+    /**
+     * Creates a new connection registry.
+     *
+     * @param closer The function closing an HTTP client no longer used
+     */
+    public ConnectionRegistry(Consumer<C> closer) {
+        this.closer = closer;
+    }
+
+    /**
+     * Gets the HTTP client shared for the given key, creating it if not present.
+     * The HTTP client must be released once no longer used (see {@link #release(Object)}).
+     *
+     * @param key     The key of the HTTP client (e.g. the proxy and connection configurations)
+     * @param factory The supplier creating the HTTP client if not present
+     * @return The shared HTTP client
+     */
+    public synchronized C acquire(Object key, Supplier<C> factory) {
+        C client = clients.get(key);
+        if (client == null) {
+            client = factory.get();
+            clients.put(key, client);
+            keys.put(client, key);
+        }
+        references.merge(client, 1, Integer::sum);
+        return client;
+    }
+
+    /**
+     * Releases the given HTTP client, closing it if no longer used by any client.
+     *
+     * @param client The HTTP client to release
+     * @return {@code true} if the HTTP client is shared by the registry, {@code false} otherwise
+     */
+    public boolean release(C client) {
+        synchronized (this) {
+            Integer count = references.get(client);
+            if (count == null) {
+                return false;
+            } else if (count > 1) {
+                references.put(client, count - 1);
+                return true;
+            }
+            references.remove(client);
+            clients.remove(keys.remove(client));
+        }
+        closer.accept(client);
+        return true;
+    }
+
+    /**
+     * Gets the number of HTTP clients currently shared.
+     *
+     * @return The number of HTTP clients
+     */
+    public synchronized int size() {
+        return clients.size();
+    }
+
+}
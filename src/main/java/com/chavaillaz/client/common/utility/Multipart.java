@@ -0,0 +1,224 @@
+package com.chavaillaz.client.common.utility;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.commons.lang3.RandomStringUtils.randomAlphanumeric;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import lombok.Getter;
+import lombok.SneakyThrows;
+import lombok.Value;
+
+/**
+ * Multipart form data content (see RFC 7578) independent of the HTTP client used.
+ * The files are only referenced by their path and are read when the content is sent,
+ * in order to never hold them in memory. As the size of each part is known, the total
+ * content length can always be computed (see {@link #getContentLength()}).
+ */
+public class Multipart {
+
+    public static final String MULTIPART_FORM_DATA = "multipart/form-data";
+    public static final String DEFAULT_FILE_TYPE = "application/octet-stream";
+    private static final String LINE_BREAK = "\r\n";
+
+    @Getter
+    private final String boundary;
+    private final List<Part> parts = new ArrayList<>();
+
+    /**
+     * Creates a new empty multipart content with a random boundary.
+     */
+    public Multipart() {
+        this(randomAlphanumeric(16));
+    }
+
+    /**
+     * Creates a new empty multipart content.
+     *
+     * @param boundary The boundary separating the parts
+     */
+    public Multipart(String boundary) {
+        this.boundary = boundary;
+    }
+
+    /**
+     * Creates a new multipart content with the given files, each of them in a part named {@code file}.
+     *
+     * @param files The list of files to include
+     * @return The multipart content
+     */
+    public static Multipart multipartWithFiles(File... files) {
+        Multipart multipart = new Multipart();
+        for (File file : files) {
+            multipart.addFile("file", file.toPath());
+        }
+        return multipart;
+    }
+
+    /**
+     * Adds a text part.
+     *
+     * @param name  The name of the part
+     * @param value The text value (encoded in UTF-8)
+     * @return The current multipart content
+     */
+    public Multipart addText(String name, String value) {
+        byte[] content = value.getBytes(UTF_8);
+        parts.add(new Part(name, null, null, content, null, content.length));
+        return this;
+    }
+
+    /**
+     * Adds a file part with content already in memory.
+     *
+     * @param name        The name of the part
+     * @param fileName    The name of the file
+     * @param content     The content of the file
+     * @param contentType The content type of the file
+     * @return The current multipart content
+     */
+    public Multipart addBytes(String name, String fileName, byte[] content, String contentType) {
+        parts.add(new Part(name, fileName, contentType, content, null, content.length));
+        return this;
+    }
+
+    /**
+     * Adds a file part whose content type is guessed from the file.
+     *
+     * @param name The name of the part
+     * @param file The path of the file
+     * @return The current multipart content
+     */
+    @SneakyThrows
+    public Multipart addFile(String name, Path file) {
+        String contentType = Optional.ofNullable(Files.probeContentType(file)).orElse(DEFAULT_FILE_TYPE);
+        return addFile(name, file, contentType);
+    }
+
+    /**
+     * Adds a file part.
+     * The file is only read when sending the content but its size is taken immediately.
+     *
+     * @param name        The name of the part
+     * @param file        The path of the file
+     * @param contentType The content type of the file
+     * @return The current multipart content
+     */
+    @SneakyThrows
+    public Multipart addFile(String name, Path file, String contentType) {
+        parts.add(new Part(name, file.getFileName().toString(), contentType, null, file, Files.size(file)));
+        return this;
+    }
+
+    /**
+     * Gets the parts added to this content.
+     *
+     * @return The unmodifiable list of parts
+     */
+    public List<Part> getParts() {
+        return Collections.unmodifiableList(parts);
+    }
+
+    /**
+     * Gets the content type of this content, including its boundary.
+     *
+     * @return The content type header value
+     */
+    public String getContentType() {
+        return MULTIPART_FORM_DATA + "; boundary=" + boundary;
+    }
+
+    /**
+     * Gets the encoded headers preceding the content of the given part.
+     *
+     * @param part The part
+     * @return The headers bytes
+     */
+    public byte[] getHeader(Part part) {
+        StringBuilder header = new StringBuilder()
+                .append("--").append(boundary).append(LINE_BREAK)
+                .append("Content-Disposition: form-data; name=\"").append(escape(part.getName())).append("\"");
+        if (part.getFileName() != null) {
+            header.append("; filename=\"").append(escape(part.getFileName())).append("\"");
+        }
+        header.append(LINE_BREAK);
+        if (part.getContentType() != null) {
+            header.append("Content-Type: ").append(part.getContentType()).append(LINE_BREAK);
+        }
+        return header.append(LINE_BREAK).toString().getBytes(UTF_8);
+    }
+
+    /**
+     * Gets the encoded line break following the content of each part.
+     *
+     * @return The line break bytes
+     */
+    public byte[] getFooter() {
+        return LINE_BREAK.getBytes(UTF_8);
+    }
+
+    /**
+     * Gets the encoded delimiter closing this content after the last part.
+     *
+     * @return The closing delimiter bytes
+     */
+    public byte[] getEnd() {
+        return ("--" + boundary + "--" + LINE_BREAK).getBytes(UTF_8);
+    }
+
+    /**
+     * Gets the total length of this content once encoded.
+     *
+     * @return The number of bytes
+     */
+    public long getContentLength() {
+        long length = getEnd().length;
+        for (Part part : parts) {
+            length += getHeader(part).length + part.getLength() + getFooter().length;
+        }
+        return length;
+    }
+
+    /**
+     * Escapes the quotes and line breaks of a parameter value, as done by browsers.
+     *
+     * @param value The value to escape
+     * @return The escaped value
+     */
+    private static String escape(String value) {
+        return value.replace("\"", "%22")
+                .replace("\r", "%0D")
+                .replace("\n", "%0A");
+    }
+
+    /**
+     * Part of a multipart content, having either its content in memory or a file.
+     */
+    @Value
+    public static class Part {
+
+        String name;
+        String fileName;
+        String contentType;
+        byte[] content;
+        Path file;
+        long length;
+
+        /**
+         * Indicates if the part is a simple text value, without file name nor content type.
+         *
+         * @return {@code true} if the part is a text value, {@code false} otherwise
+         */
+        public boolean isText() {
+            return fileName == null && contentType == null;
+        }
+
+    }
+
+}
@@ -0,0 +1,37 @@
+package com.chavaillaz.client.common.utility;
+
+import java.time.Duration;
+
+import lombok.Data;
+
+/**
+ * Statistics of a content transfer (e.g. a download), giving its size and duration.
+ */
+@Data
+public class TransferStatistics {
+
+    private final long bytes;
+    private final Duration duration;
+
+    /**
+     * Creates the statistics of a transfer started at the given time and ending now.
+     *
+     * @param startNanos The start of the transfer, as given by {@link System#nanoTime()}
+     * @param bytes      The number of bytes transferred
+     * @return The corresponding transfer statistics
+     */
+    public static TransferStatistics since(long startNanos, long bytes) {
+        return new TransferStatistics(bytes, Duration.ofNanos(System.nanoTime() - startNanos));
+    }
+
+    /**
+     * Gets the average throughput of the transfer.
+     *
+     * @return The number of bytes per second
+     */
+    public double getBytesPerSecond() {
+        long nanos = duration.toNanos();
+        return nanos > 0 ? bytes * 1_000_000_000d / nanos : 0;
+    }
+
+}
@@ -0,0 +1,270 @@
+package com.chavaillaz.client.common.utility;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import lombok.Getter;
+import lombok.Value;
+
+/**
+ * URL template parsed once and expanded by replacing its parameters with the given values.
+ * The parameters are written between braces, either with their position (e.g. {@code /users/{0}})
+ * or with their name (e.g. {@code /users/{id}}). Their values are converted with {@link Object#toString()}
+ * (without any locale-dependent formatting) and percent-encoded to be valid in any part of the URL,
+ * for example {@code a/b c} becomes {@code a%2Fb%20c}. A parameter starting with a plus sign
+ * (e.g. {@code {+path}}) keeps the reserved characters and the existing percent-encoded sequences
+ * of its value, for example to give a path or an already encoded query.
+ */
+public final class UrlTemplate {
+
+    private static final int MAX_CACHE_SIZE = 1024;
+    private static final Map<String, UrlTemplate> CACHE = new ConcurrentHashMap<>();
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+    private static final String UNRESERVED = "-._~";
+    private static final String RESERVED = ":/?#[]@!$&'()*+,;=%";
+
+    @Getter
+    private final String template;
+    private final List<Object> segments = new ArrayList<>();
+    private final List<String> names = new ArrayList<>();
+    private final int literalLength;
+    private final boolean absolute;
+
+    /**
+     * Creates and parses a new URL template.
+     * Prefer {@link #of(String)} to reuse the templates already parsed.
+     *
+     * @param template The URL with possible parameters in it (using braces)
+     * @throws IllegalArgumentException if a parameter is not closed or has an invalid name
+     */
+    public UrlTemplate(String template) {
+        this.template = template;
+        int length = 0;
+        int start = 0;
+        int open;
+        while ((open = template.indexOf('{', start)) >= 0) {
+            int close = template.indexOf('}', open);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed parameter in URL template " + template);
+            }
+            addLiteral(template.substring(start, open));
+            length += open - start;
+            addParameter(template.substring(open + 1, close));
+            start = close + 1;
+        }
+        addLiteral(template.substring(start));
+        this.literalLength = length + template.length() - start;
+        this.absolute = template.startsWith("http");
+    }
+
+    /**
+     * Gets the parsed URL template, cached for the next calls with the same template.
+     *
+     * @param template The URL with possible parameters in it (using braces)
+     * @return The parsed template
+     * @throws IllegalArgumentException if a parameter is not closed or has an invalid name
+     */
+    public static UrlTemplate of(String template) {
+        UrlTemplate urlTemplate = CACHE.get(template);
+        if (urlTemplate == null) {
+            urlTemplate = new UrlTemplate(template);
+            // Not caching anymore when templates are built dynamically instead of being constants
+            if (CACHE.size() < MAX_CACHE_SIZE) {
+                CACHE.putIfAbsent(template, urlTemplate);
+            }
+        }
+        return urlTemplate;
+    }
+
+    private void addLiteral(String literal) {
+        if (!literal.isEmpty()) {
+            segments.add(literal);
+        }
+    }
+
+    private void addParameter(String expression) {
+        boolean reserved = expression.startsWith("+");
+        String name = reserved ? expression.substring(1) : expression;
+        if (name.isEmpty() || !name.chars().allMatch(c -> Character.isLetterOrDigit(c) || c == '_' || c == '.')) {
+            throw new IllegalArgumentException("Invalid parameter {" + expression + "} in URL template " + template);
+        }
+        int index = names.indexOf(name);
+        if (index < 0) {
+            index = names.size();
+            names.add(name);
+        }
+        Integer position = name.chars().allMatch(Character::isDigit) ? Integer.valueOf(name) : null;
+        segments.add(new Parameter(name, position != null ? position : index, reserved));
+    }
+
+    /**
+     * Gets the names of the distinct parameters in the order of their first appearance.
+     *
+     * @return The parameters names
+     */
+    public List<String> getParameters() {
+        return List.copyOf(names);
+    }
+
+    /**
+     * Expands the template with the given values.
+     * Positional parameters (e.g. {@code {0}}) take the value at their position and named parameters
+     * take the values in the order of their first appearance in the template.
+     *
+     * @param values The values of the parameters
+     * @return The expanded URL
+     * @throws IllegalArgumentException if there is no value for a parameter
+     */
+    public String expand(Object... values) {
+        StringBuilder url = new StringBuilder(literalLength + 16 * values.length);
+        append(url, values);
+        return url.toString();
+    }
+
+    /**
+     * Expands the template with the given values identified by the parameters names.
+     * Positional parameters (e.g. {@code {0}}) can be given with their position as name.
+     *
+     * @param values The values of the parameters by name
+     * @return The expanded URL
+     * @throws IllegalArgumentException if there is no value for a parameter
+     */
+    public String expand(Map<String, ?> values) {
+        StringBuilder url = new StringBuilder(literalLength + 16 * values.size());
+        append(url, values);
+        return url.toString();
+    }
+
+    /**
+     * Expands the template with the given values, after the given base URL unless the template is a full URL
+     * (with scheme), in a single pass.
+     *
+     * @param baseUrl The base URL of the template
+     * @param values  The values of the parameters
+     * @return The expanded URL
+     * @throws IllegalArgumentException if there is no value for a parameter
+     * @see #expand(Object...)
+     */
+    public String resolve(String baseUrl, Object... values) {
+        String base = absolute ? "" : baseUrl;
+        StringBuilder url = new StringBuilder(base.length() + literalLength + 16 * values.length).append(base);
+        append(url, values);
+        return url.toString();
+    }
+
+    /**
+     * Expands the template with the given values identified by the parameters names, after the given base URL
+     * unless the template is a full URL (with scheme), in a single pass.
+     *
+     * @param baseUrl The base URL of the template
+     * @param values  The values of the parameters by name
+     * @return The expanded URL
+     * @throws IllegalArgumentException if there is no value for a parameter
+     * @see #expand(Map)
+     */
+    public String resolve(String baseUrl, Map<String, ?> values) {
+        String base = absolute ? "" : baseUrl;
+        StringBuilder url = new StringBuilder(base.length() + literalLength + 16 * values.size()).append(base);
+        append(url, values);
+        return url.toString();
+    }
+
+    /**
+     * Expands the template with the given values and creates the corresponding URI.
+     *
+     * @param values The values of the parameters
+     * @return The expanded URI
+     * @throws IllegalArgumentException if there is no value for a parameter or if the result is not a valid URI
+     * @see #expand(Object...)
+     */
+    public URI toUri(Object... values) {
+        return URI.create(expand(values));
+    }
+
+    private void append(StringBuilder url, Object[] values) {
+        for (Object segment : segments) {
+            if (segment instanceof Parameter parameter) {
+                if (parameter.getIndex() >= values.length) {
+                    throw new IllegalArgumentException("Missing value for parameter {" + parameter.getName() + "} in URL template " + template);
+                }
+                encode(url, values[parameter.getIndex()], parameter.isReserved());
+            } else {
+                url.append((String) segment);
+            }
+        }
+    }
+
+    private void append(StringBuilder url, Map<String, ?> values) {
+        for (Object segment : segments) {
+            if (segment instanceof Parameter parameter) {
+                if (!values.containsKey(parameter.getName())) {
+                    throw new IllegalArgumentException("Missing value for parameter {" + parameter.getName() + "} in URL template " + template);
+                }
+                encode(url, values.get(parameter.getName()), parameter.isReserved());
+            } else {
+                url.append((String) segment);
+            }
+        }
+    }
+
+    /**
+     * Appends the given value percent-encoded, a {@code null} value being considered as empty.
+     *
+     * @param url      The URL being built
+     * @param value    The value to encode
+     * @param reserved {@code true} to keep reserved characters and percent-encoded sequences, {@code false} otherwise
+     */
+    private static void encode(StringBuilder url, Object value, boolean reserved) {
+        if (value == null) {
+            return;
+        }
+        String text = value.toString();
+        int length = text.length();
+        int i = 0;
+        while (i < length && isAllowed(text.charAt(i), reserved)) {
+            i++;
+        }
+        url.append(text, 0, i);
+        if (i < length) {
+            // Only encoding the part of the value containing characters to escape
+            for (byte b : text.substring(i).getBytes(UTF_8)) {
+                if (b >= 0 && isAllowed((char) b, reserved)) {
+                    url.append((char) b);
+                } else {
+                    url.append('%').append(HEX[(b >> 4) & 0x0F]).append(HEX[b & 0x0F]);
+                }
+            }
+        }
+    }
+
+    private static boolean isAllowed(char c, boolean reserved) {
+        return (c >= 'a' && c <= 'z')
+                || (c >= 'A' && c <= 'Z')
+                || (c >= '0' && c <= '9')
+                || UNRESERVED.indexOf(c) >= 0
+                || (reserved && RESERVED.indexOf(c) >= 0);
+    }
+
+    @Override
+    public String toString() {
+        return template;
+    }
+
+    /**
+     * Parameter in the template with its value index when expanding with positional values.
+     */
+    @Value
+    private static class Parameter {
+
+        String name;
+        int index;
+        boolean reserved;
+
+    }
+
+}
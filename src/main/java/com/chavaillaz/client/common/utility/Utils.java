@@ -2,6 +2,7 @@ package com.chavaillaz.client.common.utility;
 
 import static java.net.URLEncoder.encode;
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.time.format.DateTimeFormatter.RFC_1123_DATE_TIME;
 import static java.util.Optional.ofNullable;
 import static java.util.stream.Collectors.joining;
 
@@ -10,15 +11,25 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Base64;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.function.BiConsumer;
 
 import com.chavaillaz.client.common.exception.AsynchronousException;
+import com.chavaillaz.client.common.exception.ClientException;
+import com.chavaillaz.client.common.exception.RequestException;
 import com.chavaillaz.client.common.security.Authentication;
 import lombok.experimental.UtilityClass;
 import lombok.extern.slf4j.Slf4j;
@@ -162,4 +173,67 @@ public class Utils {
         }
     }
 
+    /**
+     * Gets the delay to wait before sending a request again from the value of a {@code Retry-After} header,
+     * given either in seconds or as an HTTP date.
+     *
+     * @param value The header value or {@code null}
+     * @param now   The current time, used when the value is a date
+     * @return The delay, never negative, or empty if the value is missing or invalid
+     */
+    public static Optional<Duration> getRetryAfter(String value, Instant now) {
+        if (value == null || value.isBlank()) {
+            return Optional.empty();
+        }
+        try {
+            String trimmed = value.trim();
+            Duration delay = trimmed.chars().allMatch(Character::isDigit)
+                    ? Duration.ofSeconds(Long.parseLong(trimmed))
+                    : Duration.between(now, ZonedDateTime.parse(trimmed, RFC_1123_DATE_TIME).toInstant());
+            return Optional.of(delay.isNegative() ? Duration.ZERO : delay);
+        } catch (NumberFormatException | DateTimeParseException e) {
+            log.debug("Invalid Retry-After header value {}", value);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Executes the given action when the given future is cancelled, in order to propagate the cancellation
+     * to the operation it depends on (e.g. to abort the HTTP call of a request not needed anymore).
+     *
+     * @param future       The future which can be cancelled
+     * @param cancellation The action cancelling the operation
+     * @param <T>          The future result type
+     * @return The same future as in parameter
+     */
+    public static <T> CompletableFuture<T> onCancellation(CompletableFuture<T> future, Runnable cancellation) {
+        future.whenComplete((result, exception) -> {
+            if (future.isCancelled()) {
+                cancellation.run();
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Indicates if the given error is a failure of the transport before getting a response from the server
+     * (e.g. connection refused or timeout), whatever the HTTP client used: either a {@link RequestException}
+     * or an {@link IOException} found in the cause chain before any other {@link ClientException}
+     * (e.g. not the ones of the deserialization of the response).
+     *
+     * @param exception The error, possibly wrapped in a {@link CompletionException}
+     * @return {@code true} if the request failed before getting a response, {@code false} otherwise
+     */
+    public static boolean isTransportFailure(Throwable exception) {
+        Set<Throwable> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Throwable cause = exception; cause != null && visited.add(cause); cause = cause.getCause()) {
+            if (cause instanceof RequestException || cause instanceof IOException) {
+                return true;
+            } else if (cause instanceof ClientException) {
+                return false;
+            }
+        }
+        return false;
+    }
+
 }
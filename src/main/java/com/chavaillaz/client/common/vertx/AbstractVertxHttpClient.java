@@ -1,19 +1,43 @@
 package com.chavaillaz.client.common.vertx;
 
-import static com.chavaillaz.client.common.utility.Utils.getCookieHeader;
+import static com.chavaillaz.client.common.utility.Utils.onCancellation;
+import static java.lang.String.CASE_INSENSITIVE_ORDER;
 
 import java.io.InputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 import com.chavaillaz.client.common.AbstractHttpClient;
+import com.chavaillaz.client.common.compression.Compression;
+import com.chavaillaz.client.common.compression.ContentEncoding;
+import com.chavaillaz.client.common.exception.ContentEncodingException;
+import com.chavaillaz.client.common.exception.RequestException;
+import com.chavaillaz.client.common.exchange.ExchangeHandler;
+import com.chavaillaz.client.common.exchange.ExchangeRequest;
+import com.chavaillaz.client.common.exchange.ExchangeResponse;
+import com.chavaillaz.client.common.exchange.ExchangeStatistics;
 import com.chavaillaz.client.common.security.Authentication;
+import com.chavaillaz.client.common.utility.Multipart;
+import com.chavaillaz.client.common.utility.TransferStatistics;
 import com.fasterxml.jackson.databind.JavaType;
+import io.netty.buffer.Unpooled;
 import io.vertx.core.Future;
+import io.vertx.core.MultiMap;
 import io.vertx.core.buffer.Buffer;
+import io.vertx.core.file.AsyncFile;
 import io.vertx.core.http.HttpMethod;
 import io.vertx.ext.web.client.HttpRequest;
 import io.vertx.ext.web.client.HttpResponse;
 import io.vertx.ext.web.client.WebClient;
+import io.vertx.ext.web.codec.BodyCodec;
 
 /**
  * Abstract class implementing common parts for Vert.x HTTP.
@@ -21,6 +45,7 @@ import io.vertx.ext.web.client.WebClient;
 public abstract class AbstractVertxHttpClient extends AbstractHttpClient implements AutoCloseable {
 
     protected final WebClient client;
+    private final AtomicBoolean released = new AtomicBoolean();
 
     /**
      * Creates a new abstract client based on Vert.x HTTP client.
@@ -43,21 +68,262 @@ public abstract class AbstractVertxHttpClient extends AbstractHttpClient impleme
      * @return The request having the URL and authentication set
      */
     protected HttpRequest<Buffer> requestBuilder(HttpMethod method, String url, Object... parameters) {
-        var request = client.requestAbs(method, url(url, parameters).toString())
-                .putHeader(HEADER_CONTENT_TYPE, HEADER_CONTENT_JSON);
-        getAuthentication().fillHeaders(request::putHeader);
-        getCookieHeader(getAuthentication()).ifPresent(value -> request.putHeader(HEADER_COOKIE, value));
-        return request;
+        var request = client.requestAbs(method, urlString(url, parameters));
+        fillHeaders(request::putHeader);
+        return withRoute(request, url);
     }
 
     /**
-     * Creates a body buffer containing the given object serialized as JSON.
+     * Creates a body buffer containing the given object serialized with the codec of the client.
+     * The serialized bytes are wrapped by the buffer without being copied.
      *
      * @param object The object to serialize
      * @return The corresponding buffer for the request
      */
     protected Buffer body(Object object) {
-        return Buffer.buffer(serialize(object));
+        return Buffer.buffer(Unpooled.wrappedBuffer(serializeBytes(object)));
+    }
+
+    /**
+     * Sends the request with the given multipart content, the files being streamed from the disk.
+     * The content type of the request is replaced by the one of the multipart form, including its boundary.
+     *
+     * @param request   The request to send
+     * @param multipart The multipart content
+     * @return The future response
+     */
+    protected Future<HttpResponse<Buffer>> sendMultipart(HttpRequest<Buffer> request, Multipart multipart) {
+        request.headers().remove(HEADER_CONTENT_TYPE);
+        return request.sendMultipartForm(VertxUtils.multipart(multipart));
+    }
+
+    /**
+     * Sends the request and returns a domain object.
+     *
+     * @param request    The request to send
+     * @param returnType The domain object type class
+     * @param <T>        The domain object type
+     * @return A {@link CompletableFuture} with the deserialized domain object
+     */
+    protected <T> CompletableFuture<T> sendAsync(HttpRequest<Buffer> request, Class<T> returnType) {
+        return sendAsync(request, null, objectMapper.constructType(returnType));
+    }
+
+    /**
+     * Sends the request with the given body and returns a domain object.
+     *
+     * @param request    The request to send
+     * @param body       The body to send
+     * @param returnType The domain object type class
+     * @param <T>        The domain object type
+     * @return A {@link CompletableFuture} with the deserialized domain object
+     */
+    protected <T> CompletableFuture<T> sendAsync(HttpRequest<Buffer> request, Buffer body, Class<T> returnType) {
+        return sendAsync(request, body, objectMapper.constructType(returnType));
+    }
+
+    /**
+     * Sends the request with the given body and returns a domain object.
+     * Contrary to {@link #handleAsync(Future, JavaType)}, the request can be sent again if needed
+     * (e.g. to revalidate a cached response).
+     * The compressed response body is decoded packet by packet as it is received (see {@link ExchangeBodyCodec})
+     * and the response buffer is directly given to the parser without intermediate decoding.
+     *
+     * @param request    The request to send
+     * @param body       The body to send or {@code null} to send the request without body
+     * @param returnType The domain object type
+     * @param <T>        The domain object type
+     * @return A {@link CompletableFuture} with the deserialized domain object
+     */
+    protected <T> CompletableFuture<T> sendAsync(HttpRequest<Buffer> request, Buffer body, JavaType returnType) {
+        return sendAsync(request, body, returnType, false, (response, decoded) -> deserialize(decoded, response, returnType));
+    }
+
+    /**
+     * Sends the request and returns a stream of the JSON array elements received, deserialized lazily.
+     * Note that Vert.x web client receives the whole response before the parsing of elements starts.
+     *
+     * @param request     The request to send
+     * @param elementType The array element type class
+     * @param <T>         The array element type
+     * @return A {@link CompletableFuture} with the stream of elements
+     */
+    protected <T> CompletableFuture<Stream<T>> sendAsyncStream(HttpRequest<Buffer> request, Class<T> elementType) {
+        return sendAsyncStream(request, objectMapper.constructType(elementType));
+    }
+
+    /**
+     * Sends the request and returns a stream of the JSON array elements received, deserialized lazily.
+     * Note that Vert.x web client receives the whole response before the parsing of elements starts.
+     *
+     * @param request     The request to send
+     * @param elementType The array element type
+     * @param <T>         The array element type
+     * @return A {@link CompletableFuture} with the stream of elements
+     */
+    protected <T> CompletableFuture<Stream<T>> sendAsyncStream(HttpRequest<Buffer> request, JavaType elementType) {
+        return sendAsync(request)
+                .thenApply(stream -> deserializeStream(stream, elementType));
+    }
+
+    /**
+     * Sends the request and returns an input stream.
+     * Note that Vert.x web client receives the whole response before the stream is given.
+     *
+     * @param request The request to send
+     * @return A {@link CompletableFuture} with the input stream
+     */
+    protected CompletableFuture<InputStream> sendAsync(HttpRequest<Buffer> request) {
+        return sendAsync(request, null, objectMapper.constructType(InputStream.class), true,
+                (response, decoded) -> new VertxInputStream(decoded != null ? decoded : Buffer.buffer()));
+    }
+
+    /**
+     * Sends the request with the features common to all HTTP clients (see {@link #execute(ExchangeRequest, ExchangeHandler)})
+     * and gives the response with its decoded body to the given function.
+     *
+     * @param request    The request to send
+     * @param body       The body to send or {@code null} to send the request without body
+     * @param returnType The type of the result of the function
+     * @param streamed   Whether the result is given as received instead of being deserialized (see {@link ExchangeRequest#isStreamed()})
+     * @param result     The function giving the result from the response and its decoded body
+     * @param <T>        The result type
+     * @return A {@link CompletableFuture} with the result of the function
+     */
+    @SuppressWarnings("deprecation")
+    private <T> CompletableFuture<T> sendAsync(HttpRequest<Buffer> request, Buffer body, JavaType returnType, boolean streamed,
+                                               BiFunction<HttpResponse<Buffer>, Buffer, T> result) {
+        Map<String, List<String>> headers = headers(request.headers());
+        ExchangeRequest exchangeRequest = exchangeRequest(request, returnType, headers);
+        exchangeRequest.setStreamed(streamed);
+        return execute(exchangeRequest, exchange -> {
+            HttpRequest<Buffer> sent = attemptRequest(request, headers, exchange);
+            Buffer sentBody = withEncodedBody(sent, body);
+            ExchangeStatistics statistics = new ExchangeStatistics(sentBody != null ? sentBody.length() : 0);
+            ExchangeBodyCodec codec = new ExchangeBodyCodec(statistics, compression);
+            sent.as(codec).expect(codec::onResponse);
+            // Failing before getting a response, as the status codes are checked afterwards
+            Future<HttpResponse<Buffer>> sending = (sentBody != null ? sent.sendBuffer(sentBody) : sent.send())
+                    .recover(exception -> Future.failedFuture(new RequestException(exchange.getMethod(), exchange.getUri().toString(), exception)));
+            CompletableFuture<ExchangeResponse<T>> future = handleAsyncBase(sending, codec::decodedBody)
+                    .thenApply(response -> new ExchangeResponse<T>(
+                            response.statusCode(),
+                            headers(response.headers()),
+                            statistics.deserialize(() -> result.apply(response, codec.decodedBody(response))),
+                            response.body() != null ? response.body().length() : 0).withStatistics(statistics));
+            return onCancellation(future, codec::cancel);
+        });
+    }
+
+    private ExchangeRequest exchangeRequest(HttpRequest<Buffer> request, JavaType returnType, Map<String, List<String>> headers) {
+        ExchangeRequest exchangeRequest = new ExchangeRequest(request.method().name(), getUri(request), returnType, headers);
+        exchangeRequest.setRoute(getRoute(request));
+        return exchangeRequest;
+    }
+
+    private HttpRequest<Buffer> attemptRequest(HttpRequest<Buffer> request, Map<String, List<String>> headers, ExchangeRequest exchange) {
+        // Always sending a copy, as the timeout and the body codec are specific to each sending
+        HttpRequest<Buffer> sent = exchange.getHeaders().equals(headers) ? request.copy() : withHeaders(request, exchange);
+        if (exchange.getDeadline() != null) {
+            sent.timeout(exchange.getDeadline().remainingMillis());
+        }
+        return sent;
+    }
+
+    /**
+     * Gets a copy of the given request with the headers of the exchange request, which may have been modified.
+     *
+     * @param request  The request to send
+     * @param exchange The exchange request of the request
+     * @return A copy of the request with the headers of the exchange request
+     */
+    protected HttpRequest<Buffer> withHeaders(HttpRequest<Buffer> request, ExchangeRequest exchange) {
+        HttpRequest<Buffer> copy = request.copy();
+        copy.headers().clear();
+        exchange.getHeaders().forEach((name, values) -> copy.putHeader(name, values));
+        return copy;
+    }
+
+    /**
+     * Gets the given body compressed with the request encoding of the {@link #compression} when its length
+     * reaches its threshold, in which case the {@code Content-Encoding} header is added to the given request.
+     *
+     * @param request The request to send
+     * @param body    The body to send or {@code null} if the request has no body
+     * @return The compressed body or the same body if it does not have to be compressed
+     */
+    protected Buffer withEncodedBody(HttpRequest<Buffer> request, Buffer body) {
+        Compression bodyCompression = compression;
+        if (bodyCompression == null
+                || body == null
+                || !bodyCompression.isRequestEncoded(body.length())
+                || request.headers().contains(HEADER_CONTENT_ENCODING)) {
+            return body;
+        }
+        request.putHeader(HEADER_CONTENT_ENCODING, bodyCompression.getRequestEncoding().getName());
+        return Buffer.buffer(Unpooled.wrappedBuffer(bodyCompression.encode(body.getBytes())));
+    }
+
+    /**
+     * Gets the body of the given response received with the body codec of the caller (see {@link #handleAsync(Future, JavaType)}),
+     * decoded once received when it is still compressed with an encoding accepted by the {@link #compression}
+     * (the responses being decoded by Vert.x itself as they are received when its decompression is enabled,
+     * see {@link io.vertx.core.http.HttpClientOptions#setDecompressionSupported(boolean)}).
+     *
+     * @param response The response
+     * @return The decoded body or {@code null} if the response has no body
+     */
+    protected Buffer decodedBody(HttpResponse<Buffer> response) {
+        Buffer body = response.body();
+        List<ContentEncoding> encodings = getResponseEncodings(response.getHeader(HEADER_CONTENT_ENCODING));
+        if (body == null || encodings.isEmpty()) {
+            return body;
+        }
+        return Buffer.buffer(Unpooled.wrappedBuffer(compression.decode(encodings, body.getBytes())));
+    }
+
+    /**
+     * Gets the headers values by name.
+     *
+     * @param multiMap The headers
+     * @return The headers values by name
+     */
+    protected static Map<String, List<String>> headers(MultiMap multiMap) {
+        Map<String, List<String>> headers = new TreeMap<>(CASE_INSENSITIVE_ORDER);
+        multiMap.forEach((name, value) -> headers.computeIfAbsent(name, key -> new ArrayList<>(1)).add(value));
+        return headers;
+    }
+
+    /**
+     * Gets the URI of the given request, with its port if not the default one of its scheme,
+     * so that the hosts are identified the same way as with the other HTTP clients.
+     *
+     * @param request The request
+     * @return The URI of the request
+     */
+    private static URI getUri(HttpRequest<Buffer> request) {
+        boolean ssl = Boolean.TRUE.equals(request.ssl());
+        int defaultPort = ssl ? 443 : 80;
+        String port = request.port() == defaultPort ? "" : ":" + request.port();
+        return URI.create((ssl ? "https" : "http") + "://" + request.host() + port + request.uri());
+    }
+
+    /**
+     * Deserializes the body of the given response.
+     *
+     * @param response   The response
+     * @param returnType The domain object type
+     * @param <T>        The domain object type
+     * @return The deserialized domain object
+     */
+    protected <T> T deserialize(HttpResponse<Buffer> response, JavaType returnType) {
+        return deserialize(decodedBody(response), response, returnType);
+    }
+
+    private <T> T deserialize(Buffer body, HttpResponse<Buffer> response, JavaType returnType) {
+        return body != null
+                ? deserialize(body.getByteBuf().nioBuffer(), response.getHeader(HEADER_CONTENT_TYPE), returnType)
+                : null;
     }
 
     /**
@@ -74,6 +340,10 @@ public abstract class AbstractVertxHttpClient extends AbstractHttpClient impleme
 
     /**
      * Handles the request sent and returns a domain object.
+     * The response buffer is directly given to the parser without intermediate decoding.
+     * Note that as the request has already been sent, the features common to all HTTP clients
+     * (see {@link #execute(ExchangeRequest, ExchangeHandler)}) including the interceptors, are not applied,
+     * prefer {@link #sendAsync(HttpRequest, Buffer, JavaType)}.
      *
      * @param future     The future response
      * @param returnType The domain object type class
@@ -82,12 +352,41 @@ public abstract class AbstractVertxHttpClient extends AbstractHttpClient impleme
      */
     protected <T> CompletableFuture<T> handleAsync(Future<HttpResponse<Buffer>> future, JavaType returnType) {
         return handleAsyncBase(future)
-                .thenApply(HttpResponse::bodyAsString)
-                .thenApply(body -> deserialize(body, returnType));
+                .thenApply(response -> deserialize(response, returnType));
+    }
+
+    /**
+     * Handles the request sent and returns a stream of the JSON array elements received, deserialized lazily.
+     * Note that Vert.x web client receives the whole response before the parsing of elements starts.
+     * As the request has already been sent, the interceptors are not applied, prefer {@link #sendAsyncStream(HttpRequest, JavaType)}.
+     *
+     * @param future      The future response
+     * @param elementType The array element type class
+     * @param <T>         The array element type
+     * @return A {@link CompletableFuture} with the stream of elements
+     */
+    protected <T> CompletableFuture<Stream<T>> handleAsyncStream(Future<HttpResponse<Buffer>> future, Class<T> elementType) {
+        return handleAsyncStream(future, objectMapper.constructType(elementType));
+    }
+
+    /**
+     * Handles the request sent and returns a stream of the JSON array elements received, deserialized lazily.
+     * Note that Vert.x web client receives the whole response before the parsing of elements starts.
+     * As the request has already been sent, the interceptors are not applied, prefer {@link #sendAsyncStream(HttpRequest, JavaType)}.
+     *
+     * @param future      The future response
+     * @param elementType The array element type
+     * @param <T>         The array element type
+     * @return A {@link CompletableFuture} with the stream of elements
+     */
+    protected <T> CompletableFuture<Stream<T>> handleAsyncStream(Future<HttpResponse<Buffer>> future, JavaType elementType) {
+        return handleAsync(future)
+                .thenApply(stream -> deserializeStream(stream, elementType));
     }
 
     /**
      * Handles the request sent and returns an input stream.
+     * As the request has already been sent, the interceptors are not applied, prefer {@link #sendAsync(HttpRequest)}.
      *
      * @param future The future response
      * @return A {@link CompletableFuture} with the input stream
@@ -98,6 +397,48 @@ public abstract class AbstractVertxHttpClient extends AbstractHttpClient impleme
                 .thenApply(VertxInputStream::new);
     }
 
+    /**
+     * Sends the request and pipes the response body into the given file as it is received,
+     * without keeping it in memory. The file is closed at the end of the transfer.
+     * Note that in case of unsuccessful call (not 2xx or 3xx status code), the future completes
+     * exceptionally and the file contains the error content returned.
+     * The request is never sent again (e.g. retried or hedged), the file being written from its current position.
+     *
+     * @param request The request to send
+     * @param file    The file to write, opened with the {@link io.vertx.core.file.FileSystem} of the client
+     * @return A {@link CompletableFuture} with the transfer statistics
+     */
+    protected CompletableFuture<TransferStatistics> downloadAsync(HttpRequest<Buffer> request, AsyncFile file) {
+        Map<String, List<String>> headers = headers(request.headers());
+        ExchangeRequest exchangeRequest = exchangeRequest(request, objectMapper.constructType(TransferStatistics.class), headers);
+        exchangeRequest.setStreamed(true);
+        // The file being written as the response is received, it cannot be written again by another attempt
+        exchangeRequest.setRepeatable(false);
+        long start = System.nanoTime();
+        return execute(exchangeRequest, exchange -> {
+            ExchangeStatistics statistics = new ExchangeStatistics(0);
+            CompletableFuture<ExchangeResponse<TransferStatistics>> completableFuture = new CompletableFuture<>();
+            attemptRequest(request, headers, exchange)
+                    .as(BodyCodec.pipe(file))
+                    .send()
+                    .onSuccess(response -> {
+                        if (!isSuccessful(response.statusCode())) {
+                            completableFuture.completeExceptionally(responseException(response.statusCode(), null)
+                                    .withHeaders(headers(response.headers())));
+                        } else {
+                            completableFuture.complete(new ExchangeResponse<>(
+                                    response.statusCode(),
+                                    headers(response.headers()),
+                                    TransferStatistics.since(start, file.getWritePos()),
+                                    file.getWritePos()).withStatistics(statistics));
+                        }
+                    })
+                    .onFailure(exception -> completableFuture.completeExceptionally(
+                            new RequestException(exchange.getMethod(), exchange.getUri().toString(), exception)));
+            return completableFuture;
+        });
+    }
+
     /**
      * Handles the request sent and returns the corresponding response buffer.
      *
@@ -105,8 +446,13 @@ public abstract class AbstractVertxHttpClient extends AbstractHttpClient impleme
      * @return A {@link CompletableFuture} with the response buffer
      */
     protected CompletableFuture<HttpResponse<Buffer>> handleAsyncBase(Future<HttpResponse<Buffer>> future) {
+        return handleAsyncBase(future, this::decodedBody);
+    }
+
+    private CompletableFuture<HttpResponse<Buffer>> handleAsyncBase(Future<HttpResponse<Buffer>> future,
+                                                                    Function<HttpResponse<Buffer>, Buffer> decodedBody) {
         CompletableFuture<HttpResponse<Buffer>> completableFuture = new CompletableFuture<>();
-        future.onSuccess(response -> handleResponse(response, completableFuture))
+        future.onSuccess(response -> handleResponse(response, decodedBody, completableFuture))
                 .onFailure(completableFuture::completeExceptionally);
         return completableFuture;
     }
@@ -118,8 +464,21 @@ public abstract class AbstractVertxHttpClient extends AbstractHttpClient impleme
      * @param completableFuture The completable future to update
      */
     protected void handleResponse(HttpResponse<Buffer> response, CompletableFuture<HttpResponse<Buffer>> completableFuture) {
-        if (response.statusCode() >= 400) {
-            completableFuture.completeExceptionally(responseException(response.statusCode(), response.bodyAsString()));
+        handleResponse(response, this::decodedBody, completableFuture);
+    }
+
+    private void handleResponse(HttpResponse<Buffer> response, Function<HttpResponse<Buffer>, Buffer> decodedBody,
+                                CompletableFuture<HttpResponse<Buffer>> completableFuture) {
+        if (!isSuccessful(response.statusCode())) {
+            Buffer body;
+            try {
+                body = decodedBody.apply(response);
+            } catch (ContentEncodingException e) {
+                // Giving the body as received
+                body = response.body();
+            }
+            completableFuture.completeExceptionally(responseException(response.statusCode(), body != null ? body.toString() : null)
+                    .withHeaders(headers(response.headers())));
         } else {
             completableFuture.complete(response);
         }
@@ -127,7 +486,9 @@ public abstract class AbstractVertxHttpClient extends AbstractHttpClient impleme
 
     @Override
     public void close() throws Exception {
-        client.close();
+        if (released.compareAndSet(false, true) && !VertxUtils.SHARED_CLIENTS.release(client)) {
+            client.close();
+        }
     }
 
 }
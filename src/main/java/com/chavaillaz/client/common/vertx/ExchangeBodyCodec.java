@@ -0,0 +1,211 @@
+package com.chavaillaz.client.common.vertx;
+
+import static com.chavaillaz.client.common.AbstractHttpClient.HEADER_CONTENT_ENCODING;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.Function;
+
+import com.chavaillaz.client.common.compression.Compression;
+import com.chavaillaz.client.common.compression.ContentEncoding;
+import com.chavaillaz.client.common.exception.ContentEncodingException;
+import com.chavaillaz.client.common.exchange.ExchangeStatistics;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Promise;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.streams.WriteStream;
+import io.vertx.ext.web.client.HttpRequest;
+import io.vertx.ext.web.client.HttpResponse;
+import io.vertx.ext.web.client.predicate.ResponsePredicateResult;
+import io.vertx.ext.web.codec.BodyCodec;
+import io.vertx.ext.web.codec.spi.BodyStream;
+
+/**
+ * Body codec keeping the state of one sending of a request, as the web client only gives the response with its whole body.
+ * It records the reception of the response headers in the statistics of the exchange, decodes the response body
+ * packet by packet as it is received when it is compressed (see {@link #onResponse(HttpResponse)}) and, once the
+ * exchange is cancelled, stops keeping the response body received, the response then failing with a
+ * {@link CancellationException}.
+ */
+public class ExchangeBodyCodec implements BodyCodec<Buffer> {
+
+    private final ExchangeStatistics statistics;
+    private final Compression compression;
+    private volatile List<ContentEncoding> encodings = List.of();
+    private volatile ContentEncodingException encodingException;
+    private volatile boolean cancelled;
+    private volatile ExchangeBodyStream stream;
+
+    /**
+     * Creates a new body codec for a sending of a request.
+     *
+     * @param statistics  The statistics of the exchange
+     * @param compression The compression decoding the response body or {@code null} to keep the body as received
+     */
+    public ExchangeBodyCodec(ExchangeStatistics statistics, Compression compression) {
+        this.statistics = statistics;
+        this.compression = compression;
+    }
+
+    /**
+     * Handles the headers of the response before its body is received, in order to decode the body with the
+     * encodings of its {@code Content-Encoding} header. It has to be given to the request as expectation
+     * (see {@link HttpRequest#expect(Function)}), the web client not giving the headers to the body codec,
+     * and it is always successful, the body being kept as received when one of its encodings is not available.
+     *
+     * @param response The response without its body
+     * @return The successful result
+     */
+    public ResponsePredicateResult onResponse(HttpResponse<Void> response) {
+        if (compression != null) {
+            try {
+                encodings = compression.getResponseEncodings(response.getHeader(HEADER_CONTENT_ENCODING));
+            } catch (ContentEncodingException e) {
+                encodingException = e;
+            }
+        }
+        return ResponsePredicateResult.success();
+    }
+
+    /**
+     * Gets the body of the given response received with this codec, decoded as it was received.
+     *
+     * @param response The response
+     * @return The decoded body
+     * @throws ContentEncodingException if one of the encodings of the body is not available
+     */
+    public Buffer decodedBody(HttpResponse<Buffer> response) {
+        if (encodingException != null) {
+            throw encodingException;
+        }
+        return response.body();
+    }
+
+    /**
+     * Cancels the exchange, the response body being discarded as it is received.
+     * Note that the request is not reset, the connection being kept once the response is received.
+     */
+    public void cancel() {
+        cancelled = true;
+        ExchangeBodyStream current = stream;
+        if (current != null) {
+            current.handle(new CancellationException());
+        }
+    }
+
+    @Override
+    public void create(Handler<AsyncResult<BodyStream<Buffer>>> handler) {
+        statistics.onFirstByte();
+        ExchangeBodyStream current = new ExchangeBodyStream(encodingException == null ? encodings : List.of());
+        stream = current;
+        if (cancelled) {
+            current.handle(new CancellationException());
+        }
+        handler.handle(Future.succeededFuture(current));
+    }
+
+    /**
+     * Stream decoding and collecting the response body until the exchange is cancelled.
+     */
+    private class ExchangeBodyStream implements BodyStream<Buffer> {
+
+        private final Promise<Buffer> result = Promise.promise();
+        private final Buffer body = Buffer.buffer();
+        private OutputStream decoder;
+
+        ExchangeBodyStream(List<ContentEncoding> encodings) {
+            OutputStream target = new OutputStream() {
+
+                @Override
+                public void write(int b) {
+                    body.appendByte((byte) b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) {
+                    body.appendBytes(b, off, len);
+                }
+
+            };
+            try {
+                this.decoder = encodings.isEmpty() ? null : compression.decoder(encodings, target);
+            } catch (IOException e) {
+                result.tryFail(e);
+            }
+        }
+
+        @Override
+        public Future<Buffer> result() {
+            return result.future();
+        }
+
+        @Override
+        public void handle(Throwable exception) {
+            result.tryFail(exception);
+        }
+
+        @Override
+        public WriteStream<Buffer> exceptionHandler(Handler<Throwable> handler) {
+            return this;
+        }
+
+        @Override
+        public Future<Void> write(Buffer data) {
+            // Discarding the data once failed, the response being received until its end
+            if (result.future().isComplete()) {
+                return Future.succeededFuture();
+            }
+            if (decoder == null) {
+                body.appendBuffer(data);
+                return Future.succeededFuture();
+            }
+            try {
+                decoder.write(data.getBytes());
+            } catch (IOException e) {
+                result.tryFail(e);
+            }
+            return Future.succeededFuture();
+        }
+
+        @Override
+        public void write(Buffer data, Handler<AsyncResult<Void>> handler) {
+            handler.handle(write(data));
+        }
+
+        @Override
+        public void end(Handler<AsyncResult<Void>> handler) {
+            try {
+                if (decoder != null) {
+                    decoder.close();
+                }
+                result.tryComplete(body);
+            } catch (IOException e) {
+                result.tryFail(e);
+            }
+            if (handler != null) {
+                handler.handle(Future.succeededFuture());
+            }
+        }
+
+        @Override
+        public WriteStream<Buffer> setWriteQueueMaxSize(int maxSize) {
+            return this;
+        }
+
+        @Override
+        public boolean writeQueueFull() {
+            return false;
+        }
+
+        @Override
+        public WriteStream<Buffer> drainHandler(Handler<Void> handler) {
+            return this;
+        }
+
+    }
+
+}
@@ -25,10 +25,10 @@ public class VertxInputStream extends InputStream {
 
     @Override
     public int read(byte[] buffer, int offset, int length) throws IOException {
-        int size = Math.min(buffer.length, this.buffer.length() - position);
-        if (size == 0) {
+        if (position == this.buffer.length()) {
             return -1;
         }
+        int size = Math.min(length, this.buffer.length() - position);
         this.buffer.getBytes(position, position + size, buffer, offset);
         position += size;
         return size;
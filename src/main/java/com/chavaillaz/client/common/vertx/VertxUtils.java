@@ -1,14 +1,27 @@
 package com.chavaillaz.client.common.vertx;
 
+import static com.chavaillaz.client.common.utility.ConnectionConfiguration.Version.HTTP_2_PRIOR_KNOWLEDGE;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.nio.file.Files.probeContentType;
 
 import java.io.File;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
+import com.chavaillaz.client.common.compression.Compression;
+import com.chavaillaz.client.common.utility.ConnectionConfiguration;
+import com.chavaillaz.client.common.utility.ConnectionRegistry;
+import com.chavaillaz.client.common.utility.Multipart;
 import com.chavaillaz.client.common.utility.ProxyConfiguration;
 import io.vertx.core.MultiMap;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.Http2Settings;
+import io.vertx.core.http.HttpVersion;
 import io.vertx.core.net.ProxyOptions;
+import io.vertx.ext.web.client.WebClient;
 import io.vertx.ext.web.client.WebClientOptions;
 import io.vertx.ext.web.multipart.MultipartForm;
 import lombok.SneakyThrows;
@@ -21,20 +34,74 @@ import lombok.experimental.UtilityClass;
 public class VertxUtils {
 
     /**
-     * Creates new options for Vert.x web client with default configuration (30 seconds timeout).
+     * Web clients shared by the clients created with the same configuration (see {@link #sharedWebClient}).
+     */
+    static final ConnectionRegistry<WebClient> SHARED_CLIENTS = new ConnectionRegistry<>(WebClient::close);
+
+    /**
+     * Creates new options for Vert.x web client with default configuration (30 seconds timeout),
+     * using HTTP/2 when supported by the server (see {@link ConnectionConfiguration#http2()}).
+     * The responses compressed are decoded by the clients once received (see {@link Compression}), unless the
+     * decompression of Vert.x is enabled with {@link WebClientOptions#setDecompressionSupported(boolean)}
+     * to decode them as they are received.
      *
      * @param proxy The proxy configuration
      * @return The corresponding options
      */
     public static WebClientOptions defaultWebClientOptions(ProxyConfiguration proxy) {
-        return new WebClientOptions()
+        return defaultWebClientOptions(proxy, ConnectionConfiguration.http2());
+    }
+
+    /**
+     * Creates new options for Vert.x web client with default configuration (30 seconds timeout),
+     * using the given connection configuration.
+     * With HTTP/2, the requests sent to the same host are multiplexed on a single connection.
+     * Note that Vert.x does not limit the number of connections for all the hosts.
+     *
+     * @param proxy      The proxy configuration
+     * @param connection The connection configuration
+     * @return The corresponding options
+     */
+    public static WebClientOptions defaultWebClientOptions(ProxyConfiguration proxy, ConnectionConfiguration connection) {
+        Http2Settings settings = new Http2Settings()
+                .setPushEnabled(false)
+                .setMaxConcurrentStreams(connection.getMaxConcurrentStreams());
+        Optional.ofNullable(connection.getInitialWindowSize()).ifPresent(settings::setInitialWindowSize);
+        WebClientOptions options = new WebClientOptions()
                 .setProxyOptions(Optional.ofNullable(proxy)
                         .map(config -> new ProxyOptions()
                                 .setHost(config.getHost())
                                 .setPort(config.getPort()))
                         .orElse(null))
                 .setConnectTimeout(30_000)
-                .setIdleTimeout(30_000);
+                .setIdleTimeout(30_000)
+                .setProtocolVersion(connection.getVersion() == HTTP_2_PRIOR_KNOWLEDGE ? HttpVersion.HTTP_2 : HttpVersion.HTTP_1_1)
+                .setHttp2ClearTextUpgrade(false)
+                .setUseAlpn(connection.isHttp2())
+                .setAlpnVersions(connection.isHttp2() ? List.of(HttpVersion.HTTP_2, HttpVersion.HTTP_1_1) : List.of())
+                .setHttp2MultiplexingLimit(connection.getMaxConcurrentStreams())
+                .setInitialSettings(settings)
+                .setMaxPoolSize(connection.getMaxConnectionsPerHost());
+        Optional.ofNullable(connection.getConnectionWindowSize()).ifPresent(options::setHttp2ConnectionWindowSize);
+        Optional.ofNullable(connection.getKeepAliveTimeout()).ifPresent(timeout -> options
+                .setKeepAliveTimeout((int) timeout.toSeconds())
+                .setHttp2KeepAliveTimeout((int) timeout.toSeconds()));
+        return options;
+    }
+
+    /**
+     * Gets the web client shared by all the clients created with the same Vert.x instance and configurations,
+     * creating it with {@link #defaultWebClientOptions(ProxyConfiguration, ConnectionConfiguration)} if not present,
+     * in order to reuse the same connections for the requests sent to the same host.
+     * It is closed when all the clients using it are closed.
+     *
+     * @param vertx      The Vert.x instance
+     * @param proxy      The proxy configuration
+     * @param connection The connection configuration
+     * @return The shared client
+     */
+    public static WebClient sharedWebClient(Vertx vertx, ProxyConfiguration proxy, ConnectionConfiguration connection) {
+        return SHARED_CLIENTS.acquire(Arrays.asList(vertx, proxy, connection), () -> WebClient.create(vertx, defaultWebClientOptions(proxy, connection)));
     }
 
     /**
@@ -52,6 +119,27 @@ public class VertxUtils {
         return form;
     }
 
+    /**
+     * Creates a new multipart form with the given multipart content.
+     * The files are streamed from the disk when the form is sent.
+     *
+     * @param multipart The multipart content
+     * @return The multipart form
+     */
+    public static MultipartForm multipart(Multipart multipart) {
+        MultipartForm form = MultipartForm.create();
+        for (Multipart.Part part : multipart.getParts()) {
+            if (part.isText()) {
+                form.attribute(part.getName(), new String(part.getContent(), UTF_8));
+            } else if (part.getFile() != null) {
+                form.binaryFileUpload(part.getName(), part.getFileName(), part.getFile().toString(), part.getContentType());
+            } else {
+                form.binaryFileUpload(part.getName(), part.getFileName(), Buffer.buffer(part.getContent()), part.getContentType());
+            }
+        }
+        return form;
+    }
+
     /**
      * Creates the HTTP parameters for form data using a map of key value representing the data to send.
      *
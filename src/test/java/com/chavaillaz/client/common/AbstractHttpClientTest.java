@@ -0,0 +1,138 @@
+package com.chavaillaz.client.common;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.concurrent.CompletableFuture.failedFuture;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.chavaillaz.client.common.exception.DeserializationException;
+import com.chavaillaz.client.common.exception.ResponseException;
+import com.chavaillaz.client.common.exchange.ExchangeHandler;
+import com.chavaillaz.client.common.exchange.ExchangeInterceptor;
+import com.chavaillaz.client.common.exchange.ExchangeRequest;
+import com.chavaillaz.client.common.exchange.ExchangeResponse;
+import com.chavaillaz.client.common.metrics.MetricsRecorder;
+import com.chavaillaz.client.common.model.User;
+import com.chavaillaz.client.common.resilience.RetryPolicy;
+import com.chavaillaz.client.common.security.AnonymousAuthentication;
+import com.fasterxml.jackson.databind.JavaType;
+import org.junit.jupiter.api.Test;
+
+class AbstractHttpClientTest {
+
+    private static final byte[] USER = "{\"username\": \"Test\"}".getBytes(UTF_8);
+
+    private final AbstractHttpClient client = new AbstractHttpClient("http://localhost", new AnonymousAuthentication()) {
+        // Only common parts are tested
+    };
+
+    @Test
+    void testDeserializeBytes() {
+        assertEquals("Test", client.deserialize(USER, User.class).getUsername());
+        assertNull(client.deserialize(" ".getBytes(UTF_8), User.class));
+        assertNull(client.deserialize(USER, Void.class));
+        assertThrows(DeserializationException.class, () -> client.deserialize("{".getBytes(UTF_8), User.class));
+    }
+
+    @Test
+    void testDeserializeByteBuffer() {
+        ByteBuffer buffer = ByteBuffer.allocate(USER.length + 2);
+        buffer.put((byte) ' ').put(USER).flip().position(1);
+        User user = client.deserialize(buffer, client.getObjectMapper().constructType(User.class));
+        assertEquals("Test", user.getUsername());
+        assertEquals(1, buffer.position());
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(USER.length).put(USER).flip();
+        user = client.deserialize(direct, client.getObjectMapper().constructType(User.class));
+        assertEquals("Test", user.getUsername());
+    }
+
+    @Test
+    void testDeserializeInputStream() {
+        assertEquals("Test", client.deserialize(new ByteArrayInputStream(USER), User.class).getUsername());
+        assertNull(client.deserialize(new ByteArrayInputStream(new byte[0]), User.class));
+    }
+
+    @Test
+    void testMetricsRoute() {
+        MetricsRecorder metrics = new MetricsRecorder();
+        client.setMetrics(metrics);
+        ExchangeHandler<String> handler = request -> completedFuture(new ExchangeResponse<>(200, Map.of(), "Value", 5));
+        JavaType type = client.getObjectMapper().constructType(String.class);
+
+        // Route given by the request builder created with the URL template
+        Object builder = client.withRoute(new Object(), "/users/{0}");
+        ExchangeRequest request = new ExchangeRequest("GET", client.url("/users/{0}", "john"), type, Map.of());
+        request.setRoute(client.getRoute(builder));
+        client.exchange(request, handler).join();
+        client.exchange(new ExchangeRequest("GET", URI.create("http://localhost/other/1"), type, Map.of()), handler).join();
+
+        assertEquals(1, metrics.getRoute("GET", "/users/{0}").getRequests());
+        assertEquals(5, metrics.getRoute("GET", "/users/{0}").getResponseBytes());
+        assertEquals(1, metrics.getRoute("GET", ExchangeRequest.UNKNOWN_ROUTE).getRequests());
+        assertNull(metrics.getRoute("GET", "/other/1"));
+    }
+
+    @Test
+    void testInterceptors() {
+        client.setRetryPolicy(new RetryPolicy(3, Duration.ZERO, Duration.ZERO));
+        client.addInterceptor(new CountingInterceptor("X-Call"));
+        client.addAttemptInterceptor(new CountingInterceptor("X-Attempt"));
+        AtomicInteger attempts = new AtomicInteger();
+        ExchangeHandler<String> handler = request -> attempts.incrementAndGet() == 1
+                ? failedFuture(new ResponseException(503, "Unavailable"))
+                : completedFuture(new ExchangeResponse<>(200, Map.of(), request.getHeader("X-Call") + "/" + request.getHeader("X-Attempt"), 3));
+        JavaType type = client.getObjectMapper().constructType(String.class);
+
+        ExchangeRequest request = new ExchangeRequest("GET", URI.create("http://localhost/users"), type, Map.of());
+        assertEquals("1/2", client.exchange(request, handler).join().getBody());
+    }
+
+    @Test
+    void testInterceptorShortCircuit() {
+        client.addInterceptor(new ExchangeInterceptor() {
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> CompletableFuture<ExchangeResponse<T>> exchange(ExchangeRequest request, ExchangeHandler<T> handler) {
+                return completedFuture(new ExchangeResponse<>(200, Map.of(), (T) "Intercepted", 11));
+            }
+
+        });
+        ExchangeHandler<String> handler = request -> failedFuture(new IllegalStateException("Request sent"));
+        JavaType type = client.getObjectMapper().constructType(String.class);
+
+        ExchangeRequest request = new ExchangeRequest("GET", URI.create("http://localhost/users"), type, Map.of());
+        assertEquals("Intercepted", client.exchange(request, handler).join().getBody());
+    }
+
+    /**
+     * Interceptor setting a header with the number of requests it intercepted.
+     */
+    private static class CountingInterceptor implements ExchangeInterceptor {
+
+        private final AtomicInteger count = new AtomicInteger();
+        private final String header;
+
+        CountingInterceptor(String header) {
+            this.header = header;
+        }
+
+        @Override
+        public <T> CompletableFuture<ExchangeResponse<T>> exchange(ExchangeRequest request, ExchangeHandler<T> handler) {
+            return handler.exchange(request.setHeader(header, String.valueOf(count.incrementAndGet())));
+        }
+
+    }
+
+}
@@ -1,17 +1,84 @@
 package com.chavaillaz.client.common.apache;
 
 import static com.chavaillaz.client.common.apache.ApacheHttpUtils.defaultHttpClientBuilder;
+import static com.chavaillaz.client.common.apache.ApacheHttpUtils.sharedHttpClient;
+import static com.chavaillaz.client.common.model.UserApi.URL_USER;
+import static com.chavaillaz.client.common.model.UserApi.newOpenTelemetry;
+import static com.chavaillaz.client.common.model.UserApi.newUser;
+import static com.chavaillaz.client.common.model.UserApi.requestProtocols;
+import static com.chavaillaz.client.common.model.UserApi.stubForCache;
+import static com.chavaillaz.client.common.model.UserApi.stubForCbor;
+import static com.chavaillaz.client.common.model.UserApi.stubForCompression;
+import static com.chavaillaz.client.common.model.UserApi.stubForDeadline;
+import static com.chavaillaz.client.common.model.UserApi.stubForHedging;
+import static com.chavaillaz.client.common.model.UserApi.stubForRateLimit;
+import static com.chavaillaz.client.common.model.UserApi.stubForRetry;
+import static com.chavaillaz.client.common.model.UserApi.stubForUnavailable;
 import static com.chavaillaz.client.common.model.UserApi.stubForUserApi;
+import static com.chavaillaz.client.common.model.UserApi.verifyCache;
+import static com.chavaillaz.client.common.model.UserApi.verifyCbor;
+import static com.chavaillaz.client.common.model.UserApi.verifyCompression;
+import static com.chavaillaz.client.common.model.UserApi.verifyCreation;
+import static com.chavaillaz.client.common.model.UserApi.verifyDeadline;
+import static com.chavaillaz.client.common.model.UserApi.verifyHedging;
+import static com.chavaillaz.client.common.model.UserApi.verifyInterceptor;
+import static com.chavaillaz.client.common.model.UserApi.verifyRateLimit;
+import static com.chavaillaz.client.common.model.UserApi.verifyRetry;
+import static com.chavaillaz.client.common.model.UserApi.verifyStreamInterceptor;
+import static com.chavaillaz.client.common.model.UserApi.verifyTracing;
+import static com.chavaillaz.client.common.model.UserApi.verifyUnavailable;
+import static com.chavaillaz.client.common.model.UserApi.verifyUpload;
+import static io.opentelemetry.api.common.AttributeKey.longKey;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.stream.Collectors.toList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Stream;
+
+import com.chavaillaz.client.common.cache.MemoryCacheStore;
+import com.chavaillaz.client.common.cache.ResponseCache;
+import com.chavaillaz.client.common.codec.JacksonCodec;
+import com.chavaillaz.client.common.compression.Compression;
+import com.chavaillaz.client.common.compression.ContentEncoding;
+import com.chavaillaz.client.common.concurrency.RateLimiter;
+import com.chavaillaz.client.common.exception.CircuitOpenException;
+import com.chavaillaz.client.common.exception.DeadlineExceededException;
+import com.chavaillaz.client.common.exception.LimitExceededException;
+import com.chavaillaz.client.common.exception.ResponseException;
+import com.chavaillaz.client.common.metrics.MetricsRecorder;
 import com.chavaillaz.client.common.model.User;
+import com.chavaillaz.client.common.model.UserApi;
+import com.chavaillaz.client.common.resilience.CircuitBreaker;
+import com.chavaillaz.client.common.resilience.HedgingPolicy;
+import com.chavaillaz.client.common.resilience.RetryPolicy;
 import com.chavaillaz.client.common.security.AnonymousAuthentication;
+import com.chavaillaz.client.common.tracing.OpenTelemetryTracing;
+import com.chavaillaz.client.common.utility.ConnectionConfiguration;
+import com.chavaillaz.client.common.utility.TransferStatistics;
 import com.github.tomakehurst.wiremock.junit5.WireMockRuntimeInfo;
 import com.github.tomakehurst.wiremock.junit5.WireMockTest;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.data.SpanData;
 import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 @WireMockTest
 class ApacheHttpTest {
@@ -31,4 +98,242 @@ class ApacheHttpTest {
         }
     }
 
+    @Test
+    void testApacheCbor(WireMockRuntimeInfo wiremock) throws Exception {
+        stubForCbor();
+        CloseableHttpAsyncClient client = defaultHttpClientBuilder(null).build();
+        try (var api = new ApacheHttpUserApi(client, wiremock.getHttpBaseUrl(), new AnonymousAuthentication())) {
+            api.setCodec(JacksonCodec.cbor());
+            User user = api.getUser().join();
+            assertEquals("Binary", user.getUsername());
+            verifyCbor();
+        }
+    }
+
+    @Test
+    void testApacheBody(WireMockRuntimeInfo wiremock) throws Exception {
+        CloseableHttpAsyncClient client = defaultHttpClientBuilder(null).build();
+        try (var api = new ApacheHttpUserApi(client, wiremock.getHttpBaseUrl(), new AnonymousAuthentication())) {
+            User user = api.createUser(newUser("Serialized")).join();
+            assertEquals("Created", user.getUsername());
+            verifyCreation("Serialized");
+        }
+    }
+
+    @Test
+    void testApacheCache(WireMockRuntimeInfo wiremock) throws Exception {
+        stubForCache();
+        CloseableHttpAsyncClient client = defaultHttpClientBuilder(null).build();
+        try (var api = new ApacheHttpUserApi(client, wiremock.getHttpBaseUrl(), new AnonymousAuthentication())) {
+            api.setResponseCache(new ResponseCache(MemoryCacheStore.maximumEntries(10)));
+            for (int i = 0; i < 3; i++) {
+                assertEquals("Cached", api.getUser().join().getUsername());
+            }
+            verifyCache();
+        }
+    }
+
+    @Test
+    void testApacheRateLimit(WireMockRuntimeInfo wiremock) throws Exception {
+        stubForRateLimit();
+        // Otherwise the client sends the request again by itself after the delay given by the server
+        CloseableHttpAsyncClient client = defaultHttpClientBuilder(null).disableAutomaticRetries().build();
+        try (var api = new ApacheHttpUserApi(client, wiremock.getHttpBaseUrl(), new AnonymousAuthentication())) {
+            api.setRateLimiter(new RateLimiter(100, 10, Duration.ofSeconds(1)));
+            var exceeded = assertThrows(CompletionException.class, () -> api.getUser().join());
+            assertEquals("60", ((ResponseException) exceeded.getCause()).getHeader("Retry-After"));
+            var rejected = assertThrows(CompletionException.class, () -> api.getUser().join());
+            assertInstanceOf(LimitExceededException.class, rejected.getCause());
+            verifyRateLimit();
+        }
+    }
+
+    @Test
+    void testApacheRetry(WireMockRuntimeInfo wiremock) throws Exception {
+        stubForRetry();
+        // Otherwise the client sends the request again by itself
+        CloseableHttpAsyncClient client = defaultHttpClientBuilder(null).disableAutomaticRetries().build();
+        try (var api = new ApacheHttpUserApi(client, wiremock.getHttpBaseUrl(), new AnonymousAuthentication())) {
+            RetryPolicy retryPolicy = new RetryPolicy(3, Duration.ofMillis(10), Duration.ofSeconds(1));
+            api.setRetryPolicy(retryPolicy);
+            assertEquals("Retried", api.getUser().join().getUsername());
+            assertEquals(1, retryPolicy.getRetries());
+            verifyRetry();
+        }
+    }
+
+    @Test
+    void testApacheHedging(WireMockRuntimeInfo wiremock) throws Exception {
+        stubForHedging();
+        CloseableHttpAsyncClient client = defaultHttpClientBuilder(null).build();
+        try (var api = new ApacheHttpUserApi(client, wiremock.getHttpBaseUrl(), new AnonymousAuthentication())) {
+            HedgingPolicy hedgingPolicy = new HedgingPolicy(95, Duration.ofMillis(10), Duration.ofMillis(100));
+            api.setHedgingPolicy(hedgingPolicy);
+            assertEquals("Hedged", api.getUser().get(2, SECONDS).getUsername());
+            assertEquals(1, hedgingPolicy.getHedged());
+            verifyHedging();
+        }
+    }
+
+    @Test
+    void testApacheCircuitBreaker(WireMockRuntimeInfo wiremock) throws Exception {
+        stubForUnavailable();
+        // Otherwise the client sends the request again by itself
+        CloseableHttpAsyncClient client = defaultHttpClientBuilder(null).disableAutomaticRetries().build();
+        try (var api = new ApacheHttpUserApi(client, wiremock.getHttpBaseUrl(), new AnonymousAuthentication())) {
+            api.setCircuitBreaker(new CircuitBreaker(50, Duration.ofMinutes(1)).withWindow(2, 2));
+            for (int i = 0; i < 2; i++) {
+                var failure = assertThrows(CompletionException.class, () -> api.getUser().join());
+                assertInstanceOf(ResponseException.class, failure.getCause());
+            }
+            var rejected = assertThrows(CompletionException.class, () -> api.getUser().join());
+            assertInstanceOf(CircuitOpenException.class, rejected.getCause());
+            verifyUnavailable(2);
+        }
+    }
+
+    @Test
+    void testApacheDeadline(WireMockRuntimeInfo wiremock) throws Exception {
+        stubForDeadline();
+        CloseableHttpAsyncClient client = defaultHttpClientBuilder(null).build();
+        try (var api = new ApacheHttpUserApi(client, wiremock.getHttpBaseUrl(), new AnonymousAuthentication())) {
+            api.setDeadlineHeader("X-Request-Timeout");
+            var future = api.withDeadline(Duration.ofMillis(200), api::getUser);
+            var failure = assertThrows(ExecutionException.class, () -> future.get(1, SECONDS));
+            assertInstanceOf(DeadlineExceededException.class, failure.getCause());
+            verifyDeadline();
+        }
+    }
+
+    @Test
+    void testApacheMetrics(WireMockRuntimeInfo wiremock) throws Exception {
+        CloseableHttpAsyncClient client = defaultHttpClientBuilder(null).build();
+        try (var api = new ApacheHttpUserApi(client, wiremock.getHttpBaseUrl(), new AnonymousAuthentication())) {
+            MetricsRecorder metrics = new MetricsRecorder();
+            api.setMetrics(metrics);
+            api.getUser().join();
+            api.getUser().join();
+            var route = metrics.getRoute("GET", URL_USER);
+            assertEquals(2, route.getRequests());
+            assertEquals(2, route.getStatusCount(2));
+            assertEquals(2, route.getFirstByte().getCount());
+            assertEquals(2, route.getDeserialization().getCount());
+            assertTrue(route.getResponseBytes() > 0);
+        }
+    }
+
+    @Test
+    void testApacheTracing(WireMockRuntimeInfo wiremock) throws Exception {
+        InMemorySpanExporter exporter = InMemorySpanExporter.create();
+        OpenTelemetry openTelemetry = newOpenTelemetry(exporter);
+        CloseableHttpAsyncClient client = defaultHttpClientBuilder(null).build();
+        try (var api = new ApacheHttpUserApi(client, wiremock.getHttpBaseUrl(), new AnonymousAuthentication())) {
+            api.setTracing(new OpenTelemetryTracing(openTelemetry));
+            Span parent = openTelemetry.getTracer("test").spanBuilder("parent").startSpan();
+            CompletableFuture<Span> continuation;
+            try (Scope scope = parent.makeCurrent()) {
+                continuation = api.getUser().thenApply(user -> Span.current());
+            }
+            assertEquals(parent, continuation.get(1, SECONDS));
+            parent.end();
+            verifyTracing(parent.getSpanContext().getTraceId());
+
+            SpanData span = exporter.getFinishedSpanItems().get(0);
+            assertEquals("GET " + URL_USER, span.getName());
+            assertEquals(SpanKind.CLIENT, span.getKind());
+            assertEquals(parent.getSpanContext().getSpanId(), span.getParentSpanId());
+            assertEquals(200, span.getAttributes().get(longKey("http.response.status_code")));
+        }
+    }
+
+    @Test
+    void testApacheInterceptor(WireMockRuntimeInfo wiremock) throws Exception {
+        CloseableHttpAsyncClient client = defaultHttpClientBuilder(null).build();
+        try (var api = new ApacheHttpUserApi(client, wiremock.getHttpBaseUrl(), new AnonymousAuthentication())) {
+            api.addAttemptInterceptor(UserApi::intercept);
+            assertEquals("WireMock", api.getUser().get(1, SECONDS).getUsername());
+            verifyInterceptor();
+        }
+    }
+
+    @Test
+    void testApacheStreamInterceptor(WireMockRuntimeInfo wiremock, @TempDir Path directory) throws Exception {
+        CloseableHttpAsyncClient client = defaultHttpClientBuilder(null).build();
+        try (var api = new ApacheHttpUserApi(client, wiremock.getHttpBaseUrl(), new AnonymousAuthentication())) {
+            api.addAttemptInterceptor(UserApi::intercept);
+            try (Stream<User> users = api.getUsers().get(1, SECONDS)) {
+                assertEquals(2, users.count());
+            }
+            api.downloadUsers(directory.resolve("users.json")).get(1, SECONDS);
+            verifyStreamInterceptor();
+        }
+    }
+
+    @Test
+    void testApacheCompression(WireMockRuntimeInfo wiremock) throws Exception {
+        stubForCompression();
+        CloseableHttpAsyncClient client = defaultHttpClientBuilder(null).build();
+        try (var api = new ApacheHttpUserApi(client, wiremock.getHttpBaseUrl(), new AnonymousAuthentication())) {
+            Compression compression = new Compression().withRequestEncoding(ContentEncoding.GZIP, 0);
+            api.setCompression(compression);
+            assertEquals("Compressed", api.getUser().get(1, SECONDS).getUsername());
+            assertEquals("Created", api.createUser(newUser("Compressed")).get(1, SECONDS).getUsername());
+            verifyCompression("Compressed");
+            assertTrue(compression.getResponseCompressedBytes() > 0);
+            // Both responses are compressed, the one of the creation by WireMock itself
+            assertEquals(26 + 23, compression.getResponseUncompressedBytes());
+            assertTrue(compression.getRequestCompressedBytes() > 0);
+            assertTrue(compression.getRequestUncompressedBytes() > 0);
+        }
+    }
+
+    @Test
+    void testApacheSharedHttp2(WireMockRuntimeInfo wiremock) throws Exception {
+        CloseableHttpAsyncClient client = sharedHttpClient(null, ConnectionConfiguration.http2PriorKnowledge());
+        try (var first = new ApacheHttpUserApi(client, wiremock.getHttpBaseUrl(), new AnonymousAuthentication());
+             var second = new ApacheHttpUserApi(sharedHttpClient(null, ConnectionConfiguration.http2PriorKnowledge()), wiremock.getHttpBaseUrl(), new AnonymousAuthentication())) {
+            assertSame(first.client, second.client);
+            assertEquals("WireMock", first.getUser().get(1, SECONDS).getUsername());
+            assertEquals("Created", second.createUser(newUser("Shared")).get(1, SECONDS).getUsername());
+            assertEquals(List.of("HTTP/2.0", "HTTP/2.0"), requestProtocols());
+
+            // Releasing the shared client only once when closed several times
+            first.close();
+            first.close();
+            assertEquals(1, ApacheHttpUtils.SHARED_CLIENTS.size());
+        }
+        assertEquals(0, ApacheHttpUtils.SHARED_CLIENTS.size());
+    }
+
+    @Test
+    void testApacheStream(WireMockRuntimeInfo wiremock) throws Exception {
+        CloseableHttpAsyncClient client = defaultHttpClientBuilder(null).build();
+        try (var api = new ApacheHttpUserApi(client, wiremock.getHttpBaseUrl(), new AnonymousAuthentication());
+             Stream<User> users = api.getUsers().join()) {
+            assertEquals(List.of("First", "Second"), users.map(User::getUsername).collect(toList()));
+        }
+    }
+
+    @Test
+    void testApacheDownload(WireMockRuntimeInfo wiremock, @TempDir Path directory) throws Exception {
+        CloseableHttpAsyncClient client = defaultHttpClientBuilder(null).build();
+        try (var api = new ApacheHttpUserApi(client, wiremock.getHttpBaseUrl(), new AnonymousAuthentication())) {
+            Path path = directory.resolve("users.json");
+            TransferStatistics statistics = api.downloadUsers(path).join();
+            assertEquals(Files.size(path), statistics.getBytes());
+            assertTrue(Files.readString(path).contains("Second"));
+        }
+    }
+
+    @Test
+    void testApacheUpload(WireMockRuntimeInfo wiremock, @TempDir Path directory) throws Exception {
+        CloseableHttpAsyncClient client = defaultHttpClientBuilder(null).build();
+        try (var api = new ApacheHttpUserApi(client, wiremock.getHttpBaseUrl(), new AnonymousAuthentication())) {
+            Path path = Files.writeString(directory.resolve("users.json"), "[{\"username\": \"Uploaded\"}]");
+            User user = api.uploadUsers(path).join();
+            assertEquals("Uploaded", user.getUsername());
+            verifyUpload(Files.readString(path));
+        }
+    }
+
 }
@@ -1,12 +1,16 @@
 package com.chavaillaz.client.common.apache;
 
 import static org.apache.hc.client5.http.async.methods.SimpleRequestBuilder.get;
+import static org.apache.hc.client5.http.async.methods.SimpleRequestBuilder.post;
 
+import java.nio.file.Path;
 import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 import com.chavaillaz.client.common.model.User;
 import com.chavaillaz.client.common.model.UserApi;
 import com.chavaillaz.client.common.security.Authentication;
+import com.chavaillaz.client.common.utility.TransferStatistics;
 import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
 
 public class ApacheHttpUserApi extends AbstractApacheHttpClient implements UserApi {
@@ -19,4 +23,24 @@ public class ApacheHttpUserApi extends AbstractApacheHttpClient implements UserA
         return sendAsync(requestBuilder(get(), URL_USER), User.class);
     }
 
+    @Override
+    public CompletableFuture<Stream<User>> getUsers() {
+        return sendAsyncStream(requestBuilder(get(), URL_USERS), User.class);
+    }
+
+    @Override
+    public CompletableFuture<TransferStatistics> downloadUsers(Path path) {
+        return downloadAsync(requestBuilder(get(), URL_USERS), path);
+    }
+
+    @Override
+    public CompletableFuture<User> uploadUsers(Path path) {
+        return sendAsync(requestBuilder(post(), URL_USERS), UserApi.uploadContent(path), User.class);
+    }
+
+    @Override
+    public CompletableFuture<User> createUser(User user) {
+        return sendAsync(body(requestBuilder(post(), URL_USER), user), User.class);
+    }
+
 }
@@ -0,0 +1,179 @@
+package com.chavaillaz.client.common.cache;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import com.chavaillaz.client.common.exchange.ExchangeHandler;
+import com.chavaillaz.client.common.exchange.ExchangeRequest;
+import com.chavaillaz.client.common.exchange.ExchangeResponse;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ResponseCacheTest {
+
+    private static final ObjectMapper MAPPER = new JsonMapper();
+    private static final JavaType TYPE = MAPPER.constructType(String.class);
+    private static final URI RESOURCE = URI.create("http://localhost/resource");
+
+    private static ExchangeRequest request(String method, Map<String, List<String>> headers) {
+        return new ExchangeRequest(method, RESOURCE, TYPE, headers);
+    }
+
+    private static ExchangeHandler<String> handler(AtomicInteger calls, Map<String, List<String>> headers) {
+        return request -> completedFuture(new ExchangeResponse<>(200, headers, "Value " + calls.incrementAndGet(), 10));
+    }
+
+    @Test
+    void testFreshResponse() {
+        ResponseCache cache = new ResponseCache(MemoryCacheStore.maximumEntries(10));
+        AtomicInteger calls = new AtomicInteger();
+        var handler = handler(calls, Map.of("Cache-Control", List.of("public, max-age=60")));
+        assertEquals("Value 1", cache.exchange(request("GET", Map.of()), handler).join().getBody());
+        assertEquals("Value 1", cache.exchange(request("GET", Map.of()), handler).join().getBody());
+        assertEquals("Value 2", cache.exchange(request("GET", Map.of("Cache-Control", List.of("no-cache"))), handler).join().getBody());
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    void testNotStored() {
+        ResponseCache cache = new ResponseCache(MemoryCacheStore.maximumEntries(10));
+        AtomicInteger calls = new AtomicInteger();
+        cache.exchange(request("GET", Map.of()), handler(calls, Map.of("Cache-Control", List.of("no-store")))).join();
+        cache.exchange(request("GET", Map.of()), handler(calls, Map.of("Cache-Control", List.of("max-age=60"), "Vary", List.of("*")))).join();
+        cache.exchange(request("GET", Map.of()), handler(calls, Map.of())).join();
+        assertNull(cache.getStore().get(new CacheKey(RESOURCE, TYPE)).join());
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void testExpires() {
+        ResponseCache cache = new ResponseCache(MemoryCacheStore.maximumEntries(10));
+        AtomicInteger calls = new AtomicInteger();
+        var handler = handler(calls, Map.of(
+                "Date", List.of("Mon, 01 Jan 2024 10:00:00 GMT"),
+                "Expires", List.of("Mon, 01 Jan 2024 11:00:00 GMT")));
+        cache.exchange(request("GET", Map.of()), handler).join();
+        cache.exchange(request("GET", Map.of()), handler).join();
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void testVary() {
+        ResponseCache cache = new ResponseCache(MemoryCacheStore.maximumEntries(10));
+        AtomicInteger calls = new AtomicInteger();
+        var handler = handler(calls, Map.of("Cache-Control", List.of("max-age=60"), "Vary", List.of("Accept-Language")));
+        cache.exchange(request("GET", Map.of("Accept-Language", List.of("fr"))), handler).join();
+        cache.exchange(request("GET", Map.of("Accept-Language", List.of("fr"))), handler).join();
+        cache.exchange(request("GET", Map.of("Accept-Language", List.of("en"))), handler).join();
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void testInvalidation() {
+        ResponseCache cache = new ResponseCache(MemoryCacheStore.maximumEntries(10));
+        AtomicInteger calls = new AtomicInteger();
+        var handler = handler(calls, Map.of("Cache-Control", List.of("max-age=60")));
+        cache.exchange(request("GET", Map.of()), handler).join();
+        cache.exchange(request("POST", Map.of()), handler).join();
+        assertNull(cache.getStore().get(new CacheKey(RESOURCE, TYPE)).join());
+        assertEquals("Value 3", cache.exchange(request("GET", Map.of()), handler).join().getBody());
+    }
+
+    @Test
+    void testMemoryEviction() {
+        MemoryCacheStore store = MemoryCacheStore.maximumBytes(25);
+        for (int i = 0; i < 3; i++) {
+            URI uri = URI.create("http://localhost/" + i);
+            store.put(new CacheKey(uri, TYPE), new CacheEntry("Value", null, null, Long.MAX_VALUE, false, 10, Map.of()));
+        }
+        assertEquals(2, store.size());
+        assertNull(store.get(new CacheKey(URI.create("http://localhost/0"), TYPE)).join());
+    }
+
+    @Test
+    void testMemoryExpiration() throws Exception {
+        MemoryCacheStore store = MemoryCacheStore.maximumEntries(10);
+        long now = System.currentTimeMillis();
+        CacheKey expired = new CacheKey(URI.create("http://localhost/expired"), TYPE);
+        CacheKey revalidable = new CacheKey(URI.create("http://localhost/revalidable"), TYPE);
+        store.put(expired, new CacheEntry("Value", null, null, now + 60_000, false, 10, Map.of()));
+        store.put(revalidable, new CacheEntry("Value", "\"1\"", null, now - 1, false, 10, Map.of()));
+        store.put(new CacheKey(RESOURCE, TYPE), new CacheEntry("Value", null, null, now - 1, false, 10, Map.of()));
+        assertEquals(2, store.size());
+
+        store.put(expired, new CacheEntry("Value", null, null, now + 20, false, 10, Map.of()));
+        Thread.sleep(50);
+        store.evictObsolete();
+        assertEquals(1, store.size());
+        assertNull(store.get(expired).join());
+        assertNotNull(store.get(revalidable).join());
+    }
+
+    @Test
+    void testDiskStoreEviction(@TempDir Path directory) throws Exception {
+        DiskCacheStore store = new DiskCacheStore(directory, MAPPER, Runnable::run, 300);
+        for (int i = 0; i < 5; i++) {
+            URI uri = URI.create("http://localhost/" + i);
+            store.put(new CacheKey(uri, TYPE), new CacheEntry("Value " + i, null, null, Long.MAX_VALUE, false, 10, Map.of()));
+            // Distinct modification times to know which entry is the least recently used
+            Thread.sleep(20);
+        }
+        long size;
+        try (Stream<Path> files = Files.walk(directory)) {
+            size = files.filter(Files::isRegularFile).mapToLong(file -> file.toFile().length()).sum();
+        }
+        assertTrue(size <= 300);
+        assertNull(store.get(new CacheKey(URI.create("http://localhost/0"), TYPE)).join());
+        assertEquals("Value 4", store.get(new CacheKey(URI.create("http://localhost/4"), TYPE)).join().getValue());
+
+        CacheKey obsolete = new CacheKey(RESOURCE, TYPE);
+        store.put(obsolete, new CacheEntry("Value", null, null, System.currentTimeMillis() - 1, false, 10, Map.of()));
+        assertNull(store.get(obsolete).join());
+    }
+
+    @Test
+    void testDiskStore(@TempDir Path directory) {
+        DiskCacheStore store = new DiskCacheStore(directory, MAPPER, Runnable::run);
+        CacheKey key = new CacheKey(RESOURCE, TYPE);
+        store.put(key, new CacheEntry("Value", "\"1\"", null, 1000, true, 10, Map.of("Accept", "application/json")));
+
+        CacheEntry entry = new DiskCacheStore(directory, MAPPER).get(key).join();
+        assertNotNull(entry);
+        assertEquals("Value", entry.getValue());
+        assertEquals("\"1\"", entry.getEtag());
+        assertEquals(1000, entry.getExpiresAt());
+        assertEquals(Map.of("Accept", "application/json"), entry.getVary());
+
+        store.remove(RESOURCE);
+        assertNull(store.get(key).join());
+    }
+
+    @Test
+    void testDiskStoreOrder(@TempDir Path directory) {
+        DiskCacheStore store = new DiskCacheStore(directory, MAPPER);
+        CacheKey key = new CacheKey(RESOURCE, TYPE);
+        for (int i = 0; i < 10; i++) {
+            store.put(key, new CacheEntry("Value " + i, null, null, Long.MAX_VALUE, false, 10, Map.of()));
+            assertEquals("Value " + i, store.get(key).join().getValue());
+            store.put(key, new CacheEntry("Removed", null, null, Long.MAX_VALUE, false, 10, Map.of()));
+            store.remove(RESOURCE);
+            assertNull(store.get(key).join());
+        }
+    }
+
+}
@@ -0,0 +1,44 @@
+package com.chavaillaz.client.common.codec;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JavaType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class JacksonCodecTest {
+
+    static Codec[] codecs() {
+        return new Codec[]{JacksonCodec.json(), JacksonCodec.smile(), JacksonCodec.cbor()};
+    }
+
+    @ParameterizedTest
+    @MethodSource("codecs")
+    void testRoundTrip(Codec codec) throws Exception {
+        Map<String, Object> content = Map.of("username", "Codec", "date", LocalDate.of(2024, 1, 31));
+        byte[] bytes = codec.serialize(content);
+        JavaType type = codec.getObjectMapper().constructType(Map.class);
+        try (JsonParser parser = codec.createParser(bytes, 0, bytes.length)) {
+            Map<String, Object> result = codec.readValue(parser, type);
+            assertEquals("Codec", result.get("username"));
+            assertEquals("2024-01-31", result.get("date"));
+        }
+    }
+
+    @Test
+    void testAccepts() {
+        assertTrue(JacksonCodec.json().accepts("application/json"));
+        assertTrue(JacksonCodec.json().accepts("Application/JSON; charset=UTF-8"));
+        assertTrue(JacksonCodec.cbor().accepts("application/cbor"));
+        assertFalse(JacksonCodec.cbor().accepts("application/json"));
+        assertFalse(JacksonCodec.smile().accepts(null));
+    }
+
+}
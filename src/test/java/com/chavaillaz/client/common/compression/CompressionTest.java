@@ -0,0 +1,157 @@
+package com.chavaillaz.client.common.compression;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.ZipException;
+
+import com.chavaillaz.client.common.exception.ContentEncodingException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+class CompressionTest {
+
+    private static byte[] content() {
+        StringBuilder content = new StringBuilder("[");
+        for (int i = 0; i < 5000; i++) {
+            content.append("{\"username\": \"User ").append(i).append("\"},");
+        }
+        return content.append("{}]").toString().getBytes(UTF_8);
+    }
+
+    private static byte[] encode(ContentEncoding encoding, byte[] content) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (OutputStream encoder = encoding.encoder(output)) {
+            encoder.write(content);
+        }
+        return output.toByteArray();
+    }
+
+    private static byte[] decodeInPackets(ContentEncoding encoding, byte[] encoded, int packetSize) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (OutputStream decoder = encoding.decoder(output)) {
+            for (int i = 0; i < encoded.length; i += packetSize) {
+                decoder.write(encoded, i, Math.min(packetSize, encoded.length - i));
+            }
+        }
+        return output.toByteArray();
+    }
+
+    @ParameterizedTest
+    @EnumSource(ContentEncoding.class)
+    void testRoundTrip(ContentEncoding encoding) throws Exception {
+        assertTrue(encoding.isAvailable());
+        byte[] content = content();
+        byte[] encoded = encode(encoding, content);
+        assertTrue(encoded.length < content.length);
+
+        // Decoding the packets as they are received, whatever their size
+        assertArrayEquals(content, decodeInPackets(encoding, encoded, 1));
+        assertArrayEquals(content, decodeInPackets(encoding, encoded, 7));
+        assertArrayEquals(content, decodeInPackets(encoding, encoded, 16384));
+
+        try (InputStream decoded = encoding.decode(new ByteArrayInputStream(encoded))) {
+            assertArrayEquals(content, decoded.readAllBytes());
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(ContentEncoding.class)
+    void testTruncated(ContentEncoding encoding) throws Exception {
+        byte[] encoded = encode(encoding, content());
+        byte[] truncated = Arrays.copyOf(encoded, encoded.length / 2);
+        assertThrows(EOFException.class, () -> decodeInPackets(encoding, truncated, 100));
+    }
+
+    @Test
+    void testGzipMembers() throws Exception {
+        byte[] first = encode(ContentEncoding.GZIP, "First ".getBytes(UTF_8));
+        byte[] second = encode(ContentEncoding.GZIP, "Second".getBytes(UTF_8));
+        byte[] encoded = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, encoded, first.length, second.length);
+        assertEquals("First Second", new String(decodeInPackets(ContentEncoding.GZIP, encoded, 3), UTF_8));
+    }
+
+    @Test
+    void testGzipCorrupted() throws Exception {
+        byte[] encoded = encode(ContentEncoding.GZIP, content());
+        encoded[encoded.length - 8] ^= 1;
+        assertThrows(ZipException.class, () -> decodeInPackets(ContentEncoding.GZIP, encoded, 100));
+    }
+
+    @Test
+    void testRawDeflate() throws Exception {
+        byte[] content = content();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try (OutputStream encoder = new DeflaterOutputStream(output, deflater)) {
+            encoder.write(content);
+        } finally {
+            deflater.end();
+        }
+        byte[] encoded = output.toByteArray();
+        assertArrayEquals(content, decodeInPackets(ContentEncoding.DEFLATE, encoded, 5));
+        try (InputStream decoded = ContentEncoding.DEFLATE.decode(new ByteArrayInputStream(encoded))) {
+            assertArrayEquals(content, decoded.readAllBytes());
+        }
+    }
+
+    @Test
+    void testResponseEncoding() {
+        Compression compression = new Compression(ContentEncoding.ZSTD, ContentEncoding.GZIP);
+        assertEquals("zstd, gzip", compression.getAcceptEncoding());
+        assertEquals(List.of(ContentEncoding.GZIP), compression.getResponseEncodings(" GZIP "));
+        assertEquals(List.of(ContentEncoding.BROTLI, ContentEncoding.GZIP), compression.getResponseEncodings("gzip, Br"));
+        assertEquals(List.of(), compression.getResponseEncodings("identity"));
+        assertEquals(List.of(), compression.getResponseEncodings(null));
+        assertThrows(ContentEncodingException.class, () -> compression.getResponseEncodings("gzip, compress"));
+    }
+
+    @Test
+    void testStackedEncodings() throws Exception {
+        Compression compression = new Compression();
+        byte[] content = content();
+        byte[] encoded = encode(ContentEncoding.BROTLI, encode(ContentEncoding.GZIP, content));
+        List<ContentEncoding> encodings = compression.getResponseEncodings("gzip, br");
+        assertArrayEquals(content, compression.decode(encodings, encoded));
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (OutputStream decoder = compression.decoder(encodings, output)) {
+            for (int i = 0; i < encoded.length; i += 100) {
+                decoder.write(encoded, i, Math.min(100, encoded.length - i));
+            }
+        }
+        assertArrayEquals(content, output.toByteArray());
+    }
+
+    @Test
+    void testCounters() throws Exception {
+        Compression compression = new Compression().withRequestEncoding(ContentEncoding.BROTLI, 1024);
+        byte[] content = content();
+        assertTrue(compression.isRequestEncoded(content.length));
+        assertTrue(!compression.isRequestEncoded(1023) && !compression.isRequestEncoded(-1));
+
+        byte[] encoded = compression.encode(content);
+        assertEquals(content.length, compression.getRequestUncompressedBytes());
+        assertEquals(encoded.length, compression.getRequestCompressedBytes());
+
+        assertArrayEquals(content, compression.decode(ContentEncoding.BROTLI, encoded));
+        assertEquals(encoded.length, compression.getResponseCompressedBytes());
+        assertEquals(content.length, compression.getResponseUncompressedBytes());
+    }
+
+}
@@ -0,0 +1,80 @@
+package com.chavaillaz.client.common.concurrency;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+class BatcherTest {
+
+    private final List<List<Integer>> requests = new CopyOnWriteArrayList<>();
+
+    private CompletableFuture<List<String>> load(List<Integer> ids) {
+        requests.add(ids);
+        return completedFuture(ids.stream()
+                .filter(id -> id > 0)
+                .map(id -> "Item " + id)
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    void testMaxBatchSize() {
+        Batcher<Integer, String> batcher = Batcher.keyedBy(this::load, item -> Integer.valueOf(item.substring(5)), 2, Duration.ofMinutes(1));
+        var first = batcher.submit(1);
+        var duplicate = batcher.submit(1);
+        assertFalse(first.isDone());
+        var second = batcher.submit(2);
+        var third = batcher.submit(-3);
+        assertEquals("Item 1", first.join());
+        assertEquals("Item 1", duplicate.join());
+        assertEquals("Item 2", second.join());
+        assertEquals(List.of(List.of(1, 2)), requests);
+
+        batcher.close();
+        assertNull(third.join());
+        assertEquals(List.of(List.of(1, 2), List.of(-3)), requests);
+        assertEquals(2, batcher.getBatches());
+        assertEquals(3, batcher.getKeys());
+    }
+
+    @Test
+    void testMaxLinger() {
+        Batcher<Integer, String> batcher = Batcher.keyedBy(this::load, item -> Integer.valueOf(item.substring(5)), 10, Duration.ofMillis(10));
+        var first = batcher.submit(1);
+        var second = batcher.submit(2);
+        assertEquals("Item 1", first.join());
+        assertEquals("Item 2", second.join());
+        assertEquals(List.of(List.of(1, 2)), requests);
+    }
+
+    @Test
+    void testFailure() {
+        RuntimeException failure = new IllegalStateException("Failure");
+        Batcher<Integer, String> batcher = new Batcher<>(ids -> CompletableFuture.failedFuture(failure), 2, Duration.ofMinutes(1));
+        var first = batcher.submit(1);
+        var second = batcher.submit(2);
+        assertSame(failure, assertThrows(CompletionException.class, first::join).getCause());
+        assertSame(failure, assertThrows(CompletionException.class, second::join).getCause());
+    }
+
+    @Test
+    void testMap() {
+        Batcher<Integer, String> batcher = new Batcher<>(ids -> completedFuture(Map.of(1, "One")), 5, Duration.ofMinutes(1));
+        var first = batcher.submit(1);
+        batcher.flush();
+        assertEquals("One", first.join());
+    }
+
+}
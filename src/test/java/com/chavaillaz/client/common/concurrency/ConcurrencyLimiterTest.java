@@ -0,0 +1,123 @@
+package com.chavaillaz.client.common.concurrency;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import com.chavaillaz.client.common.exception.LimitExceededException;
+import com.chavaillaz.client.common.exception.ResponseException;
+import com.chavaillaz.client.common.exchange.ExchangeHandler;
+import com.chavaillaz.client.common.exchange.ExchangeRequest;
+import com.chavaillaz.client.common.exchange.ExchangeResponse;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.Test;
+
+class ConcurrencyLimiterTest {
+
+    private static final JavaType TYPE = new JsonMapper().constructType(String.class);
+    private static final String HOST = "localhost:8080";
+
+    private final List<CompletableFuture<ExchangeResponse<String>>> sent = new ArrayList<>();
+    private final ExchangeHandler<String> handler = request -> {
+        CompletableFuture<ExchangeResponse<String>> future = new CompletableFuture<>();
+        sent.add(future);
+        return future;
+    };
+
+    private static ExchangeRequest request() {
+        return new ExchangeRequest("GET", URI.create("http://" + HOST + "/resource"), TYPE, Map.of());
+    }
+
+    private static ExchangeResponse<String> response() {
+        return new ExchangeResponse<>(200, Map.of(), "Value", 5);
+    }
+
+    @Test
+    void testQueueAndRejection() {
+        ConcurrencyLimiter limiter = ConcurrencyLimiter.fixed(1, 1);
+        var first = limiter.exchange(request(), handler);
+        var second = limiter.exchange(request(), handler);
+        var third = limiter.exchange(request(), handler);
+        assertEquals(1, sent.size());
+        assertEquals(1, limiter.getInFlight(HOST));
+
+        CompletionException exception = assertThrows(CompletionException.class, third::join);
+        assertInstanceOf(LimitExceededException.class, exception.getCause());
+        assertEquals(1, limiter.getRejected());
+
+        sent.get(0).complete(response());
+        assertEquals("Value", first.join().getBody());
+        assertEquals(2, sent.size());
+        assertFalse(second.isDone());
+
+        sent.get(1).complete(response());
+        assertEquals("Value", second.join().getBody());
+        assertEquals(0, limiter.getInFlight(HOST));
+    }
+
+    @Test
+    void testCancellation() {
+        ConcurrencyLimiter limiter = ConcurrencyLimiter.fixed(1, 1);
+        var first = limiter.exchange(request(), handler);
+        var second = limiter.exchange(request(), handler);
+        second.cancel(true);
+        assertFalse(limiter.exchange(request(), handler).isDone());
+
+        first.cancel(true);
+        assertTrue(sent.get(0).isCancelled());
+        assertEquals(2, sent.size());
+    }
+
+    @Test
+    void testHostLimit() {
+        ConcurrencyLimiter limiter = ConcurrencyLimiter.fixed(1, 0)
+                .withHost(HOST, new FixedLimit(2));
+        limiter.exchange(request(), handler);
+        limiter.exchange(request(), handler);
+        assertEquals(2, sent.size());
+        assertEquals(2, limiter.getLimit(HOST));
+    }
+
+    @Test
+    void testAimd() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(() -> new AimdLimit(4, 10), 0);
+        limiter.exchange(request(), handler);
+        sent.get(0).completeExceptionally(new ResponseException(503, "Unavailable"));
+        assertEquals(2, limiter.getLimit(HOST));
+
+        limiter.exchange(request(), handler);
+        sent.get(1).complete(response());
+        assertEquals(3, limiter.getLimit(HOST));
+
+        limiter.exchange(request(), handler);
+        sent.get(2).completeExceptionally(new ResponseException(404, "Not found"));
+        assertEquals(3, limiter.getLimit(HOST));
+    }
+
+    @Test
+    void testGradient() {
+        GradientLimit limit = new GradientLimit(20, 1, 100);
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(MILLISECONDS.toNanos(10), 20, false);
+        }
+        int unloaded = limit.getLimit();
+        assertTrue(unloaded > 20);
+
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(MILLISECONDS.toNanos(40), unloaded, false);
+        }
+        assertTrue(limit.getLimit() < unloaded);
+    }
+
+}
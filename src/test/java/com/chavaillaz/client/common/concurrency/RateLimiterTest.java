@@ -0,0 +1,121 @@
+package com.chavaillaz.client.common.concurrency;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.chavaillaz.client.common.exception.LimitExceededException;
+import com.chavaillaz.client.common.exception.ResponseException;
+import com.chavaillaz.client.common.exchange.ExchangeHandler;
+import com.chavaillaz.client.common.exchange.ExchangeRequest;
+import com.chavaillaz.client.common.exchange.ExchangeResponse;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.Test;
+
+class RateLimiterTest {
+
+    private static final JavaType TYPE = new JsonMapper().constructType(String.class);
+
+    private final AtomicInteger sent = new AtomicInteger();
+    private final ExchangeHandler<String> handler = request -> {
+        sent.incrementAndGet();
+        return CompletableFuture.completedFuture(new ExchangeResponse<>(200, Map.of(), "Value", 5));
+    };
+
+    private static ExchangeRequest request(String path) {
+        return new ExchangeRequest("GET", URI.create("http://localhost" + path), TYPE, Map.of());
+    }
+
+    @Test
+    void testTokenBucket() {
+        long second = SECONDS.toNanos(1);
+        TokenBucket bucket = new TokenBucket(10, 2);
+        long now = System.nanoTime() + second;
+        assertEquals(0, bucket.reserve(now, 0));
+        assertEquals(0, bucket.reserve(now, 0));
+        assertEquals(-1, bucket.reserve(now, 0));
+        assertEquals(second / 10, bucket.reserve(now, second));
+        assertEquals(0, bucket.reserve(now + second, 0));
+
+        bucket.pause(now + second, second);
+        assertEquals(-1, bucket.reserve(now + second, second / 2));
+        assertEquals(second, bucket.reserve(now + second, second));
+    }
+
+    @Test
+    void testDelayAndRejection() {
+        RateLimiter limiter = new RateLimiter(10, 1, Duration.ofMillis(150));
+        var first = limiter.exchange(request("/resource"), handler);
+        var second = limiter.exchange(request("/resource"), handler);
+        var third = limiter.exchange(request("/resource"), handler);
+        assertTrue(first.isDone());
+        assertFalse(second.isDone());
+
+        CompletionException exception = assertThrows(CompletionException.class, third::join);
+        assertInstanceOf(LimitExceededException.class, exception.getCause());
+        assertEquals("Value", second.orTimeout(1, SECONDS).join().getBody());
+        assertEquals(2, sent.get());
+        assertEquals(1, limiter.getDelayed());
+        assertEquals(1, limiter.getRejected());
+    }
+
+    @Test
+    void testEndpoints() {
+        RateLimiter limiter = new RateLimiter(() -> new TokenBucket(1, 1), RateLimiter.BY_PATH, Duration.ZERO)
+                .withEndpoint("localhost/bulk", new TokenBucket(1, 2));
+        assertTrue(limiter.exchange(request("/first"), handler).isDone());
+        assertTrue(limiter.exchange(request("/second?page=1"), handler).isDone());
+        assertTrue(limiter.exchange(request("/bulk"), handler).isDone());
+        assertTrue(limiter.exchange(request("/bulk"), handler).isDone());
+        assertTrue(limiter.exchange(request("/first"), handler).isCompletedExceptionally());
+    }
+
+    @Test
+    void testRetryAfter() {
+        RateLimiter limiter = new RateLimiter(100, 10, Duration.ofMillis(100));
+        ExchangeHandler<String> exceeded = request -> CompletableFuture.failedFuture(
+                new ResponseException(429, "Too many requests").withHeaders(Map.of("Retry-After", List.of("5"))));
+        assertTrue(limiter.exchange(request("/resource"), exceeded).isCompletedExceptionally());
+        assertTrue(limiter.exchange(request("/resource"), handler).isCompletedExceptionally());
+        assertEquals(0, sent.get());
+    }
+
+    @Test
+    void testWithoutStatusCode() {
+        RateLimiter limiter = new RateLimiter(100, 10, Duration.ofMillis(100));
+        ExchangeHandler<String> failing = request -> CompletableFuture.failedFuture(new ResponseException(500, "Unknown") {
+
+            @Override
+            public Integer getStatusCode() {
+                return null;
+            }
+
+        });
+        var response = limiter.exchange(request("/resource"), failing);
+        assertInstanceOf(ResponseException.class, assertThrows(CompletionException.class, response::join).getCause());
+        assertEquals("Value", limiter.exchange(request("/resource"), handler).join().getBody());
+    }
+
+    @Test
+    void testRateLimitHeaders() {
+        RateLimiter limiter = new RateLimiter(100, 10, Duration.ofMillis(100));
+        ExchangeHandler<String> lastPermit = request -> CompletableFuture.completedFuture(new ExchangeResponse<>(200,
+                Map.of("RateLimit-Remaining", List.of("0"), "RateLimit-Reset", List.of("1")), "Value", 5));
+        assertEquals("Value", limiter.exchange(request("/resource"), lastPermit).join().getBody());
+        var next = limiter.exchange(request("/resource"), handler);
+        assertInstanceOf(LimitExceededException.class, assertThrows(CompletionException.class, next::join).getCause());
+    }
+
+}
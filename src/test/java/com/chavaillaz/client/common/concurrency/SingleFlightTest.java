@@ -0,0 +1,79 @@
+package com.chavaillaz.client.common.concurrency;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import com.chavaillaz.client.common.exchange.ExchangeHandler;
+import com.chavaillaz.client.common.exchange.ExchangeRequest;
+import com.chavaillaz.client.common.exchange.ExchangeResponse;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTest {
+
+    private static final JavaType TYPE = new JsonMapper().constructType(String.class);
+    private static final URI RESOURCE = URI.create("http://localhost/resource");
+
+    private final List<CompletableFuture<ExchangeResponse<String>>> sent = new ArrayList<>();
+    private final ExchangeHandler<String> handler = request -> {
+        CompletableFuture<ExchangeResponse<String>> future = new CompletableFuture<>();
+        sent.add(future);
+        return future;
+    };
+
+    private static ExchangeRequest request(String method, String authorization) {
+        return new ExchangeRequest(method, RESOURCE, TYPE, Map.of("Authorization", List.of(authorization)));
+    }
+
+    @Test
+    void testCoalescing() {
+        SingleFlight singleFlight = new SingleFlight();
+        var first = singleFlight.exchange(request("GET", "first"), handler);
+        var second = singleFlight.exchange(request("GET", "first"), handler);
+        var other = singleFlight.exchange(request("GET", "other"), handler);
+        assertEquals(2, sent.size());
+        assertEquals(2, singleFlight.getInFlight());
+
+        second.cancel(true);
+        sent.get(0).complete(new ExchangeResponse<>(200, Map.of(), "Value", 5));
+        assertEquals("Value", first.join().getBody());
+        assertFalse(other.isDone());
+        assertEquals(1, singleFlight.getCollapsed());
+        assertEquals(2, singleFlight.getExecuted());
+
+        singleFlight.exchange(request("GET", "first"), handler);
+        assertEquals(3, sent.size());
+    }
+
+    @Test
+    void testSharedFailure() {
+        SingleFlight singleFlight = new SingleFlight();
+        var first = singleFlight.exchange(request("GET", "first"), handler);
+        var second = singleFlight.exchange(request("GET", "first"), handler);
+        RuntimeException failure = new IllegalStateException("Failure");
+        sent.get(0).completeExceptionally(failure);
+        assertSame(failure, assertThrows(CompletionException.class, first::join).getCause());
+        assertSame(failure, assertThrows(CompletionException.class, second::join).getCause());
+        assertEquals(0, singleFlight.getInFlight());
+    }
+
+    @Test
+    void testUnsafeMethods() {
+        SingleFlight singleFlight = new SingleFlight();
+        singleFlight.exchange(request("POST", "first"), handler);
+        singleFlight.exchange(request("POST", "first"), handler);
+        assertEquals(2, sent.size());
+        assertEquals(0, singleFlight.getCollapsed());
+    }
+
+}
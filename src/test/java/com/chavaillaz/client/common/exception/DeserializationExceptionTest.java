@@ -31,4 +31,15 @@ class DeserializationExceptionTest {
         assertEquals(root, exception.getCause());
     }
 
+    @Test
+    void testExceptionMessageWithoutContent() {
+        JavaType type = TypeFactory.defaultInstance()
+                .constructSimpleType(String.class, new JavaType[]{});
+        Exception root = new Exception("Root");
+        Exception exception = new DeserializationException(type, root);
+
+        assertTrue(exception.getMessage().contains("String"));
+        assertEquals(root, exception.getCause());
+    }
+
 }
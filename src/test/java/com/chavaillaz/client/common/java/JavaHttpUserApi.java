@@ -1,14 +1,23 @@
 package com.chavaillaz.client.common.java;
 
+import static com.chavaillaz.client.common.java.JavaHttpUtils.multipart;
+
 import java.net.http.HttpClient;
+import java.nio.file.Path;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.stream.Stream;
 
 import com.chavaillaz.client.common.model.User;
 import com.chavaillaz.client.common.model.UserApi;
 import com.chavaillaz.client.common.security.Authentication;
+import com.chavaillaz.client.common.utility.Multipart;
+import com.chavaillaz.client.common.utility.TransferStatistics;
 
 public class JavaHttpUserApi extends AbstractJavaHttpClient implements UserApi {
 
+    public static final String URL_USERS_LINES = "/users/lines";
+
     public JavaHttpUserApi(HttpClient client, String baseUrl, Authentication authentication) {
         super(client, baseUrl, authentication);
     }
@@ -18,4 +27,31 @@ public class JavaHttpUserApi extends AbstractJavaHttpClient implements UserApi {
         return sendAsync(requestBuilder(URL_USER).GET(), User.class);
     }
 
+    @Override
+    public CompletableFuture<Stream<User>> getUsers() {
+        return sendAsyncStream(requestBuilder(URL_USERS).GET(), User.class);
+    }
+
+    public Flow.Publisher<User> getUsersLines() {
+        return sendAsyncPublisher(requestBuilder(URL_USERS_LINES).GET(), User.class);
+    }
+
+    @Override
+    public CompletableFuture<TransferStatistics> downloadUsers(Path path) {
+        return downloadAsync(requestBuilder(URL_USERS).GET(), path);
+    }
+
+    @Override
+    public CompletableFuture<User> uploadUsers(Path path) {
+        Multipart content = UserApi.uploadContent(path);
+        return sendAsync(requestBuilder(URL_USERS)
+                .setHeader(HEADER_CONTENT_TYPE, content.getContentType())
+                .POST(multipart(content)), User.class);
+    }
+
+    @Override
+    public CompletableFuture<User> createUser(User user) {
+        return sendAsync(requestBuilder(URL_USER).POST(body(user)), User.class);
+    }
+
 }
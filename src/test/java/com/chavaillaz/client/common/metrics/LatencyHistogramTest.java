@@ -0,0 +1,53 @@
+package com.chavaillaz.client.common.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+    @Test
+    void testBuckets() {
+        for (long value : new long[]{0, 1, 63, 64, 127, 128, 129, 1_000, 123_456_789, (1L << 42) - 1}) {
+            int index = LatencyHistogram.index(value);
+            assertTrue(LatencyHistogram.highestValue(index) >= value);
+            assertTrue(index == 0 || LatencyHistogram.highestValue(index - 1) < value);
+        }
+    }
+
+    @Test
+    void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 10_000; i++) {
+            histogram.record(i * 1_000);
+        }
+        assertEquals(10_000, histogram.getCount());
+        assertEquals(10_000_000, histogram.getMax());
+        assertEquals(5_000_500, histogram.getMean(), 0.1);
+        assertEquals(5_000_000, histogram.getPercentile(50), 5_000_000 * 0.02);
+        assertEquals(9_900_000, histogram.getPercentile(99), 9_900_000 * 0.02);
+        assertEquals(10_000_000, histogram.getPercentile(100));
+    }
+
+    @Test
+    void testLimits() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentile(99));
+        histogram.record(-1);
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(1, histogram.getCount());
+        assertEquals((1L << 42) - 1, histogram.getPercentile(50));
+    }
+
+    @Test
+    void testConcurrentRecording() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        IntStream.range(0, 100_000).parallel().forEach(histogram::record);
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(99_999, histogram.getMax());
+    }
+
+}
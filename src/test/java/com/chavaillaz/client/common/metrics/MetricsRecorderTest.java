@@ -0,0 +1,59 @@
+package com.chavaillaz.client.common.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.chavaillaz.client.common.exception.ResponseException;
+import org.junit.jupiter.api.Test;
+
+class MetricsRecorderTest {
+
+    static ExchangeSample sample(String route, int statusCode) {
+        return ExchangeSample.builder()
+                .method("GET")
+                .route(route)
+                .host("localhost")
+                .statusCode(statusCode)
+                .exception(statusCode >= 400 ? new ResponseException(statusCode, "Error") : null)
+                .queueNanos(1_000)
+                .connectNanos(-1)
+                .firstByteNanos(5_000_000)
+                .deserializationNanos(100_000)
+                .totalNanos(6_000_000)
+                .requestBytes(0)
+                .responseBytes(42)
+                .build();
+    }
+
+    @Test
+    void testRoutes() {
+        MetricsRecorder recorder = new MetricsRecorder();
+        recorder.record(sample("/users/{id}", 200));
+        recorder.record(sample("/users/{id}", 200));
+        recorder.record(sample("/users/{id}", 503));
+
+        MetricsRecorder.RouteMetrics metrics = recorder.getRoute("GET", "/users/{id}");
+        assertEquals(3, metrics.getRequests());
+        assertEquals(1, metrics.getFailures());
+        assertEquals(2, metrics.getStatusCount(2));
+        assertEquals(1, metrics.getStatusCount(5));
+        assertEquals(126, metrics.getResponseBytes());
+        assertEquals(0, metrics.getConnect().getCount());
+        assertEquals(6_000_000, metrics.getLatency().getPercentile(50), 6_000_000 * 0.02);
+        assertNull(recorder.getRoute("POST", "/users/{id}"));
+    }
+
+    @Test
+    void testMaxRoutes() {
+        MetricsRecorder recorder = new MetricsRecorder(2);
+        recorder.record(sample("/first", 200));
+        recorder.record(sample("/second", 200));
+        recorder.record(sample("/third", 200));
+        recorder.record(sample("/first", 200));
+
+        assertEquals(2, recorder.getRoute("GET", "/first").getRequests());
+        assertNull(recorder.getRoute("GET", "/third"));
+        assertEquals(1, recorder.getRoutes().get(MetricsRecorder.OTHER_ROUTE).getRequests());
+    }
+
+}
@@ -0,0 +1,29 @@
+package com.chavaillaz.client.common.metrics;
+
+import static com.chavaillaz.client.common.metrics.MetricsRecorderTest.sample;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+class MicrometerMetricsTest {
+
+    @Test
+    void testMeters() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        MicrometerMetrics metrics = new MicrometerMetrics(registry);
+        metrics.record(sample("/users/{id}", 200));
+        metrics.record(sample("/users/{id}", 503));
+
+        assertEquals(1, registry.get("http.client.requests").tag("uri", "/users/{id}").tag("outcome", "SUCCESS").timer().count());
+        assertEquals(1, registry.get("http.client.requests").tag("status", "503").tag("exception", "ResponseException").timer().count());
+        assertEquals(2, registry.get("http.client.requests.first.byte").timer().count());
+        assertEquals(84, registry.get("http.client.requests.response.size").summary().totalAmount());
+        assertNotNull(registry.find("http.client.requests.queue").timer());
+        assertNull(registry.find("http.client.requests.connect").timer());
+    }
+
+}
@@ -1,21 +1,255 @@
 package com.chavaillaz.client.common.model;
 
+import static com.chavaillaz.client.common.codec.JacksonCodec.MEDIA_TYPE_CBOR;
+import static com.github.tomakehurst.wiremock.client.WireMock.aMultipart;
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.anyRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.anyUrl;
+import static com.github.tomakehurst.wiremock.client.WireMock.containing;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalToJson;
+import static com.github.tomakehurst.wiremock.client.WireMock.findAll;
 import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.matching;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
 import static com.github.tomakehurst.wiremock.common.ContentTypes.APPLICATION_JSON;
+import static com.github.tomakehurst.wiremock.stubbing.Scenario.STARTED;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import com.chavaillaz.client.common.codec.JacksonCodec;
+import com.chavaillaz.client.common.compression.ContentEncoding;
+import com.chavaillaz.client.common.exchange.ExchangeHandler;
+import com.chavaillaz.client.common.exchange.ExchangeRequest;
+import com.chavaillaz.client.common.exchange.ExchangeResponse;
+import com.chavaillaz.client.common.utility.Multipart;
+import com.chavaillaz.client.common.utility.TransferStatistics;
+import com.github.tomakehurst.wiremock.verification.LoggedRequest;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
 
 public interface UserApi extends AutoCloseable {
 
     String URL_USER = "/user";
+    String URL_USERS = "/users";
 
     static void stubForUserApi() {
         stubFor(get("/user").willReturn(aResponse()
                 .withStatus(200)
                 .withHeader("Content-Type", APPLICATION_JSON)
                 .withBody("{\"username\": \"WireMock\"}")));
+        stubFor(get("/users").willReturn(aResponse()
+                .withStatus(200)
+                .withHeader("Content-Type", APPLICATION_JSON)
+                .withBody("[{\"username\": \"First\"}, {\"username\": \"Second\"}]")));
+        stubFor(post("/user").willReturn(aResponse()
+                .withStatus(200)
+                .withHeader("Content-Type", APPLICATION_JSON)
+                .withBody("{\"username\": \"Created\"}")));
+        stubFor(post("/users").willReturn(aResponse()
+                .withStatus(200)
+                .withHeader("Content-Type", APPLICATION_JSON)
+                .withBody("{\"username\": \"Uploaded\"}")));
+    }
+
+    static void stubForCache() {
+        stubFor(get("/user").willReturn(aResponse()
+                .withStatus(200)
+                .withHeader("Content-Type", APPLICATION_JSON)
+                .withHeader("Cache-Control", "max-age=0")
+                .withHeader("ETag", "\"1\"")
+                .withBody("{\"username\": \"Cached\"}")));
+        stubFor(get("/user").withHeader("If-None-Match", equalTo("\"1\"")).willReturn(aResponse()
+                .withStatus(304)
+                .withHeader("Cache-Control", "max-age=60")
+                .withHeader("ETag", "\"1\"")));
+    }
+
+    static void verifyCache() {
+        verify(2, getRequestedFor(urlEqualTo("/user")));
+        verify(1, getRequestedFor(urlEqualTo("/user")).withHeader("If-None-Match", equalTo("\"1\"")));
+    }
+
+    static void stubForRateLimit() {
+        stubFor(get("/user").willReturn(aResponse()
+                .withStatus(429)
+                .withHeader("Retry-After", "60")));
+    }
+
+    static void verifyRateLimit() {
+        verify(1, getRequestedFor(urlEqualTo("/user")));
+    }
+
+    static void stubForRetry() {
+        stubFor(get("/user").inScenario("Retry").whenScenarioStateIs(STARTED).willReturn(aResponse()
+                        .withStatus(503))
+                .willSetStateTo("Available"));
+        stubFor(get("/user").inScenario("Retry").whenScenarioStateIs("Available").willReturn(aResponse()
+                .withStatus(200)
+                .withHeader("Content-Type", APPLICATION_JSON)
+                .withBody("{\"username\": \"Retried\"}")));
+    }
+
+    static void verifyRetry() {
+        verify(2, getRequestedFor(urlEqualTo("/user")));
+    }
+
+    static void stubForHedging() {
+        stubFor(get("/user").inScenario("Hedging").whenScenarioStateIs(STARTED).willReturn(aResponse()
+                        .withStatus(200)
+                        .withFixedDelay(3000)
+                        .withHeader("Content-Type", APPLICATION_JSON)
+                        .withBody("{\"username\": \"Slow\"}"))
+                .willSetStateTo("Fast"));
+        stubFor(get("/user").inScenario("Hedging").whenScenarioStateIs("Fast").willReturn(aResponse()
+                .withStatus(200)
+                .withHeader("Content-Type", APPLICATION_JSON)
+                .withBody("{\"username\": \"Hedged\"}")));
+    }
+
+    static void verifyHedging() {
+        verify(2, getRequestedFor(urlEqualTo("/user")));
+    }
+
+    static void stubForUnavailable() {
+        stubFor(get("/user").willReturn(aResponse()
+                .withStatus(503)));
+    }
+
+    static void verifyUnavailable(int requests) {
+        verify(requests, getRequestedFor(urlEqualTo("/user")));
+    }
+
+    static void stubForDeadline() {
+        stubFor(get("/user").willReturn(aResponse()
+                .withStatus(200)
+                .withFixedDelay(3000)
+                .withHeader("Content-Type", APPLICATION_JSON)
+                .withBody("{\"username\": \"Late\"}")));
+    }
+
+    static void verifyDeadline() {
+        verify(getRequestedFor(urlEqualTo("/user"))
+                .withHeader("X-Request-Timeout", matching("\\d+")));
+    }
+
+    static OpenTelemetry newOpenTelemetry(InMemorySpanExporter exporter) {
+        return OpenTelemetrySdk.builder()
+                .setTracerProvider(SdkTracerProvider.builder()
+                        .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+                        .build())
+                .setPropagators(ContextPropagators.create(W3CTraceContextPropagator.getInstance()))
+                .build();
+    }
+
+    static void verifyTracing(String traceId) {
+        verify(getRequestedFor(urlEqualTo("/user"))
+                .withHeader("traceparent", matching("00-" + traceId + "-[0-9a-f]{16}-01")));
+    }
+
+    static <T> CompletableFuture<ExchangeResponse<T>> intercept(ExchangeRequest request, ExchangeHandler<T> handler) {
+        return handler.exchange(request.setHeader("X-Intercepted", request.getMethod()));
+    }
+
+    static void verifyInterceptor() {
+        verify(getRequestedFor(urlEqualTo("/user"))
+                .withHeader("X-Intercepted", equalTo("GET")));
+    }
+
+    static void verifyStreamInterceptor() {
+        verify(2, getRequestedFor(urlEqualTo("/users"))
+                .withHeader("X-Intercepted", equalTo("GET")));
+    }
+
+    static void stubForCompression() throws IOException {
+        stubFor(get("/user").withHeader("Accept-Encoding", containing("gzip")).willReturn(aResponse()
+                .withStatus(200)
+                .withHeader("Content-Type", APPLICATION_JSON)
+                .withHeader("Content-Encoding", "gzip")
+                .withBody(gzip("{\"username\": \"Compressed\"}"))));
+    }
+
+    static byte[] gzip(String content) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (OutputStream encoder = ContentEncoding.GZIP.encoder(output)) {
+            encoder.write(content.getBytes(UTF_8));
+        }
+        return output.toByteArray();
+    }
+
+    static void verifyCompression(String username) {
+        verify(getRequestedFor(urlEqualTo("/user"))
+                .withHeader("Accept-Encoding", containing("gzip")));
+        verify(postRequestedFor(urlEqualTo("/user"))
+                .withHeader("Content-Encoding", equalTo("gzip"))
+                .withRequestBody(equalToJson("{\"username\": \"" + username + "\"}")));
+    }
+
+    static List<String> requestProtocols() {
+        return findAll(anyRequestedFor(anyUrl())).stream()
+                .map(LoggedRequest::getProtocol)
+                .toList();
+    }
+
+    static void stubForCbor() throws IOException {
+        stubFor(get("/user").withHeader("Accept", containing(MEDIA_TYPE_CBOR)).willReturn(aResponse()
+                .withStatus(200)
+                .withHeader("Content-Type", MEDIA_TYPE_CBOR)
+                .withBody(JacksonCodec.cbor().serialize(Map.of("username", "Binary")))));
+    }
+
+    static void verifyCbor() {
+        verify(getRequestedFor(urlEqualTo("/user"))
+                .withHeader("Content-Type", equalTo(MEDIA_TYPE_CBOR)));
+    }
+
+    static String closedPortUrl() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return "http://localhost:" + socket.getLocalPort();
+        }
+    }
+
+    static User newUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        return user;
+    }
+
+    static void verifyCreation(String username) {
+        verify(postRequestedFor(urlEqualTo("/user"))
+                .withHeader("Content-Type", equalTo(APPLICATION_JSON))
+                .withRequestBody(equalToJson("{\"username\": \"" + username + "\"}")));
+    }
+
+    static Multipart uploadContent(Path path) {
+        return new Multipart()
+                .addText("description", "Users")
+                .addFile("file", path);
+    }
+
+    static void verifyUpload(String content) {
+        verify(postRequestedFor(urlEqualTo("/users"))
+                .withRequestBodyPart(aMultipart("description").withBody(equalTo("Users")).build())
+                .withRequestBodyPart(aMultipart("file").withBody(equalTo(content)).build()));
     }
 
     /**
@@ -25,4 +259,35 @@ public interface UserApi extends AutoCloseable {
      */
     CompletableFuture<User> getUser();
 
+    /**
+     * Gets all the users.
+     *
+     * @return A {@link CompletableFuture} with the stream of users
+     */
+    CompletableFuture<Stream<User>> getUsers();
+
+    /**
+     * Creates a user.
+     *
+     * @param user The user to create
+     * @return A {@link CompletableFuture} with the user created
+     */
+    CompletableFuture<User> createUser(User user);
+
+    /**
+     * Downloads all the users into a file.
+     *
+     * @param path The path of the file to write
+     * @return A {@link CompletableFuture} with the transfer statistics
+     */
+    CompletableFuture<TransferStatistics> downloadUsers(Path path);
+
+    /**
+     * Uploads users from a file.
+     *
+     * @param path The path of the file to send
+     * @return A {@link CompletableFuture} with the user created
+     */
+    CompletableFuture<User> uploadUsers(Path path);
+
 }
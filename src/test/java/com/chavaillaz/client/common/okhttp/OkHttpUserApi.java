@@ -1,10 +1,15 @@
 package com.chavaillaz.client.common.okhttp;
 
+import static com.chavaillaz.client.common.okhttp.OkHttpUtils.multipart;
+
+import java.nio.file.Path;
 import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 import com.chavaillaz.client.common.model.User;
 import com.chavaillaz.client.common.model.UserApi;
 import com.chavaillaz.client.common.security.Authentication;
+import com.chavaillaz.client.common.utility.TransferStatistics;
 import okhttp3.OkHttpClient;
 
 public class OkHttpUserApi extends AbstractOkHttpClient implements UserApi {
@@ -18,4 +23,28 @@ public class OkHttpUserApi extends AbstractOkHttpClient implements UserApi {
         return sendAsync(requestBuilder(URL_USER).get(), User.class);
     }
 
+    @Override
+    public CompletableFuture<Stream<User>> getUsers() {
+        return sendAsyncStream(requestBuilder(URL_USERS).get(), User.class);
+    }
+
+    @Override
+    public CompletableFuture<TransferStatistics> downloadUsers(Path path) {
+        return downloadAsync(requestBuilder(URL_USERS).get(), path);
+    }
+
+    @Override
+    public CompletableFuture<User> uploadUsers(Path path) {
+        return sendAsync(requestBuilder(URL_USERS).post(multipart(UserApi.uploadContent(path))), User.class);
+    }
+
+    @Override
+    public CompletableFuture<User> createUser(User user) {
+        return sendAsync(requestBuilder(URL_USER).post(body(user)), User.class);
+    }
+
+    public CompletableFuture<User> createUserStreaming(User user) {
+        return sendAsync(requestBuilder(URL_USER).post(streamingBody(user)), User.class);
+    }
+
 }
@@ -0,0 +1,104 @@
+package com.chavaillaz.client.common.resilience;
+
+import static com.chavaillaz.client.common.resilience.CircuitBreaker.State.CLOSED;
+import static com.chavaillaz.client.common.resilience.CircuitBreaker.State.HALF_OPEN;
+import static com.chavaillaz.client.common.resilience.CircuitBreaker.State.OPEN;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import com.chavaillaz.client.common.exception.CircuitOpenException;
+import com.chavaillaz.client.common.exception.RequestException;
+import com.chavaillaz.client.common.exception.ResponseException;
+import com.chavaillaz.client.common.exchange.ExchangeHandler;
+import com.chavaillaz.client.common.exchange.ExchangeRequest;
+import com.chavaillaz.client.common.exchange.ExchangeResponse;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.Test;
+
+class CircuitBreakerTest {
+
+    private static final JavaType TYPE = new JsonMapper().constructType(String.class);
+    private static final String HOST = "localhost:8080";
+    private static final ExchangeRequest REQUEST = new ExchangeRequest("GET", URI.create("http://" + HOST + "/resource"), TYPE, Map.of());
+    private static final ExchangeHandler<String> SUCCESS = request -> CompletableFuture.completedFuture(new ExchangeResponse<>(200, Map.of(), "Value", 5));
+    private static final ExchangeHandler<String> UNAVAILABLE = request -> CompletableFuture.failedFuture(new ResponseException(503, "Unavailable"));
+    private static final ExchangeHandler<String> NOT_FOUND = request -> CompletableFuture.failedFuture(new ResponseException(404, "Not found"));
+    private static final ExchangeHandler<String> REFUSED = request -> CompletableFuture.failedFuture(new RequestException("GET", "/resource", new IOException()));
+
+    private static CircuitBreaker circuitBreaker(Duration openDuration) {
+        return new CircuitBreaker(50, openDuration)
+                .withWindow(4, 4)
+                .withTrialCalls(1);
+    }
+
+    private static void send(CircuitBreaker circuitBreaker, ExchangeHandler<String> handler, int times) {
+        for (int i = 0; i < times; i++) {
+            circuitBreaker.exchange(REQUEST, handler);
+        }
+    }
+
+    @Test
+    void testFailureRate() {
+        CircuitBreaker circuitBreaker = circuitBreaker(Duration.ofMinutes(1));
+        send(circuitBreaker, SUCCESS, 2);
+        send(circuitBreaker, NOT_FOUND, 1);
+        send(circuitBreaker, UNAVAILABLE, 1);
+        assertEquals(CLOSED, circuitBreaker.getState(HOST));
+
+        send(circuitBreaker, REFUSED, 1);
+        assertEquals(OPEN, circuitBreaker.getState(HOST));
+        var rejected = circuitBreaker.exchange(REQUEST, SUCCESS);
+        assertInstanceOf(CircuitOpenException.class, assertThrows(CompletionException.class, rejected::join).getCause());
+        assertEquals(1, circuitBreaker.getRejected());
+    }
+
+    @Test
+    void testHalfOpen() throws Exception {
+        CircuitBreaker circuitBreaker = circuitBreaker(Duration.ofMillis(20));
+        send(circuitBreaker, UNAVAILABLE, 4);
+        assertEquals(OPEN, circuitBreaker.getState(HOST));
+
+        Thread.sleep(30);
+        CompletableFuture<ExchangeResponse<String>> trial = new CompletableFuture<>();
+        circuitBreaker.exchange(REQUEST, request -> trial);
+        assertEquals(HALF_OPEN, circuitBreaker.getState(HOST));
+        assertThrows(CompletionException.class, circuitBreaker.exchange(REQUEST, SUCCESS)::join);
+        trial.completeExceptionally(new ResponseException(503, "Unavailable"));
+        assertEquals(OPEN, circuitBreaker.getState(HOST));
+
+        Thread.sleep(30);
+        send(circuitBreaker, SUCCESS, 1);
+        assertEquals(CLOSED, circuitBreaker.getState(HOST));
+    }
+
+    @Test
+    void testCancelledTrial() throws Exception {
+        CircuitBreaker circuitBreaker = circuitBreaker(Duration.ofMillis(20));
+        send(circuitBreaker, UNAVAILABLE, 4);
+        Thread.sleep(30);
+        circuitBreaker.exchange(REQUEST, request -> new CompletableFuture<>()).cancel(true);
+        send(circuitBreaker, SUCCESS, 1);
+        assertEquals(CLOSED, circuitBreaker.getState(HOST));
+    }
+
+    @Test
+    void testSlowCalls() {
+        CircuitBreaker circuitBreaker = circuitBreaker(Duration.ofMinutes(1))
+                .withSlowCalls(50, Duration.ZERO)
+                .withFailureStatusCodes(500);
+        send(circuitBreaker, UNAVAILABLE, 3);
+        assertEquals(CLOSED, circuitBreaker.getState(HOST));
+        send(circuitBreaker, SUCCESS, 1);
+        assertEquals(OPEN, circuitBreaker.getState(HOST));
+    }
+
+}
@@ -0,0 +1,45 @@
+package com.chavaillaz.client.common.resilience;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+class DeadlineTest {
+
+    @Test
+    void testRemaining() {
+        Deadline deadline = Deadline.after(Duration.ofMinutes(1));
+        assertFalse(deadline.isExpired());
+        assertTrue(deadline.remainingMillis() > 59_000);
+        assertTrue(deadline.remainingMillis() <= 60_000);
+
+        Deadline expired = Deadline.after(Duration.ofMillis(-10));
+        assertTrue(expired.isExpired());
+        assertEquals(0, expired.remainingNanos());
+        assertEquals(1, expired.remainingMillis());
+    }
+
+    @Test
+    void testCall() {
+        Deadline outer = Deadline.after(Duration.ofSeconds(1));
+        Deadline longer = Deadline.after(Duration.ofMinutes(1));
+        Deadline shorter = Deadline.after(Duration.ofMillis(100));
+
+        assertNull(Deadline.current());
+        outer.call(() -> {
+            assertSame(outer, Deadline.current());
+            assertSame(outer, longer.call(Deadline::current));
+            assertSame(shorter, shorter.call(Deadline::current));
+            assertSame(outer, Deadline.current());
+            return null;
+        });
+        assertNull(Deadline.current());
+    }
+
+}
@@ -0,0 +1,147 @@
+package com.chavaillaz.client.common.resilience;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.chavaillaz.client.common.exception.ResponseException;
+import com.chavaillaz.client.common.exchange.ExchangeHandler;
+import com.chavaillaz.client.common.exchange.ExchangeRequest;
+import com.chavaillaz.client.common.exchange.ExchangeResponse;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.Test;
+
+class HedgingPolicyTest {
+
+    private static final JavaType TYPE = new JsonMapper().constructType(String.class);
+
+    private final List<CompletableFuture<ExchangeResponse<String>>> sent = new CopyOnWriteArrayList<>();
+    private final ExchangeHandler<String> handler = request -> {
+        CompletableFuture<ExchangeResponse<String>> future = new CompletableFuture<>();
+        sent.add(future);
+        return future;
+    };
+
+    private static ExchangeRequest request(String method) {
+        return new ExchangeRequest(method, URI.create("http://localhost/resource"), TYPE, Map.of());
+    }
+
+    private static ExchangeResponse<String> response(String body) {
+        return new ExchangeResponse<>(200, Map.of(), body, body.length());
+    }
+
+    private static HedgingPolicy policy() {
+        return new HedgingPolicy(95, Duration.ofMillis(1), Duration.ofMillis(20));
+    }
+
+    private void awaitSent(int count) throws InterruptedException {
+        for (int i = 0; i < 100 && sent.size() < count; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, sent.size());
+    }
+
+    @Test
+    void testHedgeWins() throws Exception {
+        HedgingPolicy policy = policy();
+        var future = policy.exchange(request("GET"), handler);
+        awaitSent(2);
+        sent.get(1).complete(response("Hedge"));
+        assertEquals("Hedge", future.orTimeout(1, SECONDS).join().getBody());
+        assertTrue(sent.get(0).isCancelled());
+        assertEquals(1, policy.getHedged());
+        assertEquals(1, policy.getHedgeWins());
+    }
+
+    @Test
+    void testDelayWhenHedgeWins() throws Exception {
+        // The first attempts never respond while the hedged ones respond immediately
+        HedgingPolicy policy = policy().withBudget(null);
+        AtomicInteger calls = new AtomicInteger();
+        ExchangeHandler<String> slowFirst = request -> calls.getAndIncrement() % 2 == 0
+                ? new CompletableFuture<>()
+                : CompletableFuture.completedFuture(response("Hedge"));
+        for (int i = 0; i < 20; i++) {
+            assertEquals("Hedge", policy.exchange(request("GET"), slowFirst).orTimeout(1, SECONDS).join().getBody());
+        }
+        // The latency is recorded once the response is given
+        for (int i = 0; i < 100 && policy.getHedgeWins() < 20; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(20, policy.getHedgeWins());
+        assertEquals(Duration.ofMillis(20), policy.getDelay());
+    }
+
+    @Test
+    void testOwnRequests() throws Exception {
+        List<ExchangeRequest> requests = new CopyOnWriteArrayList<>();
+        ExchangeRequest request = request("GET");
+        policy().exchange(request, attempt -> {
+            requests.add(attempt.setHeader("Attempt", String.valueOf(requests.size())));
+            return handler.exchange(attempt);
+        });
+        awaitSent(2);
+        assertEquals("0", requests.get(0).getHeader("Attempt"));
+        assertEquals("1", requests.get(1).getHeader("Attempt"));
+        assertNull(request.getHeader("Attempt"));
+    }
+
+    @Test
+    void testFastResponse() throws Exception {
+        HedgingPolicy policy = policy();
+        var future = policy.exchange(request("GET"), handler);
+        sent.get(0).complete(response("First"));
+        assertEquals("First", future.join().getBody());
+        Thread.sleep(50);
+        assertEquals(1, sent.size());
+        assertEquals(0, policy.getHedged());
+    }
+
+    @Test
+    void testFailures() throws Exception {
+        var future = policy().exchange(request("GET"), handler);
+        awaitSent(2);
+        sent.get(0).completeExceptionally(new ResponseException(503, "First"));
+        assertFalse(future.isDone());
+        sent.get(1).completeExceptionally(new ResponseException(503, "Hedge"));
+        assertTrue(future.isCompletedExceptionally());
+
+        policy().exchange(request("POST"), handler);
+        Thread.sleep(50);
+        assertEquals(3, sent.size());
+    }
+
+    @Test
+    void testBudget() throws Exception {
+        HedgingPolicy policy = policy().withBudget(new RetryBudget(0.1, 1));
+        policy.exchange(request("GET"), handler);
+        policy.exchange(request("GET"), handler);
+        Thread.sleep(100);
+        assertEquals(3, sent.size());
+        assertEquals(1, policy.getHedged());
+    }
+
+    @Test
+    void testPercentileDelay() {
+        HedgingPolicy policy = new HedgingPolicy(90, Duration.ofMillis(1), Duration.ofSeconds(1));
+        assertEquals(Duration.ofSeconds(1), policy.getDelay());
+        for (int i = 1; i <= 20; i++) {
+            CompletableFuture<ExchangeResponse<String>> done = CompletableFuture.completedFuture(response("Value"));
+            policy.exchange(request("GET"), request -> done).join();
+        }
+        assertTrue(policy.getDelay().compareTo(Duration.ofMillis(1)) >= 0);
+        assertTrue(policy.getDelay().compareTo(Duration.ofMillis(100)) < 0);
+    }
+
+}
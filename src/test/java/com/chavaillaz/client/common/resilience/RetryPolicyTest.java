@@ -0,0 +1,144 @@
+package com.chavaillaz.client.common.resilience;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.chavaillaz.client.common.exception.RequestException;
+import com.chavaillaz.client.common.exception.ResponseException;
+import com.chavaillaz.client.common.exchange.ExchangeHandler;
+import com.chavaillaz.client.common.exchange.ExchangeRequest;
+import com.chavaillaz.client.common.exchange.ExchangeResponse;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.Test;
+
+class RetryPolicyTest {
+
+    private static final JavaType TYPE = new JsonMapper().constructType(String.class);
+    private static final long MILLISECOND = 1_000_000;
+
+    private final AtomicInteger sent = new AtomicInteger();
+
+    private static ExchangeRequest request(String method) {
+        return new ExchangeRequest(method, URI.create("http://localhost/resource"), TYPE, Map.of());
+    }
+
+    private static RetryPolicy policy() {
+        return new RetryPolicy(3, Duration.ofMillis(1), Duration.ofMillis(50));
+    }
+
+    private ExchangeHandler<String> handler(RuntimeException... failures) {
+        Deque<RuntimeException> remaining = new ArrayDeque<>(List.of(failures));
+        return request -> {
+            sent.incrementAndGet();
+            return remaining.isEmpty()
+                    ? CompletableFuture.completedFuture(new ExchangeResponse<>(200, Map.of(), "Value", 5))
+                    : CompletableFuture.failedFuture(remaining.poll());
+        };
+    }
+
+    @Test
+    void testTransientFailures() {
+        RetryPolicy policy = policy();
+        var handler = handler(new ResponseException(503, "Unavailable"), new RequestException("GET", "/resource", new IOException()));
+        assertEquals("Value", policy.exchange(request("GET"), handler).orTimeout(1, SECONDS).join().getBody());
+        assertEquals(3, sent.get());
+        assertEquals(2, policy.getRetries());
+    }
+
+    @Test
+    void testMaxAttempts() {
+        var handler = handler(new ResponseException(500, "1"), new ResponseException(500, "2"), new ResponseException(500, "3"));
+        var future = policy().exchange(request("GET"), handler).orTimeout(1, SECONDS);
+        var exception = assertThrows(CompletionException.class, future::join);
+        assertEquals("3", ((ResponseException) exception.getCause()).getBody());
+        assertEquals(3, sent.get());
+    }
+
+    @Test
+    void testDeadline() {
+        var request = request("GET");
+        request.setDeadline(Deadline.after(Duration.ZERO));
+        var exception = new ResponseException(503, "Unavailable");
+        assertEquals(-1, policy().nextDelay(request, exception, 1, 100 * MILLISECOND));
+        request.setDeadline(Deadline.after(Duration.ofSeconds(1)));
+        assertTrue(policy().nextDelay(request, exception, 1, 100 * MILLISECOND) > 0);
+    }
+
+    @Test
+    void testNotRetryable() {
+        assertTrue(policy().exchange(request("GET"), handler(new ResponseException(404, "Not found"))).isCompletedExceptionally());
+        assertTrue(policy().exchange(request("POST"), handler(new ResponseException(503, "Unavailable"))).isCompletedExceptionally());
+        assertEquals(2, sent.get());
+
+        var idempotent = request("POST").setHeader(RetryPolicy.HEADER_IDEMPOTENCY_KEY, "key");
+        assertEquals("Value", policy().exchange(idempotent, handler(new ResponseException(503, "Unavailable"))).orTimeout(1, SECONDS).join().getBody());
+        assertEquals(4, sent.get());
+    }
+
+    @Test
+    void testNotRepeatable() {
+        var request = request("GET");
+        request.setRepeatable(false);
+        assertTrue(policy().exchange(request, handler(new ResponseException(503, "Unavailable"))).isCompletedExceptionally());
+        assertEquals(1, sent.get());
+    }
+
+    @Test
+    void testDelay() {
+        RetryPolicy policy = new RetryPolicy(5, Duration.ofMillis(10), Duration.ofMillis(100)).withBudget(null);
+        RuntimeException exception = new ResponseException(503, "Unavailable");
+        long previous = 10 * MILLISECOND;
+        for (int attempt = 1; attempt < 5; attempt++) {
+            long delay = policy.nextDelay(request("GET"), exception, attempt, previous);
+            assertTrue(delay >= 10 * MILLISECOND && delay <= Math.min(100 * MILLISECOND, previous * 3));
+            previous = delay;
+        }
+        assertEquals(-1, policy.nextDelay(request("GET"), exception, 5, previous));
+    }
+
+    @Test
+    void testRetryAfter() {
+        RetryPolicy policy = new RetryPolicy(3, Duration.ofMillis(10), Duration.ofSeconds(5)).withBudget(null);
+        var shortDelay = new ResponseException(429, "Too many requests").withHeaders(Map.of("Retry-After", List.of("2")));
+        assertTrue(policy.nextDelay(request("GET"), shortDelay, 1, 0) >= 2000 * MILLISECOND);
+        var longDelay = new ResponseException(429, "Too many requests").withHeaders(Map.of("Retry-After", List.of("60")));
+        assertEquals(-1, policy.nextDelay(request("GET"), longDelay, 1, 0));
+    }
+
+    @Test
+    void testBudget() {
+        RetryBudget budget = new RetryBudget(0.5, 1);
+        RetryPolicy policy = policy().withBudget(budget);
+        var first = policy.exchange(request("GET"), handler(new ResponseException(503, "1")));
+        assertEquals("Value", first.orTimeout(1, SECONDS).join().getBody());
+        var second = policy.exchange(request("GET"), handler(new ResponseException(503, "2")));
+        assertTrue(second.isCompletedExceptionally());
+        assertEquals(1, budget.getExhausted());
+
+        policy.exchange(request("GET"), handler());
+        assertEquals(1, budget.getAvailable());
+    }
+
+    @Test
+    void testCancellation() {
+        CompletableFuture<ExchangeResponse<String>> attempt = new CompletableFuture<>();
+        var future = policy().exchange(request("GET"), request -> attempt);
+        future.cancel(true);
+        assertTrue(attempt.isCancelled());
+    }
+
+}
@@ -0,0 +1,126 @@
+package com.chavaillaz.client.common.tracing;
+
+import static com.chavaillaz.client.common.model.UserApi.newOpenTelemetry;
+import static io.opentelemetry.api.common.AttributeKey.longKey;
+import static io.opentelemetry.api.common.AttributeKey.stringKey;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.concurrent.CompletableFuture.failedFuture;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import com.chavaillaz.client.common.exception.ResponseException;
+import com.chavaillaz.client.common.exchange.ExchangeHandler;
+import com.chavaillaz.client.common.exchange.ExchangeRequest;
+import com.chavaillaz.client.common.exchange.ExchangeResponse;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import org.junit.jupiter.api.Test;
+
+class OpenTelemetryTracingTest {
+
+    private final InMemorySpanExporter exporter = InMemorySpanExporter.create();
+    private final OpenTelemetry openTelemetry = newOpenTelemetry(exporter);
+    private final OpenTelemetryTracing tracing = new OpenTelemetryTracing(openTelemetry);
+
+    private static ExchangeRequest request() {
+        ExchangeRequest request = new ExchangeRequest("GET", URI.create("http://localhost/users/john"), null, Map.of());
+        request.setRoute("/users/{id}");
+        return request;
+    }
+
+    private <T> CompletableFuture<ExchangeResponse<T>> send(ExchangeRequest request, ExchangeHandler<T> handler) {
+        return tracing.trace(request, next -> tracing.traceAttempt(next, handler));
+    }
+
+    @Test
+    void testUnknownRoute() {
+        ExchangeRequest request = new ExchangeRequest("GET", URI.create("http://localhost/users/john"), null, Map.of());
+        request.setRoute(ExchangeRequest.UNKNOWN_ROUTE);
+        send(request, next -> completedFuture(new ExchangeResponse<>(200, Map.of(), "Value", 5))).join();
+
+        SpanData span = exporter.getFinishedSpanItems().get(0);
+        assertEquals("GET", span.getName());
+        assertNull(span.getAttributes().get(stringKey("url.template")));
+    }
+
+    @Test
+    void testClientSpan() {
+        ExchangeRequest request = request();
+        Span parent = openTelemetry.getTracer("test").spanBuilder("parent").startSpan();
+        try (Scope scope = parent.makeCurrent()) {
+            send(request, next -> completedFuture(new ExchangeResponse<>(200, Map.of(), "Value", 5))).join();
+        }
+
+        List<SpanData> spans = exporter.getFinishedSpanItems();
+        assertEquals(1, spans.size());
+        SpanData span = spans.get(0);
+        assertEquals("GET /users/{id}", span.getName());
+        assertEquals(SpanKind.CLIENT, span.getKind());
+        assertEquals(parent.getSpanContext().getTraceId(), span.getTraceId());
+        assertEquals(parent.getSpanContext().getSpanId(), span.getParentSpanId());
+        assertEquals("http://localhost/users/john", span.getAttributes().get(stringKey("url.full")));
+        assertEquals("/users/{id}", span.getAttributes().get(stringKey("url.template")));
+        assertEquals(80, span.getAttributes().get(longKey("server.port")));
+        assertEquals(200, span.getAttributes().get(longKey("http.response.status_code")));
+        assertEquals(StatusCode.UNSET, span.getStatus().getStatusCode());
+        assertEquals("00-" + span.getTraceId() + "-" + span.getSpanId() + "-01", request.getHeader("traceparent"));
+    }
+
+    @Test
+    void testErrorSpan() {
+        CompletableFuture<ExchangeResponse<String>> future = send(request(), next ->
+                failedFuture(new ResponseException("GET", "http://localhost/users/john", 404, "Not found")));
+        assertThrows(CompletionException.class, future::join);
+
+        SpanData span = exporter.getFinishedSpanItems().get(0);
+        assertEquals(StatusCode.ERROR, span.getStatus().getStatusCode());
+        assertEquals(404, span.getAttributes().get(longKey("http.response.status_code")));
+        assertEquals("404", span.getAttributes().get(stringKey("error.type")));
+        assertEquals(1, span.getEvents().size());
+    }
+
+    @Test
+    void testAttempts() {
+        Span parent = openTelemetry.getTracer("test").spanBuilder("parent").startSpan();
+        try (Scope scope = parent.makeCurrent()) {
+            tracing.trace(request(), next -> tracing.<String>traceAttempt(next, attempt -> failedFuture(new IllegalStateException()))
+                    .exceptionallyCompose(e -> tracing.traceAttempt(next, attempt -> completedFuture(new ExchangeResponse<>(200, Map.of(), "Value", 5)))))
+                    .join();
+        }
+
+        List<SpanData> spans = exporter.getFinishedSpanItems();
+        assertEquals(2, spans.size());
+        assertEquals(IllegalStateException.class.getName(), spans.get(0).getAttributes().get(stringKey("error.type")));
+        assertNull(spans.get(0).getAttributes().get(longKey("http.request.resend_count")));
+        assertEquals(1, spans.get(1).getAttributes().get(longKey("http.request.resend_count")));
+        assertEquals(parent.getSpanContext().getSpanId(), spans.get(0).getParentSpanId());
+        assertEquals(parent.getSpanContext().getSpanId(), spans.get(1).getParentSpanId());
+    }
+
+    @Test
+    void testContinuationContext() {
+        CompletableFuture<ExchangeResponse<String>> response = new CompletableFuture<>();
+        Span parent = openTelemetry.getTracer("test").spanBuilder("parent").startSpan();
+        CompletableFuture<Span> continuation;
+        try (Scope scope = parent.makeCurrent()) {
+            continuation = send(request(), next -> response).thenApply(result -> Span.current());
+        }
+
+        // Completed from a thread without the context of the caller
+        new Thread(() -> response.complete(new ExchangeResponse<>(200, Map.of(), "Value", 5))).start();
+        assertEquals(parent, continuation.join());
+    }
+
+}
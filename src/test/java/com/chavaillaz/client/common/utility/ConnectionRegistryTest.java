@@ -0,0 +1,54 @@
+package com.chavaillaz.client.common.utility;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class ConnectionRegistryTest {
+
+    @Test
+    void testSharedUntilReleased() {
+        List<Object> closed = new ArrayList<>();
+        ConnectionRegistry<Object> registry = new ConnectionRegistry<>(closed::add);
+        Object first = registry.acquire(ConnectionConfiguration.http2(), Object::new);
+        Object second = registry.acquire(ConnectionConfiguration.http2(), Object::new);
+        Object other = registry.acquire(ConnectionConfiguration.http2().withMaxConcurrentStreams(10), Object::new);
+        assertSame(first, second);
+        assertNotSame(first, other);
+        assertEquals(2, registry.size());
+
+        assertTrue(registry.release(first));
+        assertEquals(List.of(), closed);
+        assertTrue(registry.release(second));
+        assertEquals(List.of(first), closed);
+        assertEquals(1, registry.size());
+
+        // A client released by all its users is created again when acquired
+        assertNotSame(first, registry.acquire(ConnectionConfiguration.http2(), Object::new));
+    }
+
+    @Test
+    void testNotShared() {
+        ConnectionRegistry<Object> registry = new ConnectionRegistry<>(client -> {
+            throw new IllegalStateException("Not shared");
+        });
+        assertFalse(registry.release(new Object()));
+    }
+
+    @Test
+    void testConfiguration() {
+        assertEquals(ConnectionConfiguration.http2(), ConnectionConfiguration.http2());
+        assertFalse(ConnectionConfiguration.http1().isHttp2());
+        assertTrue(ConnectionConfiguration.http2PriorKnowledge().isHttp2());
+        assertEquals(ConnectionConfiguration.Version.HTTP_2_PRIOR_KNOWLEDGE, ConnectionConfiguration.http2PriorKnowledge().getVersion());
+        assertEquals(1 << 20, ConnectionConfiguration.http2().withInitialWindowSize(1 << 20).getInitialWindowSize());
+    }
+
+}
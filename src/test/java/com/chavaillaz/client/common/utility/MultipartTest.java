@@ -0,0 +1,43 @@
+package com.chavaillaz.client.common.utility;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+
+import org.junit.jupiter.api.Test;
+
+class MultipartTest {
+
+    @Test
+    void testEncoding() {
+        Multipart multipart = new Multipart("boundary")
+                .addText("description", "Test")
+                .addBytes("file", "a\"b.txt", "Content".getBytes(UTF_8), "text/plain");
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        for (Multipart.Part part : multipart.getParts()) {
+            output.writeBytes(multipart.getHeader(part));
+            output.writeBytes(part.getContent());
+            output.writeBytes(multipart.getFooter());
+        }
+        output.writeBytes(multipart.getEnd());
+
+        String expected = """
+                --boundary\r
+                Content-Disposition: form-data; name="description"\r
+                \r
+                Test\r
+                --boundary\r
+                Content-Disposition: form-data; name="file"; filename="a%22b.txt"\r
+                Content-Type: text/plain\r
+                \r
+                Content\r
+                --boundary--\r
+                """;
+        assertEquals(expected, output.toString(UTF_8));
+        assertEquals(output.size(), multipart.getContentLength());
+        assertEquals("multipart/form-data; boundary=boundary", multipart.getContentType());
+    }
+
+}
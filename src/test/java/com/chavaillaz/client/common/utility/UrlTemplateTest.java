@@ -0,0 +1,63 @@
+package com.chavaillaz.client.common.utility;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class UrlTemplateTest {
+
+    @Test
+    void testPositional() {
+        UrlTemplate template = UrlTemplate.of("/users/{0}/groups/{1}?page={0}");
+        assertEquals("/users/john/groups/1234?page=john", template.expand("john", 1234));
+        assertEquals(List.of("0", "1"), template.getParameters());
+    }
+
+    @Test
+    void testNamed() {
+        UrlTemplate template = UrlTemplate.of("/users/{user}/groups/{group}");
+        assertEquals("/users/john/groups/42", template.expand("john", 42));
+        assertEquals("/users/john/groups/42", template.expand(Map.of("group", 42, "user", "john")));
+    }
+
+    @Test
+    void testEncoding() {
+        UrlTemplate template = UrlTemplate.of("/search/{0}?query={1}");
+        assertEquals("/search/a%2Fb?query=%C3%A9t%C3%A9%20%26%20x%3D1", template.expand("a/b", "été & x=1"));
+        assertEquals("/search/?query=-._~", template.expand(null, "-._~"));
+    }
+
+    @Test
+    void testReserved() {
+        UrlTemplate template = UrlTemplate.of("/files/{+path}{+query}");
+        assertEquals("/files/a/b%20c?x=1&y=2", template.expand("a/b c", "?x=1&y=2"));
+        assertEquals("/files/a%25", template.expand("a%25", ""));
+    }
+
+    @Test
+    void testResolve() {
+        assertEquals("http://host/api/users/j%20d", UrlTemplate.of("/users/{0}").resolve("http://host/api", "j d"));
+        assertEquals("http://host/api/users/42", UrlTemplate.of("/users/{id}").resolve("http://host/api", Map.of("id", 42)));
+        assertEquals("https://other/users/42", UrlTemplate.of("https://other/users/{0}").resolve("http://host/api", 42));
+    }
+
+    @Test
+    void testCache() {
+        assertSame(UrlTemplate.of("/cached/{0}"), UrlTemplate.of("/cached/{0}"));
+    }
+
+    @Test
+    void testInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> UrlTemplate.of("/users/{0"));
+        assertThrows(IllegalArgumentException.class, () -> UrlTemplate.of("/users/{a b}"));
+        assertThrows(IllegalArgumentException.class, () -> UrlTemplate.of("/users/{0,number,#}"));
+        assertThrows(IllegalArgumentException.class, () -> UrlTemplate.of("/users/{0}/{1}").expand("john"));
+        assertThrows(IllegalArgumentException.class, () -> UrlTemplate.of("/users/{id}").expand(Map.of()));
+    }
+
+}
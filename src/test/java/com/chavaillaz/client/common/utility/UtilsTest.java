@@ -4,20 +4,30 @@ import static com.chavaillaz.client.common.utility.Utils.encodeBase64;
 import static com.chavaillaz.client.common.utility.Utils.encodeQuery;
 import static com.chavaillaz.client.common.utility.Utils.getCookieHeader;
 import static com.chavaillaz.client.common.utility.Utils.getProperty;
+import static com.chavaillaz.client.common.utility.Utils.getRetryAfter;
+import static com.chavaillaz.client.common.utility.Utils.isTransportFailure;
 import static com.chavaillaz.client.common.utility.Utils.readInputStream;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.ConnectException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Map;
 import java.util.Optional;
 import java.util.TreeMap;
+import java.util.concurrent.CompletionException;
 import java.util.function.BiConsumer;
 
+import com.chavaillaz.client.common.exception.DeserializationException;
+import com.chavaillaz.client.common.exception.RequestException;
+import com.chavaillaz.client.common.exception.ResponseException;
 import com.chavaillaz.client.common.security.Authentication;
 import org.junit.jupiter.api.Test;
 
@@ -75,4 +85,23 @@ class UtilsTest {
         assertEquals("Value", getProperty("Unknown", "Value"));
     }
 
+    @Test
+    void testGetRetryAfter() {
+        Instant now = Instant.parse("2024-01-01T10:00:00Z");
+        assertEquals(Optional.of(Duration.ofSeconds(120)), getRetryAfter("120", now));
+        assertEquals(Optional.of(Duration.ofSeconds(30)), getRetryAfter("Mon, 01 Jan 2024 10:00:30 GMT", now));
+        assertEquals(Optional.of(Duration.ZERO), getRetryAfter("Mon, 01 Jan 2024 09:00:00 GMT", now));
+        assertEquals(Optional.empty(), getRetryAfter("soon", now));
+        assertEquals(Optional.empty(), getRetryAfter(null, now));
+    }
+
+    @Test
+    void testIsTransportFailure() {
+        assertTrue(isTransportFailure(new RequestException("GET", "/user", new IOException())));
+        assertTrue(isTransportFailure(new CompletionException(new ConnectException("Connection refused"))));
+        assertFalse(isTransportFailure(new CompletionException(new ResponseException(503, "Unavailable"))));
+        assertFalse(isTransportFailure(new DeserializationException("{", Object.class, new IOException("Unexpected end"))));
+        assertFalse(isTransportFailure(new IllegalStateException()));
+    }
+
 }
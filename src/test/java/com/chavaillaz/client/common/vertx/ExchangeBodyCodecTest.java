@@ -0,0 +1,55 @@
+package com.chavaillaz.client.common.vertx;
+
+import static io.vertx.core.buffer.Buffer.buffer;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.chavaillaz.client.common.exchange.ExchangeStatistics;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.ext.web.codec.spi.BodyStream;
+import org.junit.jupiter.api.Test;
+
+class ExchangeBodyCodecTest {
+
+    private static BodyStream<Buffer> create(ExchangeBodyCodec codec) {
+        AtomicReference<BodyStream<Buffer>> stream = new AtomicReference<>();
+        codec.create(result -> stream.set(result.result()));
+        return stream.get();
+    }
+
+    @Test
+    void testReceiveBody() {
+        ExchangeStatistics statistics = new ExchangeStatistics(0);
+        BodyStream<Buffer> stream = create(new ExchangeBodyCodec(statistics, null));
+        stream.write(buffer("Hello "));
+        stream.write(buffer("World"));
+        stream.end();
+        assertEquals("Hello World", stream.result().result().toString());
+        assertTrue(statistics.getFirstByteNanos() >= 0);
+    }
+
+    @Test
+    void testCancelWhileReceiving() {
+        ExchangeBodyCodec codec = new ExchangeBodyCodec(new ExchangeStatistics(0), null);
+        BodyStream<Buffer> stream = create(codec);
+        stream.write(buffer("Hello "));
+        codec.cancel();
+        stream.write(buffer("World"));
+        stream.end();
+        assertInstanceOf(CancellationException.class, stream.result().cause());
+    }
+
+    @Test
+    void testCancelBeforeResponse() {
+        ExchangeBodyCodec codec = new ExchangeBodyCodec(new ExchangeStatistics(0), null);
+        codec.cancel();
+        BodyStream<Buffer> stream = create(codec);
+        assertTrue(stream.result().failed());
+        assertInstanceOf(CancellationException.class, stream.result().cause());
+    }
+
+}
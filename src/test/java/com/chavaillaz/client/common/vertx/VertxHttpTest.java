@@ -1,18 +1,100 @@
 package com.chavaillaz.client.common.vertx;
 
+import static com.chavaillaz.client.common.model.UserApi.URL_USER;
+import static com.chavaillaz.client.common.model.UserApi.closedPortUrl;
+import static com.chavaillaz.client.common.model.UserApi.newOpenTelemetry;
+import static com.chavaillaz.client.common.model.UserApi.newUser;
+import static com.chavaillaz.client.common.model.UserApi.requestProtocols;
+import static com.chavaillaz.client.common.model.UserApi.stubForCache;
+import static com.chavaillaz.client.common.model.UserApi.stubForCbor;
+import static com.chavaillaz.client.common.model.UserApi.stubForCompression;
+import static com.chavaillaz.client.common.model.UserApi.stubForDeadline;
+import static com.chavaillaz.client.common.model.UserApi.stubForHedging;
+import static com.chavaillaz.client.common.model.UserApi.stubForRateLimit;
+import static com.chavaillaz.client.common.model.UserApi.stubForRetry;
+import static com.chavaillaz.client.common.model.UserApi.stubForUnavailable;
 import static com.chavaillaz.client.common.model.UserApi.stubForUserApi;
+import static com.chavaillaz.client.common.model.UserApi.verifyCache;
+import static com.chavaillaz.client.common.model.UserApi.verifyCbor;
+import static com.chavaillaz.client.common.model.UserApi.verifyCompression;
+import static com.chavaillaz.client.common.model.UserApi.verifyCreation;
+import static com.chavaillaz.client.common.model.UserApi.verifyDeadline;
+import static com.chavaillaz.client.common.model.UserApi.verifyHedging;
+import static com.chavaillaz.client.common.model.UserApi.verifyInterceptor;
+import static com.chavaillaz.client.common.model.UserApi.verifyRateLimit;
+import static com.chavaillaz.client.common.model.UserApi.verifyRetry;
+import static com.chavaillaz.client.common.model.UserApi.verifyStreamInterceptor;
+import static com.chavaillaz.client.common.model.UserApi.verifyTracing;
+import static com.chavaillaz.client.common.model.UserApi.verifyUnavailable;
+import static com.chavaillaz.client.common.model.UserApi.verifyUpload;
 import static com.chavaillaz.client.common.vertx.VertxUtils.defaultWebClientOptions;
+import static com.chavaillaz.client.common.vertx.VertxUtils.sharedWebClient;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static io.opentelemetry.api.common.AttributeKey.longKey;
+import static io.vertx.core.http.HttpMethod.GET;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.stream.Collectors.toList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Stream;
+
+import com.chavaillaz.client.common.cache.MemoryCacheStore;
+import com.chavaillaz.client.common.cache.ResponseCache;
+import com.chavaillaz.client.common.codec.JacksonCodec;
+import com.chavaillaz.client.common.compression.Compression;
+import com.chavaillaz.client.common.compression.ContentEncoding;
+import com.chavaillaz.client.common.concurrency.RateLimiter;
+import com.chavaillaz.client.common.exception.CircuitOpenException;
+import com.chavaillaz.client.common.exception.DeadlineExceededException;
+import com.chavaillaz.client.common.exception.LimitExceededException;
+import com.chavaillaz.client.common.exception.RequestException;
+import com.chavaillaz.client.common.exception.ResponseException;
+import com.chavaillaz.client.common.exchange.ExchangeHandler;
+import com.chavaillaz.client.common.exchange.ExchangeInterceptor;
+import com.chavaillaz.client.common.exchange.ExchangeRequest;
+import com.chavaillaz.client.common.exchange.ExchangeResponse;
+import com.chavaillaz.client.common.metrics.MetricsRecorder;
 import com.chavaillaz.client.common.model.User;
+import com.chavaillaz.client.common.model.UserApi;
+import com.chavaillaz.client.common.resilience.CircuitBreaker;
+import com.chavaillaz.client.common.resilience.HedgingPolicy;
+import com.chavaillaz.client.common.resilience.RetryPolicy;
 import com.chavaillaz.client.common.security.AnonymousAuthentication;
+import com.chavaillaz.client.common.tracing.OpenTelemetryTracing;
+import com.chavaillaz.client.common.utility.ConnectionConfiguration;
+import com.chavaillaz.client.common.utility.TransferStatistics;
 import com.github.tomakehurst.wiremock.junit5.WireMockRuntimeInfo;
 import com.github.tomakehurst.wiremock.junit5.WireMockTest;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.data.SpanData;
 import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpClientOptions;
 import io.vertx.ext.web.client.WebClient;
+import io.vertx.ext.web.client.WebClientOptions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 @WireMockTest
 class VertxHttpTest {
@@ -24,12 +106,327 @@ class VertxHttpTest {
 
     @Test
     void testVertx(WireMockRuntimeInfo wiremock) throws Exception {
-        WebClient client = WebClient.create(Vertx.vertx(), defaultWebClientOptions(null));
-        try (var api = new VertxHttpUserApi(client, wiremock.getHttpBaseUrl(), new AnonymousAuthentication())) {
+        Vertx vertx = Vertx.vertx();
+        WebClient client = WebClient.create(vertx, defaultWebClientOptions(null));
+        try (var api = new VertxHttpUserApi(vertx, client, wiremock.getHttpBaseUrl(), new AnonymousAuthentication())) {
             User user = api.getUser().join();
             assertNotNull(user);
             assertEquals("WireMock", user.getUsername());
         }
     }
 
+    @Test
+    void testVertxCbor(WireMockRuntimeInfo wiremock) throws Exception {
+        stubForCbor();
+        Vertx vertx = Vertx.vertx();
+        WebClient client = WebClient.create(vertx, defaultWebClientOptions(null));
+        try (var api = new VertxHttpUserApi(vertx, client, wiremock.getHttpBaseUrl(), new AnonymousAuthentication())) {
+            api.setCodec(JacksonCodec.cbor());
+            User user = api.getUser().join();
+            assertEquals("Binary", user.getUsername());
+            verifyCbor();
+        }
+    }
+
+    @Test
+    void testVertxBody(WireMockRuntimeInfo wiremock) throws Exception {
+        Vertx vertx = Vertx.vertx();
+        WebClient client = WebClient.create(vertx, defaultWebClientOptions(null));
+        try (var api = new VertxHttpUserApi(vertx, client, wiremock.getHttpBaseUrl(), new AnonymousAuthentication())) {
+            User user = api.createUser(newUser("Serialized")).join();
+            assertEquals("Created", user.getUsername());
+            verifyCreation("Serialized");
+        }
+    }
+
+    @Test
+    void testVertxCache(WireMockRuntimeInfo wiremock) throws Exception {
+        stubForCache();
+        Vertx vertx = Vertx.vertx();
+        WebClient client = WebClient.create(vertx, defaultWebClientOptions(null));
+        try (var api = new VertxHttpUserApi(vertx, client, wiremock.getHttpBaseUrl(), new AnonymousAuthentication())) {
+            api.setResponseCache(new ResponseCache(MemoryCacheStore.maximumEntries(10)));
+            for (int i = 0; i < 3; i++) {
+                assertEquals("Cached", api.getUser().join().getUsername());
+            }
+            verifyCache();
+        }
+    }
+
+    @Test
+    void testVertxRateLimit(WireMockRuntimeInfo wiremock) throws Exception {
+        stubForRateLimit();
+        Vertx vertx = Vertx.vertx();
+        WebClient client = WebClient.create(vertx, defaultWebClientOptions(null));
+        try (var api = new VertxHttpUserApi(vertx, client, wiremock.getHttpBaseUrl(), new AnonymousAuthentication())) {
+            api.setRateLimiter(new RateLimiter(100, 10, Duration.ofSeconds(1)));
+            var exceeded = assertThrows(CompletionException.class, () -> api.getUser().join());
+            assertEquals("60", ((ResponseException) exceeded.getCause()).getHeader("Retry-After"));
+            var rejected = assertThrows(CompletionException.class, () -> api.getUser().join());
+            assertInstanceOf(LimitExceededException.class, rejected.getCause());
+            verifyRateLimit();
+        }
+    }
+
+    @Test
+    void testVertxRetry(WireMockRuntimeInfo wiremock) throws Exception {
+        stubForRetry();
+        Vertx vertx = Vertx.vertx();
+        WebClient client = WebClient.create(vertx, defaultWebClientOptions(null));
+        try (var api = new VertxHttpUserApi(vertx, client, wiremock.getHttpBaseUrl(), new AnonymousAuthentication())) {
+            RetryPolicy retryPolicy = new RetryPolicy(3, Duration.ofMillis(10), Duration.ofSeconds(1));
+            api.setRetryPolicy(retryPolicy);
+            assertEquals("Retried", api.getUser().join().getUsername());
+            assertEquals(1, retryPolicy.getRetries());
+            verifyRetry();
+        }
+    }
+
+    @Test
+    void testVertxRetryConnectionFailure() throws Exception {
+        Vertx vertx = Vertx.vertx();
+        WebClient client = WebClient.create(vertx, defaultWebClientOptions(null));
+        try (var api = new VertxHttpUserApi(vertx, client, closedPortUrl(), new AnonymousAuthentication())) {
+            RetryPolicy retryPolicy = new RetryPolicy(3, Duration.ofMillis(10), Duration.ofSeconds(1));
+            api.setRetryPolicy(retryPolicy);
+            var failure = assertThrows(CompletionException.class, () -> api.getUser().join());
+            assertInstanceOf(RequestException.class, failure.getCause());
+            assertEquals(2, retryPolicy.getRetries());
+        }
+    }
+
+    @Test
+    void testVertxHostKey() throws Exception {
+        Vertx vertx = Vertx.vertx();
+        WebClient client = WebClient.create(vertx, defaultWebClientOptions(null));
+        List<String> hosts = new CopyOnWriteArrayList<>();
+        for (String baseUrl : List.of("https://api.example.com", "http://api.example.com", "https://api.example.com:8443")) {
+            try (var api = new VertxHttpUserApi(vertx, client, baseUrl, new AnonymousAuthentication())) {
+                api.addInterceptor(new ExchangeInterceptor() {
+
+                    @Override
+                    public <T> CompletableFuture<ExchangeResponse<T>> exchange(ExchangeRequest request, ExchangeHandler<T> handler) {
+                        // Completing the response without sending the request
+                        hosts.add(RateLimiter.BY_HOST.apply(request));
+                        return CompletableFuture.completedFuture(new ExchangeResponse<>(200, Map.of(), null, 0));
+                    }
+
+                });
+                api.getUser().get(1, SECONDS);
+            }
+        }
+        assertEquals(List.of("api.example.com", "api.example.com", "api.example.com:8443"), hosts);
+        vertx.close();
+    }
+
+    @Test
+    void testVertxHedging(WireMockRuntimeInfo wiremock) throws Exception {
+        stubForHedging();
+        Vertx vertx = Vertx.vertx();
+        WebClient client = WebClient.create(vertx, defaultWebClientOptions(null));
+        try (var api = new VertxHttpUserApi(vertx, client, wiremock.getHttpBaseUrl(), new AnonymousAuthentication())) {
+            HedgingPolicy hedgingPolicy = new HedgingPolicy(95, Duration.ofMillis(10), Duration.ofMillis(100));
+            api.setHedgingPolicy(hedgingPolicy);
+            assertEquals("Hedged", api.getUser().get(2, SECONDS).getUsername());
+            assertEquals(1, hedgingPolicy.getHedged());
+            verifyHedging();
+        }
+    }
+
+    @Test
+    void testVertxCircuitBreaker(WireMockRuntimeInfo wiremock) throws Exception {
+        stubForUnavailable();
+        Vertx vertx = Vertx.vertx();
+        WebClient client = WebClient.create(vertx, defaultWebClientOptions(null));
+        try (var api = new VertxHttpUserApi(vertx, client, wiremock.getHttpBaseUrl(), new AnonymousAuthentication())) {
+            api.setCircuitBreaker(new CircuitBreaker(50, Duration.ofMinutes(1)).withWindow(2, 2));
+            for (int i = 0; i < 2; i++) {
+                var failure = assertThrows(CompletionException.class, () -> api.getUser().join());
+                assertInstanceOf(ResponseException.class, failure.getCause());
+            }
+            var rejected = assertThrows(CompletionException.class, () -> api.getUser().join());
+            assertInstanceOf(CircuitOpenException.class, rejected.getCause());
+            verifyUnavailable(2);
+        }
+    }
+
+    @Test
+    void testVertxDeadline(WireMockRuntimeInfo wiremock) throws Exception {
+        stubForDeadline();
+        Vertx vertx = Vertx.vertx();
+        WebClient client = WebClient.create(vertx, defaultWebClientOptions(null));
+        try (var api = new VertxHttpUserApi(vertx, client, wiremock.getHttpBaseUrl(), new AnonymousAuthentication())) {
+            api.setDeadlineHeader("X-Request-Timeout");
+            var future = api.withDeadline(Duration.ofMillis(200), api::getUser);
+            var failure = assertThrows(ExecutionException.class, () -> future.get(1, SECONDS));
+            assertInstanceOf(DeadlineExceededException.class, failure.getCause());
+            verifyDeadline();
+        }
+    }
+
+    @Test
+    void testVertxMetrics(WireMockRuntimeInfo wiremock) throws Exception {
+        Vertx vertx = Vertx.vertx();
+        WebClient client = WebClient.create(vertx, defaultWebClientOptions(null));
+        try (var api = new VertxHttpUserApi(vertx, client, wiremock.getHttpBaseUrl(), new AnonymousAuthentication())) {
+            MetricsRecorder metrics = new MetricsRecorder();
+            api.setMetrics(metrics);
+            api.getUser().join();
+            api.getUser().join();
+            var route = metrics.getRoute("GET", URL_USER);
+            assertEquals(2, route.getRequests());
+            assertEquals(2, route.getStatusCount(2));
+            assertEquals(2, route.getFirstByte().getCount());
+            assertEquals(2, route.getDeserialization().getCount());
+            assertTrue(route.getResponseBytes() > 0);
+        }
+    }
+
+    @Test
+    void testVertxTracing(WireMockRuntimeInfo wiremock) throws Exception {
+        InMemorySpanExporter exporter = InMemorySpanExporter.create();
+        OpenTelemetry openTelemetry = newOpenTelemetry(exporter);
+        Vertx vertx = Vertx.vertx();
+        WebClient client = WebClient.create(vertx, defaultWebClientOptions(null));
+        try (var api = new VertxHttpUserApi(vertx, client, wiremock.getHttpBaseUrl(), new AnonymousAuthentication())) {
+            api.setTracing(new OpenTelemetryTracing(openTelemetry));
+            Span parent = openTelemetry.getTracer("test").spanBuilder("parent").startSpan();
+            CompletableFuture<Span> continuation;
+            try (Scope scope = parent.makeCurrent()) {
+                continuation = api.getUser().thenApply(user -> Span.current());
+            }
+            assertEquals(parent, continuation.get(1, SECONDS));
+            parent.end();
+            verifyTracing(parent.getSpanContext().getTraceId());
+
+            SpanData span = exporter.getFinishedSpanItems().get(0);
+            assertEquals("GET " + URL_USER, span.getName());
+            assertEquals(SpanKind.CLIENT, span.getKind());
+            assertEquals(parent.getSpanContext().getSpanId(), span.getParentSpanId());
+            assertEquals(200, span.getAttributes().get(longKey("http.response.status_code")));
+        }
+    }
+
+    @Test
+    void testVertxInterceptor(WireMockRuntimeInfo wiremock) throws Exception {
+        Vertx vertx = Vertx.vertx();
+        WebClient client = WebClient.create(vertx, defaultWebClientOptions(null));
+        try (var api = new VertxHttpUserApi(vertx, client, wiremock.getHttpBaseUrl(), new AnonymousAuthentication())) {
+            api.addAttemptInterceptor(UserApi::intercept);
+            assertEquals("WireMock", api.getUser().get(1, SECONDS).getUsername());
+            verifyInterceptor();
+        }
+    }
+
+    @Test
+    void testVertxStreamInterceptor(WireMockRuntimeInfo wiremock, @TempDir Path directory) throws Exception {
+        Vertx vertx = Vertx.vertx();
+        WebClient client = WebClient.create(vertx, defaultWebClientOptions(null));
+        try (var api = new VertxHttpUserApi(vertx, client, wiremock.getHttpBaseUrl(), new AnonymousAuthentication())) {
+            api.addAttemptInterceptor(UserApi::intercept);
+            try (Stream<User> users = api.getUsers().get(1, SECONDS)) {
+                assertEquals(2, users.count());
+            }
+            api.downloadUsers(directory.resolve("users.json")).get(1, SECONDS);
+            verifyStreamInterceptor();
+            // The requests already sent are not given to the interceptors
+            assertEquals("WireMock", api.handleAsync(api.requestBuilder(GET, URL_USER).send(), User.class).get(1, SECONDS).getUsername());
+            verify(0, getRequestedFor(urlEqualTo(URL_USER)).withHeader("X-Intercepted", equalTo("GET")));
+        }
+    }
+
+    @Test
+    void testVertxCompression(WireMockRuntimeInfo wiremock) throws Exception {
+        stubForCompression();
+        Vertx vertx = Vertx.vertx();
+        WebClient client = WebClient.create(vertx, defaultWebClientOptions(null));
+        try (var api = new VertxHttpUserApi(vertx, client, wiremock.getHttpBaseUrl(), new AnonymousAuthentication())) {
+            Compression compression = new Compression().withRequestEncoding(ContentEncoding.GZIP, 0);
+            api.setCompression(compression);
+            assertEquals("Compressed", api.getUser().get(1, SECONDS).getUsername());
+            assertEquals("Created", api.createUser(newUser("Compressed")).get(1, SECONDS).getUsername());
+            verifyCompression("Compressed");
+            assertTrue(compression.getRequestCompressedBytes() > 0);
+            assertTrue(compression.getRequestUncompressedBytes() > 0);
+            assertTrue(compression.getResponseCompressedBytes() > 0);
+            assertEquals(26 + 23, compression.getResponseUncompressedBytes());
+        }
+    }
+
+    @Test
+    void testVertxCompressionWithDecompression(WireMockRuntimeInfo wiremock) throws Exception {
+        stubForCompression();
+        Vertx vertx = Vertx.vertx();
+        WebClient client = WebClient.create(vertx, defaultWebClientOptions(null).setDecompressionSupported(true));
+        try (var api = new VertxHttpUserApi(vertx, client, wiremock.getHttpBaseUrl(), new AnonymousAuthentication())) {
+            Compression compression = new Compression();
+            api.setCompression(compression);
+            assertEquals("Compressed", api.getUser().get(1, SECONDS).getUsername());
+            // Decoded by Vert.x as it is received
+            assertEquals(0, compression.getResponseCompressedBytes());
+        }
+    }
+
+    @Test
+    void testVertxSharedHttp2(WireMockRuntimeInfo wiremock) throws Exception {
+        Vertx vertx = Vertx.vertx();
+        WebClient client = sharedWebClient(vertx, null, ConnectionConfiguration.http2PriorKnowledge());
+        try (var first = new VertxHttpUserApi(vertx, client, wiremock.getHttpBaseUrl(), new AnonymousAuthentication());
+             var second = new VertxHttpUserApi(vertx, sharedWebClient(vertx, null, ConnectionConfiguration.http2PriorKnowledge()), wiremock.getHttpBaseUrl(), new AnonymousAuthentication())) {
+            assertSame(first.client, second.client);
+            assertEquals("WireMock", first.getUser().get(1, SECONDS).getUsername());
+            assertEquals("Created", second.createUser(newUser("Shared")).get(1, SECONDS).getUsername());
+            assertEquals(List.of("HTTP/2.0", "HTTP/2.0"), requestProtocols());
+
+            // Releasing the shared client only once when closed several times
+            first.close();
+            first.close();
+            assertEquals(1, VertxUtils.SHARED_CLIENTS.size());
+        }
+        assertEquals(0, VertxUtils.SHARED_CLIENTS.size());
+    }
+
+    @Test
+    void testVertxKeepAlive() {
+        assertEquals(HttpClientOptions.DEFAULT_KEEP_ALIVE_TIMEOUT, defaultWebClientOptions(null).getKeepAliveTimeout());
+        assertEquals(HttpClientOptions.DEFAULT_HTTP2_KEEP_ALIVE_TIMEOUT, defaultWebClientOptions(null).getHttp2KeepAliveTimeout());
+        WebClientOptions options = defaultWebClientOptions(null, ConnectionConfiguration.http2().withKeepAliveTimeout(Duration.ofSeconds(10)));
+        assertEquals(10, options.getKeepAliveTimeout());
+        assertEquals(10, options.getHttp2KeepAliveTimeout());
+    }
+
+    @Test
+    void testVertxStream(WireMockRuntimeInfo wiremock) throws Exception {
+        Vertx vertx = Vertx.vertx();
+        WebClient client = WebClient.create(vertx, defaultWebClientOptions(null));
+        try (var api = new VertxHttpUserApi(vertx, client, wiremock.getHttpBaseUrl(), new AnonymousAuthentication());
+             Stream<User> users = api.getUsers().join()) {
+            assertEquals(List.of("First", "Second"), users.map(User::getUsername).collect(toList()));
+        }
+    }
+
+    @Test
+    void testVertxDownload(WireMockRuntimeInfo wiremock, @TempDir Path directory) throws Exception {
+        Vertx vertx = Vertx.vertx();
+        WebClient client = WebClient.create(vertx, defaultWebClientOptions(null));
+        try (var api = new VertxHttpUserApi(vertx, client, wiremock.getHttpBaseUrl(), new AnonymousAuthentication())) {
+            Path path = directory.resolve("users.json");
+            TransferStatistics statistics = api.downloadUsers(path).join();
+            assertEquals(Files.size(path), statistics.getBytes());
+            assertTrue(Files.readString(path).contains("Second"));
+        }
+    }
+
+    @Test
+    void testVertxUpload(WireMockRuntimeInfo wiremock, @TempDir Path directory) throws Exception {
+        Vertx vertx = Vertx.vertx();
+        WebClient client = WebClient.create(vertx, defaultWebClientOptions(null));
+        try (var api = new VertxHttpUserApi(vertx, client, wiremock.getHttpBaseUrl(), new AnonymousAuthentication())) {
+            Path path = Files.writeString(directory.resolve("users.json"), "[{\"username\": \"Uploaded\"}]");
+            User user = api.uploadUsers(path).join();
+            assertEquals("Uploaded", user.getUsername());
+            verifyUpload(Files.readString(path));
+        }
+    }
+
 }
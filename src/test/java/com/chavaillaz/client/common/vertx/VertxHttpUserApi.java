@@ -1,23 +1,56 @@
 package com.chavaillaz.client.common.vertx;
 
 import static io.vertx.core.http.HttpMethod.GET;
+import static io.vertx.core.http.HttpMethod.POST;
 
+import java.nio.file.Path;
 import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 import com.chavaillaz.client.common.model.User;
 import com.chavaillaz.client.common.model.UserApi;
 import com.chavaillaz.client.common.security.Authentication;
+import com.chavaillaz.client.common.utility.TransferStatistics;
+import io.vertx.core.Vertx;
+import io.vertx.core.file.OpenOptions;
 import io.vertx.ext.web.client.WebClient;
 
 public class VertxHttpUserApi extends AbstractVertxHttpClient implements UserApi {
 
-    protected VertxHttpUserApi(WebClient client, String baseUrl, Authentication authentication) {
+    private final Vertx vertx;
+
+    protected VertxHttpUserApi(Vertx vertx, WebClient client, String baseUrl, Authentication authentication) {
         super(client, baseUrl, authentication);
+        this.vertx = vertx;
     }
 
     @Override
     public CompletableFuture<User> getUser() {
-        return handleAsync(requestBuilder(GET, URL_USER).send(), User.class);
+        return sendAsync(requestBuilder(GET, URL_USER), User.class);
+    }
+
+    @Override
+    public CompletableFuture<Stream<User>> getUsers() {
+        return sendAsyncStream(requestBuilder(GET, URL_USERS), User.class);
+    }
+
+    @Override
+    public CompletableFuture<TransferStatistics> downloadUsers(Path path) {
+        OpenOptions options = new OpenOptions().setWrite(true).setCreate(true).setTruncateExisting(true);
+        return vertx.fileSystem().open(path.toString(), options)
+                .toCompletionStage()
+                .toCompletableFuture()
+                .thenCompose(file -> downloadAsync(requestBuilder(GET, URL_USERS), file));
+    }
+
+    @Override
+    public CompletableFuture<User> uploadUsers(Path path) {
+        return handleAsync(sendMultipart(requestBuilder(POST, URL_USERS), UserApi.uploadContent(path)), User.class);
+    }
+
+    @Override
+    public CompletableFuture<User> createUser(User user) {
+        return sendAsync(requestBuilder(POST, URL_USER), body(user), User.class);
     }
 
 }
@@ -22,4 +22,17 @@ class VertxInputStreamTest {
         }
     }
 
+    @Test
+    void testReadPartially() throws IOException {
+        Buffer buffer = buffer("Test");
+
+        try (VertxInputStream inputStream = new VertxInputStream(buffer)) {
+            byte[] bytes = new byte[4];
+            assertEquals(1, inputStream.read(bytes, 1, 1));
+            assertEquals('T', bytes[1]);
+            assertEquals(3, inputStream.read(bytes, 0, 4));
+            assertEquals(-1, inputStream.read(bytes, 0, 4));
+        }
+    }
+
 }